@@ -2,21 +2,28 @@ package com.github.neo.core;
 
 import com.alibaba.fastjson.JSON;
 import com.github.ontio.common.ErrorCode;
+import com.github.ontio.network.connect.JsonResponse;
+import com.github.ontio.network.connect.UrlConnectionTransport;
 import com.github.ontio.network.exception.RpcException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.HashMap;
 import java.util.Map;
 
 public class NeoRpc {
 
     private static Logger LOG = LoggerFactory.getLogger(NeoRpc.class);
+    private static final UrlConnectionTransport TRANSPORT = new UrlConnectionTransport();
+    private static volatile long maxResponseBytes = JsonResponse.DEFAULT_MAX_BYTES;
+
+    public static void setMaxResponseBytes(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes should be greater than 0");
+        }
+        maxResponseBytes = maxBytes;
+    }
 
     public static Object sendRawTransaction(String url,String sData) throws Exception {
         Object result = call(url,"sendrawtransaction", new Object[]{sData});
@@ -28,21 +35,15 @@ public class NeoRpc {
     }
     public static Object call(String url,String method, Object... params) throws RpcException, IOException {
         Map req = makeRequest(method, params);
-        Map response = (Map) send(url,req);
+        JsonResponse<Object> response = request(url, req);
         if (response == null) {
             throw new RpcException(0, ErrorCode.ConnectUrlErr(  url + "response is null. maybe is connect error"));
         }
-        else if (response.get("result")  != null) {
-            return response.get("result");
-        }
-        else if (response.get("Result")  != null) {
-            return response.get("Result");
-        }
-        else if (response.get("error") != null) {
-            throw new RpcException(0, JSON.toJSONString(response));
+        else if (response.getResult() != null) {
+            return response.getResult();
         }
         else {
-            throw new RpcException(0,JSON.toJSONString(response));
+            throw new RpcException(0, response.toString());
         }
     }
 
@@ -58,21 +59,17 @@ public class NeoRpc {
 
 
     public static Object send(String url,Object request) throws IOException {
+        JsonResponse<Object> response = request(url, request);
+        return response == null ? null : response.toMap();
+    }
+
+    /**
+     * the response is parsed from the connection as it arrives, result or Result
+     */
+    private static JsonResponse<Object> request(String url, Object request) {
         try {
-            HttpURLConnection connection = (HttpURLConnection)  new URL(url).openConnection();
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            try (OutputStreamWriter w = new OutputStreamWriter(connection.getOutputStream())) {
-                w.write(JSON.toJSONString(request));
-            }
-            try (InputStreamReader r = new InputStreamReader(connection.getInputStream())) {
-                StringBuffer temp = new StringBuffer();
-                int c = 0;
-                while ((c = r.read()) != -1) {
-                    temp.append((char) c);
-                }
-                return JSON.parseObject(temp.toString(), Map.class);
-            }
+            return TRANSPORT.post(url, null, JSON.toJSONString(request),
+                    in -> JsonResponse.read(in, Object.class, maxResponseBytes));
         } catch (IOException e) {
         }
         return null;
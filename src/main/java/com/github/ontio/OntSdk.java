@@ -33,9 +33,11 @@ import com.github.ontio.core.program.Program;
 import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.crypto.Digest;
 import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.network.connect.HttpTransport;
 import com.github.ontio.sdk.exception.SDKException;
 import com.github.ontio.sdk.manager.ConnectMgr;
 import com.github.ontio.sdk.manager.SignServer;
+import com.github.ontio.sdk.manager.TransactionVerifier;
 import com.github.ontio.sdk.manager.WalletMgr;
 import com.github.ontio.sidechain.SidechainVm;
 import com.github.ontio.smartcontract.NativeVm;
@@ -67,6 +69,7 @@ public class OntSdk {
     private NeoVm neovm = null;
     private WasmVm wasmvm = null;
     private SignServer signServer = null;
+    private TransactionVerifier transactionVerifier = null;
 
 
     private static OntSdk instance = null;
@@ -238,10 +241,29 @@ public class OntSdk {
         this.connRpc = new ConnectMgr(url, "rpc");
     }
 
+    public void setRpc(String url, HttpTransport transport) {
+        this.connRpc = new ConnectMgr(url, "rpc", transport);
+    }
+
+    /**
+     * rpc reads spread over several nodes, transactions are sent to the first one
+     */
+    public void setRpc(List<String> urls) {
+        this.connRpc = new ConnectMgr(urls, "rpc");
+    }
+
+    public void setRestful(List<String> urls) {
+        this.connRestful = new ConnectMgr(urls, "restful");
+    }
+
     public void setRestful(String url) {
         this.connRestful = new ConnectMgr(url, "restful");
     }
 
+    public void setRestful(String url, HttpTransport transport) {
+        this.connRestful = new ConnectMgr(url, "restful", transport);
+    }
+
     public void setWesocket(String url, Object lock) {
         connWebSocket = new ConnectMgr(url, "websocket", lock);
     }
@@ -363,13 +385,15 @@ public class OntSdk {
             throw new SDKException(ErrorCode.ParamErr("the number of transaction signatures should not be over 16"));
         }
         Sig[] sigs = new Sig[accounts.length];
+        // every account signs the same unsigned bytes, serialize and hash them once
+        byte[] hash = Digest.hash256(tx.getHashData());
         for (int i = 0; i < accounts.length; i++) {
             sigs[i] = new Sig();
             sigs[i].pubKeys = new byte[accounts[i].length][];
             sigs[i].sigData = new byte[accounts[i].length][];
             for (int j = 0; j < accounts[i].length; j++) {
                 sigs[i].M++;
-                byte[] signature = tx.sign(accounts[i][j], accounts[i][j].getSignatureScheme());
+                byte[] signature = accounts[i][j].generateSignature(hash, accounts[i][j].getSignatureScheme(), null);
                 sigs[i].pubKeys[j] = accounts[i][j].serializePublicKey();
                 sigs[i].sigData[j] = signature;
             }
@@ -427,40 +451,27 @@ public class OntSdk {
     }
 
     public boolean verifyTransaction(Transaction tx) {
-        try {
-            boolean result = true;
-            for (int i = 0; i < tx.sigs.length; i++) {
-                if (tx.sigs[i].M == 1) {
-                    if (tx.sigs[i].pubKeys.length != 1 || tx.sigs[i].sigData.length != 1) {
-                        throw new SDKException(ErrorCode.OtherError("index" + i + "pubKeys or sigData number != 1"));
-                    }
-                    Account account = new Account(false, tx.sigs[i].pubKeys[0]);
-                    boolean verify = account.verifySignature(Digest.hash256(tx.getHashData()), tx.sigs[i].sigData[0]);
-                    if (!verify) {
-                        return false;
-                    }
-                } else if (tx.sigs[i].M > 1) {
-                    int m = 0;
-                    for (int j = 0; j < tx.sigs[i].pubKeys.length; j++) {
-                        Account account = new Account(false, tx.sigs[i].pubKeys[j]);
-                        for (int k = 0; k < tx.sigs[i].sigData.length; k++) {
-                            boolean verify = account.verifySignature(Digest.hash256(tx.getHashData()), tx.sigs[i].sigData[k]);
-                            if (verify) {
-                                m++;
-                                break;
-                            }
-                        }
-                    }
-                    if (m < tx.sigs[i].M) {
-                        return false;
-                    }
-                }
-            }
-            return result;
-        } catch (Exception e) {
-            e.printStackTrace();
+        return getTransactionVerifier().verify(tx).isValid();
+    }
+
+    /**
+     * verify the signatures of many transactions in parallel
+     *
+     * @return one result per transaction, in the same order
+     */
+    public List<TransactionVerifier.Result> verifyTransactions(List<Transaction> txs) {
+        return getTransactionVerifier().verify(txs);
+    }
+
+    public synchronized TransactionVerifier getTransactionVerifier() {
+        if (transactionVerifier == null) {
+            transactionVerifier = new TransactionVerifier();
         }
-        return false;
+        return transactionVerifier;
+    }
+
+    public synchronized void setTransactionVerifier(TransactionVerifier transactionVerifier) {
+        this.transactionVerifier = transactionVerifier;
     }
 
     private void buildMap(Map map, Object ele) {
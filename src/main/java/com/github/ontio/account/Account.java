@@ -32,7 +32,6 @@ import org.bouncycastle.jcajce.provider.asymmetric.ec.BCECPublicKey;
 import org.bouncycastle.jcajce.spec.SM2ParameterSpec;
 import org.bouncycastle.jce.ECNamedCurveTable;
 import org.bouncycastle.jce.ECPointUtil;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
 import org.bouncycastle.jce.spec.ECNamedCurveSpec;
 import org.bouncycastle.util.Strings;
@@ -48,19 +47,29 @@ import java.security.*;
 import java.security.spec.*;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public class Account {
+    // curve parameters are immutable, converting them on every key costs more than the key
+    private static final ConcurrentHashMap<String, CurveSpec> CURVES = new ConcurrentHashMap<>();
+    private static volatile VerifiedSignatureCache verifiedSignatures;
+
+    static {
+        BouncyCastle.register();
+    }
+
     private KeyType keyType;
     private Object[] curveParams;
     private PrivateKey privateKey;
     private PublicKey publicKey;
     private Address addressU160;
     private SignatureScheme signatureScheme;
+    private byte[] publicKeyBytes;
+    private volatile FixedBaseSigner fixedBaseSigner;
 
     // create an account with the specified key type
     public Account(SignatureScheme scheme) throws Exception {
-        Security.addProvider(new BouncyCastleProvider());
         KeyPairGenerator gen;
         AlgorithmParameterSpec paramSpec;
         signatureScheme = scheme;
@@ -81,7 +90,7 @@ public class Account {
                 }
                 String curveName = (String) curveParams[0];
                 paramSpec = new ECGenParameterSpec(curveName);
-                gen = KeyPairGenerator.getInstance("EC", "BC");
+                gen = KeyPairGenerator.getInstance("EC", BouncyCastle.PROVIDER);
                 break;
             default:
                 //should not reach here
@@ -95,7 +104,6 @@ public class Account {
     }
 
     public Account(byte[] prikey, SignatureScheme scheme) throws Exception {
-        Security.addProvider(new BouncyCastleProvider());
         signatureScheme = scheme;
 
         if (scheme == SignatureScheme.SM3WITHSM2) {
@@ -110,10 +118,11 @@ public class Account {
             case SHA256WITHECDSA:
             case SM3WITHSM2:
                 BigInteger d = new BigInteger(1, prikey);
-                ECNamedCurveParameterSpec spec = ECNamedCurveTable.getParameterSpec((String) this.curveParams[0]);
-                ECParameterSpec paramSpec = new ECNamedCurveSpec(spec.getName(), spec.getCurve(), spec.getG(), spec.getN());
+                CurveSpec curve = curveSpec((String) this.curveParams[0]);
+                ECNamedCurveParameterSpec spec = curve.spec;
+                ECParameterSpec paramSpec = curve.paramSpec;
                 ECPrivateKeySpec priSpec = new ECPrivateKeySpec(d, paramSpec);
-                KeyFactory kf = KeyFactory.getInstance("EC", "BC");
+                KeyFactory kf = KeyFactory.getInstance("EC", BouncyCastle.PROVIDER);
                 this.privateKey = kf.generatePrivate(priSpec);
 
                 org.bouncycastle.math.ec.ECPoint Q = spec.getG().multiply(d).normalize();
@@ -133,7 +142,6 @@ public class Account {
 
     // construct an account from a serialized pubic key or private key
     public Account(boolean fromPrivate, byte[] pubkey) throws Exception {
-        Security.addProvider(new BouncyCastleProvider());
         if (fromPrivate) {
             //parsePrivateKey(data);
         } else {
@@ -254,6 +262,27 @@ public class Account {
         return privateKey;
     }
 
+    /**
+     * sign on precomputed generator tables with deterministic RFC 6979 nonces from now on,
+     * for long-lived accounts that sign often. Only SHA256WITHECDSA and SM3WITHSM2 keys.
+     */
+    public void enableFixedBaseSigning() throws Exception {
+        if (this.privateKey == null) {
+            throw new Exception(ErrorCode.WithoutPrivate);
+        }
+        if (signatureScheme != SignatureScheme.SHA256WITHECDSA && signatureScheme != SignatureScheme.SM3WITHSM2) {
+            throw new SDKException(ErrorCode.UnsupportedSignatureScheme + signatureScheme);
+        }
+        if (fixedBaseSigner == null) {
+            fixedBaseSigner = new FixedBaseSigner((String) curveParams[0],
+                    ((java.security.interfaces.ECPrivateKey) privateKey).getS());
+        }
+    }
+
+    public boolean isFixedBaseSigning() {
+        return fixedBaseSigner != null;
+    }
+
     public byte[] generateSignature(byte[] msg, SignatureScheme scheme, Object param) throws Exception {
         if (msg == null || msg.length == 0) {
             throw new Exception(ErrorCode.InvalidMessage);
@@ -270,19 +299,34 @@ public class Account {
             if (param instanceof String) {
                 paramSpec = new SM2ParameterSpec(Strings.toByteArray((String) param));
             } else if (param == null) {
-                paramSpec = new SM2ParameterSpec("1234567812345678".getBytes());
+                paramSpec = SignatureHandler.DEFAULT_SM2_PARAM;
             } else {
                 throw new Exception(ErrorCode.InvalidSM2Signature);
             }
         }
-        byte[] signature = new Signature(
-                signatureScheme,
-                paramSpec,
-                ctx.generateSignature(privateKey, msg, paramSpec)
-        ).toBytes();
+        FixedBaseSigner signer = fixedBaseSigner;
+        byte[] value;
+        if (signer != null) {
+            value = signer.generateSignature(signatureScheme, msg,
+                    paramSpec == null ? null : ((SM2ParameterSpec) paramSpec).getID());
+        } else {
+            value = ctx.generateSignature(privateKey, msg, paramSpec);
+        }
+        byte[] signature = new Signature(signatureScheme, paramSpec, value).toBytes();
         return signature;
     }
 
+    /**
+     * remember successful verifications of all accounts in the cache, null to stop
+     */
+    public static void setVerifiedSignatureCache(VerifiedSignatureCache cache) {
+        verifiedSignatures = cache;
+    }
+
+    public static VerifiedSignatureCache getVerifiedSignatureCache() {
+        return verifiedSignatures;
+    }
+
     public boolean verifySignature(byte[] msg, byte[] signature) throws Exception {
         if (msg == null || signature == null || msg.length == 0 || signature.length == 0) {
             throw new Exception(ErrorCode.AccountInvalidInput);
@@ -290,12 +334,35 @@ public class Account {
         if (this.publicKey == null) {
             throw new Exception(ErrorCode.AccountWithoutPublicKey);
         }
+        VerifiedSignatureCache cache = verifiedSignatures;
+        byte[] pubKey = cache == null ? null : publicKeyBytes();
+        if (pubKey != null) {
+            return cache.verify(pubKey, msg, signature, () -> verify(msg, signature));
+        }
+        return verify(msg, signature);
+    }
+
+    private boolean verify(byte[] msg, byte[] signature) throws Exception {
         Signature sig = new Signature(signature);
         SignatureHandler ctx = new SignatureHandler(keyType, sig.getScheme());
-        return ctx.verifySignature(publicKey, msg, sig.getValue());
+        return ctx.verifySignature(publicKey, msg, sig.getValue(), sig.getParam());
     }
 
     public byte[] serializePublicKey() {
+        byte[] encoded = publicKeyBytes();
+        return encoded == null ? null : encoded.clone();
+    }
+
+    private byte[] publicKeyBytes() {
+        byte[] encoded = publicKeyBytes;
+        if (encoded == null) {
+            encoded = encodePublicKey();
+            publicKeyBytes = encoded;
+        }
+        return encoded;
+    }
+
+    private byte[] encodePublicKey() {
         ByteArrayOutputStream bs = new ByteArrayOutputStream();
         BCECPublicKey pub = (BCECPublicKey) publicKey;
         try {
@@ -340,28 +407,26 @@ public class Account {
             case ECDSA:
                 this.keyType = KeyType.ECDSA;
                 this.curveParams = new Object[]{Curve.P256.toString()};
-                ECNamedCurveParameterSpec spec0 = ECNamedCurveTable.getParameterSpec(Curve.P256.toString());
-                ECParameterSpec param0 = new ECNamedCurveSpec(spec0.getName(), spec0.getCurve(), spec0.getG(), spec0.getN());
+                ECParameterSpec param0 = curveSpec(Curve.P256.toString()).paramSpec;
                 ECPublicKeySpec pubSpec0 = new ECPublicKeySpec(
                         ECPointUtil.decodePoint(
                                 param0.getCurve(),
                                 Arrays.copyOfRange(data, 0, data.length)),
                         param0);
-                KeyFactory kf0 = KeyFactory.getInstance("EC", "BC");
+                KeyFactory kf0 = KeyFactory.getInstance("EC", BouncyCastle.PROVIDER);
                 this.publicKey = kf0.generatePublic(pubSpec0);
                 break;
             case SM2:
 //                this.keyType = KeyType.fromLabel(data[0]);
                 Curve c = Curve.fromLabel(data[1]);
                 this.curveParams = new Object[]{c.toString()};
-                ECNamedCurveParameterSpec spec = ECNamedCurveTable.getParameterSpec(c.toString());
-                ECParameterSpec param = new ECNamedCurveSpec(spec.getName(), spec.getCurve(), spec.getG(), spec.getN());
+                ECParameterSpec param = curveSpec(c.toString()).paramSpec;
                 ECPublicKeySpec pubSpec = new ECPublicKeySpec(
                         ECPointUtil.decodePoint(
                                 param.getCurve(),
                                 Arrays.copyOfRange(data, 2, data.length)),
                         param);
-                KeyFactory kf = KeyFactory.getInstance("EC", "BC");
+                KeyFactory kf = KeyFactory.getInstance("EC", BouncyCastle.PROVIDER);
                 this.publicKey = kf.generatePublic(pubSpec);
                 break;
             default:
@@ -369,6 +434,10 @@ public class Account {
         }
     }
 
+    private static CurveSpec curveSpec(String name) {
+        return CURVES.computeIfAbsent(name, CurveSpec::new);
+    }
+
     public byte[] serializePrivateKey() throws Exception {
         switch (this.keyType) {
             case ECDSA:
@@ -488,7 +557,6 @@ public class Account {
         if (salt.length != 16) {
             throw new SDKException(ErrorCode.ParamError);
         }
-        Security.addProvider(new BouncyCastleProvider());
         byte[] derivedkey = SCrypt.generate(passphrase.getBytes(StandardCharsets.UTF_8), salt, N, r, p, dkLen);
         byte[] derivedhalf2 = new byte[32];
         byte[] iv = new byte[12];
@@ -520,7 +588,6 @@ public class Account {
         if (salt.length != 4) {
             throw new SDKException(ErrorCode.ParamError);
         }
-        Security.addProvider(new BouncyCastleProvider());
         byte[] encryptedkey = Base64.getDecoder().decode(encryptedPriKey);
 
         int N = n;
@@ -605,4 +672,14 @@ public class Account {
     public int hashCode() {
         return addressU160.hashCode();
     }
+
+    private static final class CurveSpec {
+        final ECNamedCurveParameterSpec spec;
+        final ECParameterSpec paramSpec;
+
+        CurveSpec(String name) {
+            spec = ECNamedCurveTable.getParameterSpec(name);
+            paramSpec = new ECNamedCurveSpec(spec.getName(), spec.getCurve(), spec.getG(), spec.getN());
+        }
+    }
 }
@@ -33,6 +33,8 @@ import com.github.ontio.sdk.exception.SDKException;
 public class Address extends UIntBase implements Comparable<Address> {
     public static final Address ZERO = new Address();
     public static final byte COIN_VERSION = 0x17;
+    private static volatile InternPool<Address> internPool;
+    private String base58;
 
     public Address() {
         this(null);
@@ -54,7 +56,7 @@ public class Address extends UIntBase implements Comparable<Address> {
             throw new IllegalArgumentException();
         }
         byte[] v = Helper.hexToBytes(value);
-        return new Address(v);
+        return intern(v);
 //        return new UInt160(Helper.reverse(v));
     }
 
@@ -62,6 +64,7 @@ public class Address extends UIntBase implements Comparable<Address> {
         try {
             Address v = parse(s);
             result.data_bytes = v.data_bytes;
+            result.changed();
             return true;
         } catch (Exception e) {
             return false;
@@ -89,19 +92,16 @@ public class Address extends UIntBase implements Comparable<Address> {
     }
 
     public static Address decodeBase58(String address) throws SDKException {
-        byte[] data = new byte[]{};
+        byte[] data = new byte[25];
         try{
-            data = Base58.decode(address);
+            Base58.decode(address, data);
         }catch (Exception e){
             throw new SDKException(ErrorCode.ParamError);
         }
-        if (data.length != 25) {
-            throw new SDKException(ErrorCode.ParamError);
-        }
         if (data[0] != COIN_VERSION) {
             throw new SDKException(ErrorCode.ParamError);
         }
-        byte[] checksum = Digest.sha256(Digest.sha256(data, 0, 21));
+        byte[] checksum = Digest.hash256(data, 0, 21);
         for (int i = 0; i < 4; i++) {
             if (data[data.length - 4 + i] != checksum[i]) {
                 throw new SDKException(ErrorCode.ParamError);
@@ -109,11 +109,43 @@ public class Address extends UIntBase implements Comparable<Address> {
         }
         byte[] buffer = new byte[20];
         System.arraycopy(data, 1, buffer, 0, 20);
-        return new Address(buffer);
+        Address result = intern(buffer);
+        if (result.base58 == null) {
+            result.base58 = address;
+        }
+        return result;
+    }
+
+    /**
+     * pool shared by parse, decodeBase58 and BinaryReader.readAddress, null to stop pooling
+     */
+    public static void setInternPool(InternPool<Address> pool) {
+        internPool = pool;
+    }
+
+    public static InternPool<Address> getInternPool() {
+        return internPool;
+    }
+
+    /**
+     * the pooled address for these bytes, a new one when no pool is set
+     */
+    public static Address intern(byte[] value) {
+        InternPool<Address> pool = internPool;
+        if (pool == null || value.length != 20) {
+            return new Address(value);
+        }
+        return pool.intern(value);
     }
 
     public static Address toScriptHash(byte[] script) {
-        return new Address(Digest.hash160(script));
+        return toScriptHash(script, 0, script.length);
+    }
+
+    public static Address toScriptHash(byte[] script, int offset, int length) {
+        byte[] hash = new byte[20];
+        Digest.hash160(script, offset, length, hash, 0);
+        return new Address(hash);
     }
 
     @Override
@@ -130,12 +162,24 @@ public class Address extends UIntBase implements Comparable<Address> {
     }
 
     public String toBase58() {
-        byte[] data = new byte[25];
+        String s = base58;
+        if (s != null) {
+            return s;
+        }
+        // version, the 20 bytes and the whole hash after them, of which 4 bytes are encoded
+        byte[] data = new byte[21 + 32];
         data[0] = COIN_VERSION;
-        System.arraycopy(toArray(), 0, data, 1, 20);
-        byte[] checksum = Digest.sha256(Digest.sha256(data, 0, 21));
-        System.arraycopy(checksum, 0, data, 21, 4);
-        return Base58.encode(data);
+        System.arraycopy(data_bytes, 0, data, 1, 20);
+        Digest.hash256(data, 0, 21, data, 21);
+        s = Base58.encode(data, 0, 25);
+        base58 = s;
+        return s;
+    }
+
+    @Override
+    protected void changed() {
+        super.changed();
+        base58 = null;
     }
 
 }
\ No newline at end of file
@@ -133,6 +133,7 @@ public class ErrorCode {
     //OntSdk Error
     public static String WebsocketNotInit = getError(58301, "OntSdk Error,websocket not init");
     public static String ConnRestfulNotInit = getError(58302, "OntSdk Error,connRestful not init");
+    public static String AsyncConnectorNotInit = getError(58303, "OntSdk Error,async connector not init");
 
 
     //abi error
@@ -96,24 +96,11 @@ public class Helper {
         if (value == null || value.length() == 0) {
             return new byte[0];
         }
-        if (value.length() % 2 == 1) {
-            throw new IllegalArgumentException();
-        }
-        byte[] result = new byte[value.length() / 2];
-        for (int i = 0; i < result.length; i++) {
-            result[i] = (byte) Integer.parseInt(value.substring(i * 2, i * 2 + 2), 16);
-        }
-        return result;
+        return HexCodec.decode(value);
     }
 
     public static String toHexString(byte[] value) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : value) {
-            int v = Byte.toUnsignedInt(b);
-            sb.append(Integer.toHexString(v >>> 4));
-            sb.append(Integer.toHexString(v & 0x0f));
-        }
-        return sb.toString();
+        return HexCodec.encode(value);
     }
 
     public static String reverse(String value) {
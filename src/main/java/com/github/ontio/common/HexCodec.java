@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.common;
+
+import java.util.Arrays;
+
+/**
+ * table driven hex encoding and decoding, lower case out, either case in. The
+ * offset variants write into buffers supplied by the caller and allocate nothing.
+ */
+public final class HexCodec {
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] ASCII = new byte[16];
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        for (int i = 0; i < 16; i++) {
+            ASCII[i] = (byte) DIGITS[i];
+        }
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            VALUES['a' + i] = (byte) (10 + i);
+            VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private HexCodec() {
+    }
+
+    public static String encode(byte[] src) {
+        return encode(src, 0, src.length);
+    }
+
+    public static String encode(byte[] src, int offset, int length) {
+        char[] out = new char[length * 2];
+        encode(src, offset, length, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * writes 2 * length chars into dst from dstOffset
+     */
+    public static void encode(byte[] src, int offset, int length, char[] dst, int dstOffset) {
+        for (int i = 0; i < length; i++) {
+            int v = src[offset + i] & 0xff;
+            dst[dstOffset++] = DIGITS[v >>> 4];
+            dst[dstOffset++] = DIGITS[v & 0x0f];
+        }
+    }
+
+    /**
+     * writes 2 * length ASCII bytes into dst from dstOffset, for output buffers
+     */
+    public static void encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        for (int i = 0; i < length; i++) {
+            int v = src[offset + i] & 0xff;
+            dst[dstOffset++] = ASCII[v >>> 4];
+            dst[dstOffset++] = ASCII[v & 0x0f];
+        }
+    }
+
+    public static byte[] decode(CharSequence src) {
+        if (src.length() % 2 == 1) {
+            throw new IllegalArgumentException("odd hex length " + src.length());
+        }
+        byte[] out = new byte[src.length() / 2];
+        decode(src, 0, src.length(), out, 0);
+        return out;
+    }
+
+    /**
+     * decodes length chars of src into length / 2 bytes of dst from dstOffset
+     */
+    public static void decode(CharSequence src, int offset, int length, byte[] dst, int dstOffset) {
+        if (length % 2 == 1) {
+            throw new IllegalArgumentException("odd hex length " + length);
+        }
+        for (int i = offset, end = offset + length; i < end; i += 2) {
+            dst[dstOffset++] = (byte) (value(src.charAt(i)) << 4 | value(src.charAt(i + 1)));
+        }
+    }
+
+    private static int value(char c) {
+        int v = c < 128 ? VALUES[c] : -1;
+        if (v < 0) {
+            throw new NumberFormatException("not a hex digit: " + c);
+        }
+        return v;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.common;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * bounded pool handing out one shared instance per value, so that scanning many
+ * blocks or events does not keep identical addresses and hashes apart. It is a
+ * direct mapped table: a slot holds the last value hashed to it and a colliding
+ * value replaces it, so memory stays at capacity entries whatever the input.
+ * The pool keeps its own copy of the bytes of every value it takes in, and
+ * UIntBase.toArray copies too, so a pooled instance cannot be changed from outside.
+ */
+public class InternPool<T extends UIntBase> {
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+    private final Function<byte[], T> factory;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     * @param factory  builds a value from bytes the pool keeps
+     */
+    public InternPool(int capacity, Function<byte[], T> factory) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("capacity out of range: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.factory = factory;
+    }
+
+    public static InternPool<Address> addresses(int capacity) {
+        return new InternPool<>(capacity, Address::new);
+    }
+
+    public static InternPool<UInt256> hashes(int capacity) {
+        return new InternPool<>(capacity, UInt256::new);
+    }
+
+    /**
+     * the pooled instance equal to value, pooled from a copy when it was not pooled yet
+     */
+    public T intern(T value) {
+        return intern(value.data_bytes);
+    }
+
+    /**
+     * the pooled instance for these bytes, made from a copy of them on a miss
+     */
+    public T intern(byte[] value) {
+        int slot = slot(value);
+        T pooled = slots.get(slot);
+        if (pooled != null && Arrays.equals(pooled.data_bytes, value)) {
+            hits.incrementAndGet();
+            return pooled;
+        }
+        misses.incrementAndGet();
+        T created = factory.apply(value.clone());
+        slots.set(slot, created);
+        return created;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    private int slot(byte[] value) {
+        int h = 0;
+        for (byte b : value) {
+            h = 31 * h + b;
+        }
+        h *= 0x9E3779B9;
+        return (h ^ h >>> 16) & mask;
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.ontio.common;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
 
 import java.util.HashMap;
 import java.util.List;
@@ -9,6 +10,8 @@ import java.util.Map;
 public class NotifyEventInfo {
     public List<Object> States;
     public String ContractAddress;
+    private Decoded decoded;
+
     public List<Object> getStates() {
         return States;
     }
@@ -25,6 +28,20 @@ public class NotifyEventInfo {
         ContractAddress = contractAddress;
     }
 
+    /**
+     * the ONT, ONG or OEP-4 transfer this notify carries, null for any other event.
+     * Decoded on first use and again only when States or ContractAddress change.
+     */
+    @JSONField(serialize = false)
+    public TransferEvent getTransfer() {
+        Decoded d = decoded;
+        if (d == null || d.states != States || d.contractAddress != ContractAddress) {
+            d = new Decoded(States, ContractAddress);
+            decoded = d;
+        }
+        return d.transfer;
+    }
+
     public String toJson(){
         Map map = new HashMap();
         map.put("States", States);
@@ -32,4 +49,15 @@ public class NotifyEventInfo {
         return JSON.toJSONString(map);
     }
 
+    private static final class Decoded {
+        final List<Object> states;
+        final String contractAddress;
+        final TransferEvent transfer;
+
+        Decoded(List<Object> states, String contractAddress) {
+            this.states = states;
+            this.contractAddress = contractAddress;
+            this.transfer = TransferEvent.decode(contractAddress, states);
+        }
+    }
 }
@@ -1,5 +1,9 @@
 package com.github.ontio.common;
 
+import com.alibaba.fastjson.annotation.JSONField;
+
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class SmartCodeEvent {
@@ -40,4 +44,21 @@ public class SmartCodeEvent {
         Notify = notify;
     }
 
+    /**
+     * the ONT, ONG and OEP-4 transfers of this transaction in notify order, fees included
+     */
+    @JSONField(serialize = false)
+    public List<TransferEvent> getTransfers() {
+        if (Notify == null || Notify.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<TransferEvent> transfers = new ArrayList<>(Notify.size());
+        for (NotifyEventInfo n : Notify) {
+            TransferEvent t = n.getTransfer();
+            if (t != null) {
+                transfers.add(t);
+            }
+        }
+        return transfers;
+    }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.common;
+
+import com.github.ontio.sdk.exception.SDKException;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * a transfer notify of ONT, ONG or an OEP-4 contract, decoded once from the
+ * event States. Native transfers carry base58 addresses and a number, OEP-4
+ * transfers hex encoded addresses and a little endian amount.
+ */
+public class TransferEvent {
+    public static final String ONT_CONTRACT = "0100000000000000000000000000000000000000";
+    public static final String ONG_CONTRACT = "0200000000000000000000000000000000000000";
+    private static final String TRANSFER = "transfer";
+    private static final String TRANSFER_HEX = "7472616e73666572";
+
+    public final String contractAddress;
+    public final Address from;
+    public final Address to;
+    public final BigInteger amount;
+
+    public TransferEvent(String contractAddress, Address from, Address to, BigInteger amount) {
+        this.contractAddress = contractAddress;
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+
+    public boolean isOnt() {
+        return ONT_CONTRACT.equals(contractAddress);
+    }
+
+    public boolean isOng() {
+        return ONG_CONTRACT.equals(contractAddress);
+    }
+
+    /**
+     * @return the transfer, or null when the notify is not a transfer. Other events
+     * are told apart by their name alone, nothing of them is decoded.
+     */
+    public static TransferEvent decode(String contractAddress, List<Object> states) {
+        if (states == null || states.size() != 4 || !(states.get(0) instanceof String)) {
+            return null;
+        }
+        String name = (String) states.get(0);
+        Object from = states.get(1);
+        Object to = states.get(2);
+        if (!(from instanceof String) || !(to instanceof String)) {
+            return null;
+        }
+        try {
+            if (TRANSFER.equals(name)) {
+                return new TransferEvent(contractAddress, Address.decodeBase58((String) from),
+                        Address.decodeBase58((String) to), amount(states.get(3), false));
+            }
+            if (TRANSFER_HEX.equals(name)) {
+                return new TransferEvent(contractAddress, Address.parse((String) from),
+                        Address.parse((String) to), amount(states.get(3), true));
+            }
+        } catch (SDKException | IllegalArgumentException e) {
+            // a contract of its own making that names an event transfer
+        }
+        return null;
+    }
+
+    private static BigInteger amount(Object value, boolean neoBytes) {
+        if (value instanceof BigInteger) {
+            return (BigInteger) value;
+        }
+        if (value instanceof Number) {
+            return BigInteger.valueOf(((Number) value).longValue());
+        }
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException();
+        }
+        String s = (String) value;
+        if (!neoBytes) {
+            return new BigInteger(s);
+        }
+        if (s.isEmpty()) {
+            return BigInteger.ZERO;
+        }
+        // little endian two's complement, turned around in place
+        byte[] b = HexCodec.decode(s);
+        for (int i = 0, j = b.length - 1; i < j; i++, j--) {
+            byte t = b[i];
+            b[i] = b[j];
+            b[j] = t;
+        }
+        return new BigInteger(b);
+    }
+
+    @Override
+    public String toString() {
+        return "TransferEvent{" + contractAddress + " " + from.toBase58() + " -> " + to.toBase58() + " " + amount + "}";
+    }
+}
@@ -25,6 +25,7 @@ package com.github.ontio.common;
  */
 public class UInt256 extends UIntBase implements Comparable<UInt256> {
     public static final UInt256 ZERO = new UInt256();
+    private static volatile InternPool<UInt256> internPool;
 
     public UInt256() {
         this(null);
@@ -47,13 +48,36 @@ public class UInt256 extends UIntBase implements Comparable<UInt256> {
         }
         byte[] v = Helper.hexToBytes(s);
 //        return new UInt256(v);
-        return new UInt256(Helper.reverse(v));
+        return intern(Helper.reverse(v));
+    }
+
+    /**
+     * pool shared by parse and BinaryReader.readUInt256, null to stop pooling
+     */
+    public static void setInternPool(InternPool<UInt256> pool) {
+        internPool = pool;
+    }
+
+    public static InternPool<UInt256> getInternPool() {
+        return internPool;
+    }
+
+    /**
+     * the pooled hash for these bytes, a new one when no pool is set
+     */
+    public static UInt256 intern(byte[] value) {
+        InternPool<UInt256> pool = internPool;
+        if (pool == null || value.length != 32) {
+            return new UInt256(value);
+        }
+        return pool.intern(value);
     }
 
     public static boolean tryParse(String s, UInt256 result) {
         try {
             UInt256 v = parse(s);
             result.data_bytes = v.data_bytes;
+            result.changed();
             return true;
         } catch (Exception e) {
             return false;
@@ -30,10 +30,13 @@ import java.util.Arrays;
 
 /**
  * Custom type base abstract class, it defines the storage and the serialization
- * and deserialization of actual data
+ * and deserialization of actual data. The string form is computed once, so
+ * toArray hands out a copy and the bytes of a (possibly pooled) instance stay
+ * as they are.
  */
 public abstract class UIntBase implements Serializable {
     protected byte[] data_bytes;
+    private String hex;
 
     protected UIntBase(int bytes, byte[] value) {
         if (value == null) {
@@ -66,9 +69,14 @@ public abstract class UIntBase implements Serializable {
         return ByteBuffer.wrap(data_bytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
     }
 
+    @Override
+    public int serializedSize() {
+        return data_bytes.length;
+    }
+
     @Override
     public byte[] toArray() {
-        return data_bytes;
+        return data_bytes.clone();
     }
 
     /**
@@ -78,12 +86,23 @@ public abstract class UIntBase implements Serializable {
      */
     @Override
     public String toString() {
-       // return Helper.toHexString(data_bytes);
-        return Helper.toHexString(Helper.reverse(data_bytes));
+        String s = hex;
+        if (s == null) {
+            s = Helper.toHexString(Helper.reverse(data_bytes));
+            hex = s;
+        }
+        return s;
     }
     @Override
     public String toHexString() {
-        return Helper.reverse(Helper.toHexString(toArray()));
+        return toString();
+    }
+
+    /**
+     * drops the cached string forms after data_bytes changed
+     */
+    protected void changed() {
+        hex = null;
     }
 
     @Override
@@ -94,5 +113,6 @@ public abstract class UIntBase implements Serializable {
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
         reader.read(data_bytes);
+        changed();
     }
 }
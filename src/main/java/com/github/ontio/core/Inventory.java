@@ -21,6 +21,9 @@ package com.github.ontio.core;
 
 import com.github.ontio.common.UInt256;
 import com.github.ontio.crypto.Digest;
+import com.github.ontio.io.ByteBufferWriter;
+
+import java.io.IOException;
 
 public abstract class Inventory implements Signable {
     //[NonSerialized]
@@ -28,11 +31,26 @@ public abstract class Inventory implements Signable {
     
     public UInt256 hash() {
         if (_hash == null) {
-			_hash = new UInt256(Digest.hash256(getHashData()));
+            byte[] hash = new byte[32];
+            hashUnsigned(hash);
+            _hash = new UInt256(hash);
         }
         return _hash;
     }
 
+    /**
+     * hash256 of the unsigned bytes into out, hashed in a pooled buffer rather than
+     * copied into an array of their own
+     */
+    protected void hashUnsigned(byte[] out) {
+        try (ByteBufferWriter writer = ByteBufferWriter.pooled()) {
+            serializeUnsigned(writer);
+            Digest.hash256(writer.toByteBuffer(), out, 0);
+        } catch (IOException ex) {
+            throw new UnsupportedOperationException(ex);
+        }
+    }
+
     public abstract InventoryType inventoryType();
 
     public abstract boolean verify();
@@ -25,9 +25,9 @@ import com.github.ontio.crypto.Digest;
 import com.github.ontio.crypto.SignatureScheme;
 import com.github.ontio.io.BinaryReader;
 import com.github.ontio.io.BinaryWriter;
+import com.github.ontio.io.ByteBufferWriter;
 import com.github.ontio.io.Serializable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 
@@ -39,13 +39,27 @@ public interface Signable extends Serializable {
 
     Address[] getAddressU160ForVerifying();
     
+    /**
+     * the exact number of bytes serializeUnsigned writes, or -1 when it is not known up front
+     */
+    default int unsignedSize() {
+    	return -1;
+    }
+
     default byte[] getHashData() {
-    	try (ByteArrayOutputStream ms = new ByteArrayOutputStream()) {
-	    	try (BinaryWriter writer = new BinaryWriter(ms)) {
-	            serializeUnsigned(writer);
-	            writer.flush();
-	            return ms.toByteArray();
-	        }
+    	int size = unsignedSize();
+    	if (size >= 0) {
+    		byte[] data = new byte[size];
+    		try {
+    			ByteBufferWriter.fill(data, 0, this::serializeUnsigned);
+    		} catch (IOException ex) {
+    			throw new UnsupportedOperationException(ex);
+    		}
+    		return data;
+    	}
+    	try (ByteBufferWriter writer = ByteBufferWriter.pooled()) {
+    		serializeUnsigned(writer);
+    		return writer.toArray();
     	} catch (IOException ex) {
     		throw new UnsupportedOperationException(ex);
     	}
@@ -46,16 +46,10 @@ public class Contract implements Serializable {
     }
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
-        try {
-            version = reader.readByte();
-            constracHash = reader.readSerializable(Address.class);
-            method = new String(reader.readVarBytes());
-            args = reader.readVarBytes();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        version = reader.readByte();
+        constracHash = reader.readAddress();
+        method = new String(reader.readVarBytes());
+        args = reader.readVarBytes();
 
     }
 
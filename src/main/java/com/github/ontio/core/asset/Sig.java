@@ -19,14 +19,17 @@
 
 package com.github.ontio.core.asset;
 
+import com.github.ontio.common.Common;
 import com.github.ontio.common.Helper;
 import com.github.ontio.core.program.Program;
 import com.github.ontio.core.program.ProgramInfo;
+import com.github.ontio.core.scripts.ScriptBuilder;
 import com.github.ontio.io.BinaryReader;
 import com.github.ontio.io.BinaryWriter;
 import com.github.ontio.io.Serializable;
 
 import java.io.IOException;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -66,6 +69,30 @@ public class Sig implements Serializable {
         }
 
     }
+    @Override
+    public int serializedSize() {
+        int invocation = 0;
+        for (byte[] sig : sigData) {
+            invocation += ScriptBuilder.pushByteArraySize(sig.length);
+        }
+        int size = BinaryWriter.varBytesSize(invocation);
+        if (pubKeys.length == 1) {
+            size += BinaryWriter.varBytesSize(ScriptBuilder.pushByteArraySize(pubKeys[0].length) + 1);
+        } else if (pubKeys.length > 1) {
+            // serialize leaves out a verification script it can not build
+            if (M <= 0 || M > pubKeys.length || pubKeys.length > Common.MULTI_SIG_MAX_PUBKEY_SIZE) {
+                return -1;
+            }
+            int verification = ScriptBuilder.pushIntegerSize(BigInteger.valueOf(M))
+                    + ScriptBuilder.pushIntegerSize(BigInteger.valueOf(pubKeys.length)) + 1;
+            for (byte[] pubKey : pubKeys) {
+                verification += ScriptBuilder.pushByteArraySize(pubKey.length);
+            }
+            size += BinaryWriter.varBytesSize(verification);
+        }
+        return size;
+    }
+
     public Object json() {
         Map json = new HashMap<>();
         json.put("M", M);
@@ -45,16 +45,10 @@ public class TransferFrom implements Serializable {
     }
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
-        try {
-            sender = reader.readSerializable(Address.class);
-            from = reader.readSerializable(Address.class);
-            to = reader.readSerializable(Address.class);
-            value = reader.readVarInt();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        sender = reader.readAddress();
+        from = reader.readAddress();
+        to = reader.readAddress();
+        value = reader.readVarInt();
     }
 
     @Override
@@ -31,9 +31,9 @@ import com.github.ontio.core.payload.InvokeCode;
 import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.io.BinaryReader;
 import com.github.ontio.io.BinaryWriter;
+import com.github.ontio.io.ByteBufferReader;
 import com.github.ontio.io.Serializable;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
@@ -108,25 +108,21 @@ public class Block extends Inventory {
 
     @Override
     public void deserializeUnsigned(BinaryReader reader) throws IOException {
-        try {
-            version = reader.readInt();
-            prevBlockHash = reader.readSerializable(UInt256.class);
-            transactionsRoot = reader.readSerializable(UInt256.class);
-            blockRoot = reader.readSerializable(UInt256.class);
-            timestamp = reader.readInt();
-            height = reader.readInt();
-            consensusData = Long.valueOf(reader.readLong());
-            consensusPayload = reader.readVarBytes();
-            nextBookkeeper = reader.readSerializable(Address.class);
-            int len = (int) reader.readVarInt();
-            bookkeepers = new byte[len][];
-            for (int i = 0; i < len; i++) {
-                this.bookkeepers[i] = reader.readVarBytes();
-            }
-            transactions = new Transaction[0];
-        } catch (InstantiationException | IllegalAccessException ex) {
-            throw new IOException(ex);
+        version = reader.readInt();
+        prevBlockHash = reader.readUInt256();
+        transactionsRoot = reader.readUInt256();
+        blockRoot = reader.readUInt256();
+        timestamp = reader.readInt();
+        height = reader.readInt();
+        consensusData = Long.valueOf(reader.readLong());
+        consensusPayload = reader.readVarBytes();
+        nextBookkeeper = reader.readAddress();
+        int len = (int) reader.readVarInt();
+        bookkeepers = new byte[len][];
+        for (int i = 0; i < len; i++) {
+            this.bookkeepers[i] = reader.readVarBytes();
         }
+        transactions = new Transaction[0];
     }
 
     @Override
@@ -146,6 +142,33 @@ public class Block extends Inventory {
         }
     }
 
+    @Override
+    public int unsignedSize() {
+        // version, three hashes, timestamp, height, consensus data and next bookkeeper
+        return 4 + 32 * 3 + 4 + 4 + 8 + BinaryWriter.varBytesSize(consensusPayload.length) + 20;
+    }
+
+    @Override
+    public int serializedSize() {
+        int size = unsignedSize() + BinaryWriter.varIntSize(bookkeepers.length);
+        for (byte[] bookkeeper : bookkeepers) {
+            size += BinaryWriter.varBytesSize(bookkeeper.length);
+        }
+        size += BinaryWriter.varIntSize(sigData.length);
+        for (String sig : sigData) {
+            size += BinaryWriter.varBytesSize(sig.length() / 2);
+        }
+        size += 4;
+        for (Transaction tx : transactions) {
+            int n = tx.serializedSize();
+            if (n < 0) {
+                return -1;
+            }
+            size += n;
+        }
+        return size;
+    }
+
     @Override
     public void serializeUnsigned(BinaryWriter writer) throws IOException {
         writer.writeInt(version);
@@ -230,20 +253,15 @@ public class Block extends Inventory {
 
     public static Block fromTrimmedData(byte[] data, int index, Function<UInt256, Transaction> txSelector) throws IOException {
         Block block = new Block();
-        try (ByteArrayInputStream ms = new ByteArrayInputStream(data, index, data.length - index)) {
-            try (BinaryReader reader = new BinaryReader(ms)) {
-                block.deserializeUnsigned(reader);
-                reader.readByte();
-                if (txSelector == null) {
-                    block.transactions = new Transaction[0];
-                } else {
-                    block.transactions = new Transaction[(int) reader.readVarInt(0x10000000)];
-                    for (int i = 0; i < block.transactions.length; i++) {
-                        block.transactions[i] = txSelector.apply(reader.readSerializable(UInt256.class));
-                    }
-                }
-            } catch (InstantiationException | IllegalAccessException ex) {
-                throw new IOException(ex);
+        BinaryReader reader = new ByteBufferReader(data, index, data.length - index);
+        block.deserializeUnsigned(reader);
+        reader.readByte();
+        if (txSelector == null) {
+            block.transactions = new Transaction[0];
+        } else {
+            block.transactions = new Transaction[(int) reader.readVarInt(0x10000000)];
+            for (int i = 0; i < block.transactions.length; i++) {
+                block.transactions[i] = txSelector.apply(reader.readUInt256());
             }
         }
         return block;
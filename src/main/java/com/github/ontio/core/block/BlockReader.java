@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.core.block;
+
+import com.github.ontio.io.ByteBufferReader;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * iterates the blocks of an archive written by BlockWriter: each record is a 4 byte
+ * little endian length followed by the block in its wire format. Only a window of
+ * the file is held at a time, read through a FileChannel or mapped into memory.
+ * The record, view and block handed out for one record are only valid until next().
+ */
+public class BlockReader implements Closeable {
+    private static final int DEFAULT_WINDOW = 1 << 20;
+    // refuses lengths no block can have, a corrupt prefix would otherwise size the window
+    private static final int MAX_RECORD = 1 << 28;
+
+    private final FileChannel channel;
+    private final boolean mapped;
+    private final int windowSize;
+    private ByteBuffer window;
+    // file offset of window index 0
+    private long windowOffset;
+    private int recordStart = -1;
+    private int recordLength;
+    private long recordOffset;
+    private long count;
+    private byte[] scratch = new byte[0];
+
+    private BlockReader(FileChannel channel, boolean mapped, int windowSize) {
+        this.channel = channel;
+        this.mapped = mapped;
+        this.windowSize = windowSize;
+        this.window = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * reads the archive through a heap window, the blocks are parsed in place
+     */
+    public static BlockReader open(Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW);
+    }
+
+    public static BlockReader open(Path path, int windowSize) throws IOException {
+        return new BlockReader(FileChannel.open(path, StandardOpenOption.READ), false, windowSize);
+    }
+
+    /**
+     * maps the archive window by window, archives larger than 2 GB are fine
+     */
+    public static BlockReader map(Path path) throws IOException {
+        return map(path, 64 * DEFAULT_WINDOW);
+    }
+
+    public static BlockReader map(Path path, int windowSize) throws IOException {
+        return new BlockReader(FileChannel.open(path, StandardOpenOption.READ), true, windowSize);
+    }
+
+    /**
+     * moves to the next record
+     *
+     * @return false at the end of the archive
+     * @throws EOFException if the archive ends inside a record
+     */
+    public boolean next() throws IOException {
+        if (recordStart >= 0) {
+            window.position(recordStart + recordLength);
+        }
+        recordStart = -1;
+        if (!fill(4)) {
+            // a mapped window can end right before the cut prefix, so ask the file
+            long position = windowOffset + window.position();
+            if (position < channel.size()) {
+                throw new EOFException("truncated length prefix at " + position);
+            }
+            return false;
+        }
+        int length = window.getInt();
+        if (length < 0 || length > MAX_RECORD) {
+            throw new IOException("bad record length " + length + " at " + (windowOffset + window.position() - 4));
+        }
+        if (!fill(length)) {
+            throw new EOFException("truncated block at " + (windowOffset + window.position()));
+        }
+        recordStart = window.position();
+        recordLength = length;
+        recordOffset = windowOffset + recordStart;
+        count++;
+        return true;
+    }
+
+    /**
+     * makes need bytes available from the window position on
+     */
+    private boolean fill(int need) throws IOException {
+        if (window.remaining() >= need) {
+            return true;
+        }
+        long position = windowOffset + window.position();
+        if (mapped) {
+            long size = Math.min(Math.max(windowSize, need), channel.size() - position);
+            if (size < need) {
+                return false;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(ByteOrder.LITTLE_ENDIAN);
+            windowOffset = position;
+            return true;
+        }
+        if (window.capacity() < need || window.capacity() < windowSize) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(need, windowSize)).order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(window);
+            grown.flip();
+            window = grown;
+        } else {
+            window.compact();
+            window.flip();
+        }
+        windowOffset = position;
+        while (window.remaining() < need) {
+            int start = window.limit();
+            window.limit(window.capacity());
+            window.position(start);
+            int read = channel.read(window);
+            window.limit(window.position());
+            window.position(0);
+            if (read < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void checkRecord() {
+        if (recordStart < 0) {
+            throw new IllegalStateException("no current record");
+        }
+    }
+
+    /**
+     * the current block bytes, read only
+     */
+    public ByteBuffer record() {
+        checkRecord();
+        ByteBuffer slice = window.duplicate();
+        slice.limit(recordStart + recordLength).position(recordStart);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    /**
+     * the current block as a lazily decoded view. With a FileChannel the view reads
+     * the window itself, with a mapping the block is copied into a reused buffer.
+     */
+    public BlockView view() throws IOException {
+        checkRecord();
+        if (window.hasArray()) {
+            return BlockView.parse(window.array(), window.arrayOffset() + recordStart, recordLength);
+        }
+        if (scratch.length < recordLength) {
+            scratch = new byte[Math.max(recordLength, scratch.length * 2)];
+        }
+        ByteBuffer slice = window.duplicate();
+        slice.position(recordStart);
+        slice.get(scratch, 0, recordLength);
+        return BlockView.parse(scratch, 0, recordLength);
+    }
+
+    /**
+     * the current block fully decoded, the Block owns its data
+     */
+    public Block block() throws IOException {
+        Block block = new Block();
+        block.deserialize(new ByteBufferReader(record()));
+        return block;
+    }
+
+    /**
+     * file offset of the current block, after its length prefix
+     */
+    public long offset() {
+        checkRecord();
+        return recordOffset;
+    }
+
+    public int length() {
+        checkRecord();
+        return recordLength;
+    }
+
+    /**
+     * number of records read so far
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.core.block;
+
+import com.github.ontio.common.Helper;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.core.transaction.TransactionType;
+import com.github.ontio.crypto.Digest;
+import com.github.ontio.io.ByteBufferReader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * lazily decoded block over its serialized bytes. The header is parsed right away,
+ * transactions are only located: each one is decoded when first asked for, and
+ * block and transaction hashes are computed from the bytes without decoding.
+ * The byte array is shared, not copied, and should not change while the view is used.
+ */
+public class BlockView {
+    // version, three hashes, timestamp, height and consensus data come before the payload
+    private static final int FIXED_HEADER = 4 + 32 * 3 + 4 + 4 + 8;
+
+    private final byte[] data;
+    private final int offset;
+    private final Block header;
+    private final int headerLength;
+    // start of each transaction, end of its unsigned part and end of the transaction
+    private final int[] txStart;
+    private final int[] txUnsignedEnd;
+    private final int[] txEnd;
+    private final boolean[] eip155;
+    private final Transaction[] transactions;
+    private final UInt256[] txHashes;
+    private int end;
+    private UInt256 hash;
+
+    private BlockView(byte[] data, int offset, Block header, int headerLength, int count) {
+        this.data = data;
+        this.offset = offset;
+        this.header = header;
+        this.headerLength = headerLength;
+        this.txStart = new int[count];
+        this.txUnsignedEnd = new int[count];
+        this.txEnd = new int[count];
+        this.eip155 = new boolean[count];
+        this.transactions = new Transaction[count];
+        this.txHashes = new UInt256[count];
+    }
+
+    public static BlockView parse(byte[] data) throws IOException {
+        return parse(data, 0, data.length);
+    }
+
+    public static BlockView parse(byte[] data, int offset, int length) throws IOException {
+        ByteBufferReader reader = new ByteBufferReader(data, offset, length);
+        reader.skip(FIXED_HEADER);
+        reader.skipVarBytes();
+        reader.skip(20);
+        int headerLength = reader.position();
+        reader.position(0);
+
+        Block header = new Block();
+        header.deserializeUnsigned(reader);
+        int len = (int) reader.readVarInt();
+        header.sigData = new String[len];
+        for (int i = 0; i < len; i++) {
+            header.sigData[i] = Helper.toHexString(reader.readVarBytes());
+        }
+        int count = reader.readInt();
+        if (count < 0 || count > reader.available()) {
+            throw new IOException("bad transaction count " + count);
+        }
+        BlockView view = new BlockView(data, offset, header, headerLength, count);
+        for (int i = 0; i < count; i++) {
+            view.txStart[i] = offset + reader.position();
+            TransactionType type = Transaction.skipUnsigned(reader);
+            view.txUnsignedEnd[i] = offset + reader.position();
+            if (type == TransactionType.EIP155) {
+                view.eip155[i] = true;
+            } else {
+                Transaction.skipSigs(reader);
+            }
+            view.txEnd[i] = offset + reader.position();
+        }
+        view.end = offset + reader.position();
+        return view;
+    }
+
+    /**
+     * @return the header, without transactions
+     */
+    public Block header() {
+        return header;
+    }
+
+    public int getHeight() {
+        return header.height;
+    }
+
+    public synchronized UInt256 hash() {
+        if (hash == null) {
+            hash = new UInt256(Digest.hash256(data, offset, headerLength));
+        }
+        return hash;
+    }
+
+    public int getTransactionCount() {
+        return txStart.length;
+    }
+
+    public synchronized UInt256 getTransactionHash(int i) throws IOException {
+        if (txHashes[i] == null) {
+            if (eip155[i]) {
+                txHashes[i] = getTransaction(i).hash();
+            } else {
+                txHashes[i] = new UInt256(Digest.hash256(data, txStart[i], txUnsignedEnd[i] - txStart[i]));
+            }
+        }
+        return txHashes[i];
+    }
+
+    /**
+     * @return the index of the transaction with this hash, -1 if it is not in the block
+     */
+    public int indexOf(UInt256 txHash) throws IOException {
+        for (int i = 0; i < txStart.length; i++) {
+            if (getTransactionHash(i).equals(txHash)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * the transaction decoded on first access
+     */
+    public synchronized Transaction getTransaction(int i) throws IOException {
+        if (transactions[i] == null) {
+            transactions[i] = Transaction.deserializeFrom(new ByteBufferReader(data, txStart[i], txEnd[i] - txStart[i]));
+        }
+        return transactions[i];
+    }
+
+    /**
+     * @return the serialized transaction as a view of the block bytes
+     */
+    public ByteBuffer getTransactionBytes(int i) {
+        return ByteBuffer.wrap(data, txStart[i], txEnd[i] - txStart[i]).slice();
+    }
+
+    /**
+     * @return a fully decoded block with every transaction
+     */
+    public Block toBlock() throws IOException {
+        Block block = new Block();
+        block.deserialize(new ByteBufferReader(data, offset, end - offset));
+        return block;
+    }
+}
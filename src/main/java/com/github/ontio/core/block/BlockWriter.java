@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.core.block;
+
+import com.github.ontio.common.HexCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * appends blocks to an archive read back by BlockReader, each one as a 4 byte little
+ * endian length followed by the block in its wire format. Writes go through one
+ * buffer that is flushed to the channel when full and on flush or close.
+ */
+public class BlockWriter implements Closeable {
+    private static final int DEFAULT_BUFFER = 1 << 20;
+
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private long count;
+
+    private BlockWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocate(bufferSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * appends to path, creating it when missing
+     */
+    public static BlockWriter open(Path path) throws IOException {
+        return open(path, DEFAULT_BUFFER);
+    }
+
+    public static BlockWriter open(Path path, int bufferSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return new BlockWriter(channel, bufferSize);
+    }
+
+    public void write(Block block) throws IOException {
+        write(block.toArray());
+    }
+
+    /**
+     * appends a block that is already serialized
+     */
+    public void write(byte[] block) throws IOException {
+        write(block, 0, block.length);
+    }
+
+    public void write(byte[] block, int offset, int length) throws IOException {
+        reserve(4 + length);
+        buffer.putInt(length);
+        buffer.put(block, offset, length);
+        count++;
+    }
+
+    /**
+     * appends a block from its hex form, as getblock returns it, without decoding it
+     */
+    public void writeHex(String block) throws IOException {
+        if (block.length() % 2 != 0) {
+            throw new IllegalArgumentException("odd hex length");
+        }
+        int length = block.length() / 2;
+        reserve(4 + length);
+        int at = buffer.position();
+        // decoded first so that bad hex leaves nothing behind
+        HexCodec.decode(block, 0, block.length(), buffer.array(), buffer.arrayOffset() + at + 4);
+        buffer.putInt(length);
+        buffer.position(at + 4 + length);
+        count++;
+    }
+
+    private void reserve(int size) throws IOException {
+        if (buffer.remaining() >= size) {
+            return;
+        }
+        flushBuffer();
+        if (buffer.capacity() < size) {
+            buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * writes out buffered blocks, with force the archive is also synced to disk
+     */
+    public void flush(boolean force) throws IOException {
+        flushBuffer();
+        if (force) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * number of blocks written so far
+     */
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            channel.close();
+        }
+    }
+}
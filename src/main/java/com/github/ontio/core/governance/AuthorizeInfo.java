@@ -44,19 +44,13 @@ public class AuthorizeInfo implements Serializable {
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
         this.peerPubkey = reader.readVarString();
-        try {
-            this.address = reader.readSerializable(Address.class);
-            this.consensusPos = reader.readLong();
-            this.freezePos = reader.readLong();
-            this.newPos = reader.readLong();
-            this.withdrawPos = reader.readLong();
-            this.withdrawFreezePos = reader.readLong();
-            this.withdrawUnfreezePos = reader.readLong();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        this.address = reader.readAddress();
+        this.consensusPos = reader.readLong();
+        this.freezePos = reader.readLong();
+        this.newPos = reader.readLong();
+        this.withdrawPos = reader.readLong();
+        this.withdrawFreezePos = reader.readLong();
+        this.withdrawUnfreezePos = reader.readLong();
     }
 
     @Override
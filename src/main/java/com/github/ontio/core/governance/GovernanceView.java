@@ -22,13 +22,7 @@ public class GovernanceView implements Serializable {
     public void deserialize(BinaryReader reader) throws IOException {
         this.view = reader.readInt();
         this.height = reader.readInt();
-        try {
-            this.txhash = reader.readSerializable(UInt256.class);
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        this.txhash = reader.readUInt256();
     }
 
     @Override
@@ -49,13 +49,7 @@ public class PeerPoolItem implements Serializable {
     public void deserialize(BinaryReader reader) throws IOException {
         this.index = reader.readInt();
         this.peerPubkey = reader.readVarString();
-        try {
-            this.address = reader.readSerializable(Address.class);
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        this.address = reader.readAddress();
         this.status = reader.readByte();
         this.initPos = reader.readLong();
         this.totalPos = reader.readLong();
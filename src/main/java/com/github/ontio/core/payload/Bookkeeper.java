@@ -56,6 +56,12 @@ public class Bookkeeper extends Transaction {
         return null;
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return BinaryWriter.varBytesSize(Helper.removePrevZero(issuer.getXCoord().toBigInteger().toByteArray()).length) + BinaryWriter.varBytesSize(Helper.removePrevZero(issuer.getYCoord().toBigInteger().toByteArray()).length) + 1
+                + BinaryWriter.varBytesSize(cert.length);
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeVarBytes(Helper.removePrevZero(issuer.getXCoord().toBigInteger().toByteArray()));
@@ -46,6 +46,11 @@ public class Bookkeeping extends Transaction {
         return null;
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return 8;
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeLong(nonce);
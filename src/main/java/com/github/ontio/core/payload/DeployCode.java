@@ -56,6 +56,14 @@ public class DeployCode extends Transaction {
         }
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return BinaryWriter.varBytesSize(code.length) + 1
+                + BinaryWriter.varStringSize(name) + BinaryWriter.varStringSize(version)
+                + BinaryWriter.varStringSize(author) + BinaryWriter.varStringSize(email)
+                + BinaryWriter.varStringSize(description);
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeVarBytes(code);
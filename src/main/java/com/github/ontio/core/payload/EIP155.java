@@ -50,6 +50,11 @@ public class EIP155 extends Transaction {
     protected void deserializeExclusiveData(BinaryReader reader) throws IOException {
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return -1;
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         throw new IOException("can not serialize");
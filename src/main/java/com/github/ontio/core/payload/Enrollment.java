@@ -56,6 +56,12 @@ public class Enrollment extends Transaction {
         return null;
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return BinaryWriter.varBytesSize(Helper.removePrevZero(pubKey.getXCoord().toBigInteger().toByteArray()).length)
+                + BinaryWriter.varBytesSize(Helper.removePrevZero(pubKey.getYCoord().toBigInteger().toByteArray()).length);
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeVarBytes(Helper.removePrevZero(pubKey.getXCoord().toBigInteger().toByteArray()));
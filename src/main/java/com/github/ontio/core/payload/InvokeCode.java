@@ -46,6 +46,11 @@ public class InvokeCode extends Transaction {
         }
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return BinaryWriter.varBytesSize(code.length);
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeVarBytes(code);
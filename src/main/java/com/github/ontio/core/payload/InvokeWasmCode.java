@@ -33,6 +33,11 @@ public class InvokeWasmCode extends Transaction {
         }
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        return BinaryWriter.varBytesSize(invokeCode.length);
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeVarBytes(invokeCode);
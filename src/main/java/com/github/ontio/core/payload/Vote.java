@@ -51,7 +51,7 @@ public class Vote extends Transaction {
                 pubKeys[i] = ECC.secp256r1.getCurve().createPoint(
                         new BigInteger(1, reader.readVarBytes()), new BigInteger(1, reader.readVarBytes()));
             }
-            account = reader.readSerializable(Address.class);
+            account = reader.readAddress();
         } catch (Exception e) {
         }
     }
@@ -61,6 +61,16 @@ public class Vote extends Transaction {
         return null;
     }
 
+    @Override
+    protected int exclusiveDataSize() {
+        int size = 4 + account.serializedSize();
+        for (ECPoint pubkey : pubKeys) {
+            size += BinaryWriter.varBytesSize(Helper.removePrevZero(pubkey.getXCoord().toBigInteger().toByteArray()).length);
+            size += BinaryWriter.varBytesSize(Helper.removePrevZero(pubkey.getYCoord().toBigInteger().toByteArray()).length);
+        }
+        return size;
+    }
+
     @Override
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
         writer.writeInt(pubKeys.length);
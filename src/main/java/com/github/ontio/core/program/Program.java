@@ -27,10 +27,10 @@ import com.github.ontio.core.scripts.ScriptOp;
 import com.github.ontio.crypto.ECC;
 import com.github.ontio.crypto.KeyType;
 import com.github.ontio.io.BinaryReader;
+import com.github.ontio.io.ByteBufferReader;
 import com.github.ontio.sdk.exception.SDKException;
 import org.bouncycastle.math.ec.ECPoint;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -103,22 +103,21 @@ public class Program {
         }).toArray(byte[][]::new);
         return publicKeys;
     }
+    /**
+     * the pushed parameters of an invocation script, as raw byte slices. The end of the
+     * script is found from the bytes left, a truncated trailing push is dropped.
+     */
     public static byte[][] getParamInfo(byte[] program) {
-        ByteArrayInputStream bais = new ByteArrayInputStream(program);
-        BinaryReader br = new BinaryReader(bais);
-        List<byte[]> list = new ArrayList();
-        while(true){
+        ByteBufferReader br = new ByteBufferReader(program);
+        List<byte[]> list = new ArrayList<>(2);
+        while (br.available() > 0) {
             try {
                 list.add(readBytes(br));
             } catch (IOException e) {
                 break;
             }
         }
-        byte[][] res = new byte[list.size()][];
-        for(int i=0;i < list.size(); i++){
-            res[i] = list.get(i);
-        }
-        return res;
+        return list.toArray(new byte[list.size()][]);
     }
 
     public static byte[] readBytes(BinaryReader br) throws IOException {
@@ -152,10 +151,8 @@ public class Program {
 
         }
         byte end = program[program.length - 1];
-        byte[] temp = new byte[program.length - 1];
-        System.arraycopy(program,0,temp,0,program.length - 1);
-        ByteArrayInputStream bais = new ByteArrayInputStream(temp);
-        BinaryReader reader = new BinaryReader(bais);
+        // public keys stay raw bytes, they are only decoded to points when a signature is verified
+        BinaryReader reader = new ByteBufferReader(program, 0, program.length - 1);
         if(end == ScriptOp.OP_CHECKSIG.getByte()){
             try {
                 byte[] publicKey = readBytes(reader);
@@ -93,6 +93,30 @@ public class ScriptBuilder implements AutoCloseable {
     }
 
 
+    /**
+     * bytes emitted by emitPushByteArray for data of this length
+     */
+    public static int pushByteArraySize(long length) {
+        if (length <= ScriptOp.OP_PUSHBYTES75.getByte()) {
+            return 1 + (int) length;
+        } else if (length < 0x100) {
+            return 2 + (int) length;
+        } else if (length < 0x10000) {
+            return 3 + (int) length;
+        }
+        return 5 + (int) length;
+    }
+
+    /**
+     * bytes emitted by emitPushInteger(number)
+     */
+    public static int pushIntegerSize(BigInteger number) {
+        if (number.compareTo(BigInteger.ONE.negate()) >= 0 && number.compareTo(BigInteger.valueOf(16)) <= 0) {
+            return 1;
+        }
+        return pushByteArraySize(Helper.BigIntToNeoBytes(number).length);
+    }
+
     public ScriptBuilder emitPushByteArray(byte[] data) {
         if (data == null) {
             throw new NullPointerException();
@@ -23,13 +23,7 @@ public class SideChain implements Serializable {
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
         this.sideChainId = reader.readVarString();
-        try {
-            this.address = reader.readSerializable(Address.class);
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        this.address = reader.readAddress();
         this.ratio = reader.readLong();
         this.deposit = reader.readLong();
         this.ongNum = reader.readLong();
@@ -49,6 +49,17 @@ public class Attribute implements Serializable {
         }
 	}
 
+	@Override
+	public int serializedSize() {
+		if (usage == AttributeUsage.Script
+				|| usage == AttributeUsage.DescriptionUrl
+				|| usage == AttributeUsage.Description
+				|| usage == AttributeUsage.Nonce) {
+			return 1 + BinaryWriter.varBytesSize(data.length);
+		}
+		return -1;
+	}
+
 	@Override
 	public void deserialize(BinaryReader reader) throws IOException {
 		usage = AttributeUsage.valueOf(reader.readByte());
@@ -26,13 +26,13 @@ import com.github.ontio.core.asset.Sig;
 import com.github.ontio.core.payload.EIP155;
 import com.github.ontio.io.BinaryReader;
 import com.github.ontio.io.BinaryWriter;
+import com.github.ontio.io.ByteBufferReader;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  *
@@ -41,7 +41,7 @@ public abstract class Transaction extends Inventory {
 
     public byte version = 0;
     public TransactionType txType;
-    public int nonce = new Random().nextInt();
+    public int nonce = ThreadLocalRandom.current().nextInt();
     public long gasPrice = 0;
     public long gasLimit = 0;
     public Address payer = new Address();
@@ -57,47 +57,85 @@ public abstract class Transaction extends Inventory {
     }
 
     public static Transaction deserializeFrom(byte[] value, int offset) throws IOException {
-        try (ByteArrayInputStream ms = new ByteArrayInputStream(value, offset, value.length - offset)) {
-            try (BinaryReader reader = new BinaryReader(ms)) {
-                return deserializeFrom(reader);
-            }
-        }
+        return deserializeFrom(new ByteBufferReader(value, offset, value.length - offset));
     }
 
     public static Transaction deserializeFrom(BinaryReader reader) throws IOException {
-        try {
-            byte ver = reader.readByte();
-            TransactionType type = TransactionType.valueOf(reader.readByte());
-            if (type == TransactionType.EIP155) {
-                Transaction tx = EIP155.deserializeEIP155(reader);
-                return tx;
-            }
-            String typeName = "com.github.ontio.core.payload." + type.toString();
-            Transaction transaction = (Transaction) Class.forName(typeName).newInstance();
-            transaction.nonce = reader.readInt();
-            transaction.version = ver;
-            transaction.gasPrice = reader.readLong();
-            transaction.gasLimit = reader.readLong();
-            transaction.payer = reader.readSerializable(Address.class);
-            transaction.deserializeUnsignedWithoutType(reader);
-            transaction.sigs = new Sig[(int) reader.readVarInt()];
-            for (int i = 0; i < transaction.sigs.length; i++) {
-                transaction.sigs[i] = reader.readSerializable(Sig.class);
-            }
-            return transaction;
-        } catch (ClassNotFoundException | InstantiationException | IllegalAccessException ex) {
-            throw new IOException(ex);
+        byte ver = reader.readByte();
+        TransactionType type = TransactionType.valueOf(reader.readByte());
+        if (type == TransactionType.EIP155) {
+            Transaction tx = EIP155.deserializeEIP155(reader);
+            return tx;
+        }
+        Transaction transaction = TransactionRegistry.create(type);
+        transaction.nonce = reader.readInt();
+        transaction.version = ver;
+        transaction.gasPrice = reader.readLong();
+        transaction.gasLimit = reader.readLong();
+        transaction.payer = reader.readAddress();
+        transaction.deserializeUnsignedWithoutType(reader);
+        transaction.sigs = new Sig[(int) reader.readVarInt()];
+        for (int i = 0; i < transaction.sigs.length; i++) {
+            transaction.sigs[i] = reader.readSerializable(Sig::new);
+        }
+        return transaction;
+    }
+
+    /**
+     * moves the reader past the unsigned part of a transaction, type bytes included,
+     * without decoding it. EIP155 transactions have no signature part, they are
+     * skipped as a whole.
+     */
+    public static TransactionType skipUnsigned(BinaryReader reader) throws IOException {
+        reader.readByte();
+        TransactionType type = TransactionType.valueOf(reader.readByte());
+        if (type == TransactionType.EIP155) {
+            reader.skipVarBytes();
+            return type;
+        }
+        // nonce, gas price, gas limit and payer
+        reader.skip(4 + 8 + 8 + 20);
+        switch (type) {
+            case InvokeCode:
+            case InvokeWasmCode:
+                reader.skipVarBytes();
+                break;
+            case DeployCode:
+                reader.skipVarBytes();
+                reader.skip(1);
+                for (int i = 0; i < 5; i++) {
+                    reader.skipVarBytes();
+                }
+                break;
+            case Bookkeeping:
+                reader.skip(8);
+                break;
+            default:
+                TransactionRegistry.create(type).deserializeExclusiveData(reader);
+        }
+        long attributes = reader.readVarInt(0x10000000);
+        for (long i = 0; i < attributes; i++) {
+            reader.skip(1);
+            reader.skipVarBytes();
+        }
+        return type;
+    }
+
+    /**
+     * moves the reader past the signatures that follow the unsigned part
+     */
+    public static void skipSigs(BinaryReader reader) throws IOException {
+        long sigs = reader.readVarInt();
+        for (long i = 0; i < sigs; i++) {
+            reader.skipVarBytes();
+            reader.skipVarBytes();
         }
     }
 
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
         deserializeUnsigned(reader);
-        try {
-            sigs = reader.readSerializableArray(Sig.class);
-        } catch (InstantiationException | IllegalAccessException ex) {
-            throw new RuntimeException(ex);
-        }
+        sigs = reader.readSerializableArray(Sig::new, Sig[]::new);
     }
 
     @Override
@@ -107,23 +145,13 @@ public abstract class Transaction extends Inventory {
         version = reader.readByte();
         gasPrice = reader.readLong();
         gasLimit = reader.readLong();
-        try {
-            payer = reader.readSerializable(Address.class);
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        payer = reader.readAddress();
         deserializeUnsignedWithoutType(reader);
     }
 
     private void deserializeUnsignedWithoutType(BinaryReader reader) throws IOException {
-        try {
-            deserializeExclusiveData(reader);
-            attributes = reader.readSerializableArray(Attribute.class);
-        } catch (InstantiationException | IllegalAccessException ex) {
-            throw new IOException(ex);
-        }
+        deserializeExclusiveData(reader);
+        attributes = reader.readSerializableArray(Attribute::new, Attribute[]::new);
     }
 
     protected void deserializeExclusiveData(BinaryReader reader) throws IOException {
@@ -150,6 +178,34 @@ public abstract class Transaction extends Inventory {
     protected void serializeExclusiveData(BinaryWriter writer) throws IOException {
     }
 
+    /**
+     * the exact size serializeExclusiveData writes, -1 when it is not known up front
+     */
+    protected int exclusiveDataSize() {
+        return 0;
+    }
+
+    @Override
+    public int unsignedSize() {
+        int exclusive = exclusiveDataSize();
+        if (exclusive < 0 || attributes == null) {
+            return -1;
+        }
+        int attrs = BinaryWriter.serializableArraySize(attributes);
+        if (attrs < 0) {
+            return -1;
+        }
+        // version, type, nonce, gas price, gas limit and payer
+        return 1 + 1 + 4 + 8 + 8 + 20 + exclusive + attrs;
+    }
+
+    @Override
+    public int serializedSize() {
+        int size = unsignedSize();
+        int sigsSize = BinaryWriter.serializableArraySize(sigs);
+        return size < 0 || sigsSize < 0 ? -1 : size + sigsSize;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) {
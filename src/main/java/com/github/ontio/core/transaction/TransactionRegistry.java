@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.core.transaction;
+
+import com.github.ontio.core.payload.*;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * maps each transaction type to the factory of its payload class, so decoding a
+ * transaction needs no reflection. Custom payload classes replace the factory of
+ * their type with register. EIP155 transactions are decoded by EIP155 itself.
+ */
+public final class TransactionRegistry {
+    private static volatile Supplier<? extends Transaction>[] factories = newTable();
+
+    static {
+        register(TransactionType.Bookkeeping, Bookkeeping::new);
+        register(TransactionType.Bookkeeper, Bookkeeper::new);
+        register(TransactionType.Enrollment, Enrollment::new);
+        register(TransactionType.Vote, Vote::new);
+        // DeployWasmCode shares the DeployCode type and decodes as DeployCode
+        register(TransactionType.DeployCode, DeployCode::new);
+        register(TransactionType.InvokeCode, InvokeCode::new);
+        register(TransactionType.InvokeWasmCode, InvokeWasmCode::new);
+    }
+
+    private TransactionRegistry() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<? extends Transaction>[] newTable() {
+        return (Supplier<? extends Transaction>[]) new Supplier<?>[TransactionType.values().length];
+    }
+
+    /**
+     * use factory for transactions of this type, replacing the current one
+     */
+    public static synchronized void register(TransactionType type, Supplier<? extends Transaction> factory) {
+        Supplier<? extends Transaction>[] table = factories.clone();
+        table[type.ordinal()] = factory;
+        factories = table;
+    }
+
+    public static boolean isRegistered(TransactionType type) {
+        return factories[type.ordinal()] != null;
+    }
+
+    /**
+     * @return an empty transaction of the type, ready to be deserialized
+     */
+    public static Transaction create(TransactionType type) throws IOException {
+        Supplier<? extends Transaction> factory = factories[type.ordinal()];
+        if (factory == null) {
+            throw new IOException("unsupported transaction type " + type);
+        }
+        return factory.get();
+    }
+}
@@ -34,6 +34,14 @@ public enum TransactionType {
     TransferTransaction(0x80),
     EIP155(0xd3);
 
+    private static final TransactionType[] BY_VALUE = new TransactionType[256];
+
+    static {
+        for (TransactionType e : values()) {
+            BY_VALUE[e.value & 0xff] = e;
+        }
+    }
+
     private byte value;
 
     TransactionType(int v) {
@@ -45,11 +53,10 @@ public enum TransactionType {
     }
 
     public static TransactionType valueOf(byte v) {
-        for (TransactionType e : TransactionType.values()) {
-            if (e.value == v) {
-                return e;
-            }
+        TransactionType e = BY_VALUE[v & 0xff];
+        if (e == null) {
+            throw new IllegalArgumentException();
         }
-        throw new IllegalArgumentException();
+        return e;
     }
 }
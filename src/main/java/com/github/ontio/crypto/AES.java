@@ -19,7 +19,6 @@
 
 package com.github.ontio.crypto;
 
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
 import javax.crypto.*;
 import javax.crypto.spec.IvParameterSpec;
@@ -35,7 +34,7 @@ public class AES {
 	private static final String CIPHER_ALGORITHM = "AES/CBC/PKCS7Padding";
 	
 	static {
-		Security.addProvider(new BouncyCastleProvider());
+		BouncyCastle.register();
 	}
 	
 	public static byte[] decrypt(byte[] encryptedData, byte[] key, byte[] iv) throws IllegalBlockSizeException, BadPaddingException {
@@ -22,7 +22,6 @@ package com.github.ontio.crypto;
 import com.github.ontio.common.ErrorCode;
 import com.github.ontio.sdk.exception.SDKException;
 
-import java.math.BigInteger;
 import java.util.Arrays;
 
 public class Base58 {
@@ -30,7 +29,17 @@ public class Base58 {
      *  base58
      */
     public static final String ALPHABET = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
-    private static final BigInteger BASE = BigInteger.valueOf(ALPHABET.length());
+    private static final char[] CHARS = ALPHABET.toCharArray();
+    private static final byte[] INDEXES = new byte[128];
+    // five digits are taken per pass over the 32 bit limbs
+    private static final long BASE_5 = 58L * 58 * 58 * 58 * 58;
+
+    static {
+        Arrays.fill(INDEXES, (byte) -1);
+        for (int i = 0; i < CHARS.length; i++) {
+            INDEXES[CHARS[i]] = (byte) i;
+        }
+    }
 
     /**
      * decode base58
@@ -38,21 +47,78 @@ public class Base58 {
      * @return
      */
     public static byte[] decode(String input) {
-        BigInteger bi = BigInteger.ZERO;
-        for (int i = input.length() - 1; i >= 0; i--) {
-            int index = ALPHABET.indexOf(input.charAt(i));
-            if (index == -1) {
-                throw new IllegalArgumentException();
+        int zeros = leadingOnes(input);
+        int[] limbs = new int[(input.length() * 733 / 1000 + 4) / 4 + 1];
+        accumulate(input, zeros, limbs);
+        int bytes = magnitude(limbs);
+        byte[] out = new byte[zeros + bytes];
+        toBytes(limbs, out, zeros, bytes);
+        return out;
+    }
+
+    /**
+     * decodes into out, the input has to stand for exactly out.length bytes, as the
+     * 25 bytes of an address
+     */
+    public static void decode(String input, byte[] out) {
+        int zeros = leadingOnes(input);
+        int[] limbs = new int[(out.length + 3) / 4 + 1];
+        accumulate(input, zeros, limbs);
+        int bytes = magnitude(limbs);
+        if (zeros + bytes != out.length) {
+            throw new IllegalArgumentException("base58 value is not " + out.length + " bytes long");
+        }
+        Arrays.fill(out, 0, zeros, (byte) 0);
+        toBytes(limbs, out, zeros, bytes);
+    }
+
+    private static int leadingOnes(String input) {
+        int zeros = 0;
+        while (zeros < input.length() && input.charAt(zeros) == CHARS[0]) {
+            zeros++;
+        }
+        return zeros;
+    }
+
+    /**
+     * limbs = limbs * 58 + digit for every digit, limbs are big endian 32 bit words
+     */
+    private static void accumulate(String input, int from, int[] limbs) {
+        for (int i = from; i < input.length(); i++) {
+            char c = input.charAt(i);
+            int digit = c < 128 ? INDEXES[c] : -1;
+            if (digit < 0) {
+                throw new IllegalArgumentException("not a base58 digit: " + c);
+            }
+            long carry = digit;
+            for (int j = limbs.length - 1; j >= 0; j--) {
+                long v = (limbs[j] & 0xffffffffL) * 58 + carry;
+                limbs[j] = (int) v;
+                carry = v >>> 32;
             }
-            bi = bi.add(BASE.pow(input.length() - 1 - i).multiply(BigInteger.valueOf(index)));
+            if (carry != 0) {
+                throw new IllegalArgumentException("base58 value too large");
+            }
+        }
+    }
+
+    private static int magnitude(int[] limbs) {
+        int bytes = limbs.length * 4;
+        for (int i = 0; i < limbs.length * 4 && byteAt(limbs, i) == 0; i++) {
+            bytes--;
+        }
+        return bytes;
+    }
+
+    private static int byteAt(int[] limbs, int i) {
+        return (limbs[i >> 2] >>> (24 - 8 * (i & 3))) & 0xff;
+    }
+
+    private static void toBytes(int[] limbs, byte[] out, int offset, int bytes) {
+        int skip = limbs.length * 4 - bytes;
+        for (int i = 0; i < bytes; i++) {
+            out[offset + i] = (byte) byteAt(limbs, skip + i);
         }
-        byte[] bytes = bi.toByteArray();
-        boolean stripSignByte = bytes.length > 1 && bytes[0] == 0 && bytes[1] < 0;
-        int leadingZeros = 0;
-        for (; leadingZeros < input.length() && input.charAt(leadingZeros) == ALPHABET.charAt(0); leadingZeros++){};
-        byte[] tmp = new byte[bytes.length - (stripSignByte ? 1 : 0) + leadingZeros];
-        System.arraycopy(bytes, stripSignByte ? 1 : 0, tmp, leadingZeros, tmp.length - leadingZeros);
-        return tmp;
     }
 
     /**
@@ -61,30 +127,58 @@ public class Base58 {
      * @return
      */
     public static String encode(byte[] input) {
-        BigInteger value = new BigInteger(1, input);
-        StringBuilder sb = new StringBuilder();
-        while (value.compareTo(BASE) >= 0) {
-        	BigInteger[] r = value.divideAndRemainder(BASE);
-            sb.insert(0, ALPHABET.charAt(r[1].intValue()));
-            value = r[0];
+        return encode(input, 0, input.length);
+    }
+
+    /**
+     * encodes length bytes of input from offset
+     */
+    public static String encode(byte[] input, int offset, int length) {
+        int zeros = 0;
+        while (zeros < length && input[offset + zeros] == 0) {
+            zeros++;
+        }
+        // big endian 32 bit limbs of the value, the first one partly filled
+        int[] limbs = new int[(length + 3) / 4];
+        int shift = limbs.length * 4 - length;
+        for (int i = 0; i < length; i++) {
+            int k = i + shift;
+            limbs[k >> 2] |= (input[offset + i] & 0xff) << (24 - 8 * (k & 3));
         }
-        sb.insert(0, ALPHABET.charAt(value.intValue()));
-        for (byte b : input) {
-            if (b == 0) {
-                sb.insert(0, ALPHABET.charAt(0));
-            } else {
-                break;
+        char[] out = new char[length * 138 / 100 + 6];
+        int pos = out.length;
+        int first = 0;
+        while (first < limbs.length) {
+            long rem = 0;
+            for (int j = first; j < limbs.length; j++) {
+                long v = rem << 32 | (limbs[j] & 0xffffffffL);
+                limbs[j] = (int) (v / BASE_5);
+                rem = v % BASE_5;
+            }
+            while (first < limbs.length && limbs[first] == 0) {
+                first++;
+            }
+            for (int k = 0; k < 5; k++) {
+                out[--pos] = CHARS[(int) (rem % 58)];
+                rem /= 58;
             }
         }
-        return sb.toString();
+        // the last pass may leave zero digits in front
+        while (pos < out.length && out[pos] == CHARS[0]) {
+            pos++;
+        }
+        for (int i = 0; i < zeros; i++) {
+            out[--pos] = CHARS[0];
+        }
+        return new String(out, pos, out.length - pos);
     }
+
     public static String checkSumEncode(byte[] in) {
-        byte[] hash = Digest.sha256(Digest.sha256(in));
-        byte[] checksum = Arrays.copyOfRange(hash, 0, 4);
-        byte[] input = new byte[in.length+4];
+        // the whole hash is written after the data, only its first 4 bytes are encoded
+        byte[] input = new byte[in.length + 32];
         System.arraycopy(in, 0, input, 0, in.length);
-        System.arraycopy(checksum, 0, input, in.length, 4);
-        return  encode(input);
+        Digest.hash256(in, 0, in.length, input, in.length);
+        return encode(input, 0, in.length + 4);
     }
 
     public static byte[] decodeChecked(String input) throws Exception {
@@ -93,11 +187,11 @@ public class Base58 {
         if (decoded.length < 4) {
             throw new Exception(ErrorCode.InputTooShort);
         }
-        byte[] data = Arrays.copyOfRange(decoded, 0, decoded.length - 4);
-        byte[] checksum = Arrays.copyOfRange(decoded, decoded.length - 4, decoded.length);
-        byte[] actualChecksum = Arrays.copyOfRange(Digest.sha256(Digest.sha256(data)), 0, 4);
-        if (!Arrays.equals(checksum, actualChecksum)) {
-            throw new SDKException(ErrorCode.ChecksumNotValidate);
+        byte[] hash = Digest.hash256(decoded, 0, decoded.length - 4);
+        for (int i = 0; i < 4; i++) {
+            if (decoded[decoded.length - 4 + i] != hash[i]) {
+                throw new SDKException(ErrorCode.ChecksumNotValidate);
+            }
         }
         return decoded;
     }
@@ -20,134 +20,235 @@
 package com.github.ontio.crypto;
 
 import org.bouncycastle.crypto.CipherParameters;
+import org.bouncycastle.crypto.digests.RIPEMD160Digest;
 import org.bouncycastle.crypto.digests.SHA512Digest;
 import org.bouncycastle.crypto.digests.SM3Digest;
 import org.bouncycastle.crypto.macs.HMac;
 import org.bouncycastle.crypto.params.KeyParameter;
-import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
+import java.nio.ByteBuffer;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.Security;
 
+/**
+ * every thread keeps its own digest engines, the offset and ByteBuffer variants hash
+ * the input where it is and the variants taking out write the hash into the caller's
+ * array, so a hash costs no allocation beyond its result
+ */
 public class Digest {
     static {
-        Security.addProvider(new BouncyCastleProvider());
+        BouncyCastle.register();
     }
 
-    public static byte[] hash160(byte[] value) {
-        return ripemd160(sha256(value));
-    }
+    private static final ThreadLocal<Engines> ENGINES = ThreadLocal.withInitial(Engines::new);
 
-    public static byte[] hash256(byte[] value) {
-        return sha256(sha256(value));
-    }
+    private static final class Engines {
+        final MessageDigest sha256 = newDigest("SHA-256");
+        final RIPEMD160Digest ripemd160 = new RIPEMD160Digest();
+        final SM3Digest sm3 = new SM3Digest();
+        // the sha256 half of hash160
+        final byte[] scratch = new byte[32];
+        private MessageDigest sha224;
+        private MessageDigest sha384;
+        private MessageDigest sha512;
 
-    public static byte[] hash256(byte[] value, int offset, int length) {
-        if (offset != 0 || length != value.length) {
-            byte[] array = new byte[length];
-            System.arraycopy(value, offset, array, 0, length);
-            value = array;
+        MessageDigest sha224() {
+            if (sha224 == null) {
+                sha224 = newDigest("SHA-224");
+            }
+            return sha224;
+        }
+
+        MessageDigest sha384() {
+            if (sha384 == null) {
+                sha384 = newDigest("SHA-384");
+            }
+            return sha384;
+        }
+
+        MessageDigest sha512() {
+            if (sha512 == null) {
+                sha512 = newDigest("SHA-512");
+            }
+            return sha512;
         }
-        return sha256(sha256(value));
     }
 
-    public static byte[] ripemd160(byte[] value) {
+    private static MessageDigest newDigest(String algorithm) {
         try {
-            MessageDigest md = MessageDigest.getInstance("RipeMD160");
-            return md.digest(value);
+            return MessageDigest.getInstance(algorithm);
         } catch (NoSuchAlgorithmException ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    public static byte[] sha256(byte[] value) {
+    // the engines are reused, so nothing may be fed to them before the bounds are known to hold
+    private static void check(byte[] b, int offset, int length) {
+        if (offset < 0 || length < 0 || offset > b.length - length) {
+            throw new IndexOutOfBoundsException("offset " + offset + " length " + length + " of " + b.length);
+        }
+    }
+
+    private static void finish(MessageDigest md, byte[] out, int outOffset) {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            return md.digest(value);
-        } catch (NoSuchAlgorithmException ex) {
-            throw new RuntimeException(ex);
+            md.digest(out, outOffset, md.getDigestLength());
+        } catch (DigestException ex) {
+            throw new IllegalArgumentException(ex);
         }
     }
 
+    public static byte[] hash160(byte[] value) {
+        return hash160(value, 0, value.length);
+    }
+
+    public static byte[] hash160(byte[] value, int offset, int length) {
+        byte[] hash = new byte[20];
+        hash160(value, offset, length, hash, 0);
+        return hash;
+    }
+
+    /**
+     * ripemd160(sha256(value)) into out at outOffset, 20 bytes
+     */
+    public static void hash160(byte[] value, int offset, int length, byte[] out, int outOffset) {
+        check(value, offset, length);
+        check(out, outOffset, 20);
+        Engines engines = ENGINES.get();
+        engines.sha256.update(value, offset, length);
+        finish(engines.sha256, engines.scratch, 0);
+        engines.ripemd160.update(engines.scratch, 0, engines.scratch.length);
+        engines.ripemd160.doFinal(out, outOffset);
+    }
+
+    public static byte[] hash256(byte[] value) {
+        return hash256(value, 0, value.length);
+    }
+
+    public static byte[] hash256(byte[] value, int offset, int length) {
+        byte[] hash = new byte[32];
+        hash256(value, offset, length, hash, 0);
+        return hash;
+    }
+
+    /**
+     * sha256(sha256(value)) into out at outOffset, 32 bytes. The input is read before
+     * anything is written, so out may overlap it.
+     */
+    public static void hash256(byte[] value, int offset, int length, byte[] out, int outOffset) {
+        check(out, outOffset, 32);
+        MessageDigest md = ENGINES.get().sha256;
+        md.update(value, offset, length);
+        finish(md, out, outOffset);
+        md.update(out, outOffset, 32);
+        finish(md, out, outOffset);
+    }
+
+    /**
+     * hash256 of the remaining bytes, the position of the buffer is left as it was
+     */
+    public static byte[] hash256(ByteBuffer value) {
+        byte[] hash = new byte[32];
+        hash256(value, hash, 0);
+        return hash;
+    }
+
+    public static void hash256(ByteBuffer value, byte[] out, int outOffset) {
+        check(out, outOffset, 32);
+        MessageDigest md = ENGINES.get().sha256;
+        int position = value.position();
+        md.update(value);
+        value.position(position);
+        finish(md, out, outOffset);
+        md.update(out, outOffset, 32);
+        finish(md, out, outOffset);
+    }
+
+    public static byte[] ripemd160(byte[] value) {
+        return ripemd160(value, 0, value.length);
+    }
+
+    public static byte[] ripemd160(byte[] value, int offset, int length) {
+        check(value, offset, length);
+        RIPEMD160Digest md = ENGINES.get().ripemd160;
+        byte[] hash = new byte[md.getDigestSize()];
+        md.update(value, offset, length);
+        md.doFinal(hash, 0);
+        return hash;
+    }
+
+    public static byte[] sha256(byte[] value) {
+        return sha256(value, 0, value.length);
+    }
+
     public static byte[] sha256(byte[] value, int offset, int length) {
-        if (offset != 0 || length != value.length) {
-            byte[] array = new byte[length];
-            System.arraycopy(value, offset, array, 0, length);
-            value = array;
-        }
-        return sha256(value);
+        MessageDigest md = ENGINES.get().sha256;
+        md.update(value, offset, length);
+        return md.digest();
+    }
+
+    /**
+     * sha256 of value into out at outOffset, 32 bytes
+     */
+    public static void sha256(byte[] value, int offset, int length, byte[] out, int outOffset) {
+        check(out, outOffset, 32);
+        MessageDigest md = ENGINES.get().sha256;
+        md.update(value, offset, length);
+        finish(md, out, outOffset);
+    }
+
+    /**
+     * sha256 of the remaining bytes, the position of the buffer is left as it was
+     */
+    public static byte[] sha256(ByteBuffer value) {
+        MessageDigest md = ENGINES.get().sha256;
+        int position = value.position();
+        md.update(value);
+        value.position(position);
+        return md.digest();
     }
 
     public static byte[] sha224(byte[] value) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-224");
-            return md.digest(value);
-        } catch (NoSuchAlgorithmException ex) {
-            throw new RuntimeException(ex);
-        }
+        return sha224(value, 0, value.length);
     }
 
     public static byte[] sha224(byte[] value, int offset, int length) {
-        if (offset != 0 || length != value.length) {
-            byte[] array = new byte[length];
-            System.arraycopy(value, offset, array, 0, length);
-            value = array;
-        }
-        return sha224(value);
+        MessageDigest md = ENGINES.get().sha224();
+        md.update(value, offset, length);
+        return md.digest();
     }
 
     public static byte[] sha384(byte[] value) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-384");
-            return md.digest(value);
-        } catch (NoSuchAlgorithmException ex) {
-            throw new RuntimeException(ex);
-        }
+        return sha384(value, 0, value.length);
     }
 
     public static byte[] sha384(byte[] value, int offset, int length) {
-        if (offset != 0 || length != value.length) {
-            byte[] array = new byte[length];
-            System.arraycopy(value, offset, array, 0, length);
-            value = array;
-        }
-        return sha384(value);
+        MessageDigest md = ENGINES.get().sha384();
+        md.update(value, offset, length);
+        return md.digest();
     }
 
     public static byte[] sha512(byte[] value) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-512");
-            return md.digest(value);
-        } catch (NoSuchAlgorithmException ex) {
-            throw new RuntimeException(ex);
-        }
+        return sha512(value, 0, value.length);
     }
 
     public static byte[] sha512(byte[] value, int offset, int length) {
-        if (offset != 0 || length != value.length) {
-            byte[] array = new byte[length];
-            System.arraycopy(value, offset, array, 0, length);
-            value = array;
-        }
-        return sha512(value);
+        MessageDigest md = ENGINES.get().sha512();
+        md.update(value, offset, length);
+        return md.digest();
     }
 
     public static byte[] sm3(byte[] value) {
-        SM3Digest digest = new SM3Digest();
-        digest.update(value, 0, value.length);
-        byte[] hash = new byte[digest.getDigestSize()];
-        digest.doFinal(hash, 0);
-        return hash;
+        return sm3(value, 0, value.length);
     }
 
     public static byte[] sm3(byte[] value, int offset, int length) {
-        if (offset != 0 || length != value.length) {
-            byte[] array = new byte[length];
-            System.arraycopy(value, offset, array, 0, length);
-            value = array;
-        }
-        return sm3(value);
+        check(value, offset, length);
+        SM3Digest digest = ENGINES.get().sm3;
+        digest.update(value, offset, length);
+        byte[] hash = new byte[digest.getDigestSize()];
+        digest.doFinal(hash, 0);
+        return hash;
     }
 
     public static byte[] hmacSha512(byte[] keyBytes, byte[] text) {
@@ -0,0 +1,338 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.crypto;
+
+import com.github.ontio.common.ErrorCode;
+import com.github.ontio.sdk.exception.SDKException;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SM3Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.jce.ECNamedCurveTable;
+import org.bouncycastle.jce.spec.ECNamedCurveParameterSpec;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECFieldElement;
+import org.bouncycastle.math.ec.ECLookupTable;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.BigIntegers;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * signs with one long-lived private key. The generator of every curve gets a table of
+ * its odd multiples -15..15 times 16^i once, shared by all signers, and k*G is the sum
+ * of one cache-safe lookup per 4-bit window of a signed odd recoding of k, the same
+ * number of additions and no doublings whatever k is. Nonces are deterministic
+ * as in RFC 6979, with HMAC-SHA256 for SHA256WITHECDSA and HMAC-SM3 for SM3WITHSM2, so
+ * signing the same message twice gives the same signature.
+ * <p>
+ * Key and nonce are first padded to k + n or k + 2n, whichever is exactly one bit
+ * longer than the order, so the BigInteger operations that follow run on operands of
+ * the same length whatever the secret. The padded values are then scaled by a fresh
+ * random factor per signature before any further arithmetic, and the inversion of
+ * 1 + d for SM2 is blinded once per signer. That is not a constant-time guarantee:
+ * BigInteger multiply, mod and modInverse still depend on the values, BouncyCastle's
+ * ECPoint.add and normalize on the looked up points, and its RFC 6979 nonce
+ * generator compares k with n as a BigInteger before handing it over.
+ */
+public final class FixedBaseSigner {
+    public static final int WINDOW = 4;
+
+    private static final ConcurrentHashMap<String, Table> TABLES = new ConcurrentHashMap<>();
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private static final class UserZ {
+        final byte[] userId;
+        final byte[] z;
+
+        UserZ(byte[] userId, byte[] z) {
+            this.userId = userId;
+            this.z = z;
+        }
+    }
+
+    /**
+     * k + n or k + 2n for 0 <= k < n, whichever has exactly one bit more than n, the
+     * same scalar modulo n with a bit length that says nothing about k
+     */
+    static BigInteger pad(BigInteger k, BigInteger n) {
+        BigInteger once = k.add(n);
+        BigInteger twice = once.add(n);
+        return once.testBit(n.bitLength()) ? once : twice;
+    }
+
+    /**
+     * row i holds -15..15 odd times 16^i G, at index (digit + 15) / 2
+     */
+    private static final class Table {
+        final ECDomainParameters domain;
+        final ECLookupTable[] rows;
+        // n in the little endian limbs multiply works on
+        final int[] order;
+
+        Table(ECDomainParameters domain) {
+            this.domain = domain;
+            ECCurve curve = domain.getCurve();
+            int half = 1 << (WINDOW - 1);
+            // a padded k is made odd by adding n, two bits longer than the order
+            this.rows = new ECLookupTable[(domain.getN().bitLength() + WINDOW) / WINDOW + 1];
+            ECPoint base = domain.getG();
+            for (int i = 0; i < rows.length; i++) {
+                ECPoint[] points = new ECPoint[2 * half];
+                ECPoint twice = base.twice();
+                ECPoint p = base;
+                for (int j = 0; j < half; j++) {
+                    points[half + j] = p;
+                    points[half - 1 - j] = p.negate();
+                    p = p.add(twice);
+                }
+                curve.normalizeAll(points);
+                rows[i] = curve.createCacheSafeLookupTable(points, 0, points.length);
+                base = base.timesPow2(WINDOW);
+            }
+            this.order = limbs(domain.getN(), (rows.length * WINDOW + 31) / 32 + 1);
+        }
+
+        /**
+         * k*G for k as returned by pad
+         */
+        ECPoint multiply(BigInteger k) {
+            int[] limbs = limbs(k, order.length);
+            // add n when k is even, then every digit is odd and no lookup is the infinity
+            int even = (limbs[0] & 1) - 1;
+            long sum = 0;
+            for (int j = 0; j < limbs.length; j++) {
+                sum += (limbs[j] & 0xffffffffL) + (order[j] & even & 0xffffffffL);
+                limbs[j] = (int) sum;
+                sum >>>= 32;
+            }
+            ECPoint r = null;
+            for (int i = 0; i < rows.length; i++) {
+                // d = k mod 2^(w+1) - 2^w is odd, and (k - d) / 2^w stays odd
+                int d = i == rows.length - 1 ? limbs[0] : (limbs[0] & ((2 << WINDOW) - 1)) - (1 << WINDOW);
+                long carry = -d;
+                for (int j = 0; j < limbs.length; j++) {
+                    long t = (limbs[j] & 0xffffffffL) + carry;
+                    limbs[j] = (int) t;
+                    carry = t >> 32;
+                }
+                for (int j = 0; j < limbs.length; j++) {
+                    int next = j + 1 < limbs.length ? limbs[j + 1] : 0;
+                    limbs[j] = limbs[j] >>> WINDOW | next << (32 - WINDOW);
+                }
+                ECPoint p = rows[i].lookup((d + (1 << WINDOW) - 1) >> 1);
+                r = r == null ? p : r.add(p);
+            }
+            return r;
+        }
+
+        private static int[] limbs(BigInteger k, int length) {
+            int[] limbs = new int[length];
+            byte[] bytes = BigIntegers.asUnsignedByteArray(length * 4, k);
+            for (int i = 0; i < limbs.length; i++) {
+                int at = bytes.length - 4 * (i + 1);
+                limbs[i] = (bytes[at] & 0xff) << 24 | (bytes[at + 1] & 0xff) << 16 | (bytes[at + 2] & 0xff) << 8 | bytes[at + 3] & 0xff;
+            }
+            return limbs;
+        }
+    }
+
+    private final Table table;
+    private final ECDomainParameters domain;
+    // the private key as the nonce generator takes it, and padded as the nonces are
+    private final BigInteger key;
+    private final BigInteger d;
+    private final ECPoint q;
+    // (1 + d)^-1 mod n, the only inversion an SM2 signature needs
+    private final BigInteger sm2Inverse;
+    private volatile UserZ userZ;
+
+    /**
+     * @param curve curve name as in Curve, e.g. P-256 or sm2p256v1
+     * @param d     the private key
+     */
+    public FixedBaseSigner(String curve, BigInteger d) throws SDKException {
+        this.table = table(curve);
+        this.domain = table.domain;
+        BigInteger n = domain.getN();
+        if (d == null || d.signum() <= 0 || d.compareTo(n) >= 0) {
+            throw new SDKException(ErrorCode.ParamErr("private key out of range"));
+        }
+        this.key = d;
+        this.d = pad(d, n);
+        this.q = table.multiply(this.d).normalize();
+        this.sm2Inverse = blindedInverse(this.d.add(BigInteger.ONE), n);
+    }
+
+    private static Table table(String curve) throws SDKException {
+        Table table = TABLES.get(curve);
+        if (table == null) {
+            ECDomainParameters domain;
+            // the custom curves have constant-time field arithmetic and lookup tables
+            X9ECParameters custom = CustomNamedCurves.getByName(curve);
+            if (custom != null) {
+                domain = new ECDomainParameters(custom.getCurve(), custom.getG(), custom.getN(), custom.getH());
+            } else {
+                ECNamedCurveParameterSpec spec = ECNamedCurveTable.getParameterSpec(curve);
+                if (spec == null) {
+                    throw new SDKException(ErrorCode.UnknownCurve);
+                }
+                domain = new ECDomainParameters(spec.getCurve(), spec.getG(), spec.getN(), spec.getH());
+            }
+            table = new Table(domain);
+            Table known = TABLES.putIfAbsent(curve, table);
+            if (known != null) {
+                table = known;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @param userId the SM2 user id, null for the default one, ignored for ECDSA
+     * @return r and s, each as long as the curve order
+     */
+    public byte[] generateSignature(SignatureScheme scheme, byte[] msg, byte[] userId) throws SDKException {
+        switch (scheme) {
+            case SHA256WITHECDSA:
+                return ecdsa(hash(new SHA256Digest(), null, msg));
+            case SM3WITHSM2:
+                if (userId == null) {
+                    userId = SignatureHandler.DEFAULT_SM2_PARAM.getID();
+                }
+                return sm2(hash(new SM3Digest(), z(userId), msg));
+            default:
+                throw new SDKException(ErrorCode.UnsupportedSignatureScheme + scheme.toString());
+        }
+    }
+
+    private byte[] ecdsa(byte[] hash) {
+        BigInteger n = domain.getN();
+        BigInteger e = new BigInteger(1, hash);
+        int excess = hash.length * 8 - n.bitLength();
+        if (excess > 0) {
+            e = e.shiftRight(excess);
+        }
+        HMacDSAKCalculator nonces = new HMacDSAKCalculator(new SHA256Digest());
+        nonces.init(n, key, hash);
+        SecureRandom random = RANDOM.get();
+        while (true) {
+            BigInteger k = pad(nonces.nextK(), n);
+            BigInteger r = table.multiply(k).normalize().getAffineXCoord().toBigInteger().mod(n);
+            if (r.signum() == 0) {
+                continue;
+            }
+            // s = (e + d*r) / k, with key and nonce both scaled by b, which cancels out
+            BigInteger b = BigIntegers.createRandomInRange(BigInteger.ONE, n.subtract(BigInteger.ONE), random);
+            BigInteger kb = k.multiply(b).mod(n);
+            BigInteger db = d.multiply(b).mod(n);
+            BigInteger s = db.multiply(r).add(e.multiply(b)).mod(n).multiply(kb.modInverse(n)).mod(n);
+            if (s.signum() != 0) {
+                return encode(r, s);
+            }
+        }
+    }
+
+    private byte[] sm2(byte[] hash) {
+        BigInteger n = domain.getN();
+        BigInteger e = new BigInteger(1, hash);
+        HMacDSAKCalculator nonces = new HMacDSAKCalculator(new SM3Digest());
+        nonces.init(n, key, hash);
+        SecureRandom random = RANDOM.get();
+        while (true) {
+            BigInteger k = pad(nonces.nextK(), n);
+            BigInteger x1 = table.multiply(k).normalize().getAffineXCoord().toBigInteger();
+            BigInteger r = e.add(x1).mod(n);
+            if (r.signum() == 0) {
+                continue;
+            }
+            // s = (k - r*d) / (1 + d) = (k + r) / (1 + d) - r, with k + r scaled by b and b taken out again
+            BigInteger b = BigIntegers.createRandomInRange(BigInteger.ONE, n.subtract(BigInteger.ONE), random);
+            BigInteger kb = k.multiply(b).add(r.multiply(b)).mod(n);
+            if (kb.signum() == 0) {
+                // k + r = n
+                continue;
+            }
+            BigInteger s = sm2Inverse.multiply(kb).mod(n).multiply(b.modInverse(n)).subtract(r).mod(n);
+            if (s.signum() != 0) {
+                return encode(r, s);
+            }
+        }
+    }
+
+    private static BigInteger blindedInverse(BigInteger x, BigInteger n) {
+        BigInteger b = BigIntegers.createRandomInRange(BigInteger.ONE, n.subtract(BigInteger.ONE), RANDOM.get());
+        return x.multiply(b).mod(n).modInverse(n).multiply(b).mod(n);
+    }
+
+    /**
+     * SM2 Z value of the public key for a user id, the last one used is kept
+     */
+    private byte[] z(byte[] userId) {
+        UserZ known = userZ;
+        if (known != null && Arrays.equals(known.userId, userId)) {
+            return known.z;
+        }
+        SM3Digest digest = new SM3Digest();
+        int bits = userId.length * 8;
+        digest.update((byte) (bits >> 8));
+        digest.update((byte) bits);
+        digest.update(userId, 0, userId.length);
+        update(digest, domain.getCurve().getA());
+        update(digest, domain.getCurve().getB());
+        update(digest, domain.getG().getAffineXCoord());
+        update(digest, domain.getG().getAffineYCoord());
+        update(digest, q.getAffineXCoord());
+        update(digest, q.getAffineYCoord());
+        byte[] z = new byte[digest.getDigestSize()];
+        digest.doFinal(z, 0);
+        userZ = new UserZ(userId.clone(), z);
+        return z;
+    }
+
+    private static void update(Digest digest, ECFieldElement v) {
+        byte[] bytes = v.getEncoded();
+        digest.update(bytes, 0, bytes.length);
+    }
+
+    private static byte[] hash(Digest digest, byte[] prefix, byte[] msg) {
+        if (prefix != null) {
+            digest.update(prefix, 0, prefix.length);
+        }
+        digest.update(msg, 0, msg.length);
+        byte[] out = new byte[digest.getDigestSize()];
+        digest.doFinal(out, 0);
+        return out;
+    }
+
+    private byte[] encode(BigInteger r, BigInteger s) {
+        int len = (domain.getN().bitLength() + 7) / 8;
+        byte[] out = new byte[len * 2];
+        System.arraycopy(BigIntegers.asUnsignedByteArray(len, r), 0, out, 0, len);
+        System.arraycopy(BigIntegers.asUnsignedByteArray(len, s), 0, out, len, len);
+        return out;
+    }
+}
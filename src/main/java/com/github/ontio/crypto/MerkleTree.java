@@ -39,29 +39,23 @@ public class MerkleTree {
         if (hashes.length == 1) {
             return hashes[0];
         }
-        return new UInt256(computeRoot(Arrays.stream(hashes).map(p -> p.toArray()).toArray(byte[][]::new)));
-    }
-
-    private static byte[] computeRoot(byte[][] hashes) {
-        if (hashes.length == 0) {
-            throw new IllegalArgumentException(); 
-        }
-        if (hashes.length == 1) {
-            return hashes[0];
-        }
-        if (hashes.length % 2 == 1) {
-        	byte[][] temp = new byte[hashes.length + 1][];
-        	System.arraycopy(hashes, 0, temp, 0, hashes.length);
-        	temp[temp.length - 1] = hashes[hashes.length - 1];
-        	hashes = temp;
+        // one level after the other in a single array, room for a duplicated last hash
+        byte[] level = new byte[(hashes.length + 1) * 32];
+        for (int i = 0; i < hashes.length; i++) {
+            System.arraycopy(hashes[i].toArray(), 0, level, i * 32, 32);
         }
-        byte[][] hashes_new = new byte[hashes.length / 2][];
-        for (int i = 0; i < hashes_new.length; i++) {
-        	byte[] buffer = new byte[hashes[i * 2].length + hashes[i * 2 + 1].length];
-        	System.arraycopy(hashes[i * 2], 0, buffer, 0, hashes[i * 2].length);
-        	System.arraycopy(hashes[i * 2 + 1], 0, buffer, hashes[i * 2].length, hashes[i * 2 + 1].length);
-            hashes_new[i] = Digest.hash256(buffer);
+        int n = hashes.length;
+        while (n > 1) {
+            if (n % 2 == 1) {
+                System.arraycopy(level, (n - 1) * 32, level, n * 32, 32);
+                n++;
+            }
+            // parent i lands in pair i / 2, which has been hashed already
+            for (int i = 0; i < n / 2; i++) {
+                Digest.hash256(level, i * 64, 64, level, i * 32);
+            }
+            n /= 2;
         }
-        return computeRoot(hashes_new);
+        return new UInt256(Arrays.copyOf(level, 32));
     }
 }
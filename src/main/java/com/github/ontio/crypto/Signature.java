@@ -26,7 +26,7 @@ public class Signature {
             throw new SDKException(ErrorCode.ParamError);
         }
 
-        if (data.length == 65) {
+        if (data.length == 65 || data.length > 65 && data[0] == SignatureScheme.SM3WITHSM2.ordinal()) {
             SignatureScheme[] schemes = SignatureScheme.values();
             if (data[0] > schemes.length) {
                 throw new SDKException(ErrorCode.UnsupportedSignatureScheme);
@@ -82,4 +82,8 @@ public class Signature {
     public byte[] getValue() {
         return this.value;
     }
+
+    public AlgorithmParameterSpec getParam() {
+        return this.param;
+    }
 }
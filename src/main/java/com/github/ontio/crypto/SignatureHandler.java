@@ -3,19 +3,35 @@ package com.github.ontio.crypto;
 import com.github.ontio.common.ErrorCode;
 import com.github.ontio.sdk.exception.SDKException;
 import org.bouncycastle.asn1.*;
+import org.bouncycastle.jcajce.spec.SM2ParameterSpec;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
 import java.util.Arrays;
 
 public class SignatureHandler {
-    private KeyType type;
-    private SignatureScheme scheme;
-    private java.security.Signature ctx;
+    /**
+     * user id of SM2 signatures that do not name one
+     */
+    public static final SM2ParameterSpec DEFAULT_SM2_PARAM = new SM2ParameterSpec("1234567812345678".getBytes());
 
+    // Signature objects are not thread safe, every thread keeps one per scheme
+    private static final ThreadLocal<java.security.Signature[]> CONTEXTS =
+            ThreadLocal.withInitial(() -> new java.security.Signature[SignatureScheme.values().length]);
+    private static final ThreadLocal<SecureRandom> RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private final KeyType type;
+    private final SignatureScheme scheme;
+
+    /**
+     * the handler itself holds no engine and can be shared between threads
+     */
     public SignatureHandler(KeyType type, SignatureScheme scheme) throws Exception {
         this.type = type;
         this.scheme = scheme;
@@ -27,7 +43,7 @@ public class SignatureHandler {
                     case SHA256WITHECDSA:
                     case SHA384WITHECDSA:
                     case SHA512WITHECDSA:
-                        ctx = java.security.Signature.getInstance(scheme.toString(), "BC");
+                        context();
                         break;
                     default:
                         throw new Exception(ErrorCode.UnsupportedSignatureScheme + scheme.toString());
@@ -37,7 +53,7 @@ public class SignatureHandler {
                 if (scheme.compareTo(SignatureScheme.SM3WITHSM2) != 0) {
                     throw new SDKException(ErrorCode.UnsupportedSignatureScheme);
                 }
-                ctx = java.security.Signature.getInstance(scheme.toString(), "BC");
+                context();
                 break;
             default:
                 throw new SDKException(ErrorCode.UnknownKeyType);
@@ -45,11 +61,31 @@ public class SignatureHandler {
 
     }
 
-    public byte[] generateSignature(PrivateKey priKey, byte[] msg, AlgorithmParameterSpec param) throws Exception {
+    private java.security.Signature context() throws NoSuchAlgorithmException {
+        java.security.Signature[] contexts = CONTEXTS.get();
+        java.security.Signature ctx = contexts[scheme.ordinal()];
+        if (ctx == null) {
+            ctx = java.security.Signature.getInstance(scheme.toString(), BouncyCastle.PROVIDER);
+            contexts[scheme.ordinal()] = ctx;
+        }
+        return ctx;
+    }
+
+    /**
+     * a reused engine keeps the last parameter, so SM2 always gets one
+     */
+    private void setParameter(java.security.Signature ctx, AlgorithmParameterSpec param) throws InvalidAlgorithmParameterException {
         if (param != null) {
             ctx.setParameter(param);
+        } else if (scheme == SignatureScheme.SM3WITHSM2) {
+            ctx.setParameter(DEFAULT_SM2_PARAM);
         }
-        ctx.initSign(priKey);
+    }
+
+    public byte[] generateSignature(PrivateKey priKey, byte[] msg, AlgorithmParameterSpec param) throws Exception {
+        java.security.Signature ctx = context();
+        setParameter(ctx, param);
+        ctx.initSign(priKey, RANDOM.get());
         ctx.update(msg);
         byte[] sig = ctx.sign();
         switch (type) {
@@ -63,6 +99,15 @@ public class SignatureHandler {
     }
 
     public boolean verifySignature(PublicKey pubKey, byte[] msg, byte[] sig) throws Exception {
+        return verifySignature(pubKey, msg, sig, null);
+    }
+
+    /**
+     * @param param the SM2 user id the signature was made with, null for the default
+     */
+    public boolean verifySignature(PublicKey pubKey, byte[] msg, byte[] sig, AlgorithmParameterSpec param) throws Exception {
+        java.security.Signature ctx = context();
+        setParameter(ctx, param);
         ctx.initVerify(pubKey);
         ctx.update(msg);
         byte[] v;
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.crypto;
+
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.util.Pack;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * remembers signatures that verified, so the same transaction or credential checked again
+ * costs a hash instead of an EC verification. An entry is the SHA-256 of the public key,
+ * the message and the signature, failed verifications are never kept. The entries are
+ * spread over SEGMENTS least recently used maps so threads seldom wait for each other.
+ */
+public class VerifiedSignatureCache {
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+    private static final int SEGMENTS = 16;
+
+    public interface Verifier {
+        boolean verify() throws Exception;
+    }
+
+    private static final class Key {
+        final long h0, h1, h2, h3;
+
+        Key(byte[] digest) {
+            h0 = Pack.bigEndianToLong(digest, 0);
+            h1 = Pack.bigEndianToLong(digest, 8);
+            h2 = Pack.bigEndianToLong(digest, 16);
+            h3 = Pack.bigEndianToLong(digest, 24);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return h0 == k.h0 && h1 == k.h1 && h2 == k.h2 && h3 == k.h3;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (h0 ^ h0 >>> 32);
+        }
+    }
+
+    private final Map<Key, Boolean>[] segments;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VerifiedSignatureCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxEntries verified signatures kept before the least recently used are evicted
+     */
+    @SuppressWarnings("unchecked")
+    public VerifiedSignatureCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries should be greater than 0");
+        }
+        int perSegment = (maxEntries + SEGMENTS - 1) / SEGMENTS;
+        segments = (Map<Key, Boolean>[]) new Map<?, ?>[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new LinkedHashMap<Key, Boolean>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+                    if (size() > perSegment) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    /**
+     * true if the signature verified before, otherwise runs the verifier and keeps a success
+     */
+    public boolean verify(byte[] pubKey, byte[] msg, byte[] signature, Verifier verifier) throws Exception {
+        Key key = key(pubKey, msg, signature);
+        Map<Key, Boolean> segment = segment(key);
+        synchronized (segment) {
+            if (segment.get(key) != null) {
+                hits.incrementAndGet();
+                return true;
+            }
+        }
+        misses.incrementAndGet();
+        boolean ok = verifier.verify();
+        if (ok) {
+            synchronized (segment) {
+                segment.put(key, Boolean.TRUE);
+            }
+        }
+        return ok;
+    }
+
+    private static Key key(byte[] pubKey, byte[] msg, byte[] signature) {
+        SHA256Digest digest = new SHA256Digest();
+        update(digest, pubKey);
+        update(digest, msg);
+        update(digest, signature);
+        byte[] out = new byte[32];
+        digest.doFinal(out, 0);
+        return new Key(out);
+    }
+
+    // length first, so moving bytes from one part to the next gives another key
+    private static void update(SHA256Digest digest, byte[] part) {
+        byte[] len = Pack.intToBigEndian(part.length);
+        digest.update(len, 0, len.length);
+        digest.update(part, 0, part.length);
+    }
+
+    private Map<Key, Boolean> segment(Key key) {
+        return segments[(int) (key.h1 >>> 60)];
+    }
+
+    public void clear() {
+        for (Map<Key, Boolean> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int n = 0;
+        for (Map<Key, Boolean> segment : segments) {
+            synchronized (segment) {
+                n += segment.size();
+            }
+        }
+        return n;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
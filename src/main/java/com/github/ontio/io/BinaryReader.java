@@ -19,8 +19,11 @@
 
 package com.github.ontio.io;
 
+import com.github.ontio.common.Address;
 import com.github.ontio.common.ErrorCode;
+import com.github.ontio.common.UInt256;
 import com.github.ontio.core.scripts.ScriptOp;
+import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.crypto.ECC;
 import org.bouncycastle.math.ec.ECPoint;
 
@@ -30,6 +33,8 @@ import java.io.InputStream;
 import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
 
 /*
  ******************************************************************************
@@ -72,6 +77,12 @@ public class BinaryReader implements AutoCloseable {
 		this.reader = new DataInputStream(stream);
 	}
 
+	/**
+	 * for readers over other sources, they override the primitive reads
+	 */
+	protected BinaryReader() {
+	}
+
 	@Override
 	public void close() throws IOException {
 		reader.close();
@@ -99,14 +110,38 @@ public class BinaryReader implements AutoCloseable {
 		return buffer;
 	}
 	
+	public void skip(int count) throws IOException {
+		while (count > 0) {
+			int n = reader.skipBytes(count);
+			if (n <= 0) {
+				// skipBytes gives no reason for stopping, a read tells end of stream apart
+				reader.readByte();
+				n = 1;
+			}
+			count -= n;
+		}
+	}
+
+	public void skipVarBytes() throws IOException {
+		skip((int) readVarInt(0X7fffffc7));
+	}
+
 	public double readDouble() throws IOException {
 		reader.readFully(array, 0, 8);
 		return buffer.getDouble(0);
 	}
 	
 	public ECPoint readECPoint() throws IOException {
+		return ECC.secp256r1.getCurve().decodePoint(readECPointBytes());
+	}
+
+	/**
+	 * the encoded point as read by readECPoint, 33 bytes for a compressed key, without
+	 * decoding it. Enough to derive an address or compare keys.
+	 */
+	public byte[] readECPointBytes() throws IOException {
 		byte[] encoded;
-		byte fb = reader.readByte();
+		byte fb = readByte();
 		switch (fb)
 		{
 		case 0x00:
@@ -116,17 +151,17 @@ public class BinaryReader implements AutoCloseable {
 		case 0x03:
 			encoded = new byte[33];
 			encoded[0] = fb;
-			reader.readFully(encoded, 1, 32);
+			read(encoded, 1, 32);
 			break;
 		case 0x04:
 			encoded = new byte[65];
 			encoded[0] = fb;
-			reader.readFully(encoded, 1, 64);
+			read(encoded, 1, 64);
 			break;
 		default:
 			throw new IOException(ErrorCode.ParamError);
 		}
-		return ECC.secp256r1.getCurve().decodePoint(encoded);
+		return encoded;
 	}
 	
 	public String readFixedString(int length) throws IOException {
@@ -152,15 +187,60 @@ public class BinaryReader implements AutoCloseable {
 	}
 	
 	public <T extends Serializable> T readSerializable(Class<T> t) throws InstantiationException, IllegalAccessException, IOException {
+		if (Transaction.class.isAssignableFrom(t)) {
+			return readTransaction(t);
+		}
 		T obj = t.newInstance();
 		obj.deserialize(this);
 		return obj;
 	}
+
+	/**
+	 * transactions come from TransactionRegistry by their type byte, not by reflection
+	 */
+	private <T extends Serializable> T readTransaction(Class<T> t) throws IOException {
+		Transaction tx = Transaction.deserializeFrom(this);
+		if (!t.isInstance(tx)) {
+			throw new IOException("expected " + t.getSimpleName() + " but got " + tx.txType);
+		}
+		return t.cast(tx);
+	}
 	
+	/**
+	 * reads an object made by the factory, without reflection
+	 */
+	public <T extends Serializable> T readSerializable(Supplier<T> factory) throws IOException {
+		T obj = factory.get();
+		obj.deserialize(this);
+		return obj;
+	}
+
+	public <T extends Serializable> T[] readSerializableArray(Supplier<T> factory, IntFunction<T[]> newArray) throws IOException {
+		T[] array = newArray.apply((int)readVarInt(0x10000000));
+		for (int i = 0; i < array.length; i++) {
+			array[i] = factory.get();
+			array[i].deserialize(this);
+		}
+		return array;
+	}
+
+	public Address readAddress() throws IOException {
+		return Address.intern(readBytes(20));
+	}
+
+	public UInt256 readUInt256() throws IOException {
+		return UInt256.intern(readBytes(32));
+	}
+
 	public <T extends Serializable> T[] readSerializableArray(Class<T> t) throws InstantiationException, IllegalAccessException, IOException {
 		@SuppressWarnings("unchecked")
 		T[] array = (T[])Array.newInstance(t, (int)readVarInt(0x10000000));
+		boolean transactions = Transaction.class.isAssignableFrom(t);
 		for (int i = 0; i < array.length; i++) {
+			if (transactions) {
+				array[i] = readTransaction(t);
+				continue;
+			}
 			array[i] = t.newInstance();
 			array[i].deserialize(this);
 		}
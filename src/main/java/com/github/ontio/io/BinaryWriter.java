@@ -35,6 +35,12 @@ public class BinaryWriter implements AutoCloseable {
 	public BinaryWriter(OutputStream stream) {
 		this.writer = new DataOutputStream(stream);
 	}
+
+	/**
+	 * for writers into other targets, they override the primitive writes
+	 */
+	protected BinaryWriter() {
+	}
 	
 	@Override
 	public void close() throws IOException {
@@ -67,7 +73,7 @@ public class BinaryWriter implements AutoCloseable {
 	}
 	
 	public void writeECPoint(ECPoint v) throws IOException {
-		writer.write(v.getEncoded(true));
+		write(v.getEncoded(true));
 	}
 	
 	public void writeFixedString(String v, int length) throws IOException {
@@ -81,9 +87,9 @@ public class BinaryWriter implements AutoCloseable {
 		if (bytes.length > length) {
 			throw new IllegalArgumentException();
 		}
-		writer.write(bytes);
+		write(bytes);
 		if (bytes.length < length) {
-			writer.write(new byte[length - bytes.length]);
+			write(new byte[length - bytes.length]);
 		}
 	}
 	
@@ -127,7 +133,7 @@ public class BinaryWriter implements AutoCloseable {
 	
 	public void writeVarBytes(byte[] v) throws IOException {
 		writeVarInt(v.length);
-		writer.write(v);
+		write(v);
 	}
 	
 	public void writeVarInt(long v) throws IOException {
@@ -151,4 +157,58 @@ public class BinaryWriter implements AutoCloseable {
 	public void writeVarString(String v) throws IOException {
 		writeVarBytes(v.getBytes("UTF-8"));
 	}
+
+	/**
+	 * bytes written by writeVarInt(v)
+	 */
+	public static int varIntSize(long v) {
+		if (v < 0) {
+			throw new IllegalArgumentException();
+		}
+		return v < 0xFD ? 1 : v <= 0xFFFF ? 3 : v <= 0xFFFFFFFFL ? 5 : 9;
+	}
+
+	/**
+	 * bytes written by writeVarBytes for a value of this length
+	 */
+	public static int varBytesSize(int length) {
+		return varIntSize(length) + length;
+	}
+
+	/**
+	 * bytes written by writeVarString(v), the UTF-8 length is counted without encoding
+	 */
+	public static int varStringSize(String v) {
+		int length = 0;
+		for (int i = 0; i < v.length(); i++) {
+			char c = v.charAt(i);
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < v.length() && Character.isLowSurrogate(v.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else {
+				// lone surrogates are replaced by '?'
+				length += Character.isSurrogate(c) ? 1 : 3;
+			}
+		}
+		return varBytesSize(length);
+	}
+
+	/**
+	 * bytes written by writeSerializableArray(v), -1 when an element does not know its size
+	 */
+	public static int serializableArraySize(Serializable[] v) {
+		int size = varIntSize(v.length);
+		for (Serializable item : v) {
+			int n = item.serializedSize();
+			if (n < 0) {
+				return -1;
+			}
+			size += n;
+		}
+		return size;
+	}
 }
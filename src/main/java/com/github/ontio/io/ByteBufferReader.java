@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * BinaryReader over a ByteBuffer, heap or direct, with the same wire format.
+ * Primitives are read straight from the buffer and readSlice hands out views
+ * of the underlying bytes without copying.
+ */
+public class ByteBufferReader extends BinaryReader {
+	private final ByteBuffer buf;
+	private final int start;
+
+	public ByteBufferReader(byte[] data) {
+		this(ByteBuffer.wrap(data));
+	}
+
+	public ByteBufferReader(byte[] data, int offset, int length) {
+		this(ByteBuffer.wrap(data, offset, length));
+	}
+
+	/**
+	 * reads from the buffer's position to its limit, the buffer itself is not moved
+	 */
+	public ByteBufferReader(ByteBuffer buffer) {
+		this.buf = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		this.start = buf.position();
+	}
+
+	private void need(int count) throws EOFException {
+		if (buf.remaining() < count) {
+			throw new EOFException();
+		}
+	}
+
+	@Override
+	public void close() {
+	}
+
+	@Override
+	public void read(byte[] buffer) throws IOException {
+		read(buffer, 0, buffer.length);
+	}
+
+	@Override
+	public void read(byte[] buffer, int index, int length) throws IOException {
+		need(length);
+		buf.get(buffer, index, length);
+	}
+
+	@Override
+	public boolean readBoolean() throws IOException {
+		return readByte() != 0;
+	}
+
+	@Override
+	public byte readByte() throws IOException {
+		need(1);
+		return buf.get();
+	}
+
+	@Override
+	public byte[] readBytes(int count) throws IOException {
+		if (count < 0) {
+			throw new IOException("negative length " + count);
+		}
+		need(count);
+		byte[] data = new byte[count];
+		buf.get(data);
+		return data;
+	}
+
+	@Override
+	public void skip(int count) throws IOException {
+		if (count < 0) {
+			throw new IOException("negative length " + count);
+		}
+		need(count);
+		buf.position(buf.position() + count);
+	}
+
+	/**
+	 * the next count bytes as a little endian view sharing this reader's memory
+	 */
+	public ByteBuffer readSlice(int count) throws IOException {
+		if (count < 0) {
+			throw new IOException("negative length " + count);
+		}
+		need(count);
+		ByteBuffer slice = buf.duplicate();
+		slice.limit(buf.position() + count);
+		buf.position(buf.position() + count);
+		return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	public ByteBuffer readVarSlice() throws IOException {
+		return readSlice((int) readVarInt(0X7fffffc7));
+	}
+
+	@Override
+	public double readDouble() throws IOException {
+		need(8);
+		return buf.getDouble();
+	}
+
+	@Override
+	public float readFloat() throws IOException {
+		need(4);
+		return buf.getFloat();
+	}
+
+	@Override
+	public int readInt() throws IOException {
+		need(4);
+		return buf.getInt();
+	}
+
+	@Override
+	public long readLong() throws IOException {
+		need(8);
+		return buf.getLong();
+	}
+
+	@Override
+	public short readShort() throws IOException {
+		need(2);
+		return buf.getShort();
+	}
+
+	@Override
+	public int available() {
+		return buf.remaining();
+	}
+
+	/**
+	 * @return bytes read so far
+	 */
+	public int position() {
+		return buf.position() - start;
+	}
+
+	public void position(int n) {
+		buf.position(start + n);
+	}
+
+	@Override
+	public long Seek(long n) {
+		position((int) n);
+		return n;
+	}
+}
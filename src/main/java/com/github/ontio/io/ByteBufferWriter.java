@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BinaryWriter into a growing ByteBuffer, heap or direct, with the same wire format.
+ * Writers taken from pooled() go back to a small shared pool on close, so hot
+ * serialization paths reuse their buffers instead of growing new streams.
+ */
+public class ByteBufferWriter extends BinaryWriter {
+	private static final int POOL_SIZE = 64;
+	private static final int MAX_POOLED_CAPACITY = 1 << 20;
+	private static final Queue<ByteBufferWriter> POOL = new ConcurrentLinkedQueue<>();
+	private static final AtomicInteger POOLED = new AtomicInteger();
+
+	private final boolean direct;
+	private final boolean pooled;
+	private ByteBuffer buf;
+	private boolean inPool;
+
+	public ByteBufferWriter() {
+		this(256, false);
+	}
+
+	public ByteBufferWriter(int capacity, boolean direct) {
+		this(capacity, direct, false);
+	}
+
+	private ByteBufferWriter(int capacity, boolean direct, boolean pooled) {
+		this.direct = direct;
+		this.pooled = pooled;
+		this.buf = allocate(capacity);
+	}
+
+	private ByteBufferWriter(ByteBuffer buf) {
+		this.direct = false;
+		this.pooled = false;
+		this.buf = buf.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * writes into data from offset on, the writer has to fill the array exactly
+	 */
+	public static void fill(byte[] data, int offset, Content content) throws IOException {
+		ByteBufferWriter writer = new ByteBufferWriter(ByteBuffer.wrap(data, offset, data.length - offset));
+		content.writeTo(writer);
+		if (writer.buf.array() != data || writer.buf.position() != data.length) {
+			throw new IllegalStateException("expected " + (data.length - offset) + " bytes, "
+					+ (writer.buf.position() - offset) + " were written");
+		}
+	}
+
+	public interface Content {
+		void writeTo(BinaryWriter writer) throws IOException;
+	}
+
+	/**
+	 * an empty heap writer from the pool, returned to it by close
+	 */
+	public static ByteBufferWriter pooled() {
+		ByteBufferWriter w = POOL.poll();
+		if (w == null) {
+			return new ByteBufferWriter(256, false, true);
+		}
+		POOLED.decrementAndGet();
+		w.inPool = false;
+		return w;
+	}
+
+	private ByteBuffer allocate(int capacity) {
+		ByteBuffer b = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+		return b.order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	private void ensure(int count) {
+		if (buf.remaining() >= count) {
+			return;
+		}
+		int needed = buf.position() + count;
+		if (needed < 0) {
+			throw new IllegalStateException("buffer too large");
+		}
+		int doubled = buf.capacity() > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : buf.capacity() * 2;
+		ByteBuffer grown = allocate(Math.max(needed, doubled));
+		buf.flip();
+		grown.put(buf);
+		buf = grown;
+	}
+
+	/**
+	 * returns a pooled writer to the pool, the bytes it handed out must no longer be used
+	 */
+	@Override
+	public void close() {
+		if (!pooled || inPool) {
+			return;
+		}
+		buf.clear();
+		// oversized buffers are left to the garbage collector
+		if (buf.capacity() > MAX_POOLED_CAPACITY) {
+			return;
+		}
+		if (POOLED.incrementAndGet() <= POOL_SIZE) {
+			inPool = true;
+			POOL.offer(this);
+		} else {
+			POOLED.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	public void reset() {
+		buf.clear();
+	}
+
+	public int size() {
+		return buf.position();
+	}
+
+	/**
+	 * @return a copy of the bytes written
+	 */
+	public byte[] toArray() {
+		byte[] data = new byte[buf.position()];
+		ByteBuffer view = buf.duplicate();
+		view.flip();
+		view.get(data);
+		return data;
+	}
+
+	/**
+	 * @return a read-only view of the bytes written, valid until the next write, reset or close
+	 */
+	public ByteBuffer toByteBuffer() {
+		ByteBuffer view = buf.duplicate();
+		view.flip();
+		return view.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	@Override
+	public void write(byte[] buffer) {
+		write(buffer, 0, buffer.length);
+	}
+
+	@Override
+	public void write(byte[] buffer, int index, int length) {
+		ensure(length);
+		buf.put(buffer, index, length);
+	}
+
+	public void write(ByteBuffer src) {
+		ensure(src.remaining());
+		buf.put(src);
+	}
+
+	@Override
+	public void writeBoolean(boolean v) {
+		writeByte(v ? (byte) 1 : (byte) 0);
+	}
+
+	@Override
+	public void writeByte(byte v) {
+		ensure(1);
+		buf.put(v);
+	}
+
+	@Override
+	public void writeDouble(double v) {
+		ensure(8);
+		buf.putDouble(v);
+	}
+
+	@Override
+	public void writeFloat(float v) {
+		ensure(4);
+		buf.putFloat(v);
+	}
+
+	@Override
+	public void writeInt(int v) {
+		ensure(4);
+		buf.putInt(v);
+	}
+
+	@Override
+	public void writeLong(long v) {
+		ensure(8);
+		buf.putLong(v);
+	}
+
+	@Override
+	public void writeShort(short v) {
+		ensure(2);
+		buf.putShort(v);
+	}
+}
@@ -21,8 +21,6 @@ package com.github.ontio.io;
 
 import com.github.ontio.common.Helper;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
 /**
@@ -30,10 +28,8 @@ import java.io.IOException;
  */
 public interface Serializable {
     static <T extends Serializable> T from(byte[] value, Class<T> t) throws InstantiationException, IllegalAccessException {
-        try (ByteArrayInputStream ms = new ByteArrayInputStream(value)) {
-            try (BinaryReader reader = new BinaryReader(ms)) {
-                return reader.readSerializable(t);
-            }
+        try {
+            return new ByteBufferReader(value).readSerializable(t);
         } catch (IOException ex) {
             throw new IllegalArgumentException(ex);
         }
@@ -51,13 +47,30 @@ public interface Serializable {
      */
     void serialize(BinaryWriter writer) throws IOException;
 
+    /**
+     * the exact number of bytes serialize writes, or -1 when it is not known up front
+     */
+    default int serializedSize() {
+        return -1;
+    }
+
+    /**
+     * serializes into one buffer of serializedSize() bytes when the size is known
+     */
     default byte[] toArray() {
-        try (ByteArrayOutputStream ms = new ByteArrayOutputStream()) {
-            try (BinaryWriter writer = new BinaryWriter(ms)) {
-                serialize(writer);
-                writer.flush();
-                return ms.toByteArray();
+        int size = serializedSize();
+        if (size >= 0) {
+            byte[] data = new byte[size];
+            try {
+                ByteBufferWriter.fill(data, 0, this::serialize);
+            } catch (IOException ex) {
+                throw new UnsupportedOperationException(ex);
             }
+            return data;
+        }
+        try (ByteBufferWriter writer = ByteBufferWriter.pooled()) {
+            serialize(writer);
+            return writer.toArray();
         } catch (IOException ex) {
             throw new UnsupportedOperationException(ex);
         }
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+/**
+ * lets another thread abort the request a thread is blocked in. The calling thread
+ * enters a scope, a transport sending a request on that thread registers how to abort
+ * it. Transports that do not take part only see the thread interrupted.
+ */
+final class AbortScope {
+    private static final ThreadLocal<AbortScope> CURRENT = new ThreadLocal<>();
+
+    private Runnable action;
+    private boolean aborted;
+
+    void enter() {
+        CURRENT.set(this);
+    }
+
+    void exit() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the scope of the calling thread, null outside of one
+     */
+    static AbortScope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return true if the calling thread runs in a scope that was aborted
+     */
+    static boolean isAborted() {
+        AbortScope scope = CURRENT.get();
+        return scope != null && scope.aborted();
+    }
+
+    synchronized boolean aborted() {
+        return aborted;
+    }
+
+    /**
+     * the request about to be sent is aborted by action, at once if the scope already is
+     */
+    synchronized void register(Runnable action) {
+        if (aborted) {
+            action.run();
+        } else {
+            this.action = action;
+        }
+    }
+
+    /**
+     * the registered request is done, aborting it is no longer needed
+     */
+    synchronized void unregister() {
+        action = null;
+    }
+
+    synchronized void abort() {
+        aborted = true;
+        if (action != null) {
+            action.run();
+            action = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * non-blocking HTTP layer for the async connectors, futures complete with the
+ * response body or exceptionally with an IOException
+ */
+public interface AsyncHttpTransport {
+
+    CompletableFuture<String> get(String url);
+
+    CompletableFuture<String> post(String url, Map<String, String> header, String body);
+}
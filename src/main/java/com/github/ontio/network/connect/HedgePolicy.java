@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * decides when MultiNodeConnector sends a read to a second node. The budget is the given
+ * percentile of recent read latencies, a read still unanswered after it is hedged.
+ * Every read earns maxHedgeRate of a token and every hedge spends one, so hedges
+ * stay below that share of all reads even when a whole cluster slows down.
+ */
+public class HedgePolicy {
+    private static final int WINDOW = 1024;
+    private static final int RECOMPUTE_EVERY = 64;
+    private static final double MAX_TOKENS = 10;
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double maxHedgeRate;
+    private final long[] samples = new long[WINDOW];
+    private long sampleCount;
+    private volatile long budgetNanos;
+    private double tokens = MAX_TOKENS;
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong fired = new AtomicLong();
+    private final AtomicLong won = new AtomicLong();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    public HedgePolicy() {
+        this(0.95, 5, 0.05);
+    }
+
+    /**
+     * @param percentile     latency percentile used as budget, e.g. 0.95
+     * @param minDelayMillis lower bound of the budget, also used until enough latencies are known
+     * @param maxHedgeRate   share of reads that may be hedged, e.g. 0.05
+     */
+    public HedgePolicy(double percentile, long minDelayMillis, double maxHedgeRate) {
+        if (percentile <= 0 || percentile >= 1 || maxHedgeRate < 0 || maxHedgeRate > 1 || minDelayMillis < 0) {
+            throw new IllegalArgumentException("percentile in (0,1), maxHedgeRate in [0,1] and minDelayMillis >= 0 expected");
+        }
+        this.percentile = percentile;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMillis);
+        this.maxHedgeRate = maxHedgeRate;
+        this.budgetNanos = minDelayNanos;
+    }
+
+    long budgetNanos() {
+        return budgetNanos;
+    }
+
+    synchronized void recordLatency(long nanos) {
+        long n = sampleCount++;
+        samples[(int) (n % WINDOW)] = nanos;
+        if ((n + 1) % RECOMPUTE_EVERY == 0) {
+            long[] copy = Arrays.copyOf(samples, (int) Math.min(n + 1, WINDOW));
+            Arrays.sort(copy);
+            budgetNanos = Math.max(minDelayNanos, copy[(int) (percentile * (copy.length - 1))]);
+        }
+    }
+
+    synchronized void onRead() {
+        reads.incrementAndGet();
+        tokens = Math.min(MAX_TOKENS, tokens + maxHedgeRate);
+    }
+
+    /**
+     * @return true if a hedge may be sent now
+     */
+    synchronized boolean tryHedge() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            fired.incrementAndGet();
+            return true;
+        }
+        suppressed.incrementAndGet();
+        return false;
+    }
+
+    void onHedgeWon() {
+        won.incrementAndGet();
+    }
+
+    public long getReads() {
+        return reads.get();
+    }
+
+    /**
+     * @return reads sent to a second node
+     */
+    public long getHedgesFired() {
+        return fired.get();
+    }
+
+    /**
+     * @return hedged reads answered by the second node first
+     */
+    public long getHedgesWon() {
+        return won.get();
+    }
+
+    /**
+     * @return reads over budget that were not hedged because of the rate cap
+     */
+    public long getHedgesSuppressed() {
+        return suppressed.get();
+    }
+
+    public double getBudgetMillis() {
+        return budgetNanos / 1e6;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.common.HexCodec;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * JSON request carrying binary data as a hex string, written as prefix, hex and
+ * suffix. The hex is produced chunk by chunk while writing, so no String or full
+ * size hex copy of the data is ever built.
+ */
+public final class HexBody implements HttpTransport.Body {
+    // data bytes hex encoded per write
+    private static final int CHUNK = 4096;
+
+    private final byte[] prefix;
+    private final byte[] data;
+    private final byte[] suffix;
+
+    /**
+     * @param prefix JSON up to and including the opening quote of the hex value
+     * @param data   bytes to send as hex, not copied
+     * @param suffix JSON from the closing quote on
+     */
+    public HexBody(String prefix, byte[] data, String suffix) {
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.data = data;
+        this.suffix = suffix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long length() {
+        return prefix.length + 2L * data.length + suffix.length;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(prefix);
+        byte[] chunk = new byte[2 * Math.min(CHUNK, data.length)];
+        for (int off = 0; off < data.length; off += CHUNK) {
+            int n = Math.min(CHUNK, data.length - off);
+            HexCodec.encode(data, off, n, chunk, 0);
+            out.write(chunk, 0, 2 * n);
+        }
+        out.write(suffix);
+    }
+
+    /**
+     * the whole body in one exactly sized array, for frames that need it in one piece
+     */
+    public byte[] toByteArray() {
+        byte[] body = new byte[(int) length()];
+        System.arraycopy(prefix, 0, body, 0, prefix.length);
+        HexCodec.encode(data, 0, data.length, body, prefix.length);
+        System.arraycopy(suffix, 0, body, prefix.length + 2 * data.length, suffix.length);
+        return body;
+    }
+}
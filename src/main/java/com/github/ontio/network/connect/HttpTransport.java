@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * HTTP layer shared by the rpc and restful connectors
+ */
+public interface HttpTransport {
+
+    String get(String url) throws IOException;
+
+    String post(String url, Map<String, String> header, String body) throws IOException;
+
+    String delete(String url, String body) throws IOException;
+
+    /**
+     * posts a body written straight to the connection, transports that can not stream
+     * fall back to a String
+     */
+    default String post(String url, Map<String, String> header, Body body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) body.length());
+        body.writeTo(out);
+        return post(url, header, out.toString("UTF-8"));
+    }
+
+    /**
+     * hands the response body to the reader as it arrives, transports that can not
+     * stream read it into a String first
+     */
+    default <T> T get(String url, ResponseReader<T> reader) throws IOException {
+        return reader.read(new ByteArrayInputStream(get(url).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    default <T> T post(String url, Map<String, String> header, String body, ResponseReader<T> reader) throws IOException {
+        return reader.read(new ByteArrayInputStream(post(url, header, body).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * UTF-8 request body of a known length that can be written more than once
+     */
+    interface Body {
+        long length();
+
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * consumes a successful response body, the stream is closed by the transport
+     */
+    interface ResponseReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+}
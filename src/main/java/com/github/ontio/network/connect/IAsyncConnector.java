@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.common.Helper;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.transaction.Transaction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * non-blocking sibling of IConnector, every call returns at once and the future
+ * completes with the same value the blocking call would return, or exceptionally
+ * with the ConnectorException or IOException it would throw
+ */
+public interface IAsyncConnector {
+
+    String getUrl();
+
+    CompletableFuture<Object> sendRawTransaction(boolean preExec, String userid, String hexData);
+
+    CompletableFuture<Object> sendRawTransaction(String hexData);
+
+    default CompletableFuture<Object> sendRawTransaction(boolean preExec, String userid, byte[] tx) {
+        return sendRawTransaction(preExec, userid, Helper.toHexString(tx));
+    }
+
+    CompletableFuture<Transaction> getRawTransaction(String txhash);
+
+    CompletableFuture<Object> getRawTransactionJson(String txhash);
+
+    CompletableFuture<Integer> getNodeCount();
+
+    CompletableFuture<Integer> getBlockHeight();
+
+    CompletableFuture<Block> getBlock(int height);
+
+    CompletableFuture<Block> getBlock(String hash);
+
+    CompletableFuture<Object> getBlockJson(int height);
+
+    CompletableFuture<Object> getBlockJson(String hash);
+
+    CompletableFuture<Object> getBalance(String address);
+
+    CompletableFuture<Object> getBalanceV2(String address);
+
+    CompletableFuture<Object> getContract(String hash);
+
+    CompletableFuture<Object> getContractJson(String hash);
+
+    CompletableFuture<Object> getSmartCodeEvent(int height);
+
+    CompletableFuture<Object> getSmartCodeEvent(String hash);
+
+    CompletableFuture<Integer> getBlockHeightByTxHash(String hash);
+
+    CompletableFuture<String> getStorage(String codehash, String key);
+
+    CompletableFuture<Object> getMerkleProof(String hash);
+
+    CompletableFuture<String> getAllowance(String asset, String from, String to);
+
+    CompletableFuture<String> getAllowanceV2(String asset, String from, String to);
+
+    CompletableFuture<Object> getMemPoolTxCount();
+
+    CompletableFuture<Object> getMemPoolTxState(String hash);
+
+    CompletableFuture<String> getVersion();
+
+    CompletableFuture<String> getGrantOng(String address);
+
+    CompletableFuture<Integer> getNetworkId();
+
+    CompletableFuture<Object> getNodeSyncStatus();
+
+    CompletableFuture<String> getSideChainData(String sideChainID);
+}
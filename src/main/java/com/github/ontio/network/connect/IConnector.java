@@ -19,11 +19,18 @@
 
 package com.github.ontio.network.connect;
 
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.github.ontio.common.Helper;
+import com.github.ontio.common.SmartCodeEvent;
 import com.github.ontio.core.block.Block;
 import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.network.exception.ConnectorException;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 
 public interface IConnector {
 
@@ -33,6 +40,14 @@ public interface IConnector {
 
     Object sendRawTransaction(String hexData) throws ConnectorException, IOException;
 
+    /**
+     * sends the serialized transaction, connectors that can hex encode it straight
+     * into the request override this
+     */
+    default Object sendRawTransaction(boolean preExec, String userid, byte[] tx) throws ConnectorException, IOException {
+        return sendRawTransaction(preExec, userid, Helper.toHexString(tx));
+    }
+
     Transaction getRawTransaction(String txhash) throws ConnectorException, IOException;
 
     Object getRawTransactionJson(String txhash) throws ConnectorException, IOException;
@@ -45,6 +60,14 @@ public interface IConnector {
 
     Block getBlock(String hash) throws ConnectorException, IOException;
 
+    /**
+     * the block in its wire format as hex, connectors that get it from the node that
+     * way override this so the block is not decoded and encoded again
+     */
+    default String getBlockHex(int height) throws ConnectorException, IOException {
+        return Helper.toHexString(getBlock(height).toArray());
+    }
+
     Object getBlockJson(int height) throws ConnectorException, IOException;
 
     Object getBlockJson(String hash) throws ConnectorException, IOException;
@@ -61,6 +84,32 @@ public interface IConnector {
 
     Object getSmartCodeEvent(String hash) throws ConnectorException, IOException;
 
+    /**
+     * events of every transaction in the block as typed objects, connectors that can
+     * bind them while the response is parsed override this
+     */
+    default List<SmartCodeEvent> getSmartCodeEvents(int height) throws ConnectorException, IOException {
+        Object result = getSmartCodeEvent(height);
+        if (result == null || "".equals(result)) {
+            return Collections.emptyList();
+        }
+        if (result instanceof JSONArray) {
+            return ((JSONArray) result).toJavaList(SmartCodeEvent.class);
+        }
+        return JSON.parseArray(JSON.toJSONString(result), SmartCodeEvent.class);
+    }
+
+    default SmartCodeEvent getSmartCodeEventInfo(String hash) throws ConnectorException, IOException {
+        Object result = getSmartCodeEvent(hash);
+        if (result == null || "".equals(result)) {
+            return null;
+        }
+        if (result instanceof JSONObject) {
+            return ((JSONObject) result).toJavaObject(SmartCodeEvent.class);
+        }
+        return JSON.parseObject(JSON.toJSONString(result), SmartCodeEvent.class);
+    }
+
     int getBlockHeightByTxHash(String hash) throws ConnectorException, IOException;
 
     String getStorage(String codehash, String key) throws ConnectorException, IOException;
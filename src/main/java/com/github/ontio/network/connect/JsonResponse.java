@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.alibaba.fastjson.JSONReader;
+import com.alibaba.fastjson.parser.DefaultJSONParser;
+import com.alibaba.fastjson.parser.JSONLexer;
+import com.alibaba.fastjson.parser.JSONLexerBase;
+import com.alibaba.fastjson.parser.JSONReaderScanner;
+import com.alibaba.fastjson.parser.ParserConfig;
+import com.alibaba.fastjson.util.TypeUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * a node response read member by member straight from the response stream. The
+ * result member is bound to resultType as it is parsed, the other members (error,
+ * desc, id ...) are kept as they are. Works for the rpc (lowercase) and restful
+ * (capitalized) envelopes alike. A string or null result where resultType is not a
+ * string (nodes answer "" for an empty event list) reads as a null result.
+ */
+public final class JsonResponse<T> {
+    public static final long DEFAULT_MAX_BYTES = 64L << 20;
+
+    private final Map<String, Object> members;
+    private final T result;
+
+    private JsonResponse(Map<String, Object> members, T result) {
+        this.members = members;
+        this.result = result;
+    }
+
+    /**
+     * reads one response object. Only the decoder's fixed size buffers are held
+     * besides the parsed values, a single string longer than those grows them.
+     *
+     * @param maxBytes the response is rejected once more bytes than this arrive
+     * @throws InvalidResponseException when the response is not a JSON object or its
+     *                                  result does not bind to resultType
+     * @throws IOException              when the stream fails or is too long
+     */
+    public static <T> JsonResponse<T> read(InputStream in, Type resultType, long maxBytes) throws IOException {
+        Map<String, Object> members = new LinkedHashMap<>();
+        T result = null;
+        Object unbound = null;
+        Reader source = new InputStreamReader(new LimitedInputStream(in, maxBytes), StandardCharsets.UTF_8);
+        try {
+            DefaultJSONParser parser = new DefaultJSONParser(new JSONReaderScanner(source));
+            JSONReader reader = new JSONReader(parser);
+            reader.startObject();
+            while (reader.hasNext()) {
+                String name = reader.readString();
+                if (!"result".equalsIgnoreCase(name)) {
+                    members.put(name, reader.readObject());
+                } else if (isStringOrNull(parser.getLexer()) && !isStringType(resultType)) {
+                    Object value = reader.readObject();
+                    members.put(name, value);
+                    if (value != null && !"".equals(value)) {
+                        try {
+                            result = TypeUtils.cast(value, resultType, ParserConfig.getGlobalInstance());
+                        } catch (RuntimeException e) {
+                            unbound = value;
+                        }
+                    }
+                } else {
+                    result = reader.readObject(resultType);
+                    members.put(name, null);
+                }
+            }
+            reader.endObject();
+        } catch (JSONException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new InvalidResponseException(e.getMessage(), e);
+        } finally {
+            // not JSONReader.close, that fails on anything left after the object
+            source.close();
+        }
+        JsonResponse<T> response = new JsonResponse<>(members, result);
+        // an error response may carry its message as the result, that is reported by the caller
+        if (unbound != null && response.getError() == 0) {
+            throw new InvalidResponseException("result " + JSON.toJSONString(unbound) + " is not " + resultType.getTypeName(), null);
+        }
+        return response;
+    }
+
+    /**
+     * the lexer stands right after the colon of a member, whitespace is skipped so the
+     * first character of the value shows
+     */
+    private static boolean isStringOrNull(JSONLexer lexer) {
+        if (lexer instanceof JSONLexerBase) {
+            ((JSONLexerBase) lexer).skipWhitespace();
+        }
+        char c = lexer.getCurrent();
+        return c == '"' || c == 'n';
+    }
+
+    private static boolean isStringType(Type type) {
+        return type == String.class || type == Object.class || type == CharSequence.class;
+    }
+
+    public T getResult() {
+        return result;
+    }
+
+    /**
+     * error code of the envelope, 0 when there is none. An error that is not a
+     * number (json-rpc error objects) is reported by its code member or as -1
+     */
+    public long getError() {
+        Object error = get("error");
+        if (error == null) {
+            return 0;
+        }
+        if (error instanceof Number) {
+            return ((Number) error).longValue();
+        }
+        if (error instanceof Map && ((Map) error).get("code") instanceof Number) {
+            return ((Number) ((Map) error).get("code")).longValue();
+        }
+        return -1;
+    }
+
+    /**
+     * member by name, case insensitive
+     */
+    public Object get(String name) {
+        for (Map.Entry<String, Object> e : members.entrySet()) {
+            if (e.getKey().equalsIgnoreCase(name)) {
+                return e.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * the whole response with the typed result in place
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>(members);
+        for (Map.Entry<String, Object> e : map.entrySet()) {
+            if ("result".equalsIgnoreCase(e.getKey()) && result != null) {
+                e.setValue(result);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public String toString() {
+        return JSON.toJSONString(toMap());
+    }
+
+    /**
+     * the response arrived but is not valid JSON or does not bind, as opposed to a
+     * failed connection
+     */
+    public static final class InvalidResponseException extends IOException {
+        private static final long serialVersionUID = 3817244151260574386L;
+
+        InvalidResponseException(String message, Throwable cause) {
+            super("invalid response: " + message, cause);
+        }
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long count;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) throws IOException {
+            count += n;
+            if (count > maxBytes) {
+                throw new IOException("response exceeds " + maxBytes + " bytes");
+            }
+        }
+    }
+}
@@ -0,0 +1,658 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.common.SmartCodeEvent;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.network.exception.ConnectorException;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * spreads calls over several nodes. Reads go to a healthy node chosen by the routing
+ * mode and are retried on another node when the connection fails; answers of a node,
+ * errors included, are returned as they are. Writes go to the preferred writers only
+ * and are not retried. A background check reads every node's height, nodes that fail,
+ * lag behind the best height or report they are still syncing are ejected until a
+ * later check finds them in shape again. With a HedgePolicy set, a read still
+ * unanswered after the policy's budget is sent to a second node as well; the first
+ * answer is taken and the other call aborted. Hedged reads run on at most
+ * MAX_HEDGE_THREADS threads, reads beyond that are sent without a hedge.
+ */
+public class MultiNodeConnector extends AbstractConnector {
+
+    public enum Routing {
+        /** node with the fewest calls in flight */
+        LEAST_OUTSTANDING,
+        /** best of two random nodes by smoothed latency times calls in flight */
+        LATENCY_WEIGHTED
+    }
+
+    public static final long DEFAULT_HEALTH_CHECK_INTERVAL = 5000;
+    public static final int DEFAULT_MAX_LAG = 5;
+    private static final int MAX_FAILURES = 3;
+    private static final double EWMA_WEIGHT = 0.2;
+    public static final int MAX_HEDGE_THREADS = 64;
+
+    public static class Node {
+        public final IConnector connector;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final AtomicLong calls = new AtomicLong();
+        private volatile double latencyNanos;
+        private volatile int height = -1;
+        private volatile boolean healthy = true;
+
+        Node(IConnector connector) {
+            this.connector = connector;
+        }
+
+        void record(long nanos) {
+            double l = latencyNanos;
+            latencyNanos = l == 0 ? nanos : l + EWMA_WEIGHT * (nanos - l);
+        }
+
+        public String getUrl() {
+            return connector.getUrl();
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public int getOutstanding() {
+            return outstanding.get();
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public double getLatencyMillis() {
+            return latencyNanos / 1e6;
+        }
+    }
+
+    private interface Call<T> {
+        T call(IConnector connector) throws ConnectorException, IOException;
+    }
+
+    private final List<Node> nodes;
+    private final List<Node> writers;
+    private final Routing routing;
+    private final int maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong retries = new AtomicLong();
+    private final ScheduledExecutorService scheduler;
+    private volatile HedgePolicy hedgePolicy;
+    private ExecutorService hedgeExecutor;
+
+    public MultiNodeConnector(List<IConnector> connectors) {
+        this(connectors, connectors, Routing.LEAST_OUTSTANDING, DEFAULT_HEALTH_CHECK_INTERVAL, DEFAULT_MAX_LAG);
+    }
+
+    /**
+     * @param connectors          nodes serving reads
+     * @param writers             preferred nodes for sendRawTransaction, may be part of connectors
+     * @param healthCheckInterval milliseconds between health checks, 0 turns them off
+     * @param maxLag              blocks a node may be behind the best one before it is ejected
+     */
+    public MultiNodeConnector(List<IConnector> connectors, List<IConnector> writers, Routing routing,
+                              long healthCheckInterval, int maxLag) {
+        if (connectors.isEmpty() || writers.isEmpty()) {
+            throw new IllegalArgumentException("connectors and writers should not be empty");
+        }
+        Map<IConnector, Node> byConnector = new IdentityHashMap<>();
+        List<Node> n = new ArrayList<>();
+        for (IConnector c : connectors) {
+            n.add(byConnector.computeIfAbsent(c, Node::new));
+        }
+        List<Node> w = new ArrayList<>();
+        for (IConnector c : writers) {
+            w.add(byConnector.computeIfAbsent(c, Node::new));
+        }
+        this.nodes = Collections.unmodifiableList(n);
+        this.writers = Collections.unmodifiableList(w);
+        this.routing = routing;
+        this.maxLag = maxLag;
+        if (healthCheckInterval > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "node-health-check");
+                t.setDaemon(true);
+                return t;
+            });
+            scheduler.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckInterval, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public List<Node> getWriters() {
+        return writers;
+    }
+
+    /**
+     * @return reads sent again to another node after a connection failure
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * hedge reads by the given policy, null turns hedging off
+     */
+    public synchronized void setHedgePolicy(HedgePolicy policy) {
+        if (policy != null && hedgeExecutor == null) {
+            hedgeExecutor = new ThreadPoolExecutor(0, MAX_HEDGE_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "hedged-read");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        hedgePolicy = policy;
+    }
+
+    public HedgePolicy getHedgePolicy() {
+        return hedgePolicy;
+    }
+
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        hedgePolicy = null;
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * heights of all nodes, then eject the ones failing, lagging or syncing
+     */
+    public void checkHealth() {
+        Set<Node> all = new LinkedHashSet<>(nodes);
+        all.addAll(writers);
+        int best = -1;
+        for (Node node : all) {
+            long start = System.nanoTime();
+            try {
+                node.height = node.connector.getBlockHeight();
+                node.record(System.nanoTime() - start);
+                node.failures.set(0);
+                best = Math.max(best, node.height);
+            } catch (Exception e) {
+                node.height = -1;
+            }
+        }
+        for (Node node : all) {
+            node.healthy = node.height >= 0 && node.height >= best - maxLag && !syncing(node);
+        }
+    }
+
+    private boolean syncing(Node node) {
+        try {
+            Object status = node.connector.getNodeSyncStatus();
+            if (status instanceof Map) {
+                Object current = ((Map) status).get("CurrentBlockHeight");
+                Object max = ((Map) status).get("MaxPeerBlockHeight");
+                if (current instanceof Number && max instanceof Number) {
+                    return ((Number) max).longValue() - ((Number) current).longValue() > maxLag;
+                }
+            }
+        } catch (Exception e) {
+            // older nodes have no sync status, the height check is enough
+        }
+        return false;
+    }
+
+    private Node pick(List<Node> candidates, Set<Node> tried) {
+        List<Node> usable = new ArrayList<>(candidates.size());
+        for (Node node : candidates) {
+            if (node.healthy && !tried.contains(node)) {
+                usable.add(node);
+            }
+        }
+        if (usable.isEmpty()) {
+            // nothing healthy left, any untried node is better than failing right away
+            for (Node node : candidates) {
+                if (!tried.contains(node)) {
+                    usable.add(node);
+                }
+            }
+            if (usable.isEmpty()) {
+                return null;
+            }
+        }
+        int size = usable.size();
+        int start = (next.getAndIncrement() & Integer.MAX_VALUE) % size;
+        if (routing == Routing.LATENCY_WEIGHTED && size > 1) {
+            Node a = usable.get(start);
+            Node b = usable.get((start + 1 + ThreadLocalRandom.current().nextInt(size - 1)) % size);
+            return score(a) <= score(b) ? a : b;
+        }
+        Node best = null;
+        for (int i = 0; i < size; i++) {
+            Node node = usable.get((start + i) % size);
+            if (best == null || node.outstanding.get() < best.outstanding.get()) {
+                best = node;
+            }
+        }
+        return best;
+    }
+
+    private static double score(Node node) {
+        return (node.latencyNanos == 0 ? 1 : node.latencyNanos) * (node.outstanding.get() + 1);
+    }
+
+    private <T> T invoke(Node node, Call<T> call) throws ConnectorException, IOException {
+        node.outstanding.incrementAndGet();
+        node.calls.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            T result = call.call(node.connector);
+            node.record(System.nanoTime() - start);
+            node.failures.set(0);
+            return result;
+        } catch (ConnectorException | IOException e) {
+            // a call aborted because another node answered first says nothing about this one
+            if (isConnectionFailure(e) && !AbortScope.isAborted() && node.failures.incrementAndGet() >= MAX_FAILURES) {
+                node.healthy = false;
+            }
+            throw e;
+        } finally {
+            node.outstanding.decrementAndGet();
+        }
+    }
+
+    private <T> T read(Call<T> call) throws ConnectorException, IOException {
+        HedgePolicy policy = hedgePolicy;
+        if (policy != null && nodes.size() > 1) {
+            return hedgedRead(policy, call);
+        }
+        return read(call, new HashSet<>());
+    }
+
+    private <T> T read(Call<T> call, Set<Node> tried) throws ConnectorException, IOException {
+        while (true) {
+            Node node = pick(nodes, tried);
+            try {
+                return invoke(node, call);
+            } catch (ConnectorException | IOException e) {
+                tried.add(node);
+                if (!isConnectionFailure(e) || tried.size() >= nodes.size()) {
+                    throw e;
+                }
+                retries.incrementAndGet();
+            }
+        }
+    }
+
+    private <T> T hedgedRead(HedgePolicy policy, Call<T> call) throws ConnectorException, IOException {
+        policy.onRead();
+        Set<Node> tried = new HashSet<>();
+        Node first = pick(nodes, tried);
+        tried.add(first);
+        long start = System.nanoTime();
+        CompletableFuture<T> primary = submit(first, call);
+        if (primary == null) {
+            // every hedging thread is busy, read on the calling thread without a hedge
+            return read(call, new HashSet<>());
+        }
+        primary.whenComplete((r, t) -> {
+            // a cancelled call took at least this long, leaving it out would make the budget too small
+            if (t == null || primary.isCancelled()) {
+                policy.recordLatency(System.nanoTime() - start);
+            }
+        });
+        CompletableFuture<T> answer = primary;
+        if (!awaitBudget(primary, policy.budgetNanos())) {
+            Node second = pick(nodes, tried);
+            CompletableFuture<T> hedge = second != null && policy.tryHedge() ? submit(second, call) : null;
+            if (hedge != null) {
+                tried.add(second);
+                answer = firstAnswer(primary, hedge, policy);
+            }
+        }
+        try {
+            return get(answer);
+        } catch (ConnectorException | IOException e) {
+            if (!isConnectionFailure(e) || tried.size() >= nodes.size()) {
+                throw e;
+            }
+            retries.incrementAndGet();
+            return read(call, tried);
+        }
+    }
+
+    /**
+     * runs the call on a hedging thread, cancelling the future aborts its request
+     *
+     * @return null if all hedging threads are busy
+     */
+    private <T> CompletableFuture<T> submit(Node node, Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        AbortScope scope = new AbortScope();
+        Future<?> task;
+        try {
+            task = hedgeExecutor.submit(() -> {
+                scope.enter();
+                try {
+                    future.complete(invoke(node, call));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    scope.exit();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+        future.whenComplete((r, t) -> {
+            if (future.isCancelled()) {
+                scope.abort();
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return false if the call is still running when the budget is used up
+     */
+    private static boolean awaitBudget(CompletableFuture<?> future, long budgetNanos) throws ConnectorException {
+        try {
+            future.get(budgetNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            // reported by get
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("interrupted", e);
+        }
+        return true;
+    }
+
+    /**
+     * completes with the first successful answer, or the last failure if both fail,
+     * and cancels the call that lost
+     */
+    private static <T> CompletableFuture<T> firstAnswer(CompletableFuture<T> primary, CompletableFuture<T> hedge,
+                                                        HedgePolicy policy) {
+        CompletableFuture<T> answer = new CompletableFuture<>();
+        AtomicInteger failed = new AtomicInteger();
+        primary.whenComplete((r, t) -> {
+            if (t == null) {
+                answer.complete(r);
+            } else if (failed.incrementAndGet() == 2) {
+                answer.completeExceptionally(t);
+            }
+        });
+        hedge.whenComplete((r, t) -> {
+            if (t == null) {
+                if (answer.complete(r)) {
+                    policy.onHedgeWon();
+                }
+            } else if (failed.incrementAndGet() == 2) {
+                answer.completeExceptionally(t);
+            }
+        });
+        answer.whenComplete((r, t) -> {
+            primary.cancel(true);
+            hedge.cancel(true);
+        });
+        return answer;
+    }
+
+    private static <T> T get(CompletableFuture<T> future) throws ConnectorException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ConnectorException("interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConnectorException) {
+                throw (ConnectorException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new ConnectorException(cause.getMessage(), cause);
+        }
+    }
+
+    private <T> T write(Call<T> call) throws ConnectorException, IOException {
+        Node node = pick(writers, Collections.emptySet());
+        return invoke(node, call);
+    }
+
+    /**
+     * the node could not be reached, as opposed to an answer carrying an error
+     */
+    static boolean isConnectionFailure(Exception e) {
+        if (e instanceof IOException || e.getCause() instanceof IOException) {
+            return true;
+        }
+        String msg = e.getMessage();
+        // ErrorCode.ConnectUrlErr, used by the rpc and restful clients for unreachable nodes
+        return msg != null && (msg.contains("\"Error\":58402") || msg.contains("\"Error\":58403"));
+    }
+
+    @Override
+    public String getUrl() {
+        StringBuilder sb = new StringBuilder();
+        for (Node node : nodes) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(node.getUrl());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public Object sendRawTransaction(boolean preExec, String userid, String hexData) throws ConnectorException, IOException {
+        if (preExec) {
+            // pre-execution changes nothing on chain, any node will do
+            return read(c -> c.sendRawTransaction(true, userid, hexData));
+        }
+        return write(c -> c.sendRawTransaction(false, userid, hexData));
+    }
+
+    @Override
+    public Object sendRawTransaction(String hexData) throws ConnectorException, IOException {
+        return write(c -> c.sendRawTransaction(hexData));
+    }
+
+    @Override
+    public Object sendRawTransaction(boolean preExec, String userid, byte[] tx) throws ConnectorException, IOException {
+        if (preExec) {
+            return read(c -> c.sendRawTransaction(true, userid, tx));
+        }
+        return write(c -> c.sendRawTransaction(false, userid, tx));
+    }
+
+    @Override
+    public Transaction getRawTransaction(String txhash) throws ConnectorException, IOException {
+        return read(c -> c.getRawTransaction(txhash));
+    }
+
+    @Override
+    public Object getRawTransactionJson(String txhash) throws ConnectorException, IOException {
+        return read(c -> c.getRawTransactionJson(txhash));
+    }
+
+    @Override
+    public int getNodeCount() throws ConnectorException, IOException {
+        return read(IConnector::getNodeCount);
+    }
+
+    @Override
+    public int getBlockHeight() throws ConnectorException, IOException {
+        return read(IConnector::getBlockHeight);
+    }
+
+    @Override
+    public Block getBlock(int height) throws ConnectorException, IOException {
+        return read(c -> c.getBlock(height));
+    }
+
+    @Override
+    public Block getBlock(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getBlock(hash));
+    }
+
+    @Override
+    public String getBlockHex(int height) throws ConnectorException, IOException {
+        return read(c -> c.getBlockHex(height));
+    }
+
+    @Override
+    public Object getBlockJson(int height) throws ConnectorException, IOException {
+        return read(c -> c.getBlockJson(height));
+    }
+
+    @Override
+    public Object getBlockJson(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getBlockJson(hash));
+    }
+
+    @Override
+    public Object getBalance(String address) throws ConnectorException, IOException {
+        return read(c -> c.getBalance(address));
+    }
+
+    @Override
+    public Object getBalanceV2(String address) throws ConnectorException, IOException {
+        return read(c -> c.getBalanceV2(address));
+    }
+
+    @Override
+    public Object getContract(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getContract(hash));
+    }
+
+    @Override
+    public Object getContractJson(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getContractJson(hash));
+    }
+
+    @Override
+    public Object getSmartCodeEvent(int height) throws ConnectorException, IOException {
+        return read(c -> c.getSmartCodeEvent(height));
+    }
+
+    @Override
+    public Object getSmartCodeEvent(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getSmartCodeEvent(hash));
+    }
+
+    @Override
+    public List<SmartCodeEvent> getSmartCodeEvents(int height) throws ConnectorException, IOException {
+        return read(c -> c.getSmartCodeEvents(height));
+    }
+
+    @Override
+    public SmartCodeEvent getSmartCodeEventInfo(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getSmartCodeEventInfo(hash));
+    }
+
+    @Override
+    public int getBlockHeightByTxHash(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getBlockHeightByTxHash(hash));
+    }
+
+    @Override
+    public String getStorage(String codehash, String key) throws ConnectorException, IOException {
+        return read(c -> c.getStorage(codehash, key));
+    }
+
+    @Override
+    public Object getMerkleProof(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getMerkleProof(hash));
+    }
+
+    @Override
+    public String getAllowance(String asset, String from, String to) throws ConnectorException, IOException {
+        return read(c -> c.getAllowance(asset, from, to));
+    }
+
+    @Override
+    public String getAllowanceV2(String asset, String from, String to) throws ConnectorException, IOException {
+        return read(c -> c.getAllowanceV2(asset, from, to));
+    }
+
+    @Override
+    public Object getMemPoolTxCount() throws ConnectorException, IOException {
+        return read(IConnector::getMemPoolTxCount);
+    }
+
+    @Override
+    public Object getMemPoolTxState(String hash) throws ConnectorException, IOException {
+        return read(c -> c.getMemPoolTxState(hash));
+    }
+
+    @Override
+    public String getVersion() throws ConnectorException, IOException {
+        return read(IConnector::getVersion);
+    }
+
+    @Override
+    public String getGrantOng(String address) throws ConnectorException, IOException {
+        return read(c -> c.getGrantOng(address));
+    }
+
+    @Override
+    public int getNetworkId() throws ConnectorException, IOException {
+        return read(IConnector::getNetworkId);
+    }
+
+    @Override
+    public Object getNodeSyncStatus() throws ConnectorException, IOException {
+        return read(IConnector::getNodeSyncStatus);
+    }
+
+    @Override
+    public String getSideChainData(String sideChainID) throws ConnectorException, IOException {
+        return read(c -> c.getSideChainData(sideChainID));
+    }
+}
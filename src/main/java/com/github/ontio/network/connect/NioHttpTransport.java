@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.network.rest.X509;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * async transport on a selector based I/O reactor: a few reactor threads serve
+ * every in-flight request, nothing blocks while waiting for a node.
+ * Callbacks run on the reactor threads, so dependent stages should not block.
+ * The reactor threads are daemons, an open transport does not keep the JVM running;
+ * close releases them and the connections.
+ */
+public class NioHttpTransport implements AsyncHttpTransport {
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static NioHttpTransport defaultTransport;
+
+    private final CloseableHttpAsyncClient client;
+
+    public NioHttpTransport() {
+        this(Runtime.getRuntime().availableProcessors(), 1000, 200, 10000, 20000);
+    }
+
+    /**
+     * @param ioThreads          reactor threads
+     * @param maxConnections     connections kept open over all hosts
+     * @param maxRequestsPerHost connections per host, further requests are queued without a thread
+     * @param connectTimeout     connect timeout in milliseconds
+     * @param readTimeout        read timeout in milliseconds
+     */
+    public NioHttpTransport(int ioThreads, int maxConnections, int maxRequestsPerHost, int connectTimeout, int readTimeout) {
+        if (ioThreads <= 0 || maxConnections <= 0 || maxRequestsPerHost <= 0) {
+            throw new IllegalArgumentException("ioThreads, maxConnections and maxRequestsPerHost should be greater than 0");
+        }
+        try {
+            SSLContext sslContext = SSLContext.getInstance("SSL", "SunJSSE");
+            sslContext.init(null, new TrustManager[]{new X509()}, new SecureRandom());
+            Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+                    .register("http", NoopIOSessionStrategy.INSTANCE)
+                    .register("https", new SSLIOSessionStrategy(sslContext, SSLIOSessionStrategy.getDefaultHostnameVerifier()))
+                    .build();
+            IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                    .setIoThreadCount(ioThreads)
+                    .setTcpNoDelay(true)
+                    .setSoKeepAlive(true)
+                    .setConnectTimeout(connectTimeout)
+                    .setSoTimeout(readTimeout)
+                    .build();
+            PoolingNHttpClientConnectionManager connectionManager =
+                    new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig, daemon("nio-http-io")), registry);
+            connectionManager.setMaxTotal(maxConnections);
+            connectionManager.setDefaultMaxPerRoute(maxRequestsPerHost);
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(connectTimeout)
+                    .setSocketTimeout(readTimeout)
+                    .build();
+            client = HttpAsyncClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(requestConfig)
+                    .setThreadFactory(daemon("nio-http-dispatch"))
+                    .disableCookieManagement()
+                    .build();
+        } catch (GeneralSecurityException | IOReactorException e) {
+            throw new IllegalStateException(e);
+        }
+        client.start();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static synchronized NioHttpTransport getDefault() {
+        if (defaultTransport == null) {
+            defaultTransport = new NioHttpTransport();
+        }
+        return defaultTransport;
+    }
+
+    @Override
+    public CompletableFuture<String> get(String url) {
+        return execute(new HttpGet(url));
+    }
+
+    @Override
+    public CompletableFuture<String> post(String url, Map<String, String> header, String body) {
+        HttpPost post = new HttpPost(url);
+        post.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        if (header != null) {
+            for (Map.Entry<String, String> e : header.entrySet()) {
+                post.setHeader(e.getKey(), e.getValue());
+            }
+        }
+        return execute(post);
+    }
+
+    private CompletableFuture<String> execute(HttpUriRequest request) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Future<HttpResponse> call = client.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                try {
+                    HttpEntity entity = response.getEntity();
+                    String body = entity == null ? "" : EntityUtils.toString(entity, DEFAULT_CHARSET);
+                    int status = response.getStatusLine().getStatusCode();
+                    if (status < 200 || status >= 300) {
+                        result.completeExceptionally(new IOException("http " + status + " " + request.getURI()));
+                    } else {
+                        result.complete(body);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception ex) {
+                result.completeExceptionally(ex instanceof IOException ? ex : new IOException(ex));
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+        // cancelling the returned future aborts the exchange and frees its connection
+        result.whenComplete((r, t) -> {
+            if (result.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public void close() throws IOException {
+        synchronized (NioHttpTransport.class) {
+            if (defaultTransport == this) {
+                defaultTransport = null;
+            }
+        }
+        client.close();
+    }
+}
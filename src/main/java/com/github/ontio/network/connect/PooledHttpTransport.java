@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.network.rest.X509;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pooled keep-alive transport: connections are reused across calls, all https
+ * connections share one TLS context and every host gets at most
+ * maxRequestsPerHost connections, further calls wait for a free one
+ */
+public class PooledHttpTransport implements HttpTransport {
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static PooledHttpTransport defaultTransport;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+
+    public PooledHttpTransport() {
+        this(200, 64, 60000, 10000, 20000);
+    }
+
+    /**
+     * @param maxConnections     connections kept open over all hosts
+     * @param maxRequestsPerHost connections, and so concurrent calls, per host
+     * @param keepAliveMillis    idle time after which a pooled connection is closed
+     * @param connectTimeout     connect timeout in milliseconds
+     * @param readTimeout        read timeout in milliseconds
+     */
+    public PooledHttpTransport(int maxConnections, int maxRequestsPerHost, long keepAliveMillis, int connectTimeout, int readTimeout) {
+        if (maxConnections <= 0 || maxRequestsPerHost <= 0) {
+            throw new IllegalArgumentException("maxConnections and maxRequestsPerHost should be greater than 0");
+        }
+        SSLContext sslContext;
+        try {
+            sslContext = SSLContext.getInstance("SSL", "SunJSSE");
+            sslContext.init(null, new TrustManager[]{new X509()}, new SecureRandom());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", new SSLConnectionSocketFactory(sslContext, SSLConnectionSocketFactory.getDefaultHostnameVerifier()))
+                .build();
+        connectionManager = new PoolingHttpClientConnectionManager(registry);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxRequestsPerHost);
+        connectionManager.setDefaultSocketConfig(SocketConfig.custom().setTcpNoDelay(true).setSoTimeout(readTimeout).build());
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> keepAliveMillis)
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .evictExpiredConnections()
+                .disableCookieManagement()
+                .build();
+    }
+
+    public static synchronized PooledHttpTransport getDefault() {
+        if (defaultTransport == null) {
+            defaultTransport = new PooledHttpTransport();
+        }
+        return defaultTransport;
+    }
+
+    @Override
+    public String get(String url) throws IOException {
+        return execute(new HttpGet(url));
+    }
+
+    @Override
+    public <T> T get(String url, ResponseReader<T> reader) throws IOException {
+        return execute(new HttpGet(url), reader);
+    }
+
+    @Override
+    public String post(String url, Map<String, String> header, String body) throws IOException {
+        return execute(newPost(url, header, new StringEntity(body, ContentType.APPLICATION_JSON)));
+    }
+
+    @Override
+    public <T> T post(String url, Map<String, String> header, String body, ResponseReader<T> reader) throws IOException {
+        return execute(newPost(url, header, new StringEntity(body, ContentType.APPLICATION_JSON)), reader);
+    }
+
+    @Override
+    public String post(String url, Map<String, String> header, Body body) throws IOException {
+        return execute(newPost(url, header, new BodyEntity(body)));
+    }
+
+    @Override
+    public String delete(String url, String body) throws IOException {
+        HttpDeleteWithBody delete = new HttpDeleteWithBody(url);
+        delete.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
+        return execute(delete);
+    }
+
+    private String execute(HttpUriRequest request) throws IOException {
+        AbortScope scope = register(request);
+        try (CloseableHttpResponse response = client.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            // the entity has to be consumed for the connection to go back to the pool
+            String result = entity == null ? "" : EntityUtils.toString(entity, DEFAULT_CHARSET);
+            int status = response.getStatusLine().getStatusCode();
+            if (status < 200 || status >= 300) {
+                throw new IOException("http " + status + " " + request.getURI());
+            }
+            return result;
+        } finally {
+            unregister(scope);
+        }
+    }
+
+    /**
+     * the reader gets the entity stream as it arrives. When it returns the rest of the
+     * entity is drained so the connection goes back to the pool, when it throws the
+     * connection is dropped instead of reading a body that was rejected.
+     */
+    private <T> T execute(HttpUriRequest request, ResponseReader<T> reader) throws IOException {
+        AbortScope scope = register(request);
+        try (CloseableHttpResponse response = client.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            int status = response.getStatusLine().getStatusCode();
+            if (status < 200 || status >= 300) {
+                EntityUtils.consume(entity);
+                throw new IOException("http " + status + " " + request.getURI());
+            }
+            if (entity == null) {
+                return reader.read(new ByteArrayInputStream(new byte[0]));
+            }
+            T result = reader.read(entity.getContent());
+            EntityUtils.consume(entity);
+            return result;
+        } finally {
+            unregister(scope);
+        }
+    }
+
+    /**
+     * a caller in an AbortScope can abort the request while it connects, waits or reads,
+     * that closes its connection and fails the call with an IOException
+     */
+    private static AbortScope register(HttpUriRequest request) {
+        AbortScope scope = AbortScope.current();
+        if (scope != null) {
+            scope.register(request::abort);
+        }
+        return scope;
+    }
+
+    private static void unregister(AbortScope scope) {
+        if (scope != null) {
+            scope.unregister();
+        }
+    }
+
+    private static HttpPost newPost(String url, Map<String, String> header, HttpEntity entity) {
+        HttpPost post = new HttpPost(url);
+        post.setEntity(entity);
+        if (header != null) {
+            for (Map.Entry<String, String> e : header.entrySet()) {
+                post.setHeader(e.getKey(), e.getValue());
+            }
+        }
+        return post;
+    }
+
+    public int getLeasedConnections() {
+        return connectionManager.getTotalStats().getLeased();
+    }
+
+    public int getAvailableConnections() {
+        return connectionManager.getTotalStats().getAvailable();
+    }
+
+    /**
+     * close pooled connections, the transport can not be used afterwards
+     */
+    public void close() throws IOException {
+        client.close();
+    }
+
+    /**
+     * writes the body to the connection as it is sent, with its length known up front
+     */
+    private static class BodyEntity extends AbstractHttpEntity {
+        private final Body body;
+
+        BodyEntity(Body body) {
+            this.body = body;
+            setContentType(ContentType.APPLICATION_JSON.toString());
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return body.length();
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) body.length());
+            body.writeTo(out);
+            return new ByteArrayInputStream(out.toByteArray());
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            body.writeTo(out);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+
+    private static class HttpDeleteWithBody extends HttpEntityEnclosingRequestBase {
+
+        HttpDeleteWithBody(String url) {
+            setURI(java.net.URI.create(url));
+        }
+
+        @Override
+        public String getMethod() {
+            return "DELETE";
+        }
+    }
+}
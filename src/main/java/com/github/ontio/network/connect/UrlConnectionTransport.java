@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.network.rest.X509;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Map;
+
+/**
+ * HttpURLConnection transport, opens and closes a connection on every call
+ */
+public class UrlConnectionTransport implements HttpTransport {
+    private static final String DEFAULT_CHARSET = "UTF-8";
+    private static SSLSocketFactory sslSocketFactory;
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public UrlConnectionTransport() {
+        this(10000, 10000);
+    }
+
+    public UrlConnectionTransport(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    static synchronized SSLSocketFactory sslSocketFactory() throws IOException {
+        if (sslSocketFactory == null) {
+            try {
+                SSLContext sslContext = SSLContext.getInstance("SSL", "SunJSSE");
+                sslContext.init(null, new TrustManager[]{new X509()}, new SecureRandom());
+                sslSocketFactory = sslContext.getSocketFactory();
+            } catch (GeneralSecurityException e) {
+                throw new IOException(e);
+            }
+        }
+        return sslSocketFactory;
+    }
+
+    @Override
+    public String get(String url) throws IOException {
+        HttpURLConnection http = open(url, "GET", null);
+        http.connect();
+        return read(http);
+    }
+
+    @Override
+    public <T> T get(String url, ResponseReader<T> reader) throws IOException {
+        HttpURLConnection http = open(url, "GET", null);
+        http.connect();
+        return read(http, reader);
+    }
+
+    @Override
+    public String post(String url, Map<String, String> header, String body) throws IOException {
+        HttpURLConnection http = open(url, "POST", header);
+        http.connect();
+        write(http, body);
+        return read(http);
+    }
+
+    @Override
+    public <T> T post(String url, Map<String, String> header, String body, ResponseReader<T> reader) throws IOException {
+        HttpURLConnection http = open(url, "POST", header);
+        http.connect();
+        write(http, body);
+        return read(http, reader);
+    }
+
+    @Override
+    public String post(String url, Map<String, String> header, Body body) throws IOException {
+        HttpURLConnection http = open(url, "POST", header);
+        // streamed with its length, HttpURLConnection would buffer the whole body otherwise
+        http.setFixedLengthStreamingMode(body.length());
+        http.connect();
+        try (OutputStream out = http.getOutputStream()) {
+            body.writeTo(out);
+            out.flush();
+        }
+        return read(http);
+    }
+
+    @Override
+    public String delete(String url, String body) throws IOException {
+        HttpURLConnection http = open(url, "DELETE", null);
+        http.connect();
+        write(http, body);
+        return read(http);
+    }
+
+    private HttpURLConnection open(String url, String method, Map<String, String> header) throws IOException {
+        HttpURLConnection http = (HttpURLConnection) new URL(url).openConnection();
+        http.setConnectTimeout(connectTimeout);
+        http.setReadTimeout(readTimeout);
+        http.setRequestMethod(method);
+        http.setRequestProperty("Content-Type", "application/json");
+        if (header != null) {
+            for (Map.Entry<String, String> e : header.entrySet()) {
+                http.setRequestProperty(e.getKey(), e.getValue());
+            }
+        }
+        if (http instanceof HttpsURLConnection) {
+            ((HttpsURLConnection) http).setSSLSocketFactory(sslSocketFactory());
+        }
+        http.setDoOutput(true);
+        http.setDoInput(true);
+        return http;
+    }
+
+    private void write(HttpURLConnection http, String body) throws IOException {
+        try (OutputStream out = http.getOutputStream()) {
+            out.write(body.getBytes(DEFAULT_CHARSET));
+            out.flush();
+        }
+    }
+
+    private String read(HttpURLConnection http) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        try (InputStream is = http.getInputStream()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, DEFAULT_CHARSET))) {
+                String str;
+                while ((str = reader.readLine()) != null) {
+                    sb.append(str);
+                }
+            }
+        } finally {
+            http.disconnect();
+        }
+        return sb.toString();
+    }
+
+    private <T> T read(HttpURLConnection http, ResponseReader<T> reader) throws IOException {
+        try (InputStream is = http.getInputStream()) {
+            return reader.read(is);
+        } finally {
+            http.disconnect();
+        }
+    }
+}
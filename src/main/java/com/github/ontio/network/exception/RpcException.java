@@ -31,4 +31,9 @@ public class RpcException extends ConnectorException {
 		super(message);
 		this.code = code;
 	}
+
+	public RpcException(int code,String message, Throwable ex) {
+		super(message, ex);
+		this.code = code;
+	}
 }
@@ -20,9 +20,15 @@
 package com.github.ontio.network.rest;
 
 
+import com.alibaba.fastjson.JSON;
 import com.github.ontio.common.ErrorCode;
+import com.github.ontio.network.connect.HexBody;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.JsonResponse;
 import com.github.ontio.network.exception.RestfulException;
 
+import java.io.IOException;
+import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,15 +37,43 @@ import java.util.Map;
  */
 class Interfaces {
     private String url;
+    private HttpTransport transport;
+    private volatile long maxResponseBytes = JsonResponse.DEFAULT_MAX_BYTES;
 
-    public Interfaces(String url) {
+    public Interfaces(String url, HttpTransport transport) {
         this.url = url;
+        this.transport = transport;
     }
 
     public String getUrl() {
         return url;
     }
 
+    public long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        if (maxResponseBytes <= 0) {
+            throw new IllegalArgumentException("maxResponseBytes should be greater than 0");
+        }
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    /**
+     * GET with the response parsed from the connection as it arrives and the Result
+     * bound to resultType on the way
+     */
+    private <T> JsonResponse<T> get(String path, Map<String, String> params, Type resultType) throws RestfulException {
+        try {
+            return transport.get(url + path + http.cvtParams(params), in -> JsonResponse.read(in, resultType, maxResponseBytes));
+        } catch (JsonResponse.InvalidResponseException e) {
+            throw new RestfulException(ErrorCode.OtherError(url + " " + e.getMessage()));
+        } catch (IOException e) {
+            throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
+        }
+    }
+
     public String sendTransaction(boolean preExec, String userid, String action, String version, String data) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         if (userid != null) {
@@ -53,20 +87,40 @@ class Interfaces {
         body.put("Version", version);
         body.put("Data", data);
         try {
-            return http.post(url + UrlConsts.Url_send_transaction, params, body);
+            return http.post(transport, url + UrlConsts.Url_send_transaction, params, body);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr(url), e);
 
         }
     }
 
+    /**
+     * same as sendTransaction, with the transaction hex encoded straight into the request body
+     */
+    public String sendTransaction(boolean preExec, String userid, String action, String version, byte[] tx) throws RestfulException {
+        Map<String, String> params = new HashMap<String, String>();
+        if (userid != null) {
+            params.put("userid", userid);
+        }
+        if (preExec) {
+            params.put("preExec", "1");
+        }
+        HexBody body = new HexBody("{\"Action\":" + JSON.toJSONString(action) + ",\"Version\":" + JSON.toJSONString(version)
+                + ",\"Data\":\"", tx, "\"}");
+        try {
+            return transport.post(url + UrlConsts.Url_send_transaction + http.cvtParams(params), null, body);
+        } catch (Exception e) {
+            throw new RestfulException(ErrorCode.ConnectUrlErr(url), e);
+        }
+    }
+
     public String getTransaction(String txhash, boolean raw) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         if (raw) {
             params.put("raw", "1");
         }
         try {
-            return http.get(url + UrlConsts.Url_get_transaction + txhash, params);
+            return http.get(transport, url + UrlConsts.Url_get_transaction + txhash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -75,7 +129,7 @@ class Interfaces {
     public String getNodeCount() throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_node_count, params);
+            return http.get(transport, url + UrlConsts.Url_get_node_count, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -84,37 +138,29 @@ class Interfaces {
     public String getBlockHeight() throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_block_height, params);
+            return http.get(transport, url + UrlConsts.Url_get_block_height, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
     }
 
-    public String getBlock(int height, String raw) throws RestfulException {
+    public <T> JsonResponse<T> getBlock(int height, String raw, Type resultType) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         params.put("raw", raw);
-        try {
-            return http.get(url + UrlConsts.Url_get_block_by_height + height, params);
-        } catch (Exception e) {
-            throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
-        }
+        return get(UrlConsts.Url_get_block_by_height + height, params, resultType);
     }
 
-    public String getBlock(String hash, String raw) throws RestfulException {
+    public <T> JsonResponse<T> getBlock(String hash, String raw, Type resultType) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         params.put("raw", raw);
-        try {
-            return http.get(url + UrlConsts.Url_get_block_by_hash + hash, params);
-        } catch (Exception e) {
-            throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
-        }
+        return get(UrlConsts.Url_get_block_by_hash + hash, params, resultType);
     }
 
     public String getContract(String hash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         params.put("raw", "1");
         try {
-            return http.get(url + UrlConsts.Url_get_contract_state + hash, params);
+            return http.get(transport, url + UrlConsts.Url_get_contract_state + hash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -123,34 +169,24 @@ class Interfaces {
     public String getContractJson(String hash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_contract_state + hash, params);
+            return http.get(transport, url + UrlConsts.Url_get_contract_state + hash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
     }
 
-    public String getSmartCodeEvent(int height) throws RestfulException {
-        Map<String, String> params = new HashMap<String, String>();
-        try {
-            return http.get(url + UrlConsts.Url_get_smartcodeevent_txs_by_height + height, params);
-        } catch (Exception e) {
-            throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
-        }
+    public <T> JsonResponse<T> getSmartCodeEvent(int height, Type resultType) throws RestfulException {
+        return get(UrlConsts.Url_get_smartcodeevent_txs_by_height + height, null, resultType);
     }
 
-    public String getSmartCodeEvent(String hash) throws RestfulException {
-        Map<String, String> params = new HashMap<String, String>();
-        try {
-            return http.get(url + UrlConsts.Url_get_smartcodeevent_by_txhash + hash, params);
-        } catch (Exception e) {
-            throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
-        }
+    public <T> JsonResponse<T> getSmartCodeEvent(String hash, Type resultType) throws RestfulException {
+        return get(UrlConsts.Url_get_smartcodeevent_by_txhash + hash, null, resultType);
     }
 
     public String getBlockHeightByTxHash(String hash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_block_height_by_txhash + hash, params);
+            return http.get(transport, url + UrlConsts.Url_get_block_height_by_txhash + hash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -159,7 +195,7 @@ class Interfaces {
     public String getStorage(String codehash, String key) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_storage + codehash + "/" + key, params);
+            return http.get(transport, url + UrlConsts.Url_get_storage + codehash + "/" + key, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -168,7 +204,7 @@ class Interfaces {
     public String getMerkleProof(String hash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_merkleproof + hash, params);
+            return http.get(transport, url + UrlConsts.Url_get_merkleproof + hash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -176,7 +212,7 @@ class Interfaces {
     public String getMemPoolTxCount() throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_mem_pool_tx_count, params);
+            return http.get(transport, url + UrlConsts.Url_get_mem_pool_tx_count, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -184,7 +220,7 @@ class Interfaces {
     public String getMemPoolTxState(String hash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_mem_pool_tx_state + hash, params);
+            return http.get(transport, url + UrlConsts.Url_get_mem_pool_tx_state + hash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -192,7 +228,7 @@ class Interfaces {
     public String getBalance(String address) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_account_balance + address, params);
+            return http.get(transport, url + UrlConsts.Url_get_account_balance + address, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -201,7 +237,7 @@ class Interfaces {
     public String getBalanceV2(String address) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_account_balance_v2 + address, params);
+            return http.get(transport, url + UrlConsts.Url_get_account_balance_v2 + address, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -210,7 +246,7 @@ class Interfaces {
     public String getTransactionJson(String txhash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_transaction + txhash, params);
+            return http.get(transport, url + UrlConsts.Url_get_transaction + txhash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -219,7 +255,7 @@ class Interfaces {
     public String getBlockJson(int height) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_block_by_height + height, params);
+            return http.get(transport, url + UrlConsts.Url_get_block_by_height + height, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -228,7 +264,7 @@ class Interfaces {
     public String getBlockJson(String hash) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_block_by_hash + hash, params);
+            return http.get(transport, url + UrlConsts.Url_get_block_by_hash + hash, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -237,7 +273,7 @@ class Interfaces {
     public String getAllowance(String asset, String from, String to) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_allowance + asset + "/" + from + "/" + to, params);
+            return http.get(transport, url + UrlConsts.Url_get_allowance + asset + "/" + from + "/" + to, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -245,7 +281,7 @@ class Interfaces {
     public String getAllowanceV2(String asset, String from, String to) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_allowance_V2 + asset + "/" + from + "/" + to, params);
+            return http.get(transport, url + UrlConsts.Url_get_allowance_V2 + asset + "/" + from + "/" + to, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -254,7 +290,7 @@ class Interfaces {
     public String getVersion() throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_version, params);
+            return http.get(transport, url + UrlConsts.Url_get_version, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -262,7 +298,7 @@ class Interfaces {
     public String getGrantOng(String address) throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_grant_ong+ "/" +address, params);
+            return http.get(transport, url + UrlConsts.Url_get_grant_ong+ "/" +address, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -270,7 +306,7 @@ class Interfaces {
     public String getNetworkId() throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_networkid, params);
+            return http.get(transport, url + UrlConsts.Url_get_networkid, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -278,7 +314,7 @@ class Interfaces {
     public String getNodeSyncStatus() throws RestfulException {
         Map<String, String> params = new HashMap<String, String>();
         try {
-            return http.get(url + UrlConsts.Url_get_syncstatus, params);
+            return http.get(transport, url + UrlConsts.Url_get_syncstatus, params);
         } catch (Exception e) {
             throw new RestfulException(ErrorCode.ConnectUrlErr + url, e);
         }
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.rest;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
+import com.github.ontio.common.ErrorCode;
+import com.github.ontio.common.Helper;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.io.Serializable;
+import com.github.ontio.network.connect.AbstractAsyncConnector;
+import com.github.ontio.network.connect.AsyncHttpTransport;
+import com.github.ontio.network.connect.NioHttpTransport;
+import com.github.ontio.network.exception.RestfulException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * async counterpart of RestClient on a non-blocking transport
+ */
+public class RestAsyncClient extends AbstractAsyncConnector {
+    private String url;
+    private volatile AsyncHttpTransport transport;
+    private String version = "v1.0.0", action = "sendrawtransaction";
+
+    /**
+     * uses the shared NioHttpTransport, started on the first request
+     */
+    public RestAsyncClient(String restUrl) {
+        this(restUrl, null);
+    }
+
+    public RestAsyncClient(String restUrl, AsyncHttpTransport transport) {
+        this.url = restUrl;
+        this.transport = transport;
+    }
+
+    private AsyncHttpTransport transport() {
+        if (transport == null) {
+            transport = NioHttpTransport.getDefault();
+        }
+        return transport;
+    }
+
+    private CompletableFuture<String> get(String path, Map<String, String> params) {
+        return transport().get(url + path + http.cvtParams(params)).exceptionally(ex -> {
+            throw new CompletionException(new RestfulException(ErrorCode.ConnectUrlErr + url, unwrap(ex)));
+        });
+    }
+
+    private CompletableFuture<String> get(String path) {
+        return get(path, null);
+    }
+
+    private CompletableFuture<String> raw(String path, String raw) {
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("raw", raw);
+        return get(path, params);
+    }
+
+    /**
+     * unwraps the node answer, the future fails with RestfulException when Error is not 0
+     */
+    private static CompletableFuture<Object> result(CompletableFuture<String> response) {
+        return decode(response, rs -> {
+            Result rr = parse(rs);
+            if (rr.Error == 0) {
+                return rr.Result;
+            }
+            throw new RestfulException(JSON.toJSONString(rr));
+        });
+    }
+
+    private static Result parse(String rs) throws RestfulException {
+        Result rr;
+        try {
+            rr = JSON.parseObject(rs, Result.class);
+        } catch (JSONException e) {
+            throw new RestfulException(ErrorCode.OtherError("invalid response: " + e.getMessage()), e);
+        }
+        if (rr == null) {
+            throw new RestfulException(ErrorCode.OtherError("empty response"));
+        }
+        return rr;
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        return ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(String hexData) {
+        return sendRawTransaction(false, null, hexData);
+    }
+
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(boolean preExec, String userid, String hexData) {
+        Map<String, String> params = new HashMap<String, String>();
+        if (userid != null) {
+            params.put("userid", userid);
+        }
+        if (preExec) {
+            params.put("preExec", "1");
+        }
+        Map<String, Object> body = new HashMap<String, Object>();
+        body.put("Action", action);
+        body.put("Version", version);
+        body.put("Data", hexData);
+        CompletableFuture<String> response = transport()
+                .post(url + UrlConsts.Url_send_transaction + http.cvtParams(params), null, JSON.toJSONString(body))
+                .exceptionally(ex -> {
+                    throw new CompletionException(new RestfulException(ErrorCode.ConnectUrlErr(url), unwrap(ex)));
+                });
+        // like RestClient the whole answer is handed back on success
+        return decode(response, rs -> {
+            Result rr = parse(rs);
+            if (rr.Error == 0) {
+                return rs;
+            }
+            throw new RestfulException(JSON.toJSONString(rr));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Transaction> getRawTransaction(String txhash) {
+        return decode(result(raw(UrlConsts.Url_get_transaction + txhash, "1")), r -> {
+            try {
+                return Transaction.deserializeFrom(Helper.hexToBytes((String) r));
+            } catch (Exception e) {
+                throw new RestfulException(ErrorCode.TxDeserializeError, e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Object> getRawTransactionJson(String txhash) {
+        return decode(result(raw(UrlConsts.Url_get_transaction + txhash, "1")),
+                r -> JSON.toJSONString(Transaction.deserializeFrom(Helper.hexToBytes((String) r)).json()));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNodeCount() {
+        return decode(result(get(UrlConsts.Url_get_node_count)), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getBlockHeight() {
+        return decode(result(get(UrlConsts.Url_get_block_height)), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Block> getBlock(int height) {
+        return toBlock(result(raw(UrlConsts.Url_get_block_by_height + height, "1")));
+    }
+
+    @Override
+    public CompletableFuture<Block> getBlock(String hash) {
+        return toBlock(result(raw(UrlConsts.Url_get_block_by_hash + hash, "1")));
+    }
+
+    private static CompletableFuture<Block> toBlock(CompletableFuture<Object> result) {
+        return decode(result, r -> {
+            try {
+                return Serializable.from(Helper.hexToBytes((String) r), Block.class);
+            } catch (InstantiationException | IllegalAccessException e) {
+                throw new RestfulException(ErrorCode.BlockDeserializeError, e);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Object> getBlockJson(int height) {
+        return result(raw(UrlConsts.Url_get_block_by_height + height, "0"));
+    }
+
+    @Override
+    public CompletableFuture<Object> getBlockJson(String hash) {
+        return result(raw(UrlConsts.Url_get_block_by_hash + hash, "0"));
+    }
+
+    @Override
+    public CompletableFuture<Object> getBalance(String address) {
+        return result(get(UrlConsts.Url_get_account_balance + address));
+    }
+
+    @Override
+    public CompletableFuture<Object> getBalanceV2(String address) {
+        return result(get(UrlConsts.Url_get_account_balance_v2 + address));
+    }
+
+    @Override
+    public CompletableFuture<Object> getContract(String hash) {
+        return result(raw(UrlConsts.Url_get_contract_state + hash, "1"));
+    }
+
+    @Override
+    public CompletableFuture<Object> getContractJson(String hash) {
+        return result(get(UrlConsts.Url_get_contract_state + hash));
+    }
+
+    @Override
+    public CompletableFuture<Object> getSmartCodeEvent(int height) {
+        return result(get(UrlConsts.Url_get_smartcodeevent_txs_by_height + height));
+    }
+
+    @Override
+    public CompletableFuture<Object> getSmartCodeEvent(String hash) {
+        return result(get(UrlConsts.Url_get_smartcodeevent_by_txhash + hash));
+    }
+
+    @Override
+    public CompletableFuture<Integer> getBlockHeightByTxHash(String hash) {
+        return decode(result(get(UrlConsts.Url_get_block_height_by_txhash + hash)), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getStorage(String codehash, String key) {
+        return decode(result(get(UrlConsts.Url_get_storage + codehash + "/" + key)), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getMerkleProof(String hash) {
+        return result(get(UrlConsts.Url_get_merkleproof + hash));
+    }
+
+    @Override
+    public CompletableFuture<String> getAllowance(String asset, String from, String to) {
+        return decode(result(get(UrlConsts.Url_get_allowance + asset + "/" + from + "/" + to)), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getAllowanceV2(String asset, String from, String to) {
+        return decode(result(get(UrlConsts.Url_get_allowance_V2 + asset + "/" + from + "/" + to)), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getMemPoolTxCount() {
+        return result(get(UrlConsts.Url_get_mem_pool_tx_count));
+    }
+
+    @Override
+    public CompletableFuture<Object> getMemPoolTxState(String hash) {
+        return result(get(UrlConsts.Url_get_mem_pool_tx_state + hash));
+    }
+
+    @Override
+    public CompletableFuture<String> getVersion() {
+        return decode(result(get(UrlConsts.Url_get_version)), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getGrantOng(String address) {
+        return decode(result(get(UrlConsts.Url_get_grant_ong + "/" + address)), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNetworkId() {
+        return decode(result(get(UrlConsts.Url_get_networkid)), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getNodeSyncStatus() {
+        return result(get(UrlConsts.Url_get_syncstatus));
+    }
+
+    @Override
+    public CompletableFuture<String> getSideChainData(String sideChainID) {
+        return CompletableFuture.completedFuture(null);
+    }
+}
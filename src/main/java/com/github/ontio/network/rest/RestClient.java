@@ -20,23 +20,37 @@
 package com.github.ontio.network.rest;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.TypeReference;
 import com.github.ontio.common.ErrorCode;
 import com.github.ontio.common.Helper;
+import com.github.ontio.common.SmartCodeEvent;
 import com.github.ontio.core.block.Block;
 import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.io.Serializable;
 import com.github.ontio.network.connect.AbstractConnector;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.JsonResponse;
+import com.github.ontio.network.connect.PooledHttpTransport;
 import com.github.ontio.network.exception.ConnectorException;
 import com.github.ontio.network.exception.RestfulException;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
 
 public class RestClient extends AbstractConnector {
+    private static final Type EVENT_LIST = new TypeReference<List<SmartCodeEvent>>() {
+    }.getType();
     private Interfaces api;
     private String version = "v1.0.0", action = "sendrawtransaction";
 
     public RestClient(String restUrl) {
-        api = new Interfaces(restUrl);
+        this(restUrl, PooledHttpTransport.getDefault());
+    }
+
+    public RestClient(String restUrl, HttpTransport transport) {
+        api = new Interfaces(restUrl, transport);
     }
 
     @Override
@@ -44,6 +58,17 @@ public class RestClient extends AbstractConnector {
         return api.getUrl();
     }
 
+    public long getMaxResponseBytes() {
+        return api.getMaxResponseBytes();
+    }
+
+    /**
+     * @param maxResponseBytes responses longer than this fail with a RestfulException
+     */
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        api.setMaxResponseBytes(maxResponseBytes);
+    }
+
     @Override
     public String sendRawTransaction(String hexData) throws RestfulException {
         String rs = api.sendTransaction(false, null, action, version, hexData);
@@ -64,6 +89,16 @@ public class RestClient extends AbstractConnector {
         throw new RestfulException(to(rr));
     }
 
+    @Override
+    public String sendRawTransaction(boolean preExec, String userid, byte[] tx) throws RestfulException {
+        String rs = api.sendTransaction(preExec, userid, action, version, tx);
+        Result rr = JSON.parseObject(rs, Result.class);
+        if (rr.Error == 0) {
+            return rs;
+        }
+        throw new RestfulException(to(rr));
+    }
+
     @Override
     public Transaction getRawTransaction(String txhash) throws RestfulException {
         String rs = api.getTransaction(txhash, true);
@@ -102,28 +137,20 @@ public class RestClient extends AbstractConnector {
 
     @Override
     public Block getBlock(int height) throws RestfulException {
-        String rs = api.getBlock(height, "1");
-        Result rr = JSON.parseObject(rs, Result.class);
-        if (rr.Error == 0) {
-            try {
-                return Serializable.from(Helper.hexToBytes((String) rr.Result), Block.class);
-            } catch (InstantiationException | IllegalAccessException e) {
-                throw new RestfulException(ErrorCode.BlockDeserializeError, e);
-            }
+        String hex = result(api.getBlock(height, "1", String.class));
+        try {
+            return Serializable.from(Helper.hexToBytes(hex), Block.class);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RestfulException(ErrorCode.BlockDeserializeError, e);
         }
-        throw new RestfulException(to(rr));
     }
 
 
     @Override
     public Block getBlock(String hash) throws RestfulException {
-        String rs = api.getBlock(hash, "1");
-        Result rr = JSON.parseObject(rs, Result.class);
-        if (rr.Error != 0) {
-            throw new RestfulException(to(rr));
-        }
+        String hex = result(api.getBlock(hash, "1", String.class));
         try {
-            return Serializable.from(Helper.hexToBytes((String) rr.Result), Block.class);
+            return Serializable.from(Helper.hexToBytes(hex), Block.class);
         } catch (InstantiationException | IllegalAccessException e) {
             throw new RestfulException(ErrorCode.BlockDeserializeError, e);
         }
@@ -159,25 +186,19 @@ public class RestClient extends AbstractConnector {
         throw new RestfulException(to(rr));
     }
 
+    @Override
+    public String getBlockHex(int height) throws RestfulException {
+        return result(api.getBlock(height, "1", String.class));
+    }
+
     @Override
     public Object getBlockJson(int height) throws RestfulException {
-        String rs = api.getBlock(height, "0");
-        Result rr = JSON.parseObject(rs, Result.class);
-        if (rr.Error == 0) {
-            return rr.Result;
-        }
-        throw new RestfulException(to(rr));
+        return result(api.getBlock(height, "0", Object.class));
     }
 
     @Override
     public Object getBlockJson(String hash) throws RestfulException {
-        String rs = api.getBlock(hash, "0");
-        Result rr = JSON.parseObject(rs, Result.class);
-        if (rr.Error == 0) {
-            return rr.Result;
-        }
-        throw new RestfulException(to(rr));
-
+        return result(api.getBlock(hash, "0", Object.class));
     }
 
     @Override
@@ -202,23 +223,23 @@ public class RestClient extends AbstractConnector {
 
     @Override
     public Object getSmartCodeEvent(int height) throws ConnectorException, IOException {
-        String rs = api.getSmartCodeEvent(height);
-        Result rr = JSON.parseObject(rs, Result.class);
-        if (rr.Error == 0) {
-            return rr.Result;
-        }
-        throw new RestfulException(to(rr));
-
+        return result(api.getSmartCodeEvent(height, Object.class));
     }
 
     @Override
     public Object getSmartCodeEvent(String hash) throws ConnectorException, IOException {
-        String rs = api.getSmartCodeEvent(hash);
-        Result rr = JSON.parseObject(rs, Result.class);
-        if (rr.Error == 0) {
-            return rr.Result;
-        }
-        throw new RestfulException(to(rr));
+        return result(api.getSmartCodeEvent(hash, Object.class));
+    }
+
+    @Override
+    public List<SmartCodeEvent> getSmartCodeEvents(int height) throws ConnectorException, IOException {
+        List<SmartCodeEvent> events = result(api.getSmartCodeEvent(height, EVENT_LIST));
+        return events == null ? Collections.emptyList() : events;
+    }
+
+    @Override
+    public SmartCodeEvent getSmartCodeEventInfo(String hash) throws ConnectorException, IOException {
+        return result(api.getSmartCodeEvent(hash, SmartCodeEvent.class));
     }
 
     @Override
@@ -336,6 +357,13 @@ public class RestClient extends AbstractConnector {
         return null;
     }
 
+    private <T> T result(JsonResponse<T> response) throws RestfulException {
+        if (response.getError() != 0) {
+            throw new RestfulException(response.toString());
+        }
+        return response.getResult();
+    }
+
     private String to(Result rr) {
         return JSON.toJSONString(rr);
     }
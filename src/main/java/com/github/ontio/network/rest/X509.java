@@ -29,7 +29,7 @@ import java.security.cert.X509Certificate;
 public class X509 implements X509TrustManager {
 	@Override
     public X509Certificate[] getAcceptedIssuers() {
-        return null;
+        return new X509Certificate[0];
     }
 	@Override
     public void checkClientTrusted(X509Certificate[] chain, String authType)
@@ -20,21 +20,16 @@
 package com.github.ontio.network.rest;
 
 import com.alibaba.fastjson.JSON;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.UrlConnectionTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import javax.net.ssl.HttpsURLConnection;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-import javax.net.ssl.TrustManager;
 import java.io.*;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.net.URLEncoder;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
-import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,46 +38,11 @@ public class http {
     private static final Logger LOG = LoggerFactory.getLogger(http.class);
 
     private static final String DEFAULT_CHARSET = "UTF-8";
+    private static final UrlConnectionTransport TRANSPORT = new UrlConnectionTransport(10000, 10000);
+    private static final UrlConnectionTransport GET_TRANSPORT = new UrlConnectionTransport(20000, 20000);
 
     public static String post(String url, Map<String, String> header, String body, boolean https) throws IOException, NoSuchAlgorithmException, NoSuchProviderException, KeyManagementException {
-        URL u = new URL(url);
-        HttpURLConnection http = (HttpURLConnection) u.openConnection();
-        http.setConnectTimeout(10000);
-        http.setReadTimeout(10000);
-        http.setRequestMethod("POST");
-        http.setRequestProperty("Content-Type", "application/json");
-        if (header != null) {
-            for (Map.Entry<String, String> e : header.entrySet()) {
-                http.setRequestProperty(e.getKey(), (String) e.getValue());
-            }
-        }
-        if (https) {
-            SSLContext sslContext = SSLContext.getInstance("SSL", "SunJSSE");
-            sslContext.init(null, new TrustManager[]{new X509()}, new SecureRandom());
-            SSLSocketFactory ssf = sslContext.getSocketFactory();
-            ((HttpsURLConnection) http).setSSLSocketFactory(ssf);
-        }
-        http.setDoOutput(true);
-        http.setDoInput(true);
-        http.connect();
-        try (OutputStream out = http.getOutputStream()) {
-            out.write(body.getBytes(DEFAULT_CHARSET));
-            out.flush();
-        }
-        StringBuilder sb = new StringBuilder();
-        try (InputStream is = http.getInputStream()) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, DEFAULT_CHARSET))) {
-                String str = null;
-                while ((str = reader.readLine()) != null) {
-                    sb.append(str);
-                    str = null;
-                }
-            }
-        }
-        if (http != null) {
-            http.disconnect();
-        }
-        return sb.toString();
+        return TRANSPORT.post(url, header, body);
     }
 
     public static String post(String url, String body, boolean https) throws IOException, NoSuchAlgorithmException, NoSuchProviderException, KeyManagementException {
@@ -90,39 +50,7 @@ public class http {
     }
 
     public static String delete(String url, String body, boolean https) throws IOException, NoSuchAlgorithmException, NoSuchProviderException, KeyManagementException {
-        URL u = new URL(url);
-        HttpURLConnection http = (HttpURLConnection) u.openConnection();
-        http.setConnectTimeout(10000);
-        http.setReadTimeout(10000);
-        http.setRequestMethod("DELETE");
-        http.setRequestProperty("Content-Type", "application/json");
-        if (https) {
-            SSLContext sslContext = SSLContext.getInstance("SSL", "SunJSSE");
-            sslContext.init(null, new TrustManager[]{new X509()}, new SecureRandom());
-            SSLSocketFactory ssf = sslContext.getSocketFactory();
-            ((HttpsURLConnection) http).setSSLSocketFactory(ssf);
-        }
-        http.setDoOutput(true);
-        http.setDoInput(true);
-        http.connect();
-        try (OutputStream out = http.getOutputStream()) {
-            out.write(body.getBytes(DEFAULT_CHARSET));
-            out.flush();
-        }
-        StringBuilder sb = new StringBuilder();
-        try (InputStream is = http.getInputStream()) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, DEFAULT_CHARSET))) {
-                String str = null;
-                while ((str = reader.readLine()) != null) {
-                    sb.append(str);
-                    str = null;
-                }
-            }
-        }
-        if (http != null) {
-            http.disconnect();
-        }
-        return sb.toString();
+        return TRANSPORT.delete(url, body);
     }
 
     public static String delete(String url, Map<String, String> params, Map<String, Object> body) throws Exception {
@@ -134,44 +62,16 @@ public class http {
     }
 
     public static String post(String url, Map<String, String> params, Map<String, Object> body) throws Exception {
+        return post(TRANSPORT, url, params, body);
+    }
+
+    public static String post(HttpTransport transport, String url, Map<String, String> params, Map<String, Object> body) throws IOException {
         LOG.debug("POST url={},{},{}", url, JSON.toJSONString(params), JSON.toJSONString(body));
-        if (url.startsWith("https")) {
-            return post(url + cvtParams(params), JSON.toJSONString(body), true);
-        } else {
-            return post(url + cvtParams(params), JSON.toJSONString(body), false);
-        }
+        return transport.post(url + cvtParams(params), null, JSON.toJSONString(body));
     }
 
     private static String get(String url, boolean https) throws Exception {
-        URL u = new URL(url);
-        HttpURLConnection http = (HttpURLConnection) u.openConnection();
-        http.setConnectTimeout(20000);
-        http.setReadTimeout(20000);
-        http.setRequestMethod("GET");
-        http.setRequestProperty("Content-Type", "application/json");
-        if (https) {
-            SSLContext sslContext = SSLContext.getInstance("SSL", "SunJSSE");
-            sslContext.init(null, new TrustManager[]{new X509()}, new SecureRandom());
-            SSLSocketFactory ssf = sslContext.getSocketFactory();
-            ((HttpsURLConnection) http).setSSLSocketFactory(ssf);
-        }
-        http.setDoOutput(true);
-        http.setDoInput(true);
-        http.connect();
-        StringBuilder sb = new StringBuilder();
-        try (InputStream is = http.getInputStream()) {
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(is, DEFAULT_CHARSET))) {
-                String str = null;
-                while ((str = reader.readLine()) != null) {
-                    sb.append(str);
-                    str = null;
-                }
-            }
-        }
-        if (http != null) {
-            http.disconnect();
-        }
-        return sb.toString();
+        return GET_TRANSPORT.get(url);
     }
 
     private static String get(String url) throws Exception {
@@ -184,15 +84,15 @@ public class http {
     }
 
     public static String get(String url, Map<String, String> params) throws Exception {
-        if (url.startsWith("https")) {
-            return get(url + cvtParams(params), true);
-        } else {
-            return get(url + cvtParams(params), false);
-        }
+        return get(GET_TRANSPORT, url, params);
+    }
+
+    public static String get(HttpTransport transport, String url, Map<String, String> params) throws IOException {
+        return transport.get(url + cvtParams(params));
     }
 
 
-    private static String cvtParams(Map<String, String> params) {
+    static String cvtParams(Map<String, String> params) {
         if (params == null || params.isEmpty()) {
             return "";
         }
@@ -20,30 +20,50 @@
 package com.github.ontio.network.rpc;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONException;
 import com.github.ontio.common.ErrorCode;
+import com.github.ontio.network.connect.AsyncHttpTransport;
+import com.github.ontio.network.connect.HexBody;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.JsonResponse;
+import com.github.ontio.network.connect.PooledHttpTransport;
 import com.github.ontio.network.exception.RpcException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
+import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
  */
 public class Interfaces {
-    private final Logger log = LoggerFactory.getLogger(Interfaces.class);
+    private static final Logger log = LoggerFactory.getLogger(Interfaces.class);
+    private static final Map<String, String> HEADER = Collections.singletonMap("Content-Type", "application/json;charset=utf-8");
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
     private final URL url;
+    private final HttpTransport transport;
+    private volatile long maxResponseBytes = JsonResponse.DEFAULT_MAX_BYTES;
 
 
     public Interfaces(String url) throws MalformedURLException {
+        this(url, PooledHttpTransport.getDefault());
+    }
+
+    public Interfaces(String url, HttpTransport transport) throws MalformedURLException {
         this.url = new URL(url);
+        this.transport = transport;
     }
 
     private static double getNextId() {
@@ -58,9 +78,159 @@ public class Interfaces {
         return url.getHost() + " " + url.getPort();
     }
 
+    public long getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    /**
+     * responses longer than this are dropped while they are read
+     */
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        if (maxResponseBytes <= 0) {
+            throw new IllegalArgumentException("maxResponseBytes should be greater than 0");
+        }
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
     public Object call(String method, Object... params) throws RpcException, IOException {
-        Map req = makeRequest(method, params);
-        Map response = (Map) send(req);
+        return call(Object.class, method, params);
+    }
+
+    /**
+     * the response is parsed from the connection as it arrives and the result bound
+     * to resultType on the way, no String or Map of the whole response is built
+     */
+    public <T> T call(Type resultType, String method, Object... params) throws RpcException {
+        Map req = makeRequest(url, method, params);
+        JsonResponse<T> response;
+        try {
+            response = transport.post(url.toString(), HEADER, JSON.toJSONString(req),
+                    in -> JsonResponse.read(in, resultType, maxResponseBytes));
+        } catch (JsonResponse.InvalidResponseException e) {
+            throw new RpcException(0, ErrorCode.OtherError(url + " " + e.getMessage()), e);
+        } catch (IOException e) {
+            throw new RpcException(0, ErrorCode.ConnectUrlErr(url + " " + e.getMessage()), e);
+        }
+        if (response.getError() != 0) {
+            throw new RpcException(0, response.toString());
+        }
+        return response.getResult();
+    }
+
+    /**
+     * sendrawtransaction with the transaction hex encoded straight into the request body
+     */
+    public Object sendRawTransaction(byte[] tx, boolean preExec) throws RpcException {
+        long id = NEXT_ID.getAndIncrement();
+        HexBody body = new HexBody("{\"jsonrpc\":\"2.0\",\"method\":\"sendrawtransaction\",\"params\":[\"", tx,
+                (preExec ? "\",1],\"id\":" : "\"],\"id\":") + id + "}");
+        log.debug("POST url={},sendrawtransaction {} bytes", this.url, tx.length);
+        String result;
+        try {
+            result = transport.post(url.toString(), HEADER, body);
+        } catch (IOException e) {
+            throw new RpcException(0, ErrorCode.ConnectUrlErr(url + " " + e.getMessage()), e);
+        }
+        log.debug("result==>>>{}", result);
+        return toResult(url, parseResponse(url, result));
+    }
+
+    /**
+     * same as call, but the request goes out on the async transport and no thread waits for it.
+     * A transport failure fails the future with an RpcException caused by it.
+     */
+    static CompletableFuture<Object> callAsync(URL url, AsyncHttpTransport asyncTransport, String method, Object... params) {
+        Map req = makeRequest(url, method, params);
+        return asyncTransport.post(url.toString(), HEADER, JSON.toJSONString(req))
+                .handle((result, ex) -> {
+                    if (ex != null) {
+                        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                        throw new CompletionException(new RpcException(0, ErrorCode.ConnectUrlErr(url + " " + cause.getMessage()), cause));
+                    }
+                    log.debug("result==>>>{}", result);
+                    try {
+                        return toResult(url, parseResponse(url, result));
+                    } catch (RpcException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+    }
+
+    /**
+     * send all calls as one JSON-RPC 2.0 array request, answers are matched back by id
+     * and every call gets its own result or error. A node that does not take arrays
+     * answers with a single object, the calls are then sent one by one.
+     *
+     * @throws RpcException when the request itself fails or the answer is not JSON
+     */
+    public void callBatch(List<RpcCall> calls) throws RpcException {
+        if (calls.isEmpty()) {
+            return;
+        }
+        List<Map> requests = new ArrayList<>(calls.size());
+        Map<String, RpcCall> byId = new HashMap<>();
+        for (RpcCall c : calls) {
+            Map req = makeRequest(url, c.method, c.params);
+            byId.put(req.get("id").toString(), c);
+            requests.add(req);
+        }
+        String result;
+        try {
+            result = transport.post(url.toString(), HEADER, JSON.toJSONString(requests));
+        } catch (IOException e) {
+            throw new RpcException(0, ErrorCode.ConnectUrlErr(url + " " + e.getMessage()), e);
+        }
+        log.debug("result==>>>{}", result);
+        Object response;
+        try {
+            response = JSON.parse(result);
+        } catch (JSONException e) {
+            throw new RpcException(0, ErrorCode.OtherError(url + " invalid response: " + e.getMessage()));
+        }
+        if (!(response instanceof JSONArray)) {
+            for (RpcCall c : calls) {
+                try {
+                    c.result = call(c.method, c.params);
+                } catch (RpcException | IOException e) {
+                    c.error = e;
+                }
+            }
+            return;
+        }
+        for (Object o : (JSONArray) response) {
+            if (!(o instanceof Map)) {
+                continue;
+            }
+            Map r = (Map) o;
+            RpcCall c = byId.remove(String.valueOf(r.get("id")));
+            if (c == null) {
+                continue;
+            }
+            Object error = r.get("error");
+            if (error == null || error instanceof Number && ((Number) error).intValue() == 0) {
+                c.result = r.get("result");
+            } else {
+                int code = error instanceof Number ? ((Number) error).intValue() : 0;
+                if (error instanceof Map && ((Map) error).get("code") instanceof Number) {
+                    code = ((Number) ((Map) error).get("code")).intValue();
+                }
+                c.error = new RpcException(code, JSON.toJSONString(r));
+            }
+        }
+        for (RpcCall c : byId.values()) {
+            c.error = new RpcException(0, ErrorCode.OtherError("no response for " + c.method));
+        }
+    }
+
+    private static Map parseResponse(URL url, String result) throws RpcException {
+        try {
+            return JSON.parseObject(result, Map.class);
+        } catch (JSONException e) {
+            throw new RpcException(0, ErrorCode.OtherError(url + " invalid response: " + e.getMessage()));
+        }
+    }
+
+    private static Object toResult(URL url, Map response) throws RpcException {
         if (response == null) {
             throw new RpcException(0, ErrorCode.ConnectUrlErr(url + "response is null. maybe is connect error"));
         } else if ((int) response.get("error") == 0) {
@@ -70,38 +240,22 @@ public class Interfaces {
         }
     }
 
-    private Map makeRequest(String method, Object[] params) {
+    private static Map makeRequest(URL url, String method, Object[] params) {
         Map request = new HashMap();
         request.put("jsonrpc", "2.0");
         request.put("method", method);
         request.put("params", params);
-        request.put("id", 1);
-        log.debug("POST url={},{}", this.url, JSON.toJSONString(request));
+        request.put("id", NEXT_ID.getAndIncrement());
+        log.debug("POST url={},{}", url, JSON.toJSONString(request));
         return request;
     }
 
 
     public Object send(Object request) throws IOException {
         try {
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setConnectTimeout(10000);
-            connection.setReadTimeout(10000);
-            connection.setDoOutput(true);
-            //set parameter type to JSON format
-            connection.setRequestProperty("Content-Type", "application/json;charset=utf-8");
-            try (OutputStreamWriter w = new OutputStreamWriter(connection.getOutputStream())) {
-                w.write(JSON.toJSONString(request));
-            }
-            try (InputStreamReader r = new InputStreamReader(connection.getInputStream())) {
-                StringBuffer temp = new StringBuffer();
-                int c = 0;
-                while ((c = r.read()) != -1) {
-                    temp.append((char) c);
-                }
-                log.debug("result==>>>{}", temp.toString());
-                return JSON.parseObject(temp.toString(), Map.class);
-            }
+            String result = transport.post(url.toString(), HEADER, JSON.toJSONString(request));
+            log.debug("result==>>>{}", result);
+            return JSON.parseObject(result, Map.class);
         } catch (IOException e) {
         }
         return null;
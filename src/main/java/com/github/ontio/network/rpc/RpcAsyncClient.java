@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.rpc;
+
+import com.github.ontio.common.Helper;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.io.Serializable;
+import com.github.ontio.network.connect.AbstractAsyncConnector;
+import com.github.ontio.network.connect.AsyncHttpTransport;
+import com.github.ontio.network.connect.NioHttpTransport;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * async counterpart of RpcClient on a non-blocking transport
+ */
+public class RpcAsyncClient extends AbstractAsyncConnector {
+    private final URL url;
+    private volatile AsyncHttpTransport transport;
+
+    /**
+     * uses the shared NioHttpTransport, started on the first request
+     */
+    public RpcAsyncClient(String url) {
+        this(url, null);
+    }
+
+    public RpcAsyncClient(String url, AsyncHttpTransport transport) {
+        try {
+            this.url = new URL(url);
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException(e);
+        }
+        this.transport = transport;
+    }
+
+    private CompletableFuture<Object> call(String method, Object... params) {
+        if (transport == null) {
+            transport = NioHttpTransport.getDefault();
+        }
+        return Interfaces.callAsync(url, transport, method, params);
+    }
+
+    @Override
+    public String getUrl() {
+        return url.getHost() + " " + url.getPort();
+    }
+
+    @Override
+    public CompletableFuture<Object> getBalance(String address) {
+        return call("getbalance", address);
+    }
+
+    @Override
+    public CompletableFuture<Object> getBalanceV2(String address) {
+        return call("getbalancev2", address);
+    }
+
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(String sData) {
+        return call("sendrawtransaction", sData);
+    }
+
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(boolean preExec, String userid, String sData) {
+        if (preExec) {
+            return call("sendrawtransaction", sData, 1);
+        }
+        return call("sendrawtransaction", sData);
+    }
+
+    @Override
+    public CompletableFuture<Transaction> getRawTransaction(String txhash) {
+        return decode(call("getrawtransaction", txhash), r -> Transaction.deserializeFrom(Helper.hexToBytes((String) r)));
+    }
+
+    @Override
+    public CompletableFuture<Object> getRawTransactionJson(String txhash) {
+        return decode(call("getrawtransaction", txhash), r -> Transaction.deserializeFrom(Helper.hexToBytes((String) r)).json());
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNodeCount() {
+        return decode(call("getconnectioncount"), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getBlockHeight() {
+        return decode(call("getblockcount"), r -> (int) r - 1);
+    }
+
+    @Override
+    public CompletableFuture<Block> getBlock(int index) {
+        return decode(call("getblock", index), r -> Serializable.from(Helper.hexToBytes((String) r), Block.class));
+    }
+
+    @Override
+    public CompletableFuture<Block> getBlock(String hash) {
+        return decode(call("getblock", hash), r -> Serializable.from(Helper.hexToBytes((String) r), Block.class));
+    }
+
+    @Override
+    public CompletableFuture<Object> getBlockJson(int index) {
+        return call("getblock", index, 1);
+    }
+
+    @Override
+    public CompletableFuture<Object> getBlockJson(String hash) {
+        return call("getblock", hash, 1);
+    }
+
+    @Override
+    public CompletableFuture<Object> getContract(String hash) {
+        return call("getcontractstate", hash);
+    }
+
+    @Override
+    public CompletableFuture<Object> getContractJson(String hash) {
+        return call("getcontractstate", hash, 1);
+    }
+
+    @Override
+    public CompletableFuture<Object> getSmartCodeEvent(int height) {
+        return call("getsmartcodeevent", height);
+    }
+
+    @Override
+    public CompletableFuture<Object> getSmartCodeEvent(String hash) {
+        return call("getsmartcodeevent", hash);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getBlockHeightByTxHash(String hash) {
+        return decode(call("getblockheightbytxhash", hash), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getStorage(String codehash, String key) {
+        return decode(call("getstorage", codehash, key), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getMerkleProof(String hash) {
+        return call("getmerkleproof", hash);
+    }
+
+    @Override
+    public CompletableFuture<String> getAllowance(String asset, String from, String to) {
+        return decode(call("getallowance", asset, from, to), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getAllowanceV2(String asset, String from, String to) {
+        return decode(call("getallowancev2", asset, from, to), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getMemPoolTxCount() {
+        return call("getmempooltxcount");
+    }
+
+    @Override
+    public CompletableFuture<Object> getMemPoolTxState(String hash) {
+        return call("getmempooltxstate", hash);
+    }
+
+    @Override
+    public CompletableFuture<String> getVersion() {
+        return decode(call("getversion"), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getGrantOng(String address) {
+        return decode(call("getgrantong", address), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNetworkId() {
+        return decode(call("getnetworkid"), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getNodeSyncStatus() {
+        return call("getsyncstatus");
+    }
+
+    @Override
+    public CompletableFuture<String> getSideChainData(String sideChainID) {
+        return decode(call("getsidechaindata", sideChainID), r -> (String) r);
+    }
+}
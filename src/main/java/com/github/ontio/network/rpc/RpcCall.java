@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.rpc;
+
+/**
+ * one call of a JSON-RPC batch, result or error is filled in once the batch has been sent
+ */
+public class RpcCall {
+    public final String method;
+    public final Object[] params;
+    public Object result;
+    public Exception error;
+
+    public RpcCall(String method, Object... params) {
+        this.method = method;
+        this.params = params;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * @return the result, or throws the error of this call
+     */
+    public Object get() throws Exception {
+        if (error != null) {
+            throw error;
+        }
+        return result;
+    }
+}
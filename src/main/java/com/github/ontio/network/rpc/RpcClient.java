@@ -19,24 +19,39 @@
 
 package com.github.ontio.network.rpc;
 
+import com.alibaba.fastjson.TypeReference;
 import com.github.ontio.common.Helper;
+import com.github.ontio.common.SmartCodeEvent;
 import com.github.ontio.common.UInt256;
 import com.github.ontio.core.block.Block;
 import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.io.Serializable;
 import com.github.ontio.network.connect.AbstractConnector;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.PooledHttpTransport;
 import com.github.ontio.network.exception.ConnectorException;
 import com.github.ontio.network.exception.RpcException;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
 import java.net.MalformedURLException;
+import java.util.Collections;
+import java.util.List;
 
 public class RpcClient extends AbstractConnector {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    private static final Type EVENT_LIST = new TypeReference<List<SmartCodeEvent>>() {
+    }.getType();
     private Interfaces rpc;
+    private int batchSize = DEFAULT_BATCH_SIZE;
 
     public RpcClient(String url) {
+        this(url, PooledHttpTransport.getDefault());
+    }
+
+    public RpcClient(String url, HttpTransport transport) {
         try {
-            this.rpc = new Interfaces(url);
+            this.rpc = new Interfaces(url, transport);
         } catch (MalformedURLException e) {
             e.printStackTrace();
         }
@@ -47,6 +62,44 @@ public class RpcClient extends AbstractConnector {
         return rpc.getHost();
     }
 
+    public long getMaxResponseBytes() {
+        return rpc.getMaxResponseBytes();
+    }
+
+    /**
+     * @param maxResponseBytes responses longer than this fail with an RpcException
+     */
+    public void setMaxResponseBytes(long maxResponseBytes) {
+        rpc.setMaxResponseBytes(maxResponseBytes);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @param batchSize max calls per JSON-RPC batch request
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize should be greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * send the calls in JSON-RPC batches of at most batchSize calls, the result or error
+     * of each call is set on it
+     *
+     * @throws RpcException when a batch request fails as a whole, calls of earlier batches keep their results
+     */
+    public List<RpcCall> callBatch(List<RpcCall> calls) throws RpcException {
+        for (int from = 0; from < calls.size(); from += batchSize) {
+            rpc.callBatch(calls.subList(from, Math.min(from + batchSize, calls.size())));
+        }
+        return calls;
+    }
+
     @Override
     public Object getBalance(String address) throws ConnectorException, IOException {
         Object result = null;
@@ -78,6 +131,11 @@ public class RpcClient extends AbstractConnector {
         return result;
     }
 
+    @Override
+    public Object sendRawTransaction(boolean preExec, String userid, byte[] tx) throws RpcException {
+        return rpc.sendRawTransaction(tx, preExec);
+    }
+
     @Override
     public Transaction getRawTransaction(String txhash) throws RpcException, IOException {
         Object result = rpc.call("getrawtransaction", txhash.toString());
@@ -138,9 +196,9 @@ public class RpcClient extends AbstractConnector {
 
 
     public Block getBlock(UInt256 hash) throws RpcException, IOException {
-        Object result = rpc.call("getblock", hash.toString());
+        String result = rpc.call(String.class, "getblock", hash.toString());
         try {
-            Block bb = Serializable.from(Helper.hexToBytes((String) result), Block.class);
+            Block bb = Serializable.from(Helper.hexToBytes(result), Block.class);
             return bb;
         } catch (InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
@@ -149,15 +207,20 @@ public class RpcClient extends AbstractConnector {
 
     @Override
     public Block getBlock(int index) throws RpcException, IOException {
-        Object result = rpc.call("getblock", index);
+        String result = rpc.call(String.class, "getblock", index);
         try {
-            Block bb = Serializable.from(Helper.hexToBytes((String) result), Block.class);
+            Block bb = Serializable.from(Helper.hexToBytes(result), Block.class);
             return bb;
         } catch (InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public String getBlockHex(int index) throws RpcException {
+        return rpc.call(String.class, "getblock", index);
+    }
+
     public int getBlockCount() throws RpcException, IOException {
         Object result = rpc.call("getblockcount");
         return (int) result;
@@ -165,9 +228,9 @@ public class RpcClient extends AbstractConnector {
 
     @Override
     public Block getBlock(String hash) throws ConnectorException, IOException {
-        Object result = rpc.call("getblock", hash.toString());
+        String result = rpc.call(String.class, "getblock", hash.toString());
         try {
-            Block bb = Serializable.from(Helper.hexToBytes((String) result), Block.class);
+            Block bb = Serializable.from(Helper.hexToBytes(result), Block.class);
             return bb;
         } catch (InstantiationException | IllegalAccessException e) {
             throw new RuntimeException(e);
@@ -194,6 +257,17 @@ public class RpcClient extends AbstractConnector {
         }
     }
 
+    @Override
+    public List<SmartCodeEvent> getSmartCodeEvents(int height) throws ConnectorException, IOException {
+        List<SmartCodeEvent> result = rpc.call(EVENT_LIST, "getsmartcodeevent", height);
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    @Override
+    public SmartCodeEvent getSmartCodeEventInfo(String hash) throws ConnectorException, IOException {
+        return rpc.call(SmartCodeEvent.class, "getsmartcodeevent", hash);
+    }
+
     @Override
     public int getBlockHeightByTxHash(String hash) throws ConnectorException, IOException {
         Object result = rpc.call("getblockheightbytxhash", hash.toString());
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * bounded multi-producer/multi-consumer queue of pushed websocket messages.
+ * Slots and queued items are counted by two semaphores around a lock-free queue,
+ * so neither side takes a lock unless it has to wait.
+ * Register it with WebsocketClient.addEventListener, then pull with poll/take
+ * or have it pushed to a listener on an executor with dispatch.
+ */
+public class EventQueue implements WebsocketEventListener {
+    private static final Logger LOG = LoggerFactory.getLogger(EventQueue.class);
+
+    /**
+     * what offer does when the queue is full
+     */
+    public enum Overflow {
+        /** drop the oldest queued event to make room */
+        DROP_OLDEST,
+        /** wait for a consumer, this stalls the websocket reader thread */
+        BLOCK,
+        /** drop the new event */
+        DROP_NEWEST
+    }
+
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    private final Queue<Result> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore free;
+    private final Semaphore queued = new Semaphore(0);
+    private final int capacity;
+    private final Overflow overflow;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong listenerErrors = new AtomicLong();
+
+    public EventQueue() {
+        this(DEFAULT_CAPACITY, Overflow.DROP_OLDEST);
+    }
+
+    public EventQueue(int capacity, Overflow overflow) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be greater than 0");
+        }
+        this.capacity = capacity;
+        this.overflow = overflow;
+        this.free = new Semaphore(capacity);
+    }
+
+    @Override
+    public void onEvent(Result result) {
+        try {
+            offer(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return false if the event was dropped
+     */
+    public boolean offer(Result result) throws InterruptedException {
+        received.incrementAndGet();
+        while (!free.tryAcquire()) {
+            switch (overflow) {
+                case BLOCK:
+                    free.acquire();
+                    enqueue(result);
+                    return true;
+                case DROP_NEWEST:
+                    dropped.incrementAndGet();
+                    return false;
+                default:
+                    // take over the slot of the oldest event, if a consumer is faster try again
+                    if (queued.tryAcquire()) {
+                        queue.poll();
+                        dropped.incrementAndGet();
+                        enqueue(result);
+                        return true;
+                    }
+                    Thread.yield();
+            }
+        }
+        enqueue(result);
+        return true;
+    }
+
+    private void enqueue(Result result) {
+        queue.add(result);
+        queued.release();
+    }
+
+    /**
+     * @return the oldest event, or null if there is none
+     */
+    public Result poll() {
+        if (!queued.tryAcquire()) {
+            return null;
+        }
+        return dequeue();
+    }
+
+    public Result poll(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!queued.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        return dequeue();
+    }
+
+    /**
+     * wait for the next event
+     */
+    public Result take() throws InterruptedException {
+        queued.acquire();
+        return dequeue();
+    }
+
+    /**
+     * move up to max queued events into the list without waiting
+     *
+     * @return number of events moved
+     */
+    public int drainTo(List<Result> to, int max) {
+        int n = 0;
+        while (n < max && queued.tryAcquire()) {
+            to.add(dequeue());
+            n++;
+        }
+        return n;
+    }
+
+    private Result dequeue() {
+        Result result = queue.poll();
+        free.release();
+        return result;
+    }
+
+    /**
+     * push events to the listener from a task on the executor, so a slow listener
+     * holds up this queue instead of the websocket reader. The task runs until its
+     * thread is interrupted.
+     */
+    public void dispatch(Executor executor, WebsocketEventListener listener) {
+        executor.execute(() -> {
+            List<Result> batch = new ArrayList<>();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batch.add(take());
+                    drainTo(batch, 255);
+                    for (Result result : batch) {
+                        try {
+                            listener.onEvent(result);
+                        } catch (Exception e) {
+                            listenerErrors.incrementAndGet();
+                            LOG.warn("event listener failed on {}", result.Action, e);
+                        }
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    public int size() {
+        return queued.availablePermits();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * @return events offered since creation
+     */
+    public long getReceived() {
+        return received.get();
+    }
+
+    /**
+     * @return events lost to overflow since creation
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return events a dispatch listener threw on, they are logged and skipped
+     */
+    public long getListenerErrors() {
+        return listenerErrors.get();
+    }
+}
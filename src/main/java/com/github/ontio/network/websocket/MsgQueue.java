@@ -25,8 +25,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- *
+ * @deprecated not filled any more, pushed messages go to the per-client
+ * {@link WebsocketClient#getEventQueue()} or a registered {@link WebsocketEventListener}
  */
+@Deprecated
 public class MsgQueue {
 
     private static Set<String> resultSet = new HashSet<String>();
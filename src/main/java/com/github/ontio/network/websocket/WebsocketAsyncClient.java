@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.websocket;
+
+import com.github.ontio.common.Helper;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.io.Serializable;
+import com.github.ontio.network.connect.AbstractAsyncConnector;
+import com.github.ontio.network.connect.HexBody;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CompletableFuture based connector over the connection of a WebsocketClient,
+ * any number of requests can be in flight without a waiting thread
+ */
+public class WebsocketAsyncClient extends AbstractAsyncConnector {
+    private final WebsocketClient client;
+
+    /**
+     * opens its own connection on the first request
+     */
+    public WebsocketAsyncClient(String url) {
+        this(new WebsocketClient(url, null));
+    }
+
+    public WebsocketAsyncClient(WebsocketClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public String getUrl() {
+        return client.getUrl();
+    }
+
+    public WebsocketClient getClient() {
+        return client;
+    }
+
+    private CompletableFuture<Object> request(Map<String, Object> map) {
+        return client.request(map);
+    }
+
+    private static Map<String, Object> action(String action) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("Action", action);
+        map.put("Version", "1.0.0");
+        return map;
+    }
+
+    private static CompletableFuture<Block> toBlock(CompletableFuture<Object> result) {
+        return decode(result, r -> Serializable.from(Helper.hexToBytes((String) r), Block.class));
+    }
+
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(boolean preExec, String userid, String hexData) {
+        Map<String, Object> map = action("sendrawtransaction");
+        map.put("Data", hexData);
+        if (preExec) {
+            map.put("PreExec", "1");
+        }
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(String hexData) {
+        return sendRawTransaction(false, null, hexData);
+    }
+
+    /**
+     * the frame is built in one piece with the hex encoded straight into it, a text
+     * frame still needs it as a String
+     */
+    @Override
+    public CompletableFuture<Object> sendRawTransaction(boolean preExec, String userid, byte[] tx) {
+        return client.request(id -> {
+            HexBody body = new HexBody("{\"Action\":\"sendrawtransaction\",\"Version\":\"1.0.0\",\"Id\":" + id
+                    + (preExec ? ",\"PreExec\":\"1\"" : "") + ",\"Data\":\"", tx, "\"}");
+            return new String(body.toByteArray(), StandardCharsets.ISO_8859_1);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Transaction> getRawTransaction(String txhash) {
+        Map<String, Object> map = action("gettransaction");
+        map.put("Hash", txhash);
+        map.put("Raw", "1");
+        return decode(request(map), r -> Transaction.deserializeFrom(Helper.hexToBytes((String) r)));
+    }
+
+    @Override
+    public CompletableFuture<Object> getRawTransactionJson(String txhash) {
+        Map<String, Object> map = action("gettransaction");
+        map.put("Hash", txhash);
+        map.put("Raw", "0");
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNodeCount() {
+        return decode(request(action("getconnectioncount")), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getBlockHeight() {
+        return decode(request(action("getblockheight")), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Block> getBlock(int height) {
+        Map<String, Object> map = action("getblockbyheight");
+        map.put("Height", height);
+        map.put("Raw", "1");
+        return toBlock(request(map));
+    }
+
+    @Override
+    public CompletableFuture<Block> getBlock(String hash) {
+        Map<String, Object> map = action("getblockbyhash");
+        map.put("Hash", hash);
+        map.put("Raw", "1");
+        return toBlock(request(map));
+    }
+
+    @Override
+    public CompletableFuture<Object> getBlockJson(int height) {
+        Map<String, Object> map = action("getblockbyheight");
+        map.put("Height", height);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getBlockJson(String hash) {
+        Map<String, Object> map = action("getblockbyhash");
+        map.put("Hash", hash);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getBalance(String address) {
+        Map<String, Object> map = action("getbalance");
+        map.put("Addr", address);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getBalanceV2(String address) {
+        Map<String, Object> map = action("getbalanceV2");
+        map.put("Addr", address);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getContract(String hash) {
+        Map<String, Object> map = action("getcontract");
+        map.put("Raw", "1");
+        map.put("Hash", hash);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getContractJson(String hash) {
+        Map<String, Object> map = action("getcontract");
+        map.put("Raw", "0");
+        map.put("Hash", hash);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getSmartCodeEvent(int height) {
+        Map<String, Object> map = action("getsmartcodeeventbyheight");
+        map.put("Height", height);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Object> getSmartCodeEvent(String hash) {
+        Map<String, Object> map = action("getsmartcodeeventbyhash");
+        map.put("Hash", hash);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getBlockHeightByTxHash(String hash) {
+        Map<String, Object> map = action("getblockheightbytxhash");
+        map.put("Hash", hash);
+        return decode(request(map), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getStorage(String codehash, String key) {
+        Map<String, Object> map = action("getstorage");
+        map.put("Hash", codehash);
+        map.put("Key", key);
+        return decode(request(map), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getMerkleProof(String hash) {
+        Map<String, Object> map = action("getmerkleproof");
+        map.put("Hash", hash);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<String> getAllowance(String asset, String from, String to) {
+        Map<String, Object> map = action("getallowance");
+        map.put("Asset", asset);
+        map.put("From", from);
+        map.put("To", to);
+        return decode(request(map), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getAllowanceV2(String asset, String from, String to) {
+        Map<String, Object> map = action("getallowancev2");
+        map.put("Asset", asset);
+        map.put("From", from);
+        map.put("To", to);
+        return decode(request(map), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getMemPoolTxCount() {
+        return request(action("getmempooltxcount"));
+    }
+
+    @Override
+    public CompletableFuture<Object> getMemPoolTxState(String hash) {
+        Map<String, Object> map = action("getmempooltxstate");
+        map.put("Hash", hash);
+        return request(map);
+    }
+
+    @Override
+    public CompletableFuture<String> getVersion() {
+        return decode(request(action("getversion")), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<String> getGrantOng(String address) {
+        Map<String, Object> map = action("getgrantong");
+        map.put("Addr", address);
+        return decode(request(map), r -> (String) r);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getNetworkId() {
+        return decode(request(action("getnetworkid")), r -> (int) r);
+    }
+
+    @Override
+    public CompletableFuture<Object> getNodeSyncStatus() {
+        return request(action("getsyncstatus"));
+    }
+
+    @Override
+    public CompletableFuture<String> getSideChainData(String sideChainID) {
+        return CompletableFuture.completedFuture(null);
+    }
+}
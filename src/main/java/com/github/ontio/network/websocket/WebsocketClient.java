@@ -20,6 +20,7 @@
 package com.github.ontio.network.websocket;
 
 import com.alibaba.fastjson.JSON;
+import com.github.ontio.common.ErrorCode;
 import com.github.ontio.core.block.Block;
 import com.github.ontio.core.transaction.Transaction;
 import com.github.ontio.network.connect.AbstractConnector;
@@ -28,24 +29,78 @@ import okhttp3.*;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
 
 /**
- *
+ * one websocket connection carrying any number of concurrent requests. Every request
+ * gets a unique Id, the node echoes it and the answer completes the pending future
+ * for that Id. What the node pushes on its own goes to the registered listeners.
+ * A lost connection fails the requests in flight and is opened again after a growing
+ * delay, a limited number of times in a row; close stops that until the client is
+ * used again.
  */
 public class WebsocketClient extends AbstractConnector {
+    public static final long DEFAULT_REQUEST_TIMEOUT = 30000;
+    public static final long DEFAULT_RECONNECT_DELAY = 1000;
+    public static final long DEFAULT_MAX_RECONNECT_DELAY = 30000;
+    public static final int DEFAULT_MAX_RECONNECT_ATTEMPTS = 10;
+    private static final OkHttpClient CLIENT = new OkHttpClient.Builder().build();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "websocket-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
     private WebSocket mWebSocket = null;
-    private Object lock;
+    private CompletableFuture<WebSocket> opened;
+    private ScheduledFuture<?> heartbeat;
+    // everything subscribed so far, the node forgets it with the connection
+    private final Map<String, Object> subscription = new HashMap<>();
+    private boolean openedBefore;
+    private long reconnectDelay = DEFAULT_RECONNECT_DELAY;
+    private long maxReconnectDelay = DEFAULT_MAX_RECONNECT_DELAY;
+    private int maxReconnectAttempts = DEFAULT_MAX_RECONNECT_ATTEMPTS;
+    // attempts since the connection was last open
+    private int reconnectAttempts;
+    private ScheduledFuture<?> reconnect;
+    private boolean stopped;
     private boolean logFlag;
-    private long reqId = 0;
+    private volatile long requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Map<Long, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+    private final List<WebsocketEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final WebsocketAsyncClient async = new WebsocketAsyncClient(this);
+    private EventQueue eventQueue;
+    private final String url;
     public static String wsUrl = "";
-    private WebsocketClient wsClient = null;
 
+    /**
+     * @param lock if not null, pushed messages are also put into the event queue of
+     *             this client and lock is notified
+     */
     public WebsocketClient(String url, Object lock) {
+        this.url = url;
         wsUrl = url;
-        this.lock = lock;
-        wsClient = this;
+        if (lock != null) {
+            eventQueue = new EventQueue();
+            addEventListener(result -> {
+                eventQueue.onEvent(result);
+                synchronized (lock) {
+                    lock.notify();
+                }
+            });
+        }
     }
 
+    /**
+     * @return the queue filled when the client was created with a lock, otherwise null
+     */
+    public EventQueue getEventQueue() {
+        return eventQueue;
+    }
 
     public void setLog(boolean b) {
         logFlag = b;
@@ -53,352 +108,317 @@ public class WebsocketClient extends AbstractConnector {
 
     public void startWebsocketThread(boolean log) {
         this.logFlag = log;
-        Thread thread = new Thread(
-                new Runnable() {
-                    @Override
-                    public void run() {
-                        wsClient.wsStart();
-                    }
-                });
-        thread.start();
+        connect();
     }
 
     @Override
     public String getUrl() {
-        return wsUrl;
+        return url;
+    }
+
+    /**
+     * after a lost connection the first attempt to open it again waits delayMillis, every
+     * further one twice as long up to maxDelayMillis, and after maxAttempts failed ones in
+     * a row the client waits for the next request
+     */
+    public synchronized void setReconnect(long delayMillis, long maxDelayMillis, int maxAttempts) {
+        if (delayMillis <= 0 || maxDelayMillis < delayMillis || maxAttempts < 0) {
+            throw new IllegalArgumentException("invalid reconnect settings");
+        }
+        this.reconnectDelay = delayMillis;
+        this.maxReconnectDelay = maxDelayMillis;
+        this.maxReconnectAttempts = maxAttempts;
+    }
+
+    /**
+     * @param millis time after which a request without answer fails with ConnectorException
+     */
+    public void setRequestTimeout(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("timeout should be greater than 0");
+        }
+        this.requestTimeout = millis;
+    }
+
+    public void addEventListener(WebsocketEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeEventListener(WebsocketEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return requests sent and not answered yet
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * the same connection as CompletableFuture based connector
+     */
+    public WebsocketAsyncClient async() {
+        return async;
     }
 
     public void sendHeartBeat() {
-        Map map = new HashMap<>();
+        Map<String, Object> map = new HashMap<>();
         map.put("Action", "heartbeat");
         map.put("Version", "V1.0.0");
         map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
+        send(map);
     }
 
-    public void sendSubscribe(Map map) {
+    public void sendSubscribe(Map<?, ?> subscribe) {
+        Map<String, Object> map = remember(subscribe);
         map.put("Action", "subscribe");
         map.put("Version", "V1.0.0");
         map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
+        send(map);
+    }
+
+    /**
+     * subscribe and wait for the node to confirm, events then arrive at the listeners.
+     * Each subscription adds to the earlier ones, and all of them are subscribed again
+     * after a reconnect.
+     */
+    public CompletableFuture<Object> subscribe(Map<?, ?> subscribe) {
+        Map<String, Object> map = remember(subscribe);
+        map.put("Action", "subscribe");
+        map.put("Version", "V1.0.0");
+        return request(map);
     }
 
-    public void send(Map map) {
-        mWebSocket.send(JSON.toJSONString(map));
+    /**
+     * send without waiting for an answer, it goes to the listeners
+     */
+    public void send(Map<String, ?> map) {
+        String text = JSON.toJSONString(map);
+        connect().thenAccept(ws -> ws.send(text));
     }
 
+    /**
+     * ids continue from reqId, they stay unique per connection
+     */
     public void setReqId(long reqId) {
-        this.reqId = reqId;
+        nextId.set(reqId);
+    }
+
+    private synchronized Map<String, Object> remember(Map<?, ?> map) {
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            String key = e.getKey().toString();
+            if (!"Action".equals(key) && !"Version".equals(key) && !"Id".equals(key)) {
+                subscription.put(key, e.getValue());
+            }
+        }
+        return new HashMap<>(subscription);
     }
 
     private long generateReqId() {
-        if (reqId == 0) {
-            return new Random().nextInt() & Integer.MAX_VALUE;
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * send a request with a fresh Id, the future completes with the Result field of
+     * the answer, or fails with ConnectorException on a node error, a lost connection
+     * or after the request timeout
+     */
+    public CompletableFuture<Object> request(Map<String, Object> map) {
+        return request(id -> {
+            map.put("Id", id);
+            return JSON.toJSONString(map);
+        });
+    }
+
+    /**
+     * same as request(Map), the frame text for the given Id comes from encoder
+     */
+    public CompletableFuture<Object> request(LongFunction<String> encoder) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        long id = generateReqId();
+        while (pending.putIfAbsent(id, future) != null) {
+            id = generateReqId();
+        }
+        long reqId = id;
+        String text = encoder.apply(reqId);
+        ScheduledFuture<?> timeout = SCHEDULER.schedule(() -> {
+            pending.remove(reqId, future);
+            future.completeExceptionally(
+                    new ConnectorException(ErrorCode.OtherError("websocket request " + reqId + " time out")));
+        }, requestTimeout, TimeUnit.MILLISECONDS);
+        // whoever completes the future, answer, timeout or caller, clears the entry. The
+        // answer, timeout and failure paths clear it first so it is gone once get returns
+        future.whenComplete((r, t) -> {
+            pending.remove(reqId, future);
+            timeout.cancel(false);
+        });
+        connect().whenComplete((ws, ex) -> {
+            if (ex != null) {
+                future.completeExceptionally(ex);
+            } else if (!ws.send(text)) {
+                future.completeExceptionally(new ConnectorException(ErrorCode.ConnectUrlErr(url)));
+            }
+        });
+        return future;
+    }
+
+    private <T> T await(CompletableFuture<T> future) throws ConnectorException, IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectorException(ErrorCode.OtherError("interrupted"), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ConnectorException) {
+                throw (ConnectorException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new ConnectorException(ErrorCode.OtherError(String.valueOf(cause)), cause);
         }
-        return reqId;
     }
 
     @Override
     public Object sendRawTransaction(boolean preExec, String userid, String hexData) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "sendrawtransaction");
-        map.put("Version", "1.0.0");
-        map.put("Data", hexData);
-        map.put("Id", generateReqId());
-        if (preExec) {
-            map.put("PreExec", "1");
-        }
-        mWebSocket.send(JSON.toJSONString(map));
-        if (preExec) {
-            return "0";
-        }
-        return "";
+        return await(async.sendRawTransaction(preExec, userid, hexData));
     }
 
     @Override
     public Object sendRawTransaction(String hexData) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "sendrawtransaction");
-        map.put("Version", "1.0.0");
-        map.put("Data", hexData);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.sendRawTransaction(hexData));
+    }
+
+    @Override
+    public Object sendRawTransaction(boolean preExec, String userid, byte[] tx) throws ConnectorException, IOException {
+        return await(async.sendRawTransaction(preExec, userid, tx));
     }
 
     @Override
     public Transaction getRawTransaction(String txhash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "gettransaction");
-        map.put("Version", "1.0.0");
-        map.put("Hash", txhash);
-        map.put("Raw", "1");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+        return await(async.getRawTransaction(txhash));
     }
 
     @Override
     public Object getRawTransactionJson(String txhash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "gettransaction");
-        map.put("Version", "1.0.0");
-        map.put("Hash", txhash);
-        map.put("Raw", "0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+        return await(async.getRawTransactionJson(txhash));
     }
 
     @Override
     public int getNodeCount() throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getconnectioncount");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return 0;
+        return await(async.getNodeCount());
     }
 
     @Override
     public int getBlockHeight() throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getblockheight");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return 0;
+        return await(async.getBlockHeight());
     }
 
     @Override
     public Block getBlock(int height) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getblockbyheight");
-        map.put("Version", "1.0.0");
-        map.put("Height", height);
-        map.put("Raw", "1");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+        return await(async.getBlock(height));
     }
 
     @Override
     public Block getBlock(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getblockbyhash");
-        map.put("Version", "1.0.0");
-        map.put("Hash", hash);
-        map.put("Raw", "1");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+        return await(async.getBlock(hash));
     }
 
     @Override
-    public Block getBlockJson(int height) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getblockbyheight");
-        map.put("Version", "1.0.0");
-        map.put("Height", height);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+    public Object getBlockJson(int height) throws ConnectorException, IOException {
+        return await(async.getBlockJson(height));
     }
 
     @Override
-    public Block getBlockJson(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getblockbyhash");
-        map.put("Version", "1.0.0");
-        map.put("Hash", hash);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+    public Object getBlockJson(String hash) throws ConnectorException, IOException {
+        return await(async.getBlockJson(hash));
     }
 
     @Override
     public Object getBalance(String address) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getbalance");
-        map.put("Version", "1.0.0");
-        map.put("Addr", address);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+        return await(async.getBalance(address));
     }
 
     @Override
     public Object getBalanceV2(String address) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getbalanceV2");
-        map.put("Version", "1.0.0");
-        map.put("Addr", address);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return null;
+        return await(async.getBalanceV2(address));
     }
 
     @Override
     public Object getContract(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getcontract");
-        map.put("Version", "1.0.0");
-        map.put("Raw", "1");
-        map.put("Hash", hash);
-        map.put("Id", generateReqId());
-        return mWebSocket.send(JSON.toJSONString(map));
+        return await(async.getContract(hash));
     }
 
     @Override
     public Object getContractJson(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getcontract");
-        map.put("Version", "1.0.0");
-        map.put("Raw", "0");
-        map.put("Hash", hash);
-        map.put("Id", generateReqId());
-        return mWebSocket.send(JSON.toJSONString(map));
+        return await(async.getContractJson(hash));
     }
 
     @Override
     public Object getSmartCodeEvent(int height) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getsmartcodeeventbyheight");
-        map.put("Version", "1.0.0");
-        map.put("Height", height);
-        map.put("Id", generateReqId());
-        return mWebSocket.send(JSON.toJSONString(map));
+        return await(async.getSmartCodeEvent(height));
     }
 
     @Override
     public Object getSmartCodeEvent(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getsmartcodeeventbyhash");
-        map.put("Version", "1.0.0");
-        map.put("Hash", hash);
-        return mWebSocket.send(JSON.toJSONString(map));
+        return await(async.getSmartCodeEvent(hash));
     }
 
     @Override
     public int getBlockHeightByTxHash(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getblockheightbytxhash");
-        map.put("Version", "1.0.0");
-        map.put("Hash", hash);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return 0;
+        return await(async.getBlockHeightByTxHash(hash));
     }
 
     @Override
     public String getStorage(String codehash, String key) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getstorage");
-        map.put("Version", "1.0.0");
-        map.put("Hash", codehash);
-        map.put("Key", key);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getStorage(codehash, key));
     }
 
     @Override
     public Object getMerkleProof(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getmerkleproof");
-        map.put("Version", "1.0.0");
-        map.put("Hash", hash);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getMerkleProof(hash));
     }
 
     @Override
     public String getAllowance(String asset, String from, String to) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getallowance");
-        map.put("Version", "1.0.0");
-        map.put("Asset", asset);
-        map.put("From", from);
-        map.put("To", to);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getAllowance(asset, from, to));
     }
 
     @Override
     public String getAllowanceV2(String asset, String from, String to) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getallowancev2");
-        map.put("Version", "1.0.0");
-        map.put("Asset", asset);
-        map.put("From", from);
-        map.put("To", to);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getAllowanceV2(asset, from, to));
     }
 
     @Override
     public Object getMemPoolTxCount() throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getmempooltxcount");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getMemPoolTxCount());
     }
 
     @Override
     public Object getMemPoolTxState(String hash) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getmempooltxstate");
-        map.put("Version", "1.0.0");
-        map.put("Hash", hash);
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getMemPoolTxState(hash));
     }
 
     @Override
     public String getVersion() throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getversion");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getVersion());
     }
 
     @Override
     public String getGrantOng(String address) throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getgrantong");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        map.put("Addr", address);
-        mWebSocket.send(JSON.toJSONString(map));
-        return "";
+        return await(async.getGrantOng(address));
     }
 
     @Override
     public int getNetworkId() throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getnetworkid");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return 0;
+        return await(async.getNetworkId());
     }
 
     @Override
     public Object getNodeSyncStatus() throws ConnectorException, IOException {
-        Map map = new HashMap<>();
-        map.put("Action", "getsyncstatus");
-        map.put("Version", "1.0.0");
-        map.put("Id", generateReqId());
-        mWebSocket.send(JSON.toJSONString(map));
-        return 0;
+        return await(async.getNodeSyncStatus());
     }
 
     @Override
@@ -406,27 +426,64 @@ public class WebsocketClient extends AbstractConnector {
         return null;
     }
 
-    public void wsStart() {
-        //request = new Request.Builder().url(WS_URL).build();
+    /**
+     * open the connection unless it is open or opening
+     */
+    public synchronized CompletableFuture<WebSocket> connect() {
+        stopped = false;
+        if (opened == null) {
+            wsStart();
+        }
+        return opened;
+    }
+
+    /**
+     * close the connection, it is not opened again until the next request
+     */
+    public synchronized void close() {
+        stopped = true;
+        if (reconnect != null) {
+            reconnect.cancel(false);
+            reconnect = null;
+        }
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        if (mWebSocket != null) {
+            mWebSocket.close(1000, "close");
+        }
+    }
+
+    public synchronized void wsStart() {
         String httpUrl = null;
-        if (wsUrl.contains("wss")) {
-            httpUrl = "https://" + wsUrl.split("://")[1];
+        if (url.contains("wss")) {
+            httpUrl = "https://" + url.split("://")[1];
         } else {
-            httpUrl = "http://" + wsUrl.split("://")[1];
+            httpUrl = "http://" + url.split("://")[1];
         }
-        Request request = new Request.Builder().url(wsUrl).addHeader("Origin", httpUrl).build();
-        OkHttpClient mClient = new OkHttpClient.Builder().build();
-        mWebSocket = mClient.newWebSocket(request, new WebSocketListener() {
+        Request request = new Request.Builder().url(url).addHeader("Origin", httpUrl).build();
+        CompletableFuture<WebSocket> opening = new CompletableFuture<>();
+        opened = opening;
+        // set once this connection is gone, closing and closed both report it
+        AtomicBoolean lost = new AtomicBoolean();
+        mWebSocket = CLIENT.newWebSocket(request, new WebSocketListener() {
             @Override
             public void onOpen(WebSocket webSocket, Response response) {
                 System.out.println("opened websocket connection");
-                sendHeartBeat();
-                new Timer().schedule(new TimerTask() {
-                    @Override
-                    public void run() {
-                        sendHeartBeat();
+                Map<String, Object> resubscribe;
+                synchronized (WebsocketClient.this) {
+                    if (heartbeat != null) {
+                        heartbeat.cancel(false);
                     }
-                }, 1000, 30000);
+                    heartbeat = SCHEDULER.scheduleAtFixedRate(() -> sendHeartBeat(), 1000, 30000, TimeUnit.MILLISECONDS);
+                    resubscribe = openedBefore && !subscription.isEmpty() ? new HashMap<>(subscription) : null;
+                    openedBefore = true;
+                    reconnectAttempts = 0;
+                }
+                opening.complete(webSocket);
+                if (resubscribe != null) {
+                    sendSubscribe(resubscribe);
+                }
             }
 
             @Override
@@ -435,33 +492,105 @@ public class WebsocketClient extends AbstractConnector {
                     System.out.println("websoket onMessage:" + s);
                 }
                 Result result = JSON.parseObject(s, Result.class);
-                try {
-                    synchronized (lock) {
-                        MsgQueue.addResult(result);
-                        lock.notify();
+                CompletableFuture<Object> future = result.Id == null ? null : pending.remove(toId(result.Id));
+                if (future != null) {
+                    if (result.Error == 0) {
+                        future.complete(result.Result);
+                    } else {
+                        future.completeExceptionally(new ConnectorException(JSON.toJSONString(result)));
+                    }
+                    return;
+                }
+                for (WebsocketEventListener listener : listeners) {
+                    try {
+                        listener.onEvent(result);
+                    } catch (Exception e) {
+                        e.printStackTrace();
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
                 }
             }
 
             @Override
             public void onClosing(WebSocket webSocket, int code, String reason) {
                 System.out.println(reason);
+                // nothing more arrives, fail what waits for an answer right away
+                closed(reason);
             }
 
             @Override
             public void onClosed(WebSocket webSocket, int code, String reason) {
                 System.out.println("close:" + reason);
+                closed(reason);
+            }
+
+            private void closed(String reason) {
+                if (lost.compareAndSet(false, true)) {
+                    failPending(opening, new ConnectorException(ErrorCode.ConnectUrlErr(url + " closed: " + reason)));
+                    // only what was subscribed needs the connection back before the next request
+                    boolean subscribed;
+                    synchronized (WebsocketClient.this) {
+                        subscribed = !subscription.isEmpty();
+                    }
+                    if (subscribed) {
+                        scheduleReconnect();
+                    }
+                }
             }
 
             @Override
             public void onFailure(WebSocket webSocket, Throwable t, Response response) {
                 System.out.println("onFailure:" + response);
-                wsStart();
+                if (lost.compareAndSet(false, true)) {
+                    failPending(opening, new ConnectorException(ErrorCode.ConnectUrlErr(url), t));
+                    scheduleReconnect();
+                }
             }
         });
+    }
 
+    private synchronized void scheduleReconnect() {
+        if (stopped || reconnect != null || reconnectAttempts >= maxReconnectAttempts) {
+            return;
+        }
+        long delay = Math.min(maxReconnectDelay, reconnectDelay << Math.min(reconnectAttempts, 20));
+        reconnectAttempts++;
+        reconnect = SCHEDULER.schedule(() -> {
+            synchronized (WebsocketClient.this) {
+                reconnect = null;
+                if (!stopped && opened == null) {
+                    wsStart();
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
-}
 
+    private static long toId(Object id) {
+        try {
+            return Long.parseLong(id.toString());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * requests sent on a dead connection will never be answered
+     */
+    private void failPending(CompletableFuture<WebSocket> opening, ConnectorException ex) {
+        synchronized (this) {
+            if (opened == opening) {
+                opened = null;
+            }
+            if (heartbeat != null) {
+                heartbeat.cancel(false);
+                heartbeat = null;
+            }
+        }
+        if (!opening.completeExceptionally(ex)) {
+            for (Iterator<CompletableFuture<Object>> it = pending.values().iterator(); it.hasNext(); ) {
+                CompletableFuture<Object> future = it.next();
+                it.remove();
+                future.completeExceptionally(ex);
+            }
+        }
+    }
+}
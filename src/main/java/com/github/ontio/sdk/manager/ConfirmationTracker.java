@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.sdk.manager;
+
+import com.github.ontio.common.ErrorCode;
+import com.github.ontio.network.connect.IConnector;
+import com.github.ontio.network.websocket.WebsocketClient;
+import com.github.ontio.network.websocket.WebsocketEventListener;
+import com.github.ontio.sdk.exception.SDKException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * waits for many transactions at once. One shared poller follows the block height
+ * while something is pending and looks up the events of each new block, so the
+ * cost is one query per block whatever the number of pending hashes. Hashes are
+ * also checked once right after they are tracked, in case they are already on chain.
+ * Besides, each poll looks up at most MEMPOOL_CHECKS_PER_POLL pending hashes in the
+ * memory pool, those waiting longest for it first, none more often than every few
+ * seconds. One the node reports as unknown twice (dropped or never accepted) fails
+ * without waiting for the timeout; with many hashes pending that takes longer.
+ * On a websocket connector the node's event pushes complete futures without waiting
+ * for the next poll. The client subscribes again whenever it reconnects, but pushes
+ * lost in between are only picked up by the poller, which alone is relied on.
+ */
+public class ConfirmationTracker {
+    public static final long DEFAULT_TIMEOUT = 60000;
+    public static final long DEFAULT_POLL_INTERVAL = 1000;
+    public static final long DEFAULT_MEMPOOL_CHECK_INTERVAL = 3000;
+    public static final int MEMPOOL_CHECKS_PER_POLL = 4;
+
+    private final IConnector connector;
+    private final long pollInterval;
+    private volatile long mempoolCheckNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_MEMPOOL_CHECK_INTERVAL);
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+    private final Queue<String> added = new ConcurrentLinkedQueue<>();
+    private WebsocketEventListener listener;
+    private ScheduledFuture<?> poller;
+    // only used on the poller thread
+    private int lastHeight = -1;
+
+    private final AtomicLong tracked = new AtomicLong();
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong blocksScanned = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    private static class Pending {
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final long start = System.nanoTime();
+        volatile ScheduledFuture<?> timeout;
+        // only used on the poller thread
+        long nextMempoolCheck;
+        int notInMempool;
+    }
+
+    public ConfirmationTracker(IConnector connector) {
+        this(connector, DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * @param pollInterval milliseconds between two height checks while something is pending
+     */
+    public ConfirmationTracker(IConnector connector, long pollInterval) {
+        if (pollInterval <= 0) {
+            throw new IllegalArgumentException("pollInterval should be greater than 0");
+        }
+        this.connector = connector;
+        this.pollInterval = pollInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "confirmation-tracker");
+            t.setDaemon(true);
+            return t;
+        });
+        if (connector instanceof WebsocketClient) {
+            WebsocketClient ws = (WebsocketClient) connector;
+            listener = result -> {
+                if ("Notify".equals(result.Action) && result.Error == 0 && result.Result instanceof Map) {
+                    Object hash = ((Map<?, ?>) result.Result).get("TxHash");
+                    if (hash != null) {
+                        confirm(hash.toString(), result.Result);
+                    }
+                }
+            };
+            ws.addEventListener(listener);
+            Map<String, Object> map = new HashMap<>();
+            map.put("SubscribeEvent", true);
+            // a failed subscription only means waiting for the poller
+            ws.subscribe(map);
+        }
+    }
+
+    /**
+     * @param millis time between two memory pool lookups of a hash that is still pending
+     */
+    public void setMempoolCheckInterval(long millis) {
+        if (millis <= 0) {
+            throw new IllegalArgumentException("interval should be greater than 0");
+        }
+        mempoolCheckNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    public CompletableFuture<Object> track(String txHash) {
+        return track(txHash, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * @return completes with the smart contract event of the transaction, the same object
+     * getSmartCodeEvent returns, or fails with SDKException after timeout milliseconds.
+     * Tracking the same hash twice returns the same future.
+     */
+    public CompletableFuture<Object> track(String txHash, long timeout) {
+        String hash = txHash.replace("0x", "");
+        Pending p = new Pending();
+        Pending existing = pending.putIfAbsent(hash, p);
+        if (existing != null) {
+            return existing.future;
+        }
+        tracked.incrementAndGet();
+        p.nextMempoolCheck = p.start + mempoolCheckNanos;
+        p.timeout = scheduler.schedule(() -> {
+            if (pending.remove(hash, p)) {
+                timedOut.incrementAndGet();
+                p.future.completeExceptionally(new SDKException(ErrorCode.OtherError("time out")));
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+        // a caller cancelling its future stops the tracking
+        p.future.whenComplete((r, t) -> pending.remove(hash, p));
+        added.add(hash);
+        startPoller();
+        return p.future;
+    }
+
+    private synchronized void startPoller() {
+        if (poller == null) {
+            poller = scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void confirm(String hash, Object event) {
+        Pending p = pending.remove(hash);
+        if (p == null) {
+            return;
+        }
+        ScheduledFuture<?> timeout = p.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        long latency = System.nanoTime() - p.start;
+        confirmed.incrementAndGet();
+        totalLatencyNanos.addAndGet(latency);
+        maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        p.future.complete(event);
+    }
+
+    private void poll() {
+        if (pending.isEmpty()) {
+            // idle, nothing is queried until the next transaction is tracked
+            lastHeight = -1;
+            added.clear();
+            return;
+        }
+        try {
+            int height = connector.getBlockHeight();
+            queries.incrementAndGet();
+            String hash;
+            while ((hash = added.poll()) != null) {
+                if (pending.containsKey(hash)) {
+                    checkTransaction(hash);
+                }
+            }
+            if (lastHeight < 0) {
+                lastHeight = height;
+            }
+            while (lastHeight < height && !pending.isEmpty()) {
+                scanBlock(lastHeight + 1);
+                lastHeight++;
+            }
+            checkMempool();
+        } catch (Exception e) {
+            // node not reachable, try again on the next tick
+        }
+    }
+
+    private void checkTransaction(String hash) {
+        try {
+            queries.incrementAndGet();
+            Object event = connector.getSmartCodeEvent(hash);
+            if (event instanceof Map) {
+                confirm(hash, event);
+            }
+        } catch (Exception e) {
+            // not on chain yet
+        }
+    }
+
+    /**
+     * a hash the node does not know, neither in a block nor in the memory pool, on two
+     * checks in a row is given up. The number of lookups per poll is bounded, so the
+     * block scan is not held up by many pending hashes.
+     */
+    private void checkMempool() {
+        long now = System.nanoTime();
+        List<Map.Entry<String, Pending>> due = new ArrayList<>();
+        for (Map.Entry<String, Pending> e : pending.entrySet()) {
+            if (now - e.getValue().nextMempoolCheck >= 0) {
+                due.add(e);
+            }
+        }
+        if (due.size() > MEMPOOL_CHECKS_PER_POLL) {
+            due.sort((a, b) -> Long.signum(a.getValue().nextMempoolCheck - b.getValue().nextMempoolCheck));
+            due = due.subList(0, MEMPOOL_CHECKS_PER_POLL);
+        }
+        for (Map.Entry<String, Pending> e : due) {
+            Pending p = e.getValue();
+            p.nextMempoolCheck = now + mempoolCheckNanos;
+            String hash = e.getKey();
+            try {
+                queries.incrementAndGet();
+                connector.getMemPoolTxState(hash);
+                p.notInMempool = 0;
+            } catch (Exception ex) {
+                if (ex.getMessage() == null || !ex.getMessage().contains("UNKNOWN TRANSACTION")) {
+                    // node not reachable, try again on the next check
+                    continue;
+                }
+                if (++p.notInMempool < 2) {
+                    continue;
+                }
+                // it may have left the pool for a block the poller has not scanned yet
+                checkTransaction(hash);
+                if (pending.remove(hash, p)) {
+                    ScheduledFuture<?> timeout = p.timeout;
+                    if (timeout != null) {
+                        timeout.cancel(false);
+                    }
+                    dropped.incrementAndGet();
+                    p.future.completeExceptionally(new SDKException(ex.getMessage()));
+                }
+            }
+        }
+    }
+
+    private void scanBlock(int height) throws Exception {
+        queries.incrementAndGet();
+        Object events = connector.getSmartCodeEvent(height);
+        blocksScanned.incrementAndGet();
+        if (!(events instanceof List)) {
+            return;
+        }
+        for (Object event : (List<?>) events) {
+            if (event instanceof Map) {
+                Object hash = ((Map<?, ?>) event).get("TxHash");
+                if (hash != null) {
+                    confirm(hash.toString(), event);
+                }
+            }
+        }
+    }
+
+    /**
+     * stop polling and fail what is still pending
+     */
+    public void close() {
+        if (listener != null) {
+            ((WebsocketClient) connector).removeEventListener(listener);
+        }
+        scheduler.shutdownNow();
+        for (String hash : pending.keySet()) {
+            Pending p = pending.remove(hash);
+            if (p != null) {
+                p.future.completeExceptionally(new SDKException(ErrorCode.OtherError("confirmation tracker closed")));
+            }
+        }
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getTracked() {
+        return tracked.get();
+    }
+
+    public long getConfirmed() {
+        return confirmed.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    /**
+     * @return hashes given up because the node did not know them
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getBlocksScanned() {
+        return blocksScanned.get();
+    }
+
+    /**
+     * @return node queries made by the tracker
+     */
+    public long getQueries() {
+        return queries.get();
+    }
+
+    public double getAverageLatencyMillis() {
+        long n = confirmed.get();
+        return n == 0 ? 0 : totalLatencyNanos.get() / 1e6 / n;
+    }
+
+    public double getMaxLatencyMillis() {
+        return maxLatencyNanos.get() / 1e6;
+    }
+}
@@ -22,37 +22,65 @@ package com.github.ontio.sdk.manager;
 import com.alibaba.fastjson.JSON;
 import com.github.ontio.common.ErrorCode;
 import com.github.ontio.common.Helper;
+import com.github.ontio.common.SmartCodeEvent;
 import com.github.ontio.core.block.Block;
+import com.github.ontio.core.block.BlockWriter;
 import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.io.Serializable;
+import com.github.ontio.network.connect.HedgePolicy;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.IAsyncConnector;
 import com.github.ontio.network.connect.IConnector;
+import com.github.ontio.network.connect.MultiNodeConnector;
+import com.github.ontio.network.connect.PooledHttpTransport;
 import com.github.ontio.network.exception.ConnectorException;
+import com.github.ontio.network.rest.RestAsyncClient;
 import com.github.ontio.network.rest.RestClient;
 import com.github.ontio.network.rest.Result;
+import com.github.ontio.network.rpc.RpcAsyncClient;
+import com.github.ontio.network.rpc.RpcCall;
 import com.github.ontio.network.rpc.RpcClient;
+import com.github.ontio.network.websocket.EventQueue;
 import com.github.ontio.network.websocket.WebsocketClient;
 import com.github.ontio.sdk.exception.SDKException;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 /**
  *
  */
 public class ConnectMgr {
     private IConnector connector;
+    private IAsyncConnector asyncConnector;
+    private ConfirmationTracker tracker;
+    private volatile ReadCache cache;
 
     public ConnectMgr(String url, String type, Object lock) {
         if (type.equals("websocket")) {
-            setConnector(new WebsocketClient(url, lock));
+            WebsocketClient client = new WebsocketClient(url, lock);
+            setConnector(client);
+            setAsyncConnector(client.async());
         }
     }
 
     public ConnectMgr(String url, String type) {
+        this(url, type, PooledHttpTransport.getDefault());
+    }
+
+    public ConnectMgr(String url, String type, HttpTransport transport) {
         url = url.replace("://localhost", "://127.0.0.1");
         if (type.equals("rpc")) {
-            setConnector(new RpcClient(url));
+            setConnector(new RpcClient(url, transport));
+            setAsyncConnector(new RpcAsyncClient(url));
         } else if (type.equals("restful")) {
-            setConnector(new RestClient(url));
+            setConnector(new RestClient(url, transport));
+            setAsyncConnector(new RestAsyncClient(url));
         }
     }
 
@@ -68,7 +96,7 @@ public class ConnectMgr {
         }
     }
 
-    public void send(Map map) {
+    public void send(Map<String, ?> map) {
         if (connector instanceof WebsocketClient) {
             ((WebsocketClient) connector).send(map);
         }
@@ -80,30 +108,152 @@ public class ConnectMgr {
         }
     }
 
-    public void sendSubscribe(Map map) {
+    public void sendSubscribe(Map<?, ?> map) {
         if (connector instanceof WebsocketClient) {
             ((WebsocketClient) connector).sendSubscribe(map);
         }
     }
 
+    /**
+     * @return messages pushed by the websocket node, null for other connectors
+     */
+    public EventQueue getEventQueue() {
+        if (connector instanceof WebsocketClient) {
+            return ((WebsocketClient) connector).getEventQueue();
+        }
+        return null;
+    }
+
+    /**
+     * reads spread over all urls, sendRawTransaction goes to the first one
+     */
+    public ConnectMgr(List<String> urls, String type) {
+        this(urls, urls.subList(0, 1), type);
+    }
+
+    /**
+     * @param writers urls sendRawTransaction is sent to, they may also be in urls
+     */
+    public ConnectMgr(List<String> urls, List<String> writers, String type) {
+        Map<String, IConnector> connectors = new HashMap<>();
+        List<IConnector> readers = new ArrayList<>();
+        for (String url : urls) {
+            readers.add(connectors.computeIfAbsent(url, u -> connector(u, type)));
+        }
+        List<IConnector> senders = new ArrayList<>();
+        for (String url : writers) {
+            senders.add(connectors.computeIfAbsent(url, u -> connector(u, type)));
+        }
+        setConnector(new MultiNodeConnector(readers, senders, MultiNodeConnector.Routing.LEAST_OUTSTANDING,
+                MultiNodeConnector.DEFAULT_HEALTH_CHECK_INTERVAL, MultiNodeConnector.DEFAULT_MAX_LAG));
+    }
+
+    private static IConnector connector(String url, String type) {
+        url = url.replace("://localhost", "://127.0.0.1");
+        if (type.equals("rpc")) {
+            return new RpcClient(url);
+        } else if (type.equals("restful")) {
+            return new RestClient(url);
+        }
+        throw new IllegalArgumentException("unsupported connector type " + type);
+    }
+
     public ConnectMgr(IConnector connector) {
         setConnector(connector);
     }
 
-    public void setConnector(IConnector connector) {
+    public ConnectMgr(IConnector connector, IAsyncConnector asyncConnector) {
+        setConnector(connector);
+        setAsyncConnector(asyncConnector);
+    }
+
+    public synchronized void setConnector(IConnector connector) {
         this.connector = connector;
+        if (tracker != null) {
+            tracker.close();
+            tracker = null;
+        }
+        cache = null;
+    }
+
+    /**
+     * cache storage reads and pre-executed contract queries on this connector, null turns it off
+     */
+    public void setReadCache(ReadCache cache) {
+        this.cache = cache;
+    }
+
+    public ReadCache getReadCache() {
+        return cache;
+    }
+
+    /**
+     * a contract value that never changes, such as token decimals, read once while a cache is set
+     */
+    public <T> T queryImmutable(String contract, String key, ReadCache.Loader<T> loader) throws ConnectorException, IOException {
+        ReadCache c = cache;
+        if (c == null) {
+            return loader.load();
+        }
+        return c.getImmutable(contract, key, loader);
+    }
+
+    /**
+     * hedge slow reads of a multi-node connector on a second node, null turns it off
+     */
+    public void setHedgePolicy(HedgePolicy policy) {
+        if (!(connector instanceof MultiNodeConnector)) {
+            throw new IllegalStateException("hedged reads need a connector over several nodes");
+        }
+        ((MultiNodeConnector) connector).setHedgePolicy(policy);
+    }
+
+    /**
+     * shared tracker waiting for transactions on this connector, created on first use
+     */
+    public synchronized ConfirmationTracker getConfirmationTracker() {
+        if (tracker == null) {
+            tracker = new ConfirmationTracker(connector);
+        }
+        return tracker;
+    }
+
+    /**
+     * @return completes with the smart contract event once the transaction is in a block
+     */
+    public CompletableFuture<Object> trackTransaction(String txhash) {
+        return getConfirmationTracker().track(txhash);
+    }
+
+    public void setAsyncConnector(IAsyncConnector asyncConnector) {
+        this.asyncConnector = asyncConnector;
+    }
+
+    public IAsyncConnector getAsyncConnector() {
+        return asyncConnector;
     }
 
     public String getUrl() {
         return connector.getUrl();
     }
 
+    /**
+     * the connector whose answer format sendRawTransaction returns
+     */
+    private IConnector sender() {
+        if (connector instanceof MultiNodeConnector) {
+            return ((MultiNodeConnector) connector).getWriters().get(0).connector;
+        }
+        return connector;
+    }
+
     public boolean sendRawTransaction(Transaction tx) throws ConnectorException, IOException {
-        String rs = (String) connector.sendRawTransaction(Helper.toHexString(tx.toArray()));
-        if (connector instanceof RpcClient) {
+        // the connector hex encodes the bytes straight into the request
+        String rs = (String) connector.sendRawTransaction(false, null, tx.toArray());
+        if (sender() instanceof RpcClient) {
             return true;
         }
-        if (connector instanceof WebsocketClient) {
+        if (sender() instanceof WebsocketClient) {
             return true;
         }
         Result rr = JSON.parseObject(rs, Result.class);
@@ -115,10 +265,10 @@ public class ConnectMgr {
 
     public boolean sendRawTransaction(String hexData) throws ConnectorException, IOException {
         String rs = (String) connector.sendRawTransaction(hexData);
-        if (connector instanceof RpcClient) {
+        if (sender() instanceof RpcClient) {
             return true;
         }
-        if (connector instanceof WebsocketClient) {
+        if (sender() instanceof WebsocketClient) {
             return true;
         }
         Result rr = JSON.parseObject(rs, Result.class);
@@ -156,11 +306,20 @@ public class ConnectMgr {
     }
 
     public Object sendRawTransactionPreExec(String hexData) throws ConnectorException, IOException {
+        ReadCache c = cache;
+        if (c != null && Transaction.deserializeFrom(Helper.hexToBytes(hexData)).sigs.length == 0) {
+            // unsigned queries differ only by their random nonce, which is left out of the key
+            return c.get("preexec", hexData.substring(0, 4) + hexData.substring(12), () -> preExec(hexData));
+        }
+        return preExec(hexData);
+    }
+
+    private Object preExec(String hexData) throws ConnectorException, IOException {
         Object rs = connector.sendRawTransaction(true, null, hexData);
-        if (connector instanceof RpcClient) {
+        if (sender() instanceof RpcClient) {
             return rs;
         }
-        if (connector instanceof WebsocketClient) {
+        if (sender() instanceof WebsocketClient) {
             return rs;
         }
         Result rr = JSON.parseObject((String) rs, Result.class);
@@ -195,6 +354,22 @@ public class ConnectMgr {
         return connector.getBlock(height);
     }
 
+    /**
+     * appends the blocks from height from up to and including to to an archive, as the
+     * node sends them without decoding
+     *
+     * @return number of blocks written
+     */
+    public int archiveBlocks(BlockWriter writer, int from, int to) throws ConnectorException, IOException, SDKException {
+        if (from < 0 || to < from) {
+            throw new SDKException(ErrorCode.ParamError);
+        }
+        for (int height = from; height <= to; height++) {
+            writer.writeHex(connector.getBlockHex(height));
+        }
+        return to - from + 1;
+    }
+
     public Block getBlock(String hash) throws ConnectorException, IOException {
         return connector.getBlock(hash);
 
@@ -234,14 +409,26 @@ public class ConnectMgr {
         return connector.getSmartCodeEvent(hash);
     }
 
+    public List<SmartCodeEvent> getSmartCodeEvents(int height) throws ConnectorException, IOException {
+        return connector.getSmartCodeEvents(height);
+    }
+
+    public SmartCodeEvent getSmartCodeEventInfo(String hash) throws ConnectorException, IOException {
+        return connector.getSmartCodeEventInfo(hash);
+    }
+
     public int getBlockHeightByTxHash(String hash) throws ConnectorException, IOException {
         hash = hash.replace("0x", "");
         return connector.getBlockHeightByTxHash(hash);
     }
 
     public String getStorage(String codehash, String key) throws ConnectorException, IOException {
-        codehash = codehash.replace("0x", "");
-        return connector.getStorage(codehash, key);
+        String contract = codehash.replace("0x", "");
+        ReadCache c = cache;
+        if (c != null) {
+            return c.get(contract, key, () -> connector.getStorage(contract, key));
+        }
+        return connector.getStorage(contract, key);
     }
 
     public Object getMerkleProof(String hash) throws ConnectorException, IOException {
@@ -286,34 +473,334 @@ public class ConnectMgr {
         return connector.getSideChainData(sideChianId);
     }
 
-    public Object waitResult(String hash) throws Exception {
-        Object objEvent = null;
-        Object objTxState = null;
-        int notInpool = 0;
-        for (int i = 0; i < 20; i++) {
-            try {
-                Thread.sleep(3000);
-                objEvent = connector.getSmartCodeEvent(hash);
-                if (objEvent == null || objEvent.equals("")) {
-                    Thread.sleep(1000);
-                    objTxState = connector.getMemPoolTxState(hash);
-                    continue;
-                }
-                if (((Map) objEvent).get("Notify") != null) {
-                    return objEvent;
+    /**
+     * max calls per JSON-RPC batch, only used with a rpc connector
+     */
+    public void setBatchSize(int batchSize) {
+        if (connector instanceof RpcClient) {
+            ((RpcClient) connector).setBatchSize(batchSize);
+        }
+    }
+
+    /**
+     * storage values of many keys, sent as JSON-RPC batches with a rpc connector and
+     * one by one otherwise. The value or error of each key is set on its call.
+     */
+    public List<RpcCall> getStorageBatch(String codehash, List<String> keys) throws ConnectorException {
+        String hash = codehash.replace("0x", "");
+        List<RpcCall> calls = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            calls.add(new RpcCall("getstorage", hash, key));
+        }
+        return batch(calls, c -> connector.getStorage((String) c.params[0], (String) c.params[1]));
+    }
+
+    /**
+     * blocks at the given heights, each successful call holds a Block
+     */
+    public List<RpcCall> getBlockBatch(List<Integer> heights) throws ConnectorException {
+        List<RpcCall> calls = new ArrayList<>(heights.size());
+        for (Integer height : heights) {
+            calls.add(new RpcCall("getblock", height));
+        }
+        batch(calls, c -> connector.getBlock((int) c.params[0]));
+        for (RpcCall c : calls) {
+            if (c.isSuccess() && c.result instanceof String) {
+                try {
+                    c.result = Serializable.from(Helper.hexToBytes((String) c.result), Block.class);
+                } catch (Exception e) {
+                    c.result = null;
+                    c.error = new SDKException(ErrorCode.BlockDeserializeError, e);
                 }
+            }
+        }
+        return calls;
+    }
+
+    public List<RpcCall> getSmartCodeEventBatch(List<Integer> heights) throws ConnectorException {
+        List<RpcCall> calls = new ArrayList<>(heights.size());
+        for (Integer height : heights) {
+            calls.add(new RpcCall("getsmartcodeevent", height));
+        }
+        return batch(calls, c -> connector.getSmartCodeEvent((int) c.params[0]));
+    }
+
+    public List<RpcCall> getSmartCodeEventBatchByHash(List<String> hashes) throws ConnectorException {
+        List<RpcCall> calls = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            calls.add(new RpcCall("getsmartcodeevent", hash.replace("0x", "")));
+        }
+        return batch(calls, c -> connector.getSmartCodeEvent((String) c.params[0]));
+    }
+
+    private interface SingleCall {
+        Object call(RpcCall c) throws Exception;
+    }
+
+    private List<RpcCall> batch(List<RpcCall> calls, SingleCall single) throws ConnectorException {
+        if (connector instanceof RpcClient) {
+            return ((RpcClient) connector).callBatch(calls);
+        }
+        for (RpcCall c : calls) {
+            try {
+                c.result = single.call(c);
             } catch (Exception e) {
-                if (e.getMessage().contains("UNKNOWN TRANSACTION") && e.getMessage().contains("getmempooltxstate")) {
-                    notInpool++;
-                    if ((objEvent.equals("") || objEvent == null) && notInpool > 1) {
-                        throw new SDKException(e.getMessage());
-                    }
-                } else {
-                    continue;
-                }
+                c.error = e;
+            }
+        }
+        return calls;
+    }
+
+    /**
+     * async variants, they return at once and complete on the connector's I/O threads,
+     * so dependent stages should not block
+     */
+    public CompletableFuture<Boolean> sendRawTransactionAsync(Transaction tx) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return accepted(asyncConnector.sendRawTransaction(false, null, tx.toArray()));
+    }
+
+    public CompletableFuture<Boolean> sendRawTransactionAsync(String hexData) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return accepted(asyncConnector.sendRawTransaction(hexData));
+    }
+
+    private CompletableFuture<Boolean> accepted(CompletableFuture<Object> sent) {
+        return sent.thenApply(rs -> {
+            if (asyncConnector instanceof RestAsyncClient) {
+                return JSON.parseObject((String) rs, Result.class).Error == 0;
+            }
+            return true;
+        });
+    }
+
+    public CompletableFuture<Object> sendRawTransactionPreExecAsync(String hexData) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.sendRawTransaction(true, null, hexData).thenApply(rs -> {
+            if (asyncConnector instanceof RestAsyncClient) {
+                Result rr = JSON.parseObject((String) rs, Result.class);
+                return rr.Error == 0 ? rr.Result : null;
+            }
+            return rs;
+        });
+    }
+
+    public CompletableFuture<Transaction> getTransactionAsync(String txhash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getRawTransaction(txhash.replace("0x", ""));
+    }
+
+    public CompletableFuture<Object> getTransactionJsonAsync(String txhash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getRawTransactionJson(txhash.replace("0x", ""));
+    }
+
+    public CompletableFuture<Integer> getNodeCountAsync() {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getNodeCount();
+    }
+
+    public CompletableFuture<Integer> getBlockHeightAsync() {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBlockHeight();
+    }
+
+    public CompletableFuture<Block> getBlockAsync(int height) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        if (height < 0) {
+            return failed(new SDKException(ErrorCode.ParamError));
+        }
+        return asyncConnector.getBlock(height);
+    }
+
+    public CompletableFuture<Block> getBlockAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBlock(hash);
+    }
+
+    public CompletableFuture<Object> getBalanceAsync(String address) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBalance(address);
+    }
+
+    public CompletableFuture<Object> getBalanceV2Async(String address) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBalanceV2(address);
+    }
+
+    public CompletableFuture<Object> getBlockJsonAsync(int height) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBlockJson(height);
+    }
+
+    public CompletableFuture<Object> getBlockJsonAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBlockJson(hash);
+    }
+
+    public CompletableFuture<Object> getContractAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getContractJson(hash.replace("0x", ""));
+    }
+
+    public CompletableFuture<Object> getContractJsonAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getContractJson(hash.replace("0x", ""));
+    }
+
+    public CompletableFuture<Object> getSmartCodeEventAsync(int height) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getSmartCodeEvent(height);
+    }
+
+    public CompletableFuture<Object> getSmartCodeEventAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getSmartCodeEvent(hash);
+    }
+
+    public CompletableFuture<Integer> getBlockHeightByTxHashAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getBlockHeightByTxHash(hash.replace("0x", ""));
+    }
+
+    public CompletableFuture<String> getStorageAsync(String codehash, String key) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getStorage(codehash.replace("0x", ""), key);
+    }
+
+    public CompletableFuture<Object> getMerkleProofAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getMerkleProof(hash.replace("0x", ""));
+    }
+
+    public CompletableFuture<String> getAllowanceAsync(String asset, String from, String to) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getAllowance(asset, from, to);
+    }
+
+    public CompletableFuture<String> getAllowanceV2Async(String asset, String from, String to) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getAllowanceV2(asset, from, to);
+    }
+
+    public CompletableFuture<Object> getMemPoolTxCountAsync() {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getMemPoolTxCount();
+    }
+
+    public CompletableFuture<Object> getMemPoolTxStateAsync(String hash) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getMemPoolTxState(hash.replace("0x", ""));
+    }
+
+    public CompletableFuture<String> getVersionAsync() {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getVersion();
+    }
+
+    public CompletableFuture<String> getGrantOngAsync(String address) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getGrantOng(address);
+    }
+
+    public CompletableFuture<Integer> getNetworkIdAsync() {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getNetworkId();
+    }
+
+    public CompletableFuture<Object> getNodeSyncStatusAsync() {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getNodeSyncStatus();
+    }
+
+    public CompletableFuture<String> getSideChainDataAsync(String sideChianId) {
+        if (asyncConnector == null) {
+            return asyncNotInit();
+        }
+        return asyncConnector.getSideChainData(sideChianId);
+    }
+
+    private static <T> CompletableFuture<T> asyncNotInit() {
+        return failed(new SDKException(ErrorCode.AsyncConnectorNotInit));
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable ex) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(ex);
+        return future;
+    }
+
+    /**
+     * block until the transaction is in a block, the waiting is done by the shared
+     * confirmation tracker, not by polling from this thread. Fails with the node's
+     * UNKNOWN TRANSACTION error once the transaction is neither on chain nor in the
+     * memory pool.
+     */
+    public Object waitResult(String hash) throws Exception {
+        try {
+            return getConfirmationTracker().track(hash).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
             }
+            throw e;
         }
-        throw new SDKException(ErrorCode.OtherError("time out"));
     }
 }
 
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.sdk.manager;
+
+import com.github.ontio.network.connect.IConnector;
+import com.github.ontio.network.exception.ConnectorException;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * read-through cache for storage values and contract queries, keyed by contract and key.
+ * Entries are valid for the block height they were read at and dropped once the chain
+ * moves on; immutable entries such as token decimals stay until evicted. The height is
+ * asked from the node at most once per heightRefresh, so an entry may be served up to
+ * that long after a new block. The least recently used entry is evicted when full.
+ * Cached objects are shared between callers and should not be modified.
+ */
+public class ReadCache {
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+    public static final long DEFAULT_HEIGHT_REFRESH = 1000;
+    private static final int IMMUTABLE = Integer.MAX_VALUE;
+
+    public interface Loader<T> {
+        T load() throws ConnectorException, IOException;
+    }
+
+    private static class Entry {
+        final Object value;
+        final int height;
+
+        Entry(Object value, int height) {
+            this.value = value;
+            this.height = height;
+        }
+    }
+
+    private final IConnector connector;
+    private final long heightRefreshNanos;
+    private final Map<String, Entry> entries;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile int height = -1;
+    private volatile long heightCheckedAt;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReadCache(IConnector connector) {
+        this(connector, DEFAULT_MAX_ENTRIES, DEFAULT_HEIGHT_REFRESH);
+    }
+
+    /**
+     * @param maxEntries    entries kept before the least recently used is evicted
+     * @param heightRefresh milliseconds a known block height is trusted before asking the node again
+     */
+    public ReadCache(IConnector connector, int maxEntries, long heightRefresh) {
+        if (maxEntries <= 0 || heightRefresh < 0) {
+            throw new IllegalArgumentException("maxEntries should be greater than 0 and heightRefresh not negative");
+        }
+        this.connector = connector;
+        this.heightRefreshNanos = heightRefresh * 1000000;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * the value read at the current height, loaded on a miss
+     */
+    public <T> T get(String contract, String key, Loader<T> loader) throws ConnectorException, IOException {
+        int current = currentHeight();
+        if (current < 0) {
+            // height unknown, nothing can be trusted
+            misses.incrementAndGet();
+            return loader.load();
+        }
+        return get(contract, key, current, loader);
+    }
+
+    /**
+     * a value that never changes once deployed, loaded on first use
+     */
+    public <T> T getImmutable(String contract, String key, Loader<T> loader) throws ConnectorException, IOException {
+        return get(contract, key, IMMUTABLE, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(String contract, String key, int at, Loader<T> loader) throws ConnectorException, IOException {
+        String k = contract + "/" + key;
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(k);
+        }
+        if (entry != null && entry.height == at) {
+            hits.incrementAndGet();
+            return (T) entry.value;
+        }
+        misses.incrementAndGet();
+        T value = loader.load();
+        synchronized (entries) {
+            // a newer height may have been stored meanwhile, keep it
+            Entry now = entries.get(k);
+            if (now == null || now.height <= at || at == IMMUTABLE) {
+                entries.put(k, new Entry(value, at));
+            }
+        }
+        return value;
+    }
+
+    /**
+     * tell the cache about a height seen elsewhere, e.g. a websocket block push
+     */
+    public void onHeight(int h) {
+        if (h > height) {
+            height = h;
+            heightCheckedAt = System.nanoTime();
+            dropBelow(h);
+        }
+    }
+
+    private int currentHeight() {
+        int h = height;
+        if (h >= 0 && System.nanoTime() - heightCheckedAt < heightRefreshNanos) {
+            return h;
+        }
+        // one caller asks the node, the others go on with the height known so far
+        if (!refreshing.compareAndSet(false, true)) {
+            return h;
+        }
+        try {
+            onHeight(connector.getBlockHeight());
+            heightCheckedAt = System.nanoTime();
+            return height;
+        } catch (Exception e) {
+            return -1;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    private void dropBelow(int h) {
+        synchronized (entries) {
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().height < h) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void invalidate(String contract, String key) {
+        synchronized (entries) {
+            entries.remove(contract + "/" + key);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
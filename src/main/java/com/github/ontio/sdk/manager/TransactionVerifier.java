@@ -0,0 +1,366 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.sdk.manager;
+
+import com.github.ontio.account.Account;
+import com.github.ontio.common.ErrorCode;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.core.asset.Sig;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.crypto.Digest;
+import com.github.ontio.crypto.KeyType;
+import com.github.ontio.crypto.Signature;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.sdk.exception.SDKException;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * verifies the signatures of many transactions at once. Every transaction is hashed
+ * once, every distinct public key is decoded once and kept in a bounded cache, and the
+ * signature checks run in parallel on a fork-join pool. A signature entry with M = 1
+ * needs exactly one key and one signature, one with M > 1 needs at least M of its keys
+ * to have signed. Signatures are checked through Account.verifySignature, so a
+ * VerifiedSignatureCache set on Account skips those seen before.
+ */
+public class TransactionVerifier {
+    public static final int DEFAULT_MAX_KEYS = 10000;
+
+    /**
+     * outcome of one signature entry of a transaction
+     */
+    public static final class SigResult {
+        private final int m;
+        private final int[] signers;
+
+        SigResult(int m, int signatures) {
+            this.m = m;
+            this.signers = new int[signatures];
+            Arrays.fill(signers, -1);
+        }
+
+        /**
+         * number of signatures the entry requires
+         */
+        public int getM() {
+            return m;
+        }
+
+        /**
+         * for each signature of the entry, the index of the public key it was made with, -1 if none
+         */
+        public int[] getSigners() {
+            return signers.clone();
+        }
+
+        /**
+         * number of distinct public keys with a valid signature
+         */
+        public int getVerified() {
+            int n = 0;
+            for (int i = 0; i < signers.length; i++) {
+                if (signers[i] < 0) {
+                    continue;
+                }
+                boolean seen = false;
+                for (int j = 0; j < i && !seen; j++) {
+                    seen = signers[j] == signers[i];
+                }
+                if (!seen) {
+                    n++;
+                }
+            }
+            return n;
+        }
+
+        public boolean isValid() {
+            return m >= 1 && getVerified() >= m;
+        }
+    }
+
+    /**
+     * outcome of one transaction, with one SigResult per signature entry
+     */
+    public static final class Result {
+        private final Transaction transaction;
+        private UInt256 hash;
+        private SigResult[] sigs = new SigResult[0];
+        private volatile Exception error;
+
+        Result(Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        public Transaction getTransaction() {
+            return transaction;
+        }
+
+        /**
+         * the transaction hash the signatures were checked against
+         */
+        public UInt256 getHash() {
+            return hash;
+        }
+
+        public List<SigResult> getSigs() {
+            return Collections.unmodifiableList(Arrays.asList(sigs));
+        }
+
+        /**
+         * why the transaction could not be checked, e.g. a malformed signature entry,
+         * a public key that does not decode or a signature of the wrong format
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isValid() {
+            if (error != null) {
+                return false;
+            }
+            for (SigResult sig : sigs) {
+                if (!sig.isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void fail(Exception e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Map<ByteBuffer, Key> keys;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public TransactionVerifier() {
+        this(ForkJoinPool.commonPool(), DEFAULT_MAX_KEYS);
+    }
+
+    /**
+     * @param pool    pool the signature checks run on
+     * @param maxKeys decoded public keys kept before the least recently used is evicted
+     */
+    public TransactionVerifier(ForkJoinPool pool, int maxKeys) {
+        if (pool == null || maxKeys <= 0) {
+            throw new IllegalArgumentException("pool should not be null and maxKeys should be greater than 0");
+        }
+        this.pool = pool;
+        this.keys = new LinkedHashMap<ByteBuffer, Key>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Key> eldest) {
+                if (size() > maxKeys) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public Result verify(Transaction tx) {
+        return verify(Collections.singletonList(tx)).get(0);
+    }
+
+    /**
+     * @return one result per transaction, in the same order
+     */
+    public List<Result> verify(List<Transaction> txs) {
+        List<Result> results = new ArrayList<>(txs.size());
+        List<TxTask> tasks = new ArrayList<>(txs.size());
+        for (Transaction tx : txs) {
+            Result result = new Result(tx);
+            results.add(result);
+            tasks.add(new TxTask(result));
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+        return results;
+    }
+
+    private class TxTask extends RecursiveAction {
+        private static final long serialVersionUID = -2417309614205381262L;
+
+        private final Result result;
+
+        TxTask(Result result) {
+            this.result = result;
+        }
+
+        @Override
+        protected void compute() {
+            Transaction tx = result.transaction;
+            try {
+                byte[] hash = Digest.hash256(tx.getHashData());
+                result.hash = new UInt256(hash);
+                SigResult[] sigs = new SigResult[tx.sigs.length];
+                List<KeyTask> checks = new ArrayList<>();
+                for (int i = 0; i < sigs.length; i++) {
+                    Sig sig = tx.sigs[i];
+                    if (sig.M < 1 || sig.M == 1 && (sig.pubKeys.length != 1 || sig.sigData.length != 1)) {
+                        throw new SDKException(ErrorCode.OtherError("index" + i + " M " + sig.M + " does not match "
+                                + sig.pubKeys.length + " pubKeys and " + sig.sigData.length + " sigData"));
+                    }
+                    sigs[i] = new SigResult(sig.M, sig.sigData.length);
+                    SignatureScheme[] schemes = new SignatureScheme[sig.sigData.length];
+                    for (int k = 0; k < schemes.length; k++) {
+                        schemes[k] = new Signature(sig.sigData[k]).getScheme();
+                    }
+                    for (int j = 0; j < sig.pubKeys.length; j++) {
+                        checks.add(new KeyTask(result, hash, sig, schemes, sigs[i], j));
+                    }
+                }
+                result.sigs = sigs;
+                invokeAll(checks);
+            } catch (Exception e) {
+                result.fail(e);
+            }
+        }
+    }
+
+    /**
+     * looks for a signature made with one public key of an entry
+     */
+    private class KeyTask extends RecursiveAction {
+        private static final long serialVersionUID = 5836105092736451839L;
+
+        private final Result result;
+        private final byte[] hash;
+        private final Sig sig;
+        private final SignatureScheme[] schemes;
+        private final SigResult sigResult;
+        private final int key;
+
+        KeyTask(Result result, byte[] hash, Sig sig, SignatureScheme[] schemes, SigResult sigResult, int key) {
+            this.result = result;
+            this.hash = hash;
+            this.sig = sig;
+            this.schemes = schemes;
+            this.sigResult = sigResult;
+            this.key = key;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                Account account = account(sig.pubKeys[key]);
+                boolean sm2 = account.getKeyType() == KeyType.SM2;
+                int[] signers = sigResult.signers;
+                for (int k = 0; k < sig.sigData.length; k++) {
+                    // a signature verifies against one key only, skip those another task matched
+                    // and those of the other key type in a mixed multi-signature
+                    if (signers[k] < 0 && sm2 == (schemes[k] == SignatureScheme.SM3WITHSM2)
+                            && account.verifySignature(hash, sig.sigData[k])) {
+                        signers[k] = key;
+                        return;
+                    }
+                }
+            } catch (Exception e) {
+                result.fail(e);
+            }
+        }
+    }
+
+    /**
+     * a public key decoded on first use, by one thread while the others wait for it
+     */
+    private static final class Key {
+        private final byte[] pubKey;
+        private Account account;
+
+        Key(byte[] pubKey) {
+            this.pubKey = pubKey;
+        }
+
+        synchronized Account get() throws Exception {
+            if (account == null) {
+                account = new Account(false, pubKey);
+            }
+            return account;
+        }
+    }
+
+    private Account account(byte[] pubKey) throws Exception {
+        ByteBuffer k = ByteBuffer.wrap(pubKey);
+        Key key;
+        synchronized (keys) {
+            key = keys.get(k);
+            if (key == null) {
+                // the key array belongs to the transaction, keep a copy of our own
+                byte[] copy = pubKey.clone();
+                key = new Key(copy);
+                keys.put(ByteBuffer.wrap(copy), key);
+                misses.incrementAndGet();
+            } else {
+                hits.incrementAndGet();
+            }
+        }
+        return key.get();
+    }
+
+    public void clear() {
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
@@ -1181,15 +1181,9 @@ class TotalStake implements Serializable {
 
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
-        try {
-            this.address = reader.readSerializable(Address.class);
-            this.stake = reader.readLong();
-            this.timeOffset = reader.readInt();
-        } catch (InstantiationException e) {
-            e.printStackTrace();
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
-        }
+        this.address = reader.readAddress();
+        this.stake = reader.readLong();
+        this.timeOffset = reader.readInt();
     }
 
     @Override
@@ -1206,7 +1200,7 @@ class SplitFeeAddress implements Serializable {
     @Override
     public void deserialize(BinaryReader reader) throws IOException {
         try {
-            this.address = reader.readSerializable(Address.class);
+            this.address = reader.readAddress();
         } catch (Exception e) {
             logger.error("deserialize exception",e);
         }
@@ -349,7 +349,7 @@ public class Oep4 {
         AbiFunction func = abiinfo.getFunction("Name");
         func.name = "name";
         func.setParamsValue();
-        Object obj =   sdk.neovm().sendTransaction(Helper.reverse(contractAddress),null,null,0,0,func, true);
+        Object obj = queryImmutable(func);
         return new String(Helper.hexToBytes(((JSONObject) obj).getString("Result")));
     }
 
@@ -361,7 +361,7 @@ public class Oep4 {
         AbiFunction func = abiinfo.getFunction("Decimals");
         func.name = "decimals";
         func.setParamsValue();
-        Object obj =   sdk.neovm().sendTransaction(Helper.reverse(contractAddress),null,null,0,0,func, true);
+        Object obj = queryImmutable(func);
         String decimals = ((JSONObject) obj).getString("Result");
         if(decimals.equals("")){
             return BigInteger.ZERO.toString();
@@ -377,9 +377,16 @@ public class Oep4 {
         AbiFunction func = abiinfo.getFunction("Symbol");
         func.name = "symbol";
         func.setParamsValue();
-        Object obj =   sdk.neovm().sendTransaction(Helper.reverse(contractAddress),null,null,0,0,func, true);
+        Object obj = queryImmutable(func);
         return new String(Helper.hexToBytes(((JSONObject) obj).getString("Result")));
     }
 
-
+    /**
+     * pre-executes a query whose answer never changes, read once while the connection has a cache
+     */
+    private Object queryImmutable(AbiFunction func) throws Exception {
+        byte[] params = BuildParams.serializeAbiFunction(func);
+        String hex = sdk.vm().makeInvokeCodeTransaction(Helper.reverse(contractAddress), null, params, null, 0, 0).toHexString();
+        return sdk.getConnect().queryImmutable(contractAddress, func.name, () -> sdk.getConnect().sendRawTransactionPreExec(hex));
+    }
 }
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.common.Address;
+import com.github.ontio.common.HexCodec;
+import com.github.ontio.crypto.Base58;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * hex and base58 as they were done before HexCodec and the limb based Base58,
+ * against the current code, on a 32 byte hash, a 1 KB payload and addresses
+ */
+public class CodecBenchmark {
+    private interface Op {
+        Object apply(int i) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        Random random = new Random(7);
+        byte[] hash = new byte[32];
+        byte[] payload = new byte[1024];
+        byte[] addressBytes = new byte[20];
+        random.nextBytes(hash);
+        random.nextBytes(payload);
+        random.nextBytes(addressBytes);
+        String hashHex = HexCodec.encode(hash);
+        String payloadHex = HexCodec.encode(payload);
+        Address address = new Address(addressBytes);
+        String base58 = address.toBase58();
+        byte[] full = Base58.decode(base58);
+        char[] chars = new char[64];
+        byte[] bytes = new byte[32];
+        byte[] address25 = new byte[25];
+
+        for (int pass = 0; pass < 2; pass++) {
+            // the first pass only warms up
+            int n = pass == 0 ? iterations / 10 : iterations;
+            boolean print = pass == 1;
+            measure(print, "hex encode 32B old", n, i -> oldToHex(hash));
+            measure(print, "hex encode 32B", n, i -> HexCodec.encode(hash));
+            measure(print, "hex encode 32B into buffer", n, i -> {
+                HexCodec.encode(hash, 0, 32, chars, 0);
+                return chars;
+            });
+            measure(print, "hex decode 32B old", n, i -> oldFromHex(hashHex));
+            measure(print, "hex decode 32B", n, i -> HexCodec.decode(hashHex));
+            measure(print, "hex decode 32B into buffer", n, i -> {
+                HexCodec.decode(hashHex, 0, 64, bytes, 0);
+                return bytes;
+            });
+            measure(print, "hex encode 1KB old", n / 10, i -> oldToHex(payload));
+            measure(print, "hex encode 1KB", n / 10, i -> HexCodec.encode(payload));
+            measure(print, "hex decode 1KB old", n / 10, i -> oldFromHex(payloadHex));
+            measure(print, "hex decode 1KB", n / 10, i -> HexCodec.decode(payloadHex));
+            measure(print, "base58 encode 25B old", n, i -> oldEncode(full));
+            measure(print, "base58 encode 25B", n, i -> Base58.encode(full));
+            measure(print, "base58 decode 25B old", n, i -> oldDecode(base58));
+            measure(print, "base58 decode 25B", n, i -> Base58.decode(base58));
+            measure(print, "base58 decode into 25B", n, i -> {
+                Base58.decode(base58, address25);
+                return address25;
+            });
+            measure(print, "Address.toBase58", n, i -> address.toBase58());
+            measure(print, "Address.decodeBase58", n, i -> Address.decodeBase58(base58));
+        }
+    }
+
+    private static String oldToHex(byte[] value) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : value) {
+            int v = Byte.toUnsignedInt(b);
+            sb.append(Integer.toHexString(v >>> 4));
+            sb.append(Integer.toHexString(v & 0x0f));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] oldFromHex(String value) {
+        byte[] result = new byte[value.length() / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) Integer.parseInt(value.substring(i * 2, i * 2 + 2), 16);
+        }
+        return result;
+    }
+
+    private static final BigInteger BASE = BigInteger.valueOf(58);
+
+    private static String oldEncode(byte[] input) {
+        BigInteger value = new BigInteger(1, input);
+        StringBuilder sb = new StringBuilder();
+        while (value.compareTo(BASE) >= 0) {
+            BigInteger[] qr = value.divideAndRemainder(BASE);
+            sb.insert(0, Base58.ALPHABET.charAt(qr[1].intValue()));
+            value = qr[0];
+        }
+        sb.insert(0, Base58.ALPHABET.charAt(value.intValue()));
+        for (byte b : input) {
+            if (b != 0) {
+                break;
+            }
+            sb.insert(0, Base58.ALPHABET.charAt(0));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] oldDecode(String input) {
+        BigInteger bi = BigInteger.ZERO;
+        for (int i = input.length() - 1; i >= 0; i--) {
+            int index = Base58.ALPHABET.indexOf(input.charAt(i));
+            bi = bi.add(BASE.pow(input.length() - 1 - i).multiply(BigInteger.valueOf(index)));
+        }
+        byte[] bytes = bi.toByteArray();
+        boolean stripSignByte = bytes.length > 1 && bytes[0] == 0 && bytes[1] < 0;
+        int leadingZeros = 0;
+        while (leadingZeros < input.length() && input.charAt(leadingZeros) == Base58.ALPHABET.charAt(0)) {
+            leadingZeros++;
+        }
+        byte[] tmp = new byte[bytes.length - (stripSignByte ? 1 : 0) + leadingZeros];
+        System.arraycopy(bytes, stripSignByte ? 1 : 0, tmp, leadingZeros, tmp.length - leadingZeros);
+        return tmp;
+    }
+
+    private static void measure(boolean print, String name, int iterations, Op op) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (op.apply(i) == null) {
+                throw new IllegalStateException();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        if (print) {
+            System.out.println(String.format("%-28s %8d ops  %10.1f ns/op", name, iterations, (double) nanos / iterations));
+        }
+    }
+}
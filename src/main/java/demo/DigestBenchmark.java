@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.common.Address;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.crypto.Digest;
+import com.github.ontio.crypto.MerkleTree;
+
+import java.security.MessageDigest;
+import java.util.Random;
+
+/**
+ * the per-call MessageDigest lookups and copies Digest used to make against the
+ * thread-local engines, for a transaction hash, an address and a Merkle root
+ */
+public class DigestBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        byte[] tx = new byte[400];
+        new Random(1).nextBytes(tx);
+        UInt256[] leaves = new UInt256[1000];
+        for (int i = 0; i < leaves.length; i++) {
+            leaves[i] = new UInt256(Digest.sha256(new byte[]{(byte) i, (byte) (i >> 8)}));
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            // the first pass only warms up
+            boolean print = pass == 1;
+            int n = print ? iterations : iterations / 4;
+            report(print, "tx hash, per call engine", n, time(n, i -> oldHash256(tx, 2, tx.length - 2)));
+            report(print, "tx hash", n, time(n, i -> Digest.hash256(tx, 2, tx.length - 2)));
+            report(print, "address, per call engine", n, time(n, i -> new Address(oldRipemd160(oldSha256(tx, 0, 35)))));
+            report(print, "address", n, time(n, i -> Address.toScriptHash(tx, 0, 35)));
+            int m = Math.max(1, n / 1000);
+            report(print, "merkle root 1000, per call engine", m, time(m, i -> oldComputeRoot(leaves)));
+            report(print, "merkle root 1000", m, time(m, i -> MerkleTree.computeRoot(leaves)));
+        }
+    }
+
+    private interface Op {
+        Object run(int i) throws Exception;
+    }
+
+    private static long time(int n, Op op) throws Exception {
+        Object sink = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            sink = op.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == null) {
+            throw new IllegalStateException();
+        }
+        return elapsed;
+    }
+
+    private static byte[] oldSha256(byte[] value, int offset, int length) throws Exception {
+        byte[] array = new byte[length];
+        System.arraycopy(value, offset, array, 0, length);
+        return MessageDigest.getInstance("SHA-256").digest(array);
+    }
+
+    private static byte[] oldHash256(byte[] value, int offset, int length) throws Exception {
+        byte[] first = oldSha256(value, offset, length);
+        return MessageDigest.getInstance("SHA-256").digest(first);
+    }
+
+    private static byte[] oldRipemd160(byte[] value) throws Exception {
+        return MessageDigest.getInstance("RipeMD160", "BC").digest(value);
+    }
+
+    private static byte[] oldComputeRoot(UInt256[] hashes) throws Exception {
+        byte[][] level = new byte[hashes.length][];
+        for (int i = 0; i < hashes.length; i++) {
+            level[i] = hashes[i].toArray();
+        }
+        while (level.length > 1) {
+            byte[][] next = new byte[(level.length + 1) / 2][];
+            for (int i = 0; i < next.length; i++) {
+                byte[] right = 2 * i + 1 < level.length ? level[2 * i + 1] : level[2 * i];
+                byte[] buffer = new byte[64];
+                System.arraycopy(level[2 * i], 0, buffer, 0, 32);
+                System.arraycopy(right, 0, buffer, 32, 32);
+                next[i] = oldHash256(buffer, 0, 64);
+            }
+            level = next;
+        }
+        return level[0];
+    }
+
+    private static void report(boolean print, String name, int n, long nanos) {
+        if (print) {
+            System.out.println(String.format("%-36s %8d ops  %10.0f ops/s  %8.2f us/op",
+                    name, n, n * 1e9 / nanos, nanos / 1e3 / n));
+        }
+    }
+}
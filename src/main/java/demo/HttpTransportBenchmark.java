@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.NioHttpTransport;
+import com.github.ontio.network.connect.PooledHttpTransport;
+import com.github.ontio.network.connect.UrlConnectionTransport;
+import com.github.ontio.network.rpc.RpcAsyncClient;
+import com.github.ontio.network.rpc.RpcClient;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * compare the per-call HttpURLConnection path with the pooled transport and the
+ * non-blocking transport against a local stub node answering getstorage
+ */
+public class HttpTransportBenchmark {
+    private static final byte[] RESPONSE = "{\"desc\":\"SUCCESS\",\"error\":0,\"id\":1,\"jsonrpc\":\"2.0\",\"result\":\"01\"}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int calls = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        ServerSocket server = startStubNode();
+        String url = "http://127.0.0.1:" + server.getLocalPort();
+        try {
+            PooledHttpTransport pooled = new PooledHttpTransport(threads, threads, 60000, 10000, 10000);
+            HttpTransport perCall = new UrlConnectionTransport();
+            // the same number of requests in flight, but served by two reactor threads
+            NioHttpTransport nio = new NioHttpTransport(2, threads, threads, 10000, 10000);
+            // warm up all paths before measuring
+            run(new RpcClient(url, perCall), threads, calls / 10);
+            run(new RpcClient(url, pooled), threads, calls / 10);
+            runAsync(new RpcAsyncClient(url, nio), threads, calls / 10);
+
+            long perCallNanos = run(new RpcClient(url, perCall), threads, calls);
+            long pooledNanos = run(new RpcClient(url, pooled), threads, calls);
+            long nioNanos = runAsync(new RpcAsyncClient(url, nio), threads, calls);
+            report("HttpURLConnection per call", calls, perCallNanos);
+            report("httpclient pooled", calls, pooledNanos);
+            report("nio async", calls, nioNanos);
+            pooled.close();
+            nio.close();
+        } finally {
+            server.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * minimal HTTP/1.1 node stub, one thread per connection, honours keep-alive
+     */
+    private static ServerSocket startStubNode() throws IOException {
+        ServerSocket server = new ServerSocket(0, 1024, InetAddress.getByName("127.0.0.1"));
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    socket.setTcpNoDelay(true);
+                    Thread worker = new Thread(() -> serve(socket));
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        });
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return server;
+    }
+
+    private static void serve(Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream());
+             OutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+            byte[] header = ("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: "
+                    + RESPONSE.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+            while (true) {
+                int contentLength = 0;
+                boolean close = false;
+                String line = readLine(in);
+                if (line == null) {
+                    return;
+                }
+                while ((line = readLine(in)) != null && !line.isEmpty()) {
+                    String lower = line.toLowerCase();
+                    if (lower.startsWith("content-length:")) {
+                        contentLength = Integer.parseInt(line.substring(15).trim());
+                    } else if (lower.startsWith("connection:") && lower.contains("close")) {
+                        close = true;
+                    }
+                }
+                for (int i = 0; i < contentLength; i++) {
+                    in.read();
+                }
+                out.write(header);
+                out.write(RESPONSE);
+                out.flush();
+                if (close) {
+                    return;
+                }
+            }
+        } catch (IOException e) {
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') {
+                return sb.toString();
+            }
+            if (c != '\r') {
+                sb.append((char) c);
+            }
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
+    private static long run(RpcClient client, int threads, int calls) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        int perThread = calls / threads;
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    client.getStorage("0100000000000000000000000000000000000000", "01");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    /**
+     * keeps inFlight requests outstanding from the calling thread only
+     */
+    private static long runAsync(RpcAsyncClient client, int inFlight, int calls) throws Exception {
+        Semaphore permits = new Semaphore(inFlight);
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            permits.acquire();
+            CompletableFuture<String> f = client.getStorage("0100000000000000000000000000000000000000", "01");
+            f.whenComplete((r, t) -> permits.release());
+            futures.add(f);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, int calls, long nanos) {
+        System.out.println(String.format("%-28s %8d calls  %8.1f ms  %10.0f ops/s  %8.1f us/op",
+                name, calls, nanos / 1e6, calls * 1e9 / nanos, nanos / 1e3 / calls));
+    }
+}
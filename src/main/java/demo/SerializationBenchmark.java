@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.OntSdk;
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Address;
+import com.github.ontio.common.Helper;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.block.BlockView;
+import com.github.ontio.core.payload.InvokeCode;
+import com.github.ontio.core.transaction.Attribute;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.io.BinaryReader;
+import com.github.ontio.io.BinaryWriter;
+import com.github.ontio.io.ByteBufferReader;
+import com.github.ontio.io.ByteBufferWriter;
+import com.github.ontio.io.Serializable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * round trips of a signed transaction and of a 100 transaction block through the
+ * stream based BinaryReader/BinaryWriter and the ByteBuffer based ones, then the
+ * transaction hashes of a block from a full decode and from a BlockView
+ */
+public class SerializationBenchmark {
+    private interface Codec {
+        Serializable roundTrip(Serializable value) throws IOException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+
+        Transaction tx = signedTransaction();
+        Block block = block(100);
+
+        Codec stream = value -> {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BinaryWriter writer = new BinaryWriter(out);
+            value.serialize(writer);
+            writer.flush();
+            return decode(value, new BinaryReader(new ByteArrayInputStream(out.toByteArray())));
+        };
+        Codec buffer = value -> {
+            try (ByteBufferWriter writer = ByteBufferWriter.pooled()) {
+                value.serialize(writer);
+                return decode(value, new ByteBufferReader(writer.toByteBuffer()));
+            }
+        };
+
+        // warm up both paths before measuring
+        run(stream, tx, iterations);
+        run(buffer, tx, iterations);
+        run(stream, block, iterations / 100);
+        run(buffer, block, iterations / 100);
+
+        report("transaction stream", iterations, run(stream, tx, iterations));
+        report("transaction ByteBuffer", iterations, run(buffer, tx, iterations));
+        report("block stream", iterations / 100, run(stream, block, iterations / 100));
+        report("block ByteBuffer", iterations / 100, run(buffer, block, iterations / 100));
+
+        // the indexer workload: header and transaction hashes only
+        byte[] blockBytes = block.toArray();
+        scan(blockBytes, iterations / 100);
+        long full = System.nanoTime();
+        for (int i = 0; i < iterations / 100; i++) {
+            Block b = Serializable.from(blockBytes, Block.class);
+            for (Transaction t : b.transactions) {
+                t.hash();
+            }
+        }
+        full = System.nanoTime() - full;
+        report("block hashes decoded", iterations / 100, full);
+        report("block hashes BlockView", iterations / 100, scan(blockBytes, iterations / 100));
+    }
+
+    private static long scan(byte[] blockBytes, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            BlockView view = BlockView.parse(blockBytes);
+            for (int j = 0; j < view.getTransactionCount(); j++) {
+                view.getTransactionHash(j);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static Serializable decode(Serializable value, BinaryReader reader) throws IOException {
+        if (value instanceof Transaction) {
+            return Transaction.deserializeFrom(reader);
+        }
+        Block b = new Block();
+        b.deserialize(reader);
+        return b;
+    }
+
+    private static Transaction signedTransaction() throws Exception {
+        Account account = new Account(Helper.hexToBytes("0bc8c1f75a028672cd42c221bf81709dfc7abbbaf0d87cb6fdeaf9a20492c194"),
+                SignatureScheme.SHA256WITHECDSA);
+        InvokeCode tx = new InvokeCode();
+        tx.code = new byte[200];
+        tx.attributes = new Attribute[0];
+        tx.payer = account.getAddressU160();
+        tx.gasLimit = 20000;
+        tx.gasPrice = 500;
+        OntSdk.getInstance().signTx(tx, new Account[][]{{account}});
+        return tx;
+    }
+
+    private static Block block(int transactions) throws Exception {
+        Block block = new Block();
+        block.version = 0;
+        block.height = 1000;
+        block.timestamp = 1540000000;
+        block.consensusData = 111;
+        block.consensusPayload = new byte[64];
+        block.prevBlockHash = new UInt256(new byte[32]);
+        block.transactionsRoot = new UInt256(new byte[32]);
+        block.blockRoot = new UInt256(new byte[32]);
+        block.nextBookkeeper = new Address(new byte[20]);
+        block.bookkeepers = new byte[][]{new byte[33], new byte[33]};
+        block.sigData = new String[]{Helper.toHexString(new byte[64]), Helper.toHexString(new byte[64])};
+        block.transactions = new Transaction[transactions];
+        Transaction tx = signedTransaction();
+        for (int i = 0; i < transactions; i++) {
+            block.transactions[i] = tx;
+        }
+        return block;
+    }
+
+    private static long run(Codec codec, Serializable value, int iterations) throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            if (codec.roundTrip(value) == null) {
+                throw new IllegalStateException();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String name, int iterations, long nanos) {
+        System.out.println(String.format("%-24s %8d round trips  %10.2f us/op", name, iterations, nanos / 1e3 / iterations));
+    }
+}
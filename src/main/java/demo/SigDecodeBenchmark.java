@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.OntSdk;
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Address;
+import com.github.ontio.common.Helper;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.core.asset.Sig;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.payload.InvokeCode;
+import com.github.ontio.core.program.Program;
+import com.github.ontio.core.scripts.ScriptOp;
+import com.github.ontio.core.transaction.Attribute;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.crypto.ECC;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.io.BinaryReader;
+import com.github.ontio.io.ByteBufferReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * decoding of a block of 100 signed transactions with public keys kept as raw bytes,
+ * against decoding every key to an ECPoint, and the signature script parsing before
+ * and after it stopped going through streams and exceptions
+ */
+public class SigDecodeBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        Account[] accounts = new Account[3];
+        for (int i = 0; i < accounts.length; i++) {
+            accounts[i] = new Account(SignatureScheme.SHA256WITHECDSA);
+        }
+        byte[] data = block(accounts).toArray();
+        Block decoded = decode(data);
+        List<byte[]> invocations = new ArrayList<>();
+        List<byte[]> verifications = new ArrayList<>();
+        for (Transaction tx : decoded.transactions) {
+            for (Sig sig : tx.sigs) {
+                invocations.add(Program.ProgramFromParams(sig.sigData));
+                verifications.add(sig.pubKeys.length == 1 ? Program.ProgramFromPubKey(sig.pubKeys[0])
+                        : Program.ProgramFromMultiPubKey(sig.M, sig.pubKeys));
+            }
+        }
+
+        for (int pass = 0; pass < 2; pass++) {
+            // the first pass only warms up
+            boolean print = pass == 1;
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                decode(data);
+            }
+            report(print, "block, raw keys", iterations, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (Transaction tx : decode(data).transactions) {
+                    for (Sig sig : tx.sigs) {
+                        for (byte[] key : sig.pubKeys) {
+                            ECC.secp256r1.getCurve().decodePoint(key);
+                        }
+                    }
+                }
+            }
+            report(print, "block, keys as ECPoint", iterations, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (int j = 0; j < invocations.size(); j++) {
+                    oldParamInfo(invocations.get(j));
+                    oldPublicKeys(verifications.get(j));
+                }
+            }
+            report(print, "sig scripts, streams", iterations, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (int j = 0; j < invocations.size(); j++) {
+                    Program.getParamInfo(invocations.get(j));
+                    Program.getProgramInfo(verifications.get(j));
+                }
+            }
+            report(print, "sig scripts", iterations, System.nanoTime() - start);
+        }
+    }
+
+    private static Block decode(byte[] data) throws IOException {
+        Block block = new Block();
+        block.deserialize(new ByteBufferReader(data));
+        return block;
+    }
+
+    private static Block block(Account[] accounts) throws Exception {
+        Block block = new Block();
+        block.consensusPayload = new byte[64];
+        block.prevBlockHash = new UInt256(new byte[32]);
+        block.transactionsRoot = new UInt256(new byte[32]);
+        block.blockRoot = new UInt256(new byte[32]);
+        block.nextBookkeeper = new Address(new byte[20]);
+        block.bookkeepers = new byte[0][];
+        block.sigData = new String[0];
+        block.transactions = new Transaction[100];
+        OntSdk sdk = OntSdk.getInstance();
+        for (int i = 0; i < block.transactions.length; i++) {
+            InvokeCode tx = new InvokeCode();
+            tx.code = new byte[100];
+            tx.attributes = new Attribute[0];
+            tx.payer = accounts[0].getAddressU160();
+            sdk.signTx(tx, new Account[][]{{accounts[0]}});
+            // every fourth one also carries a 2 of 3 multisig
+            if (i % 4 == 0) {
+                byte[][] keys = new byte[accounts.length][];
+                for (int k = 0; k < keys.length; k++) {
+                    keys[k] = accounts[k].serializePublicKey();
+                }
+                sdk.addMultiSign(tx, 2, keys, accounts[1]);
+                sdk.addMultiSign(tx, 2, keys, accounts[2]);
+            }
+            block.transactions[i] = tx;
+        }
+        return block;
+    }
+
+    private static byte[][] oldParamInfo(byte[] program) {
+        BinaryReader br = new BinaryReader(new ByteArrayInputStream(program));
+        List<byte[]> list = new ArrayList<>();
+        while (true) {
+            try {
+                list.add(Program.readBytes(br));
+            } catch (IOException e) {
+                break;
+            }
+        }
+        return list.toArray(new byte[0][]);
+    }
+
+    private static byte[][] oldPublicKeys(byte[] program) throws IOException {
+        byte end = program[program.length - 1];
+        byte[] temp = new byte[program.length - 1];
+        System.arraycopy(program, 0, temp, 0, program.length - 1);
+        BinaryReader reader = new BinaryReader(new ByteArrayInputStream(temp));
+        if (end == ScriptOp.OP_CHECKSIG.getByte()) {
+            return new byte[][]{Program.readBytes(reader)};
+        }
+        int len = program[program.length - 2] - ScriptOp.OP_PUSH1.getByte() + 1;
+        reader.readByte();
+        byte[][] pub = new byte[len][];
+        for (int i = 0; i < len; i++) {
+            pub[i] = reader.readVarBytes();
+        }
+        return pub;
+    }
+
+    private static void report(boolean print, String name, int iterations, long nanos) {
+        if (print) {
+            System.out.println(String.format("%-24s %8d blocks  %10.2f us/block", name, iterations, nanos / 1e3 / iterations));
+        }
+    }
+}
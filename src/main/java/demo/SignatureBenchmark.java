@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.account.Account;
+import com.github.ontio.crypto.SignatureScheme;
+import org.bouncycastle.asn1.ASN1EncodableVector;
+import org.bouncycastle.asn1.ASN1Integer;
+import org.bouncycastle.asn1.ASN1Sequence;
+import org.bouncycastle.asn1.DERSequence;
+import org.bouncycastle.jcajce.spec.SM2ParameterSpec;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+
+import java.math.BigInteger;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * sign and verify throughput on P-256 and SM2 through Account, against the former
+ * path that looked up a new Signature for every call and seeded a new SecureRandom
+ * for every signature, and Account construction before and after the provider was
+ * registered once, and signing on precomputed generator tables with deterministic nonces
+ */
+public class SignatureBenchmark {
+    private static final int MESSAGES = 64;
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        for (SignatureScheme scheme : new SignatureScheme[]{SignatureScheme.SHA256WITHECDSA, SignatureScheme.SM3WITHSM2}) {
+            Account account = new Account(scheme);
+            byte[] key = account.serializePrivateKey();
+            Account hot = new Account(key, scheme);
+            hot.enableFixedBaseSigning();
+            byte[][] msgs = new byte[MESSAGES][];
+            byte[][] sigs = new byte[MESSAGES][];
+            for (int i = 0; i < MESSAGES; i++) {
+                msgs[i] = ("transaction " + i).getBytes();
+                sigs[i] = account.generateSignature(msgs[i], scheme, null);
+            }
+            for (int pass = 0; pass < 2; pass++) {
+                // the first pass only warms up
+                boolean print = pass == 1;
+                int n = print ? iterations : iterations / 4;
+                report(print, scheme + " sign, per call Signature", n, time(threads, n, i -> oldSign(account, msgs[i % MESSAGES])));
+                report(print, scheme + " sign", n, time(threads, n, i -> account.generateSignature(msgs[i % MESSAGES], scheme, null)));
+                report(print, scheme + " sign, fixed base", n, time(threads, n, i -> hot.generateSignature(msgs[i % MESSAGES], scheme, null)));
+                report(print, scheme + " verify, per call Signature", n, time(threads, n, i -> oldVerify(account, msgs[i % MESSAGES], sigs[i % MESSAGES])));
+                report(print, scheme + " verify", n, time(threads, n, i -> account.verifySignature(msgs[i % MESSAGES], sigs[i % MESSAGES])));
+                int m = Math.max(1, n / 10);
+                report(print, scheme + " new Account, new provider", m, time(threads, m, i -> {
+                    Security.addProvider(new BouncyCastleProvider());
+                    new Account(key, scheme);
+                }));
+                report(print, scheme + " new Account", m, time(threads, m, i -> new Account(key, scheme)));
+            }
+        }
+        System.exit(0);
+    }
+
+    private interface Op {
+        void run(int i) throws Exception;
+    }
+
+    private static long time(int threads, int n, Op op) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        int perThread = Math.max(1, n / threads);
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * perThread;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    op.run(offset + i);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        return elapsed;
+    }
+
+    private static void oldSign(Account account, byte[] msg) throws Exception {
+        java.security.Signature ctx = java.security.Signature.getInstance(account.getSignatureScheme().toString(), "BC");
+        if (account.getSignatureScheme() == SignatureScheme.SM3WITHSM2) {
+            ctx.setParameter(new SM2ParameterSpec("1234567812345678".getBytes()));
+        }
+        ctx.initSign(account.getPrivateKey());
+        ctx.update(msg);
+        ASN1Sequence seq = (ASN1Sequence) ASN1Sequence.fromByteArray(ctx.sign());
+        ASN1Integer.getInstance(seq.getObjectAt(0)).getValue();
+        ASN1Integer.getInstance(seq.getObjectAt(1)).getValue();
+    }
+
+    private static void oldVerify(Account account, byte[] msg, byte[] sig) throws Exception {
+        java.security.Signature ctx = java.security.Signature.getInstance(account.getSignatureScheme().toString(), "BC");
+        ctx.initVerify(account.getPublicKey());
+        ctx.update(msg);
+        // r and s are the last 64 bytes for both schemes
+        BigInteger r = new BigInteger(1, Arrays.copyOfRange(sig, sig.length - 64, sig.length - 32));
+        BigInteger s = new BigInteger(1, Arrays.copyOfRange(sig, sig.length - 32, sig.length));
+        ASN1EncodableVector v = new ASN1EncodableVector();
+        v.add(new ASN1Integer(r));
+        v.add(new ASN1Integer(s));
+        ctx.verify(new DERSequence(v).getEncoded("DER"));
+    }
+
+    private static void report(boolean print, String name, int n, long nanos) {
+        if (print) {
+            System.out.println(String.format("%-44s %8d ops  %10.0f ops/s  %8.1f us/op",
+                    name, n, n * 1e9 / nanos, nanos / 1e3 / n));
+        }
+    }
+}
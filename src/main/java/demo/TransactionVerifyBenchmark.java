@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package demo;
+
+import com.github.ontio.OntSdk;
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Address;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.crypto.Digest;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.crypto.VerifiedSignatureCache;
+import com.github.ontio.sdk.manager.TransactionVerifier;
+import com.github.ontio.smartcontract.Vm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * compare verifying transactions one by one as OntSdk.verifyTransaction used to with
+ * the batch verifier, for transactions signed by a small set of hot accounts, and
+ * verifying them a second time with a verified signature cache
+ */
+public class TransactionVerifyBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int signers = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        OntSdk ontSdk = OntSdk.getInstance();
+        Vm vm = new Vm(ontSdk);
+        Account[] accounts = new Account[signers];
+        for (int i = 0; i < signers; i++) {
+            accounts[i] = new Account(i % 2 == 0 ? SignatureScheme.SHA256WITHECDSA : SignatureScheme.SM3WITHSM2);
+        }
+        List<Transaction> txs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Transaction tx = vm.buildNativeParams(Address.parse("0100000000000000000000000000000000000000"), "init",
+                    Integer.toString(i).getBytes(), null, 0, 0);
+            ontSdk.addSign(tx, accounts[i % signers]);
+            txs.add(tx);
+        }
+
+        TransactionVerifier verifier = new TransactionVerifier();
+        // warm up both paths before measuring
+        runOld(txs.subList(0, count / 10));
+        verifier.verify(txs.subList(0, count / 10));
+        verifier.clear();
+
+        long start = System.nanoTime();
+        int valid = runOld(txs);
+        report("one by one", count, valid, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        valid = 0;
+        for (TransactionVerifier.Result r : verifier.verify(txs)) {
+            valid += r.isValid() ? 1 : 0;
+        }
+        report("batch", count, valid, System.nanoTime() - start);
+        System.out.println(String.format("key cache hit rate %.3f", verifier.getHitRate()));
+
+        // the same transactions again, e.g. once in the mempool and once in a block
+        VerifiedSignatureCache cache = new VerifiedSignatureCache();
+        Account.setVerifiedSignatureCache(cache);
+        verifier.verify(txs);
+        start = System.nanoTime();
+        valid = 0;
+        for (TransactionVerifier.Result r : verifier.verify(txs)) {
+            valid += r.isValid() ? 1 : 0;
+        }
+        report("batch again", count, valid, System.nanoTime() - start);
+        System.out.println(String.format("verified signature cache hit rate %.3f", cache.getHitRate()));
+        Account.setVerifiedSignatureCache(null);
+    }
+
+    /**
+     * the former verifyTransaction loop for single signatures
+     */
+    private static int runOld(List<Transaction> txs) throws Exception {
+        int valid = 0;
+        for (Transaction tx : txs) {
+            boolean ok = true;
+            for (int i = 0; i < tx.sigs.length; i++) {
+                Account account = new Account(false, tx.sigs[i].pubKeys[0]);
+                ok &= account.verifySignature(Digest.hash256(tx.getHashData()), tx.sigs[i].sigData[0]);
+            }
+            valid += ok ? 1 : 0;
+        }
+        return valid;
+    }
+
+    private static void report(String name, int count, int valid, long nanos) {
+        System.out.println(String.format("%-12s %6d txs (%d valid)  %8.1f ms  %8.0f tx/s",
+                name, count, valid, nanos / 1e6, count * 1e9 / nanos));
+    }
+}
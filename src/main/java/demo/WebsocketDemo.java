@@ -30,7 +30,7 @@ import com.github.ontio.smartcontract.neovm.abi.AbiInfo;
 import com.github.ontio.sdk.wallet.Account;
 import com.github.ontio.sdk.wallet.Identity;
 import com.github.ontio.sdk.wallet.Wallet;
-import com.github.ontio.network.websocket.MsgQueue;
+import com.github.ontio.network.websocket.EventQueue;
 import com.github.ontio.network.websocket.Result;
 import com.alibaba.fastjson.JSON;
 
@@ -55,11 +55,12 @@ public class WebsocketDemo {
 
             ontSdk.getWebSocket().startWebsocketThread(false);
 
+            EventQueue events = ontSdk.getWebSocket().getEventQueue();
             Thread thread = new Thread(
                     new Runnable() {
                         @Override
                         public void run() {
-                            waitResult(lock);
+                            waitResult(events);
                         }
                     });
             thread.start();
@@ -162,21 +163,15 @@ public class WebsocketDemo {
         }
     }
 
-    public static void waitResult(Object lock) {
+    public static void waitResult(EventQueue events) {
         try {
-            synchronized (lock) {
-                while (true) {
-                    lock.wait();
-                    for (String e : MsgQueue.getResultSet()) {
-                        System.out.println("RECV: " + e);
-                        Result rt = JSON.parseObject(e, Result.class);
-                        //TODO
-                        MsgQueue.removeResult(e);
-                        if (rt.Action.equals("getblockbyheight")) {
-                            Block bb = Serializable.from(Helper.hexToBytes((String) rt.Result), Block.class);
-                            //System.out.println(bb.json());
-                        }
-                    }
+            while (true) {
+                Result rt = events.take();
+                System.out.println("RECV: " + JSON.toJSONString(rt));
+                //TODO
+                if (rt.Action.equals("getblockbyheight")) {
+                    Block bb = Serializable.from(Helper.hexToBytes((String) rt.Result), Block.class);
+                    //System.out.println(bb.json());
                 }
             }
         } catch (Exception e) {
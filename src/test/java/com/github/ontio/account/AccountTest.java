@@ -4,6 +4,12 @@ import com.github.ontio.common.Helper;
 import com.github.ontio.crypto.SignatureScheme;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.*;
 
 public class AccountTest {
@@ -47,4 +53,46 @@ public class AccountTest {
         assertEquals(privateKey,Helper.toHexString(account.serializePrivateKey()));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void sm2SignatureKeepsItsUserId() throws Exception {
+        Account account = new Account(SignatureScheme.SM3WITHSM2);
+        byte[] custom = account.generateSignature("hello".getBytes(), SignatureScheme.SM3WITHSM2, "alice");
+        byte[] standard = account.generateSignature("hello".getBytes(), SignatureScheme.SM3WITHSM2, null);
+        // the engine is reused on this thread, the custom id must not stick to it
+        assertTrue(account.verifySignature("hello".getBytes(), standard));
+        assertTrue(account.verifySignature("hello".getBytes(), custom));
+        assertFalse(account.verifySignature("hello!".getBytes(), standard));
+    }
+
+    @Test
+    public void signAndVerifyFromManyThreads() throws Exception {
+        Account ecdsa = new Account(SignatureScheme.SHA256WITHECDSA);
+        Account sm2 = new Account(SignatureScheme.SM3WITHSM2);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            byte[] msg = ("message " + t).getBytes();
+            results.add(pool.submit(() -> {
+                boolean ok = true;
+                for (int i = 0; i < 20; i++) {
+                    ok &= ecdsa.verifySignature(msg, ecdsa.generateSignature(msg, SignatureScheme.SHA256WITHECDSA, null));
+                    ok &= sm2.verifySignature(msg, sm2.generateSignature(msg, SignatureScheme.SM3WITHSM2, null));
+                }
+                return ok;
+            }));
+        }
+        for (Future<Boolean> f : results) {
+            assertTrue(f.get());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void serializePublicKeyReturnsCopy() throws Exception {
+        Account account = new Account(SignatureScheme.SHA256WITHECDSA);
+        byte[] publicKey = account.serializePublicKey();
+        publicKey[1] ^= 1;
+        assertNotEquals(Helper.toHexString(publicKey), Helper.toHexString(account.serializePublicKey()));
+        assertEquals(Helper.toHexString(account.serializePublicKey()), Helper.toHexString(new Account(false, account.serializePublicKey()).serializePublicKey()));
+    }
+}
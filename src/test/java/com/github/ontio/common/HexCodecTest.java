@@ -0,0 +1,97 @@
+package com.github.ontio.common;
+
+import com.github.ontio.crypto.Base58;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HexCodecTest {
+
+    @Test
+    public void hexRoundTrip() {
+        Random random = new Random(1);
+        for (int n = 0; n < 64; n++) {
+            byte[] data = new byte[n];
+            random.nextBytes(data);
+            String hex = HexCodec.encode(data);
+            assertEquals(new BigInteger(1, concat(new byte[]{1}, data)).toString(16).substring(1), hex);
+            assertArrayEquals(data, HexCodec.decode(hex));
+            assertArrayEquals(data, HexCodec.decode(hex.toUpperCase()));
+        }
+    }
+
+    @Test
+    public void hexIntoBuffers() {
+        byte[] data = {0x01, (byte) 0xab, (byte) 0xff};
+        byte[] ascii = new byte[8];
+        HexCodec.encode(data, 1, 2, ascii, 2);
+        assertEquals("\0\0abff\0\0", new String(ascii));
+        byte[] out = new byte[4];
+        HexCodec.decode("xx01ab", 2, 4, out, 1);
+        assertArrayEquals(new byte[]{0, 1, (byte) 0xab, 0}, out);
+    }
+
+    @Test
+    public void hexRejectsBadInput() {
+        try {
+            HexCodec.decode("abc");
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            HexCodec.decode("0g");
+            fail();
+        } catch (NumberFormatException e) {
+        }
+    }
+
+    @Test
+    public void base58MatchesBigInteger() {
+        Random random = new Random(2);
+        for (int n = 1; n < 80; n++) {
+            byte[] data = new byte[n];
+            random.nextBytes(data);
+            data[0] = (byte) (n % 3 == 0 ? 0 : data[0] | 1);
+            String encoded = Base58.encode(data);
+            assertEquals(reference(data), encoded);
+            assertArrayEquals(data, Base58.decode(encoded));
+        }
+    }
+
+    @Test
+    public void base58FixedSize() throws Exception {
+        Address address = Address.decodeBase58("AazEvfQPcQ2GEFFPLF1ZLwQ7K5jDn81hve");
+        assertEquals("AazEvfQPcQ2GEFFPLF1ZLwQ7K5jDn81hve", address.toBase58());
+        byte[] out = new byte[24];
+        try {
+            Base58.decode("AazEvfQPcQ2GEFFPLF1ZLwQ7K5jDn81hve", out);
+            fail();
+        } catch (IllegalArgumentException e) {
+        }
+    }
+
+    private static String reference(byte[] data) {
+        StringBuilder sb = new StringBuilder();
+        BigInteger value = new BigInteger(1, data);
+        BigInteger base = BigInteger.valueOf(58);
+        while (value.signum() > 0) {
+            BigInteger[] qr = value.divideAndRemainder(base);
+            sb.insert(0, Base58.ALPHABET.charAt(qr[1].intValue()));
+            value = qr[0];
+        }
+        for (int i = 0; i < data.length && data[i] == 0; i++) {
+            sb.insert(0, '1');
+        }
+        return sb.toString();
+    }
+
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] out = new byte[a.length + b.length];
+        System.arraycopy(a, 0, out, 0, a.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.ontio.common;
+
+import com.github.ontio.io.ByteBufferReader;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class InternPoolTest {
+
+    @After
+    public void tearDown() {
+        Address.setInternPool(null);
+        UInt256.setInternPool(null);
+    }
+
+    @Test
+    public void stringFormsAreMemoized() throws Exception {
+        Address address = Address.decodeBase58("AazEvfQPcQ2GEFFPLF1ZLwQ7K5jDn81hve");
+        assertSame(address.toBase58(), address.toBase58());
+        assertSame(address.toHexString(), address.toString());
+        UInt256 hash = new UInt256(new byte[32]);
+        assertSame(hash.toString(), hash.toHexString());
+    }
+
+    @Test
+    public void deserializeDropsCachedForms() throws Exception {
+        UInt256 hash = new UInt256();
+        String before = hash.toHexString();
+        byte[] bytes = new byte[32];
+        bytes[0] = 1;
+        hash.deserialize(new ByteBufferReader(bytes));
+        assertNotEquals(before, hash.toHexString());
+        assertEquals(Helper.toHexString(Helper.reverse(bytes)), hash.toHexString());
+        Address address = new Address();
+        String base58 = address.toBase58();
+        assertTrue(Address.tryParse("0100000000000000000000000000000000000000", address));
+        assertNotEquals(base58, address.toBase58());
+    }
+
+    @Test
+    public void poolReturnsSharedInstances() throws Exception {
+        Address.setInternPool(InternPool.addresses(1024));
+        UInt256.setInternPool(InternPool.hashes(1024));
+        Address a = Address.decodeBase58("AazEvfQPcQ2GEFFPLF1ZLwQ7K5jDn81hve");
+        assertSame(a, Address.decodeBase58("AazEvfQPcQ2GEFFPLF1ZLwQ7K5jDn81hve"));
+        assertSame(a, Address.parse(Helper.toHexString(a.toArray())));
+        assertSame(a, new ByteBufferReader(a.toArray()).readAddress());
+        byte[] bytes = new byte[32];
+        bytes[5] = 7;
+        UInt256 hash = new ByteBufferReader(bytes).readUInt256();
+        assertSame(hash, UInt256.parse(hash.toHexString()));
+        assertEquals(3, Address.getInternPool().getHits());
+    }
+
+    @Test
+    public void poolStaysBounded() {
+        InternPool<Address> pool = InternPool.addresses(10);
+        assertEquals(16, pool.capacity());
+        for (int i = 0; i < 10000; i++) {
+            byte[] bytes = new byte[20];
+            bytes[0] = (byte) i;
+            bytes[1] = (byte) (i >> 8);
+            Address address = pool.intern(bytes);
+            assertArrayEquals(bytes, address.toArray());
+        }
+        assertEquals(10000, pool.getMisses());
+        pool.clear();
+        Address address = pool.intern(new Address(new byte[20]));
+        assertSame(address, pool.intern(address));
+        assertSame(address, pool.intern(new byte[20]));
+    }
+
+    @Test
+    public void pooledBytesCannotBeChanged() {
+        InternPool<UInt256> pool = InternPool.hashes(16);
+        byte[] bytes = new byte[32];
+        UInt256 hash = pool.intern(bytes);
+        String hex = hash.toHexString();
+        bytes[0] = 1;
+        hash.toArray()[1] = 1;
+        assertEquals(hex, hash.toHexString());
+        assertArrayEquals(new byte[32], hash.toArray());
+        assertSame(hash, pool.intern(new byte[32]));
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.ontio.common;
+
+import com.alibaba.fastjson.JSON;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TransferEventTest {
+    private static final Address FROM = Address.parse("46b1a18af6b7c9f8e4fe8e8b0ed2d1a6e8b1e6a1");
+    private static final Address TO = Address.parse("0000000000000000000000000000000000000004");
+
+    private static NotifyEventInfo notify(String contract, Object... states) {
+        NotifyEventInfo n = new NotifyEventInfo();
+        n.setContractAddress(contract);
+        n.setStates(Arrays.asList(states));
+        return n;
+    }
+
+    @Test
+    public void decodesNativeTransfer() {
+        TransferEvent t = notify(TransferEvent.ONG_CONTRACT, "transfer", FROM.toBase58(), TO.toBase58(), 10000000).getTransfer();
+
+        assertTrue(t.isOng());
+        assertFalse(t.isOnt());
+        assertEquals(FROM, t.from);
+        assertEquals(TO, t.to);
+        assertEquals(BigInteger.valueOf(10000000), t.amount);
+    }
+
+    @Test
+    public void decodesOep4Transfer() {
+        String contract = "c3d5e42d1c4b4e4a8a0e4c4e53e1d3b2a1a0f1e2";
+        TransferEvent t = notify(contract, "7472616e73666572", Helper.toHexString(FROM.toArray()), Helper.toHexString(TO.toArray()), "c800").getTransfer();
+
+        assertEquals(contract, t.contractAddress);
+        assertEquals(FROM, t.from);
+        assertEquals(TO, t.to);
+        assertEquals(BigInteger.valueOf(200), t.amount);
+        assertEquals(BigInteger.ZERO, notify(contract, "7472616e73666572", Helper.toHexString(FROM.toArray()), Helper.toHexString(TO.toArray()), "").getTransfer().amount);
+    }
+
+    @Test
+    public void ignoresOtherEvents() {
+        assertNull(notify(TransferEvent.ONT_CONTRACT, "approve", FROM.toBase58(), TO.toBase58(), 1).getTransfer());
+        assertNull(notify(TransferEvent.ONT_CONTRACT, "transfer", "not an address", TO.toBase58(), 1).getTransfer());
+        assertNull(notify("0700000000000000000000000000000000000000", "transfer", FROM.toBase58()).getTransfer());
+        assertNull(new NotifyEventInfo().getTransfer());
+    }
+
+    @Test
+    public void transferFollowsStates() {
+        NotifyEventInfo n = notify(TransferEvent.ONT_CONTRACT, "transfer", FROM.toBase58(), TO.toBase58(), 1);
+        TransferEvent t = n.getTransfer();
+        assertSame(t, n.getTransfer());
+        n.setStates(Arrays.asList("transfer", TO.toBase58(), FROM.toBase58(), 2));
+        assertEquals(TO, n.getTransfer().from);
+    }
+
+    @Test
+    public void eventFromJsonListsTransfers() {
+        String json = "{\"TxHash\":\"ab\",\"State\":1,\"GasConsumed\":10000000,\"Notify\":["
+                + "{\"ContractAddress\":\"" + TransferEvent.ONT_CONTRACT + "\",\"States\":[\"transfer\",\"" + FROM.toBase58() + "\",\"" + TO.toBase58() + "\",5]},"
+                + "{\"ContractAddress\":\"0300000000000000000000000000000000000000\",\"States\":[\"Register\",\"did:ont:x\"]},"
+                + "{\"ContractAddress\":\"" + TransferEvent.ONG_CONTRACT + "\",\"States\":[\"transfer\",\"" + FROM.toBase58() + "\",\"" + TO.toBase58() + "\",10000000]}]}";
+        SmartCodeEvent event = JSON.parseObject(json, SmartCodeEvent.class);
+        List<TransferEvent> transfers = event.getTransfers();
+
+        assertEquals(2, transfers.size());
+        assertTrue(transfers.get(0).isOnt());
+        assertEquals(BigInteger.valueOf(5), transfers.get(0).amount);
+        assertTrue(transfers.get(1).isOng());
+        String out = JSON.toJSONString(event);
+        assertFalse(out.contains("\"transfers\""));
+        assertFalse(out.contains("\"transfer\":"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.ontio.core.block;
+
+import com.github.ontio.common.Address;
+import com.github.ontio.common.Helper;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.core.payload.InvokeCode;
+import com.github.ontio.core.transaction.Attribute;
+import com.github.ontio.core.transaction.Transaction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.EOFException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class BlockReaderTest {
+    private Path archive;
+
+    @Before
+    public void setUp() throws Exception {
+        archive = Files.createTempFile("blocks", ".bin");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(archive);
+    }
+
+    private static Block block(int height, int codeSize) {
+        InvokeCode invoke = new InvokeCode();
+        invoke.code = new byte[codeSize];
+        invoke.attributes = new Attribute[0];
+        Block block = new Block();
+        block.height = height;
+        block.consensusPayload = new byte[0];
+        block.prevBlockHash = new UInt256(new byte[32]);
+        block.transactionsRoot = new UInt256(new byte[32]);
+        block.blockRoot = new UInt256(new byte[32]);
+        block.nextBookkeeper = new Address(new byte[20]);
+        block.bookkeepers = new byte[0][];
+        block.sigData = new String[0];
+        block.transactions = new Transaction[]{invoke};
+        return block;
+    }
+
+    private Block[] writeArchive(int blocks) throws Exception {
+        Block[] written = new Block[blocks];
+        // a small buffer, and blocks larger than it, make the writer flush and grow
+        try (BlockWriter writer = BlockWriter.open(archive, 256)) {
+            for (int i = 0; i < blocks; i++) {
+                written[i] = block(i, i % 7 == 0 ? 1000 : 10 * i);
+                if (i % 2 == 0) {
+                    writer.write(written[i]);
+                } else {
+                    writer.writeHex(Helper.toHexString(written[i].toArray()));
+                }
+            }
+            assertEquals(blocks, writer.count());
+        }
+        return written;
+    }
+
+    private void readBack(BlockReader reader, Block[] written) throws Exception {
+        try (BlockReader r = reader) {
+            for (Block expected : written) {
+                assertTrue(r.next());
+                BlockView view = r.view();
+                assertEquals(expected.height, view.getHeight());
+                assertEquals(expected.hash(), view.hash());
+                assertEquals(expected.transactions[0].hash(), view.getTransactionHash(0));
+                assertArrayEquals(expected.toArray(), r.block().toArray());
+                assertEquals(r.length(), r.record().remaining());
+            }
+            assertFalse(r.next());
+            assertEquals(written.length, r.count());
+        }
+    }
+
+    @Test
+    public void channelRoundTrip() throws Exception {
+        Block[] written = writeArchive(40);
+        readBack(BlockReader.open(archive, 300), written);
+        readBack(BlockReader.open(archive), written);
+    }
+
+    @Test
+    public void mappedRoundTrip() throws Exception {
+        Block[] written = writeArchive(40);
+        readBack(BlockReader.map(archive, 300), written);
+        readBack(BlockReader.map(archive), written);
+    }
+
+    @Test
+    public void appendsToExistingArchive() throws Exception {
+        writeArchive(3);
+        try (BlockWriter writer = BlockWriter.open(archive)) {
+            writer.write(block(3, 5));
+        }
+        try (BlockReader reader = BlockReader.open(archive)) {
+            int n = 0;
+            while (reader.next()) {
+                assertEquals(n++, reader.view().getHeight());
+            }
+            assertEquals(4, n);
+        }
+    }
+
+    @Test
+    public void truncatedArchiveFails() throws Exception {
+        writeArchive(2);
+        try (RandomAccessFile file = new RandomAccessFile(archive.toFile(), "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        for (BlockReader reader : new BlockReader[]{BlockReader.open(archive), BlockReader.map(archive)}) {
+            try (BlockReader r = reader) {
+                assertTrue(r.next());
+                r.next();
+                fail();
+            } catch (EOFException e) {
+            }
+        }
+    }
+
+    @Test
+    public void prefixCutAtWindowEndFails() throws Exception {
+        writeArchive(2);
+        long complete = Files.size(archive);
+        try (RandomAccessFile file = new RandomAccessFile(archive.toFile(), "rw")) {
+            file.setLength(complete + 2);
+        }
+        // the first window ends right where the cut length prefix starts
+        for (BlockReader reader : new BlockReader[]{BlockReader.open(archive, (int) complete), BlockReader.map(archive, (int) complete)}) {
+            try (BlockReader r = reader) {
+                assertTrue(r.next());
+                assertTrue(r.next());
+                r.next();
+                fail();
+            } catch (EOFException e) {
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.ontio.core.block;
+
+import com.github.ontio.OntSdk;
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Address;
+import com.github.ontio.common.Helper;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.core.payload.DeployCode;
+import com.github.ontio.core.payload.InvokeCode;
+import com.github.ontio.core.transaction.Attribute;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.crypto.SignatureScheme;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class BlockViewTest {
+
+    private static Block block() throws Exception {
+        Account account = new Account(Helper.hexToBytes("0bc8c1f75a028672cd42c221bf81709dfc7abbbaf0d87cb6fdeaf9a20492c194"),
+                SignatureScheme.SHA256WITHECDSA);
+        InvokeCode invoke = new InvokeCode();
+        invoke.code = new byte[]{1, 2, 3};
+        invoke.attributes = new Attribute[0];
+        invoke.payer = account.getAddressU160();
+        OntSdk.getInstance().signTx(invoke, new Account[][]{{account}});
+
+        DeployCode deploy = new DeployCode();
+        deploy.code = new byte[300];
+        deploy.name = "name";
+        deploy.version = "1";
+        deploy.author = "author";
+        deploy.email = "email";
+        deploy.description = "description";
+        deploy.attributes = new Attribute[0];
+
+        Block block = new Block();
+        block.height = 7;
+        block.consensusPayload = "test".getBytes();
+        block.prevBlockHash = new UInt256(new byte[32]);
+        block.transactionsRoot = new UInt256(new byte[32]);
+        block.blockRoot = new UInt256(new byte[32]);
+        block.nextBookkeeper = new Address(new byte[20]);
+        block.bookkeepers = new byte[][]{new byte[33]};
+        block.sigData = new String[]{"123ab2"};
+        block.transactions = new Transaction[]{invoke, deploy, invoke};
+        return block;
+    }
+
+    @Test
+    public void headerAndHashesWithoutDecoding() throws Exception {
+        Block block = block();
+        byte[] data = block.toArray();
+        BlockView view = BlockView.parse(data);
+        assertEquals(7, view.getHeight());
+        assertArrayEquals(new String[]{"123ab2"}, view.header().sigData);
+        assertEquals(block.hash(), view.hash());
+        assertEquals(3, view.getTransactionCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(block.transactions[i].hash(), view.getTransactionHash(i));
+        }
+        assertEquals(1, view.indexOf(block.transactions[1].hash()));
+        assertEquals(-1, view.indexOf(new UInt256(new byte[32])));
+    }
+
+    @Test
+    public void transactionsDecodeOnAccess() throws Exception {
+        Block block = block();
+        byte[] framed = new byte[block.toArray().length + 10];
+        System.arraycopy(block.toArray(), 0, framed, 5, framed.length - 10);
+        BlockView view = BlockView.parse(framed, 5, framed.length - 10);
+        Transaction tx = view.getTransaction(1);
+        assertTrue(tx instanceof DeployCode);
+        assertEquals("description", ((DeployCode) tx).description);
+        assertSame(tx, view.getTransaction(1));
+
+        ByteBuffer bytes = view.getTransactionBytes(0);
+        byte[] raw = new byte[bytes.remaining()];
+        bytes.get(raw);
+        assertArrayEquals(block.transactions[0].toArray(), raw);
+
+        Block decoded = view.toBlock();
+        assertEquals(block.hash(), decoded.hash());
+        assertEquals(3, decoded.transactions.length);
+    }
+}
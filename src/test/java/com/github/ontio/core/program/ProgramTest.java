@@ -0,0 +1,57 @@
+package com.github.ontio.core.program;
+
+import com.github.ontio.account.Account;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.io.ByteBufferReader;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ProgramTest {
+
+    @Test
+    public void paramInfo() throws Exception {
+        byte[][] params = {new byte[65], new byte[3], new byte[200]};
+        params[0][0] = 1;
+        byte[][] parsed = Program.getParamInfo(Program.ProgramFromParams(params));
+        assertEquals(3, parsed.length);
+        for (byte[] param : params) {
+            assertTrue(Arrays.stream(parsed).anyMatch(p -> Arrays.equals(p, param)));
+        }
+        // a push cut short at the end is dropped
+        byte[] script = Program.ProgramFromParams(new byte[][]{new byte[4]});
+        byte[] truncated = Arrays.copyOf(script, script.length + 3);
+        truncated[script.length] = 10;
+        assertEquals(1, Program.getParamInfo(truncated).length);
+        assertEquals(0, Program.getParamInfo(new byte[0]).length);
+    }
+
+    @Test
+    public void programInfo() throws Exception {
+        Account a = new Account(SignatureScheme.SHA256WITHECDSA);
+        Account b = new Account(SignatureScheme.SHA256WITHECDSA);
+        ProgramInfo single = Program.getProgramInfo(Program.ProgramFromPubKey(a.serializePublicKey()));
+        assertEquals(1, single.m);
+        assertArrayEquals(a.serializePublicKey(), single.publicKey[0]);
+
+        ProgramInfo multi = Program.getProgramInfo(Program.ProgramFromMultiPubKey(2, a.serializePublicKey(), b.serializePublicKey()));
+        assertEquals(2, multi.m);
+        assertEquals(2, multi.publicKey.length);
+    }
+
+    @Test
+    public void rawPublicKeys() throws Exception {
+        Account a = new Account(SignatureScheme.SHA256WITHECDSA);
+        byte[] key = a.serializePublicKey();
+        assertArrayEquals(key, new ByteBufferReader(key).readECPointBytes());
+        assertArrayEquals(key, new ByteBufferReader(key).readECPoint().getEncoded(true));
+        try {
+            new ByteBufferReader(new byte[]{5, 1}).readECPointBytes();
+            fail();
+        } catch (IOException e) {
+        }
+    }
+}
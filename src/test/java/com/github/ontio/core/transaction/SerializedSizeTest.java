@@ -0,0 +1,125 @@
+package com.github.ontio.core.transaction;
+
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Address;
+import com.github.ontio.core.asset.Sig;
+import com.github.ontio.core.block.Block;
+import com.github.ontio.core.payload.Bookkeeping;
+import com.github.ontio.core.payload.DeployCode;
+import com.github.ontio.core.payload.InvokeCode;
+import com.github.ontio.core.payload.InvokeWasmCode;
+import com.github.ontio.common.UInt256;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.io.BinaryWriter;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class SerializedSizeTest {
+
+    private static byte[] streamed(Transaction tx) throws IOException {
+        ByteArrayOutputStream ms = new ByteArrayOutputStream();
+        BinaryWriter writer = new BinaryWriter(ms);
+        tx.serializeUnsigned(writer);
+        writer.writeSerializableArray(tx.sigs);
+        writer.flush();
+        return ms.toByteArray();
+    }
+
+    private static Sig[] sigs() throws Exception {
+        Account a = new Account(SignatureScheme.SHA256WITHECDSA);
+        Account b = new Account(SignatureScheme.SHA256WITHECDSA);
+        Sig single = new Sig();
+        single.M = 1;
+        single.pubKeys = new byte[][]{a.serializePublicKey()};
+        single.sigData = new byte[][]{new byte[65]};
+        Sig multi = new Sig();
+        multi.M = 2;
+        multi.pubKeys = new byte[][]{a.serializePublicKey(), b.serializePublicKey()};
+        multi.sigData = new byte[][]{new byte[65], new byte[65]};
+        return new Sig[]{single, multi};
+    }
+
+    private static void check(Transaction tx) throws IOException {
+        byte[] expected = streamed(tx);
+        assertEquals(expected.length, tx.serializedSize());
+        assertArrayEquals(expected, tx.toArray());
+        byte[] decoded = Transaction.deserializeFrom(expected).toArray();
+        assertArrayEquals(expected, decoded);
+    }
+
+    @Test
+    public void exactForPayloads() throws Exception {
+        Attribute attribute = new Attribute();
+        attribute.usage = AttributeUsage.Nonce;
+        attribute.data = new byte[200];
+
+        InvokeCode invoke = new InvokeCode();
+        invoke.code = new byte[0x1234];
+        invoke.attributes = new Attribute[]{attribute};
+        invoke.sigs = sigs();
+        check(invoke);
+
+        InvokeWasmCode wasm = new InvokeWasmCode(new byte[10]);
+        wasm.attributes = new Attribute[0];
+        check(wasm);
+
+        DeployCode deploy = new DeployCode();
+        deploy.code = new byte[100];
+        deploy.name = "néme";
+        deploy.version = "中文";
+        deploy.author = "a😀";
+        deploy.email = "";
+        deploy.description = "d";
+        deploy.attributes = new Attribute[0];
+        deploy.sigs = sigs();
+        check(deploy);
+
+        Bookkeeping bookkeeping = new Bookkeeping();
+        bookkeeping.attributes = new Attribute[0];
+        check(bookkeeping);
+    }
+
+    @Test
+    public void unsignedBytesFollowChanges() throws Exception {
+        InvokeCode tx = new InvokeCode();
+        tx.code = new byte[]{1};
+        tx.attributes = new Attribute[0];
+        byte[] first = tx.getHashData();
+        first[first.length - 2] = 9;
+        assertArrayEquals(streamed(tx), tx.toArray());
+        tx.gasPrice = 500;
+        tx.code[0] = 2;
+        tx.sigs = sigs();
+        assertArrayEquals(streamed(tx), tx.toArray());
+        assertEquals(tx.unsignedSize(), tx.getHashData().length);
+    }
+
+    @Test
+    public void exactForBlocks() throws Exception {
+        Block block = new Block();
+        block.prevBlockHash = new UInt256();
+        block.transactionsRoot = new UInt256();
+        block.blockRoot = new UInt256();
+        block.consensusPayload = new byte[10];
+        block.nextBookkeeper = new Address();
+        block.bookkeepers = new byte[][]{new byte[33]};
+        block.sigData = new String[]{"0102"};
+        InvokeCode tx = new InvokeCode();
+        tx.code = new byte[]{1};
+        tx.attributes = new Attribute[0];
+        tx.sigs = sigs();
+        block.transactions = new Transaction[]{tx, tx};
+
+        ByteArrayOutputStream ms = new ByteArrayOutputStream();
+        BinaryWriter writer = new BinaryWriter(ms);
+        block.serialize(writer);
+        writer.flush();
+        assertEquals(ms.size(), block.serializedSize());
+        assertArrayEquals(ms.toByteArray(), block.toArray());
+        assertEquals(block.unsignedSize(), block.getHashData().length);
+    }
+}
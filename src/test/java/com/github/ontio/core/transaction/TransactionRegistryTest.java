@@ -0,0 +1,63 @@
+package com.github.ontio.core.transaction;
+
+import com.github.ontio.core.payload.DeployCode;
+import com.github.ontio.core.payload.InvokeCode;
+import com.github.ontio.io.ByteBufferReader;
+import com.github.ontio.io.ByteBufferWriter;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class TransactionRegistryTest {
+
+    static class TaggedInvokeCode extends InvokeCode {
+    }
+
+    private static InvokeCode invokeCode() {
+        InvokeCode tx = new InvokeCode();
+        tx.code = new byte[]{1, 2, 3};
+        tx.attributes = new Attribute[0];
+        return tx;
+    }
+
+    @Test
+    public void decodesByType() throws IOException {
+        InvokeCode tx = invokeCode();
+        Transaction decoded = Transaction.deserializeFrom(tx.toArray());
+        assertTrue(decoded instanceof InvokeCode);
+        assertArrayEquals(tx.code, ((InvokeCode) decoded).code);
+        assertEquals(tx.hash(), decoded.hash());
+        assertTrue(TransactionRegistry.isRegistered(TransactionType.DeployCode));
+        assertTrue(TransactionRegistry.create(TransactionType.DeployCode) instanceof DeployCode);
+    }
+
+    @Test
+    public void customPayloadReplacesFactory() throws IOException {
+        TransactionRegistry.register(TransactionType.InvokeCode, TaggedInvokeCode::new);
+        try {
+            assertTrue(Transaction.deserializeFrom(invokeCode().toArray()) instanceof TaggedInvokeCode);
+        } finally {
+            TransactionRegistry.register(TransactionType.InvokeCode, InvokeCode::new);
+        }
+    }
+
+    @Test
+    public void unsupportedTypeFails() {
+        try {
+            TransactionRegistry.create(TransactionType.Claim);
+            fail();
+        } catch (IOException e) {
+        }
+    }
+
+    @Test
+    public void readsTransactionArrays() throws Exception {
+        ByteBufferWriter writer = new ByteBufferWriter();
+        writer.writeSerializableArray(new Transaction[]{invokeCode(), invokeCode()});
+        Transaction[] txs = new ByteBufferReader(writer.toArray()).readSerializableArray(Transaction.class);
+        assertEquals(2, txs.length);
+        assertTrue(txs[1] instanceof InvokeCode);
+    }
+}
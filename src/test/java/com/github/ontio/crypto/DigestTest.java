@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.crypto;
+
+import com.github.ontio.common.Address;
+import com.github.ontio.common.UInt256;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class DigestTest {
+
+    private static byte[] sha256(byte[] value) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(value);
+    }
+
+    @Test
+    public void variantsMatchPlainDigests() throws Exception {
+        byte[] data = new byte[300];
+        new Random(1).nextBytes(data);
+        byte[] part = Arrays.copyOfRange(data, 7, 207);
+        byte[] hash256 = sha256(sha256(part));
+
+        assertArrayEquals(sha256(part), Digest.sha256(data, 7, 200));
+        assertArrayEquals(hash256, Digest.hash256(data, 7, 200));
+        assertArrayEquals(hash256, Digest.hash256(part));
+        byte[] out = new byte[40];
+        Digest.hash256(data, 7, 200, out, 8);
+        assertArrayEquals(hash256, Arrays.copyOfRange(out, 8, 40));
+
+        ByteBuffer buffer = ByteBuffer.wrap(data, 7, 200);
+        assertArrayEquals(hash256, Digest.hash256(buffer));
+        assertArrayEquals(sha256(part), Digest.sha256(buffer.asReadOnlyBuffer()));
+        assertEquals(7, buffer.position());
+
+        byte[] hash160 = Digest.ripemd160(sha256(part));
+        assertArrayEquals(hash160, Digest.hash160(data, 7, 200));
+        assertArrayEquals(hash160, Digest.hash160(part));
+    }
+
+    @Test
+    public void outputMayOverlapInput() throws Exception {
+        byte[] data = new byte[64];
+        new Random(2).nextBytes(data);
+        byte[] expected = sha256(sha256(data));
+        Digest.hash256(data, 0, 64, data, 0);
+        assertArrayEquals(expected, Arrays.copyOf(data, 32));
+    }
+
+    @Test
+    public void badBoundsLeaveNoState() throws Exception {
+        byte[] data = {1, 2, 3};
+        try {
+            Digest.hash256(data, 0, 3, new byte[16], 0);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        try {
+            Digest.ripemd160(data, 2, 5);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+        }
+        assertArrayEquals(sha256(sha256(data)), Digest.hash256(data));
+        assertArrayEquals(Digest.ripemd160(sha256(data)), Digest.hash160(data));
+    }
+
+    @Test
+    public void merkleRootPairsLevels() throws Exception {
+        for (int n = 1; n <= 9; n++) {
+            UInt256[] leaves = new UInt256[n];
+            byte[][] level = new byte[n][];
+            for (int i = 0; i < n; i++) {
+                leaves[i] = new UInt256(sha256(new byte[]{(byte) i}));
+                level[i] = leaves[i].toArray();
+            }
+            while (level.length > 1) {
+                byte[][] next = new byte[(level.length + 1) / 2][];
+                for (int i = 0; i < next.length; i++) {
+                    byte[] left = level[2 * i];
+                    byte[] right = 2 * i + 1 < level.length ? level[2 * i + 1] : left;
+                    byte[] pair = new byte[64];
+                    System.arraycopy(left, 0, pair, 0, 32);
+                    System.arraycopy(right, 0, pair, 32, 32);
+                    next[i] = sha256(sha256(pair));
+                }
+                level = next;
+            }
+            assertArrayEquals(level[0], MerkleTree.computeRoot(leaves).toArray());
+        }
+    }
+
+    @Test
+    public void checksumsRoundTrip() throws Exception {
+        byte[] payload = new byte[37];
+        new Random(3).nextBytes(payload);
+        String encoded = Base58.checkSumEncode(payload);
+        byte[] decoded = Base58.decodeChecked(encoded);
+        assertArrayEquals(payload, Arrays.copyOf(decoded, payload.length));
+
+        Address address = Address.toScriptHash(payload);
+        assertEquals(address, Address.decodeBase58(address.toBase58()));
+        assertEquals(address, Address.toScriptHash(Arrays.copyOf(payload, 40), 0, 37));
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.crypto;
+
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Helper;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.digests.SM3Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECFieldElement;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.util.BigIntegers;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+import static org.junit.Assert.*;
+
+public class FixedBaseSignerTest {
+
+    private static byte[] encode(BigInteger r, BigInteger s) {
+        byte[] out = new byte[64];
+        System.arraycopy(BigIntegers.asUnsignedByteArray(32, r), 0, out, 0, 32);
+        System.arraycopy(BigIntegers.asUnsignedByteArray(32, s), 0, out, 32, 32);
+        return out;
+    }
+
+    private static void update(SM3Digest digest, byte[] bytes) {
+        digest.update(bytes, 0, bytes.length);
+    }
+
+    private static void update(SM3Digest digest, ECFieldElement v) {
+        update(digest, v.getEncoded());
+    }
+
+    /**
+     * ECDSA with RFC 6979 nonces, straight from BouncyCastle without padding or blinding
+     */
+    private static byte[] plainEcdsa(BigInteger d, byte[] msg) {
+        X9ECParameters p = CustomNamedCurves.getByName("P-256");
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(d, new ECDomainParameters(p.getCurve(), p.getG(), p.getN())));
+        SHA256Digest sha = new SHA256Digest();
+        byte[] hash = new byte[32];
+        sha.update(msg, 0, msg.length);
+        sha.doFinal(hash, 0);
+        BigInteger[] rs = signer.generateSignature(hash);
+        return encode(rs[0], rs[1]);
+    }
+
+    /**
+     * SM2 by the textbook formulas, with the same deterministic nonces
+     */
+    private static byte[] plainSm2(BigInteger d, byte[] userId, byte[] msg) {
+        X9ECParameters p = CustomNamedCurves.getByName("sm2p256v1");
+        BigInteger n = p.getN();
+        ECPoint q = p.getG().multiply(d).normalize();
+        SM3Digest digest = new SM3Digest();
+        digest.update((byte) (userId.length * 8 >> 8));
+        digest.update((byte) (userId.length * 8));
+        update(digest, userId);
+        update(digest, p.getCurve().getA());
+        update(digest, p.getCurve().getB());
+        update(digest, p.getG().getAffineXCoord());
+        update(digest, p.getG().getAffineYCoord());
+        update(digest, q.getAffineXCoord());
+        update(digest, q.getAffineYCoord());
+        byte[] z = new byte[32];
+        digest.doFinal(z, 0);
+        update(digest, z);
+        update(digest, msg);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        BigInteger e = new BigInteger(1, hash);
+        HMacDSAKCalculator nonces = new HMacDSAKCalculator(new SM3Digest());
+        nonces.init(n, d, hash);
+        while (true) {
+            BigInteger k = nonces.nextK();
+            BigInteger r = e.add(p.getG().multiply(k).normalize().getAffineXCoord().toBigInteger()).mod(n);
+            if (r.signum() == 0 || r.add(k).equals(n)) {
+                continue;
+            }
+            BigInteger s = d.add(BigInteger.ONE).modInverse(n).multiply(k.subtract(r.multiply(d))).mod(n);
+            if (s.signum() != 0) {
+                return encode(r, s);
+            }
+        }
+    }
+
+    @Test
+    public void matchesRfc6979Vector() throws Exception {
+        // RFC 6979 A.2.5, P-256 with SHA-256, message "sample"
+        FixedBaseSigner signer = new FixedBaseSigner(Curve.P256.toString(),
+                new BigInteger("C9AFA9D845BA75166B5C215767B1D6934E50C3DB36E89B127B8A622B120F6721", 16));
+        byte[] sig = signer.generateSignature(SignatureScheme.SHA256WITHECDSA,
+                "sample".getBytes(StandardCharsets.UTF_8), null);
+        assertEquals(("EFD48B2AACB6A8FD1140DD9CD45E81D69D2C877B56AAF991C34D0EA84EAF3716"
+                + "F7CB1C942D657C41D436C7A1B6E29F65F3E900DBB9AFF4064DC4AB2F843ACDA8").toLowerCase(), Helper.toHexString(sig));
+    }
+
+    @Test
+    public void blindedSignaturesMatchPlainOnes() throws Exception {
+        SecureRandom random = new SecureRandom();
+        byte[] userId = "1234567812345678".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 50; i++) {
+            byte[] msg = new byte[i];
+            random.nextBytes(msg);
+            // small keys too, their padded form is as long as any other
+            BigInteger d = i % 10 == 0 ? BigInteger.valueOf(i + 1) : new BigInteger(255, random).add(BigInteger.ONE);
+            FixedBaseSigner p256 = new FixedBaseSigner(Curve.P256.toString(), d);
+            assertArrayEquals(plainEcdsa(d, msg), p256.generateSignature(SignatureScheme.SHA256WITHECDSA, msg, null));
+            FixedBaseSigner sm2 = new FixedBaseSigner(Curve.SM2P256V1.toString(), d);
+            assertArrayEquals(plainSm2(d, userId, msg), sm2.generateSignature(SignatureScheme.SM3WITHSM2, msg, userId));
+        }
+    }
+
+    @Test
+    public void padKeepsTheLengthFixed() {
+        BigInteger n = CustomNamedCurves.getByName("P-256").getN();
+        for (BigInteger k : new BigInteger[]{BigInteger.ONE, BigInteger.valueOf(12345), n.shiftRight(1), n.subtract(BigInteger.ONE)}) {
+            BigInteger padded = FixedBaseSigner.pad(k, n);
+            assertEquals(n.bitLength() + 1, padded.bitLength());
+            assertEquals(k, padded.mod(n));
+        }
+    }
+
+    @Test
+    public void signaturesVerifyAndRepeat() throws Exception {
+        byte[] msg = Digest.hash256("transaction".getBytes(StandardCharsets.UTF_8));
+        for (SignatureScheme scheme : new SignatureScheme[]{SignatureScheme.SHA256WITHECDSA, SignatureScheme.SM3WITHSM2}) {
+            Account account = new Account(scheme);
+            byte[] random = account.generateSignature(msg, scheme, null);
+            account.enableFixedBaseSigning();
+            assertTrue(account.isFixedBaseSigning());
+            byte[] first = account.generateSignature(msg, scheme, null);
+            byte[] second = account.generateSignature(msg, scheme, null);
+            assertArrayEquals(first, second);
+            assertEquals(random.length, first.length);
+
+            Account verifier = new Account(false, account.serializePublicKey());
+            assertTrue(verifier.verifySignature(msg, first));
+            assertFalse(verifier.verifySignature(Digest.hash256(msg), first));
+        }
+    }
+
+    @Test
+    public void sm2KeepsItsUserId() throws Exception {
+        Account account = new Account(SignatureScheme.SM3WITHSM2);
+        account.enableFixedBaseSigning();
+        byte[] msg = "claim".getBytes(StandardCharsets.UTF_8);
+        byte[] alice = account.generateSignature(msg, SignatureScheme.SM3WITHSM2, "alice");
+        byte[] bob = account.generateSignature(msg, SignatureScheme.SM3WITHSM2, "bob");
+        Account verifier = new Account(false, account.serializePublicKey());
+        assertTrue(verifier.verifySignature(msg, alice));
+        assertTrue(verifier.verifySignature(msg, bob));
+        assertTrue(verifier.verifySignature(msg, account.generateSignature(msg, SignatureScheme.SM3WITHSM2, "alice")));
+    }
+
+    @Test(expected = Exception.class)
+    public void needsPrivateKey() throws Exception {
+        Account account = new Account(SignatureScheme.SHA256WITHECDSA);
+        new Account(false, account.serializePublicKey()).enableFixedBaseSigning();
+    }
+}
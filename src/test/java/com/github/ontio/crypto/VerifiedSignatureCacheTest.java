@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.crypto;
+
+import com.github.ontio.account.Account;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VerifiedSignatureCacheTest {
+
+    @Test
+    public void keepsOnlySuccesses() throws Exception {
+        VerifiedSignatureCache cache = new VerifiedSignatureCache(64);
+        AtomicInteger calls = new AtomicInteger();
+        byte[] pub = {1, 2}, msg = {3}, sig = {4, 5};
+        assertTrue(cache.verify(pub, msg, sig, () -> calls.incrementAndGet() > 0));
+        assertTrue(cache.verify(pub, msg, sig, () -> calls.incrementAndGet() > 0));
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHits());
+
+        assertFalse(cache.verify(pub, msg, new byte[]{6}, () -> calls.incrementAndGet() < 0));
+        assertFalse(cache.verify(pub, msg, new byte[]{6}, () -> calls.incrementAndGet() < 0));
+        assertEquals(3, calls.get());
+        // the same bytes split differently are another entry
+        assertTrue(cache.verify(new byte[]{1}, new byte[]{2, 3}, sig, () -> calls.incrementAndGet() > 0));
+        assertEquals(4, calls.get());
+        assertEquals(2, cache.size());
+        assertEquals(0.2, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void staysBounded() throws Exception {
+        VerifiedSignatureCache cache = new VerifiedSignatureCache(32);
+        for (int i = 0; i < 1000; i++) {
+            cache.verify(new byte[]{1}, Integer.toString(i).getBytes(StandardCharsets.UTF_8), new byte[]{2}, () -> true);
+        }
+        assertTrue(cache.size() <= 32);
+        assertEquals(1000 - cache.size(), cache.getEvictions());
+    }
+
+    @Test
+    public void accountsConsultTheCache() throws Exception {
+        Account signer = new Account(SignatureScheme.SHA256WITHECDSA);
+        byte[] msg = Digest.hash256("tx".getBytes(StandardCharsets.UTF_8));
+        byte[] sig = signer.generateSignature(msg, SignatureScheme.SHA256WITHECDSA, null);
+        byte[] bad = sig.clone();
+        bad[bad.length - 1] ^= 1;
+        VerifiedSignatureCache cache = new VerifiedSignatureCache();
+        Account.setVerifiedSignatureCache(cache);
+        try {
+            Account verifier = new Account(false, signer.serializePublicKey());
+            assertTrue(verifier.verifySignature(msg, sig));
+            assertTrue(new Account(false, signer.serializePublicKey()).verifySignature(msg, sig));
+            assertFalse(verifier.verifySignature(msg, bad));
+            assertFalse(verifier.verifySignature(msg, bad));
+            assertEquals(1, cache.getHits());
+            assertEquals(3, cache.getMisses());
+        } finally {
+            Account.setVerifiedSignatureCache(null);
+        }
+    }
+}
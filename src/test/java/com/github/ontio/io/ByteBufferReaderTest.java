@@ -0,0 +1,79 @@
+package com.github.ontio.io;
+
+import com.github.ontio.common.Address;
+import com.github.ontio.common.UInt256;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ByteBufferReaderTest {
+
+    private static byte[] sample() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryWriter writer = new BinaryWriter(out);
+        writer.writeInt(-7);
+        writer.writeLong(1L << 40);
+        writer.writeShort((short) 513);
+        writer.writeVarInt(70000);
+        writer.writeVarBytes("ontology".getBytes());
+        writer.writeBoolean(true);
+        writer.write(new byte[20]);
+        writer.write(new byte[32]);
+        return out.toByteArray();
+    }
+
+    private static void check(BinaryReader reader) throws IOException {
+        assertEquals(-7, reader.readInt());
+        assertEquals(1L << 40, reader.readLong());
+        assertEquals(513, reader.readShort());
+        assertEquals(70000, reader.readVarInt());
+        assertArrayEquals("ontology".getBytes(), reader.readVarBytes());
+        assertTrue(reader.readBoolean());
+        assertEquals(new Address(), reader.readAddress());
+        assertEquals(new UInt256(), reader.readUInt256());
+    }
+
+    @Test
+    public void readsStreamFormat() throws IOException {
+        byte[] data = sample();
+        check(new ByteBufferReader(data));
+        ByteBuffer direct = ByteBuffer.allocateDirect(data.length);
+        direct.put(data).flip();
+        check(new ByteBufferReader(direct));
+        assertEquals(0, direct.position());
+    }
+
+    @Test
+    public void sliceSharesMemory() throws IOException {
+        byte[] data = sample();
+        ByteBufferReader reader = new ByteBufferReader(data);
+        reader.position(4 + 8 + 2 + 5);
+        ByteBuffer slice = reader.readVarSlice();
+        assertEquals(8, slice.remaining());
+        assertEquals('o', slice.get(0));
+        data[20] = 'O';
+        assertEquals('O', slice.get(0));
+        assertTrue(reader.readBoolean());
+    }
+
+    @Test
+    public void offsetAndLength() throws IOException {
+        byte[] data = new byte[]{9, 1, 0, 0, 0, 9};
+        ByteBufferReader reader = new ByteBufferReader(data, 1, 4);
+        assertEquals(1, reader.readInt());
+        assertEquals(0, reader.available());
+        try {
+            reader.readByte();
+            fail();
+        } catch (EOFException e) {
+        }
+        reader.position(0);
+        assertTrue(Arrays.equals(new byte[]{1, 0}, reader.readBytes(2)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.ontio.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ByteBufferWriterTest {
+
+    private static void write(BinaryWriter writer) throws IOException {
+        writer.writeInt(-7);
+        writer.writeLong(1L << 40);
+        writer.writeShort((short) 513);
+        writer.writeVarInt(70000);
+        writer.writeVarString("ontology");
+        writer.writeBoolean(true);
+        writer.writeFixedString("ab", 4);
+        writer.writeDouble(1.5);
+        writer.write(new byte[1000]);
+    }
+
+    @Test
+    public void sameBytesAsStreamWriter() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryWriter stream = new BinaryWriter(out);
+        write(stream);
+        stream.flush();
+
+        ByteBufferWriter heap = new ByteBufferWriter(8, false);
+        write(heap);
+        assertArrayEquals(out.toByteArray(), heap.toArray());
+
+        ByteBufferWriter direct = new ByteBufferWriter(8, true);
+        write(direct);
+        ByteBuffer view = direct.toByteBuffer();
+        byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        assertArrayEquals(out.toByteArray(), bytes);
+    }
+
+    @Test
+    public void pooledWritersAreReused() throws IOException {
+        ByteBufferWriter first = ByteBufferWriter.pooled();
+        first.writeInt(1);
+        first.close();
+        // a second close must not put it in the pool twice
+        first.close();
+        List<ByteBufferWriter> taken = new ArrayList<>();
+        int found = 0;
+        for (int i = 0; i < 65; i++) {
+            ByteBufferWriter w = ByteBufferWriter.pooled();
+            if (w == first) {
+                found++;
+            }
+            taken.add(w);
+        }
+        assertEquals(1, found);
+        assertEquals(0, first.size());
+        for (ByteBufferWriter w : taken) {
+            w.close();
+        }
+    }
+}
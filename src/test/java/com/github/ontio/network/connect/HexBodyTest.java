@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.common.Helper;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class HexBodyTest {
+
+    @Test
+    public void writesPrefixHexAndSuffix() throws Exception {
+        Random random = new Random(3);
+        for (int size : new int[]{0, 1, 4096, 4097, 10000}) {
+            byte[] data = new byte[size];
+            random.nextBytes(data);
+            HexBody body = new HexBody("{\"Data\":\"", data, "\"}");
+            String expected = "{\"Data\":\"" + Helper.toHexString(data) + "\"}";
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            body.writeTo(out);
+            assertEquals(expected.length(), body.length());
+            assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals(expected, new String(body.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+}
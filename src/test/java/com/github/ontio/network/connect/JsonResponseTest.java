@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.alibaba.fastjson.TypeReference;
+import com.github.ontio.common.SmartCodeEvent;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JsonResponseTest {
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void bindsRpcResultToType() throws Exception {
+        String json = "{\"desc\":\"SUCCESS\",\"error\":0,\"id\":7,\"jsonrpc\":\"2.0\",\"result\":"
+                + "{\"TxHash\":\"ab\",\"State\":1,\"GasConsumed\":10000000,\"Notify\":[{\"ContractAddress\":\"0100000000000000000000000000000000000000\","
+                + "\"States\":[\"transfer\",\"AUr5QUfeBADq6BMY6Tp5yuMsUNGpsD7nLZ\",\"AQf4Mzu1YJrhz9f3aRkkwSm9n3qhXGSh4p\",5]}]}}";
+        JsonResponse<SmartCodeEvent> response = JsonResponse.read(stream(json), SmartCodeEvent.class, 1 << 20);
+
+        assertEquals(0, response.getError());
+        assertEquals("SUCCESS", response.get("desc"));
+        SmartCodeEvent event = response.getResult();
+        assertEquals("ab", event.getTxHash());
+        assertEquals(1, event.getState());
+        assertEquals(10000000L, event.getGasConsumed());
+        assertEquals("0100000000000000000000000000000000000000", event.getNotify().get(0).getContractAddress());
+        assertEquals(Arrays.asList("transfer", "AUr5QUfeBADq6BMY6Tp5yuMsUNGpsD7nLZ", "AQf4Mzu1YJrhz9f3aRkkwSm9n3qhXGSh4p", 5),
+                event.getNotify().get(0).getStates());
+    }
+
+    @Test
+    public void readsRestEnvelopeWithResultBeforeError() throws Exception {
+        String json = "{\"Action\":\"getblockbyheight\",\"Result\":\"00ff\",\"Desc\":\"SUCCESS\",\"Error\":0,\"Version\":\"1.0.0\"}";
+        JsonResponse<String> response = JsonResponse.read(stream(json), String.class, 1 << 20);
+
+        assertEquals("00ff", response.getResult());
+        assertEquals(0, response.getError());
+        Map<String, Object> map = response.toMap();
+        assertEquals("00ff", map.get("Result"));
+        assertEquals("getblockbyheight", map.get("Action"));
+    }
+
+    @Test
+    public void reportsErrorCodes() throws Exception {
+        JsonResponse<Object> rpc = JsonResponse.read(stream("{\"error\":42002,\"desc\":\"INVALID PARAMS\",\"result\":\"\"}"), Object.class, 1 << 20);
+        assertEquals(42002, rpc.getError());
+        assertTrue(rpc.toString().contains("INVALID PARAMS"));
+
+        JsonResponse<Object> neo = JsonResponse.read(stream("{\"jsonrpc\":\"2.0\",\"id\":1,\"error\":{\"code\":-100,\"message\":\"Unknown block\"}}"), Object.class, 1 << 20);
+        assertEquals(-100, neo.getError());
+        assertNull(neo.getResult());
+    }
+
+    @Test
+    public void rejectsResponseOverLimit() {
+        StringBuilder sb = new StringBuilder("{\"error\":0,\"result\":\"");
+        for (int i = 0; i < 100000; i++) {
+            sb.append("00");
+        }
+        sb.append("\"}");
+        try {
+            JsonResponse.read(stream(sb.toString()), String.class, 64 * 1024);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("exceeds"));
+        }
+    }
+
+    @Test
+    public void readsEmptyStringResultAsNull() throws Exception {
+        Type listType = new TypeReference<List<SmartCodeEvent>>() {}.getType();
+        JsonResponse<List<SmartCodeEvent>> empty = JsonResponse.read(stream("{\"error\":0,\"result\":\"\"}"), listType, 1 << 20);
+        assertEquals(0, empty.getError());
+        assertNull(empty.getResult());
+
+        JsonResponse<SmartCodeEvent> none = JsonResponse.read(stream("{\"Result\": null,\"Error\":0}"), SmartCodeEvent.class, 1 << 20);
+        assertNull(none.getResult());
+
+        JsonResponse<List<SmartCodeEvent>> failed = JsonResponse.read(stream("{\"result\":\"UNKNOWN TRANSACTION\",\"error\":44001}"), listType, 1 << 20);
+        assertEquals(44001, failed.getError());
+        assertTrue(failed.toString().contains("UNKNOWN TRANSACTION"));
+    }
+
+    @Test(expected = JsonResponse.InvalidResponseException.class)
+    public void rejectsStringResultForStructuredType() throws Exception {
+        JsonResponse.read(stream("{\"error\":0,\"result\":\"abc\"}"), SmartCodeEvent.class, 1 << 20);
+    }
+
+    @Test(expected = JsonResponse.InvalidResponseException.class)
+    public void rejectsNonJson() throws Exception {
+        JsonResponse.read(stream("<html>502 Bad Gateway</html>"), Object.class, 1 << 20);
+    }
+}
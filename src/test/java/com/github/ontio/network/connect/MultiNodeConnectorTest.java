@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.github.ontio.network.exception.RpcException;
+import com.github.ontio.network.rpc.RpcClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MultiNodeConnectorTest {
+
+    /**
+     * node stub answering getStorage with its name, getBlockHeight with height
+     */
+    static class FakeNode {
+        final String name;
+        final AtomicInteger calls = new AtomicInteger();
+        volatile int height = 100;
+        volatile boolean down;
+        volatile long delayMillis;
+        final AtomicInteger interrupted = new AtomicInteger();
+        final IConnector connector;
+
+        FakeNode(String name) {
+            this.name = name;
+            this.connector = (IConnector) Proxy.newProxyInstance(IConnector.class.getClassLoader(), new Class[]{IConnector.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getUrl":
+                                return name;
+                            case "getBlockHeight":
+                                if (down) {
+                                    throw new IOException("connection refused");
+                                }
+                                return height;
+                            case "getNodeSyncStatus":
+                                throw new UnsupportedOperationException();
+                            default:
+                                calls.incrementAndGet();
+                                if (down) {
+                                    throw new IOException("connection refused");
+                                }
+                                if (delayMillis > 0) {
+                                    try {
+                                        Thread.sleep(delayMillis);
+                                    } catch (InterruptedException e) {
+                                        interrupted.incrementAndGet();
+                                        throw new IOException("interrupted");
+                                    }
+                                }
+                                if ("bad".equals(args[args.length - 1])) {
+                                    throw new RpcException(0, "{\"error\":42002}");
+                                }
+                                return name;
+                        }
+                    });
+        }
+    }
+
+    private static MultiNodeConnector connector(FakeNode... nodes) {
+        IConnector[] connectors = Arrays.stream(nodes).map(n -> n.connector).toArray(IConnector[]::new);
+        return new MultiNodeConnector(Arrays.asList(connectors), Collections.singletonList(connectors[0]),
+                MultiNodeConnector.Routing.LEAST_OUTSTANDING, 0, 5);
+    }
+
+    @Test
+    public void readsAreSpread() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b"), c = new FakeNode("c");
+        MultiNodeConnector connector = connector(a, b, c);
+        for (int i = 0; i < 300; i++) {
+            connector.getStorage("01", "02");
+        }
+        assertEquals(100, a.calls.get());
+        assertEquals(100, b.calls.get());
+        assertEquals(100, c.calls.get());
+    }
+
+    @Test
+    public void failedReadIsRetriedOnAnotherNode() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        a.down = true;
+        MultiNodeConnector connector = connector(a, b);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("b", connector.getStorage("01", "02"));
+        }
+        assertTrue(connector.getRetries() > 0);
+        // ejected after repeated failures, so later reads go straight to b
+        assertFalse(connector.getNodes().get(0).isHealthy());
+        assertTrue(a.calls.get() < 10);
+    }
+
+    @Test
+    public void nodeErrorIsNotRetried() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        MultiNodeConnector connector = connector(a, b);
+        try {
+            connector.getStorage("01", "bad");
+            fail();
+        } catch (RpcException e) {
+            assertEquals(1, a.calls.get() + b.calls.get());
+        }
+    }
+
+    @Test
+    public void laggingNodeIsEjected() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        b.height = 90;
+        MultiNodeConnector connector = connector(a, b);
+        connector.checkHealth();
+        assertTrue(connector.getNodes().get(0).isHealthy());
+        assertFalse(connector.getNodes().get(1).isHealthy());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a", connector.getStorage("01", "02"));
+        }
+        b.height = 99;
+        connector.checkHealth();
+        assertTrue(connector.getNodes().get(1).isHealthy());
+    }
+
+    @Test
+    public void writesGoToWriters() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        MultiNodeConnector connector = connector(a, b);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("a", connector.sendRawTransaction("00"));
+        }
+        assertEquals(0, b.calls.get());
+    }
+
+    @Test
+    public void slowReadIsHedged() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        a.delayMillis = 5000;
+        MultiNodeConnector connector = connector(a, b);
+        HedgePolicy policy = new HedgePolicy(0.95, 10, 1.0);
+        connector.setHedgePolicy(policy);
+        long start = System.currentTimeMillis();
+        // least outstanding starts on a, the hedge goes to b
+        assertEquals("b", connector.getStorage("01", "02"));
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertEquals(1, policy.getHedgesFired());
+        assertEquals(1, policy.getHedgesWon());
+        // the losing call is cancelled
+        for (int i = 0; i < 100 && a.interrupted.get() == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, a.interrupted.get());
+        connector.close();
+    }
+
+    @Test
+    public void losingHttpRequestIsAborted() throws Exception {
+        MockWebServer slow = new MockWebServer(), fast = new MockWebServer();
+        slow.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        fast.enqueue(new MockResponse().setBody("{\"desc\":\"SUCCESS\",\"error\":0,\"id\":1,\"jsonrpc\":\"2.0\",\"result\":10}"));
+        slow.start();
+        fast.start();
+        PooledHttpTransport transport = new PooledHttpTransport(10, 10, 60000, 2000, 10000);
+        IConnector slowNode = new RpcClient(slow.url("/").toString(), transport);
+        IConnector fastNode = new RpcClient(fast.url("/").toString(), transport);
+        MultiNodeConnector connector = new MultiNodeConnector(Arrays.asList(slowNode, fastNode),
+                Collections.singletonList(slowNode), MultiNodeConnector.Routing.LEAST_OUTSTANDING, 0, 5);
+        HedgePolicy policy = new HedgePolicy(0.95, 10, 1.0);
+        connector.setHedgePolicy(policy);
+        try {
+            assertEquals(9, connector.getBlockHeight());
+            assertEquals(1, policy.getHedgesFired());
+            // the blocked read on the slow node is aborted, not left to its read timeout
+            for (int i = 0; i < 100 && transport.getLeasedConnections() > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, transport.getLeasedConnections());
+            assertTrue(connector.getNodes().get(0).isHealthy());
+        } finally {
+            connector.close();
+            transport.close();
+            slow.shutdown();
+            fast.shutdown();
+        }
+    }
+
+    @Test
+    public void fastReadIsNotHedged() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        MultiNodeConnector connector = connector(a, b);
+        HedgePolicy policy = new HedgePolicy(0.95, 1000, 1.0);
+        connector.setHedgePolicy(policy);
+        for (int i = 0; i < 20; i++) {
+            connector.getStorage("01", "02");
+        }
+        assertEquals(20, policy.getReads());
+        assertEquals(0, policy.getHedgesFired());
+        assertEquals(20, a.calls.get() + b.calls.get());
+        connector.close();
+    }
+
+    @Test
+    public void hedgeRateIsCapped() throws Exception {
+        FakeNode a = new FakeNode("a"), b = new FakeNode("b");
+        a.delayMillis = 30;
+        b.delayMillis = 30;
+        MultiNodeConnector connector = connector(a, b);
+        HedgePolicy policy = new HedgePolicy(0.5, 1, 0);
+        connector.setHedgePolicy(policy);
+        for (int i = 0; i < 20; i++) {
+            connector.getStorage("01", "02");
+        }
+        // no rate at all leaves only the initial burst
+        assertEquals(10, policy.getHedgesFired());
+        assertEquals(10, policy.getHedgesSuppressed());
+        connector.close();
+    }
+}
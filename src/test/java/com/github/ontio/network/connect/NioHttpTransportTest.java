@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.github.ontio.network.exception.RestfulException;
+import com.github.ontio.network.exception.RpcException;
+import com.github.ontio.network.rest.RestAsyncClient;
+import com.github.ontio.network.rpc.RpcAsyncClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * NioHttpTransport and the async clients on it against a local http server
+ */
+public class NioHttpTransportTest {
+
+    private MockWebServer server;
+    private NioHttpTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        transport = new NioHttpTransport(1, 10, 10, 2000, 2000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.close();
+        server.shutdown();
+    }
+
+    private String url(String path) {
+        return server.url(path).toString();
+    }
+
+    private String base() {
+        String url = url("/");
+        return url.substring(0, url.length() - 1);
+    }
+
+    private void answer(int status, String body) {
+        server.enqueue(new MockResponse().setResponseCode(status).setBody(body));
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("request did not fail");
+        return null;
+    }
+
+    @Test
+    public void postSendsBodyAndHeaders() throws Exception {
+        answer(200, "{\"ok\":true}");
+        String body = transport.post(url("/rpc"), Collections.singletonMap("X-Test", "1"), "{\"a\":1}")
+                .get(5, TimeUnit.SECONDS);
+        assertEquals("{\"ok\":true}", body);
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/rpc", request.getPath());
+        assertEquals("1", request.getHeader("X-Test"));
+        assertEquals("{\"a\":1}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void errorStatusFailsWithIOException() throws Exception {
+        answer(503, "busy");
+        assertTrue(failure(transport.get(url("/api"))) instanceof IOException);
+    }
+
+    @Test
+    public void refusedConnectionFailsWithIOException() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        assertTrue(failure(transport.get("http://127.0.0.1:" + port + "/")) instanceof IOException);
+    }
+
+    @Test
+    public void reactorThreadsDoNotKeepTheJvmAlive() throws Exception {
+        answer(200, "");
+        transport.get(url("/")).get(5, TimeUnit.SECONDS);
+        boolean found = false;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().startsWith("nio-http-")) {
+                found = true;
+                assertTrue(t.getName(), t.isDaemon());
+            }
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void rpcClient() throws Exception {
+        RpcAsyncClient client = new RpcAsyncClient(url("/"), transport);
+        answer(200, "{\"desc\":\"SUCCESS\",\"error\":0,\"id\":1,\"jsonrpc\":\"2.0\",\"result\":10}");
+        assertEquals(9, (int) client.getBlockHeight().get(5, TimeUnit.SECONDS));
+        JSONObject request = JSON.parseObject(server.takeRequest().getBody().readUtf8());
+        assertEquals("getblockcount", request.getString("method"));
+
+        answer(200, "{\"desc\":\"INVALID PARAMS\",\"error\":42001,\"id\":2,\"jsonrpc\":\"2.0\",\"result\":\"\"}");
+        Throwable error = failure(client.getBlockHeight());
+        assertTrue(error instanceof RpcException);
+        assertTrue(error.getMessage().contains("42001"));
+
+        answer(500, "internal error");
+        error = failure(client.getBlockHeight());
+        assertTrue(error instanceof RpcException);
+        assertTrue(error.getCause() instanceof IOException);
+
+        answer(200, "<html>not json</html>");
+        assertTrue(failure(client.getBlockHeight()) instanceof RpcException);
+    }
+
+    @Test
+    public void restClient() throws Exception {
+        RestAsyncClient client = new RestAsyncClient(base(), transport);
+        answer(200, "{\"Action\":\"getblockheight\",\"Desc\":\"SUCCESS\",\"Error\":0,\"Result\":10,\"Version\":\"1.0.0\"}");
+        assertEquals(10, (int) client.getBlockHeight().get(5, TimeUnit.SECONDS));
+        assertEquals("/api/v1/block/height", server.takeRequest().getPath());
+
+        answer(200, "{\"Action\":\"getblockheight\",\"Desc\":\"INTERNAL ERROR\",\"Error\":45001,\"Result\":\"\",\"Version\":\"1.0.0\"}");
+        Throwable error = failure(client.getBlockHeight());
+        assertTrue(error instanceof RestfulException);
+        assertTrue(error.getMessage().contains("45001"));
+
+        answer(404, "not found");
+        error = failure(client.getBlockHeight());
+        assertTrue(error instanceof RestfulException);
+        assertTrue(error.getCause() instanceof IOException);
+
+        answer(200, "<html>not json</html>");
+        assertTrue(failure(client.getBlockHeight()) instanceof RestfulException);
+    }
+}
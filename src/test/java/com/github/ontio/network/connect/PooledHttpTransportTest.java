@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.connect;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * PooledHttpTransport against a local http server
+ */
+public class PooledHttpTransportTest {
+
+    private MockWebServer server;
+    private PooledHttpTransport transport;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        transport = new PooledHttpTransport(10, 2, 60000, 2000, 2000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        transport.close();
+        server.shutdown();
+    }
+
+    private String url(String path) {
+        return server.url(path).toString();
+    }
+
+    private void answer(int status, String body) {
+        server.enqueue(new MockResponse().setResponseCode(status).setBody(body));
+    }
+
+    @Test
+    public void connectionIsReused() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            answer(200, "answer" + i);
+        }
+        assertEquals("answer0", transport.get(url("/a")));
+        assertEquals("answer1", transport.post(url("/b"), Collections.singletonMap("X-Test", "1"), "{\"a\":1}"));
+        // a reader that stops early still leaves the connection usable
+        assertEquals("a", transport.get(url("/c"), in -> (char) in.read() + ""));
+        answer(200, "answer3");
+        assertEquals("answer3", transport.get(url("/d")));
+        // the sequence number counts requests on one connection
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, server.takeRequest().getSequenceNumber());
+        }
+        assertEquals(0, transport.getLeasedConnections());
+        assertEquals(1, transport.getAvailableConnections());
+    }
+
+    @Test
+    public void postSendsBodyAndHeaders() throws Exception {
+        answer(200, "{\"ok\":true}");
+        assertEquals("{\"ok\":true}", transport.post(url("/rpc"), Collections.singletonMap("X-Test", "1"), "{\"a\":1}"));
+        RecordedRequest request = server.takeRequest();
+        assertEquals("POST", request.getMethod());
+        assertEquals("/rpc", request.getPath());
+        assertEquals("1", request.getHeader("X-Test"));
+        assertEquals("{\"a\":1}", request.getBody().readUtf8());
+    }
+
+    @Test
+    public void errorStatusFailsWithIOException() throws Exception {
+        answer(503, "busy");
+        answer(404, "not found");
+        answer(200, "ok");
+        try {
+            transport.get(url("/"));
+            fail("503 did not fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("503"));
+        }
+        try {
+            transport.get(url("/"), in -> {
+                fail("the reader got an error response");
+                return null;
+            });
+            fail("404 did not fail");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("404"));
+        }
+        // the error bodies were drained, the connection is still good
+        assertEquals("ok", transport.get(url("/")));
+        assertEquals(0, server.takeRequest().getSequenceNumber());
+        assertEquals(1, server.takeRequest().getSequenceNumber());
+        assertEquals(2, server.takeRequest().getSequenceNumber());
+        assertEquals(0, transport.getLeasedConnections());
+    }
+
+    @Test
+    public void droppedConnectionFailsWithIOException() throws Exception {
+        // enough for the retries of the client as well
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        }
+        try {
+            transport.post(url("/rpc"), null, "{}");
+            fail("dropped connection did not fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(0, transport.getLeasedConnections());
+    }
+
+    @Test
+    public void refusedConnectionFailsWithIOException() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        try {
+            transport.get("http://127.0.0.1:" + port + "/");
+            fail("refused connection did not fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(0, transport.getLeasedConnections());
+    }
+}
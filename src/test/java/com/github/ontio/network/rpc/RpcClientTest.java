@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.rpc;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.github.ontio.common.SmartCodeEvent;
+import com.github.ontio.network.connect.AsyncHttpTransport;
+import com.github.ontio.network.connect.HttpTransport;
+import com.github.ontio.network.connect.JsonResponse;
+import com.github.ontio.network.exception.RpcException;
+import com.github.ontio.network.rest.RestClient;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+
+public class RpcClientTest {
+
+    /**
+     * answers batches in reverse order, keys starting with "bad" get an error
+     */
+    static class StubTransport implements HttpTransport {
+        int posts;
+        boolean batchSupported = true;
+
+        @Override
+        public String get(String url) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String post(String url, Map<String, String> header, String body) throws IOException {
+            posts++;
+            Object request = JSON.parse(body);
+            if (!(request instanceof JSONArray)) {
+                return JSON.toJSONString(answer((Map) request));
+            }
+            if (!batchSupported) {
+                return "{\"desc\":\"INVALID PARAMS\",\"error\":42001,\"id\":null,\"jsonrpc\":\"2.0\",\"result\":\"\"}";
+            }
+            List<Object> responses = new ArrayList<>();
+            for (Object o : (JSONArray) request) {
+                responses.add(0, answer((Map) o));
+            }
+            return JSON.toJSONString(responses);
+        }
+
+        @Override
+        public String delete(String url, String body) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        private Map answer(Map request) {
+            String key = (String) ((List) request.get("params")).get(1);
+            Map response = new HashMap();
+            response.put("jsonrpc", "2.0");
+            response.put("id", request.get("id"));
+            if (key.startsWith("bad")) {
+                response.put("error", 42002);
+                response.put("desc", "INVALID PARAMS");
+                response.put("result", "");
+            } else {
+                response.put("error", 0);
+                response.put("desc", "SUCCESS");
+                response.put("result", "value-" + key);
+            }
+            return response;
+        }
+    }
+
+    private static List<RpcCall> storageCalls(String... keys) {
+        List<RpcCall> calls = new ArrayList<>();
+        for (String key : keys) {
+            calls.add(new RpcCall("getstorage", "0100000000000000000000000000000000000000", key));
+        }
+        return calls;
+    }
+
+    @Test
+    public void callBatchMatchesResultsById() throws Exception {
+        StubTransport transport = new StubTransport();
+        RpcClient client = new RpcClient("http://127.0.0.1:20336", transport);
+        List<RpcCall> calls = client.callBatch(storageCalls("01", "02", "bad03", "04"));
+
+        assertEquals(1, transport.posts);
+        assertEquals("value-01", calls.get(0).get());
+        assertEquals("value-02", calls.get(1).get());
+        assertEquals("value-04", calls.get(3).get());
+        assertFalse(calls.get(2).isSuccess());
+        assertEquals(42002, ((RpcException) calls.get(2).error).code);
+    }
+
+    @Test
+    public void callBatchSplitsByBatchSize() throws Exception {
+        StubTransport transport = new StubTransport();
+        RpcClient client = new RpcClient("http://127.0.0.1:20336", transport);
+        client.setBatchSize(2);
+        List<RpcCall> calls = client.callBatch(storageCalls("01", "02", "03", "04", "05"));
+
+        assertEquals(3, transport.posts);
+        for (int i = 0; i < calls.size(); i++) {
+            assertEquals("value-0" + (i + 1), calls.get(i).get());
+        }
+    }
+
+    @Test
+    public void callBatchFallsBackWithoutBatchSupport() throws Exception {
+        StubTransport transport = new StubTransport();
+        transport.batchSupported = false;
+        RpcClient client = new RpcClient("http://127.0.0.1:20336", transport);
+        List<RpcCall> calls = client.callBatch(storageCalls("01", "bad02"));
+
+        assertEquals(3, transport.posts);
+        assertEquals("value-01", calls.get(0).get());
+        assertFalse(calls.get(1).isSuccess());
+    }
+
+    @Test
+    public void callBatchRejectsTruncatedAnswer() throws Exception {
+        HttpTransport transport = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) {
+                return "[{\"desc\":\"SUCCESS\",\"error\":0,\"id\":1,\"res";
+            }
+        };
+        try {
+            new RpcClient("http://127.0.0.1:20336", transport).callBatch(storageCalls("01", "02"));
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.getMessage().contains("invalid response"));
+        }
+    }
+
+    @Test
+    public void callBatchKeepsTheConnectionFailure() throws Exception {
+        IOException reset = new IOException("connection reset");
+        HttpTransport down = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) throws IOException {
+                throw reset;
+            }
+        };
+        try {
+            new RpcClient("http://127.0.0.1:20336", down).callBatch(storageCalls("01", "02"));
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.getMessage().contains("58403"));
+            assertSame(reset, e.getCause());
+        }
+    }
+
+    @Test
+    public void callKeepsTheCause() throws Exception {
+        IOException reset = new IOException("connection reset");
+        HttpTransport down = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) throws IOException {
+                throw reset;
+            }
+        };
+        try {
+            new Interfaces("http://127.0.0.1:20336", down).call("getblockcount");
+            fail();
+        } catch (RpcException e) {
+            assertSame(reset, e.getCause());
+        }
+        HttpTransport proxy = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) {
+                return "<html>502 Bad Gateway</html>";
+            }
+        };
+        try {
+            new Interfaces("http://127.0.0.1:20336", proxy).call("getblockcount");
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.getCause() instanceof JsonResponse.InvalidResponseException);
+        }
+    }
+
+    @Test
+    public void sendRawTransactionStreamsHex() throws Exception {
+        List<String> bodies = new ArrayList<>();
+        HttpTransport transport = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) {
+                bodies.add(body);
+                Map request = JSON.parseObject(body, Map.class);
+                return "{\"desc\":\"SUCCESS\",\"error\":0,\"id\":" + request.get("id") + ",\"jsonrpc\":\"2.0\",\"result\":\"ok\"}";
+            }
+        };
+        RpcClient client = new RpcClient("http://127.0.0.1:20336", transport);
+        byte[] tx = new byte[5000];
+        tx[4999] = (byte) 0xab;
+        assertEquals("ok", client.sendRawTransaction(false, null, tx));
+        assertEquals("ok", client.sendRawTransaction(true, null, tx));
+        Map plain = JSON.parseObject(bodies.get(0), Map.class);
+        assertEquals("sendrawtransaction", plain.get("method"));
+        assertEquals(Collections.singletonList(com.github.ontio.common.Helper.toHexString(tx)), plain.get("params"));
+        List preExec = (List) JSON.parseObject(bodies.get(1), Map.class).get("params");
+        assertEquals(2, preExec.size());
+        assertEquals(1, preExec.get(1));
+    }
+
+    @Test
+    public void getSmartCodeEventsBindsTypedEvents() throws Exception {
+        HttpTransport transport = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) {
+                Map request = JSON.parseObject(body, Map.class);
+                if ("bad".equals(((List) request.get("params")).get(0))) {
+                    return "{\"desc\":\"UNKNOWN TRANSACTION\",\"error\":44001,\"id\":" + request.get("id") + ",\"jsonrpc\":\"2.0\",\"result\":\"\"}";
+                }
+                return "{\"desc\":\"SUCCESS\",\"error\":0,\"id\":" + request.get("id") + ",\"jsonrpc\":\"2.0\",\"result\":"
+                        + "[{\"TxHash\":\"01\",\"State\":1,\"GasConsumed\":0,\"Notify\":[]},"
+                        + "{\"TxHash\":\"02\",\"State\":0,\"GasConsumed\":500,\"Notify\":[{\"ContractAddress\":\"02\",\"States\":[\"x\"]}]}]}";
+            }
+        };
+        RpcClient client = new RpcClient("http://127.0.0.1:20336", transport);
+        List<SmartCodeEvent> events = client.getSmartCodeEvents(100);
+        assertEquals(2, events.size());
+        assertEquals("02", events.get(1).getTxHash());
+        assertEquals(500, events.get(1).getGasConsumed());
+        assertEquals("02", events.get(1).getNotify().get(0).getContractAddress());
+        try {
+            client.getSmartCodeEventInfo("bad");
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.getMessage().contains("44001"));
+        }
+    }
+
+    @Test
+    public void emptyEventResultIsNoEvents() throws Exception {
+        HttpTransport transport = new StubTransport() {
+            @Override
+            public String get(String url) {
+                return "{\"Action\":\"getsmartcodeeventbyheight\",\"Desc\":\"SUCCESS\",\"Error\":0,\"Result\":\"\",\"Version\":\"1.0.0\"}";
+            }
+
+            @Override
+            public String post(String url, Map<String, String> header, String body) {
+                Map request = JSON.parseObject(body, Map.class);
+                return "{\"desc\":\"SUCCESS\",\"error\":0,\"id\":" + request.get("id") + ",\"jsonrpc\":\"2.0\",\"result\":\"\"}";
+            }
+        };
+        assertTrue(new RpcClient("http://127.0.0.1:20336", transport).getSmartCodeEvents(5).isEmpty());
+        assertTrue(new RestClient("http://127.0.0.1:20334", transport).getSmartCodeEvents(5).isEmpty());
+    }
+
+    @Test
+    public void asyncTransportFailureKeepsCause() throws Exception {
+        IOException refused = new IOException("connection refused");
+        AsyncHttpTransport transport = new AsyncHttpTransport() {
+            @Override
+            public CompletableFuture<String> get(String url) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public CompletableFuture<String> post(String url, Map<String, String> header, String body) {
+                CompletableFuture<String> future = new CompletableFuture<>();
+                future.completeExceptionally(refused);
+                return future;
+            }
+        };
+        try {
+            new RpcAsyncClient("http://127.0.0.1:20336", transport).getBlockHeight().get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RpcException);
+            assertSame(refused, e.getCause().getCause());
+            assertTrue(e.getCause().getMessage().contains("connection refused"));
+        }
+    }
+
+    @Test
+    public void sendRawTransactionReportsFailures() throws Exception {
+        HttpTransport down = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+        try {
+            new RpcClient("http://127.0.0.1:20336", down).sendRawTransaction(false, null, new byte[10]);
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.getMessage().contains("58403"));
+            assertTrue(e.getMessage().contains("connection reset"));
+        }
+        HttpTransport proxy = new StubTransport() {
+            @Override
+            public String post(String url, Map<String, String> header, String body) {
+                return "<html>502 Bad Gateway</html>";
+            }
+        };
+        try {
+            new RpcClient("http://127.0.0.1:20336", proxy).sendRawTransaction(false, null, new byte[10]);
+            fail();
+        } catch (RpcException e) {
+            assertTrue(e.getMessage().contains("invalid response"));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.websocket;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class EventQueueTest {
+
+    private static Result event(int id) {
+        Result result = new Result();
+        result.Action = "Notify";
+        result.Id = id;
+        return result;
+    }
+
+    @Test
+    public void dropOldest() throws Exception {
+        EventQueue queue = new EventQueue(3, EventQueue.Overflow.DROP_OLDEST);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(queue.offer(event(i)));
+        }
+        assertEquals(3, queue.size());
+        assertEquals(2, queue.getDropped());
+        assertEquals(2, queue.poll().Id);
+        assertEquals(3, queue.poll().Id);
+        assertEquals(4, queue.poll().Id);
+        assertNull(queue.poll());
+    }
+
+    @Test
+    public void dropNewest() throws Exception {
+        EventQueue queue = new EventQueue(2, EventQueue.Overflow.DROP_NEWEST);
+        assertTrue(queue.offer(event(0)));
+        assertTrue(queue.offer(event(1)));
+        assertFalse(queue.offer(event(2)));
+        assertEquals(1, queue.getDropped());
+        assertEquals(3, queue.getReceived());
+        List<Result> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained, 10));
+        assertEquals(0, drained.get(0).Id);
+        assertEquals(1, drained.get(1).Id);
+    }
+
+    @Test
+    public void blockWaitsForConsumer() throws Exception {
+        EventQueue queue = new EventQueue(1, EventQueue.Overflow.BLOCK);
+        queue.offer(event(0));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Boolean> producer = executor.submit(() -> queue.offer(event(1)));
+        try {
+            producer.get(100, TimeUnit.MILLISECONDS);
+            fail("offer should wait while the queue is full");
+        } catch (TimeoutException e) {
+            // expected
+        }
+        assertEquals(0, queue.take().Id);
+        assertTrue(producer.get(1, TimeUnit.SECONDS));
+        assertEquals(1, queue.take().Id);
+        assertEquals(0, queue.getDropped());
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void manyProducersAndConsumers() throws Exception {
+        EventQueue queue = new EventQueue(64, EventQueue.Overflow.BLOCK);
+        int producers = 4, perProducer = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers + 4);
+        AtomicInteger consumed = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+        for (int c = 0; c < 4; c++) {
+            executor.execute(() -> {
+                try {
+                    while (true) {
+                        assertNotNull(queue.take());
+                        consumed.incrementAndGet();
+                        done.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int p = 0; p < producers; p++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.onEvent(event(i));
+                }
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdownNow();
+        assertEquals(producers * perProducer, consumed.get());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void dispatchPushesToListener() throws Exception {
+        EventQueue queue = new EventQueue();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch received = new CountDownLatch(10);
+        queue.dispatch(executor, result -> received.countDown());
+        for (int i = 0; i < 10; i++) {
+            queue.offer(event(i));
+        }
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void dispatchCountsListenerErrors() throws Exception {
+        EventQueue queue = new EventQueue();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch received = new CountDownLatch(4);
+        queue.dispatch(executor, result -> {
+            received.countDown();
+            if ((int) result.Id % 2 == 0) {
+                throw new IllegalStateException("listener failed");
+            }
+        });
+        for (int i = 0; i < 4; i++) {
+            queue.offer(event(i));
+        }
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && queue.getListenerErrors() < 2; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, queue.getListenerErrors());
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.network.websocket;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.github.ontio.network.exception.ConnectorException;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WebsocketClientTest {
+
+    private MockWebServer server;
+    private WebsocketClient client;
+
+    /**
+     * server side of one connection, keeps every request but the heartbeats
+     */
+    private static class Node extends WebSocketListener {
+        final CompletableFuture<WebSocket> socket = new CompletableFuture<>();
+        final BlockingQueue<JSONObject> received = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            socket.complete(webSocket);
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            JSONObject message = JSON.parseObject(text);
+            if (!"heartbeat".equals(message.getString("Action"))) {
+                received.add(message);
+            }
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason) {
+            webSocket.close(1000, null);
+        }
+
+        JSONObject next() throws InterruptedException {
+            JSONObject message = received.poll(5, TimeUnit.SECONDS);
+            assertNotNull("no request arrived", message);
+            return message;
+        }
+
+        void answer(JSONObject request, Object result) throws Exception {
+            Map<String, Object> map = new HashMap<>();
+            map.put("Action", request.getString("Action"));
+            map.put("Desc", "SUCCESS");
+            map.put("Error", 0);
+            map.put("Result", result);
+            map.put("Id", request.get("Id"));
+            map.put("Version", "1.0.0");
+            socket.get(5, TimeUnit.SECONDS).send(JSON.toJSONString(map));
+        }
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new WebsocketClient(server.url("/").toString().replaceFirst("^http", "ws"), null);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        server.shutdown();
+    }
+
+    private Node accept() {
+        Node node = new Node();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(node));
+        return node;
+    }
+
+    private static Map<String, Object> action(String action) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("Action", action);
+        map.put("Version", "1.0.0");
+        return map;
+    }
+
+    private static Throwable failure(CompletableFuture<?> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        fail("request did not fail");
+        return null;
+    }
+
+    @Test
+    public void answersReachTheirRequestInAnyOrder() throws Exception {
+        Node node = accept();
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(client.request(action("action" + i)));
+        }
+        List<JSONObject> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(node.next());
+        }
+        Collections.reverse(requests);
+        for (JSONObject request : requests) {
+            node.answer(request, "answer to " + request.getString("Action"));
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals("answer to action" + i, futures.get(i).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, client.getPendingCount());
+    }
+
+    @Test
+    public void timeoutRemovesTheRequest() throws Exception {
+        Node node = accept();
+        client.setRequestTimeout(200);
+        CompletableFuture<Object> future = client.request(action("getblockheight"));
+        node.next();
+        assertEquals(1, client.getPendingCount());
+        assertTrue(failure(future) instanceof ConnectorException);
+        assertEquals(0, client.getPendingCount());
+    }
+
+    @Test
+    public void closeFailsEveryRequestInFlight() throws Exception {
+        Node node = accept();
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(client.request(action("action" + i)));
+        }
+        for (int i = 0; i < 3; i++) {
+            node.next();
+        }
+        node.socket.get(5, TimeUnit.SECONDS).close(1001, "going away");
+        for (CompletableFuture<Object> future : futures) {
+            assertTrue(failure(future) instanceof ConnectorException);
+        }
+        assertEquals(0, client.getPendingCount());
+    }
+
+    @Test
+    public void subscriptionIsSentAgainAfterReconnect() throws Exception {
+        client.setReconnect(50, 100, 3);
+        Node first = accept();
+        Node second = accept();
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("ConstractsFilter", Collections.singletonList("0100000000000000000000000000000000000000"));
+        CompletableFuture<Object> subscribed = client.subscribe(filter);
+        JSONObject request = first.next();
+        assertEquals("subscribe", request.getString("Action"));
+        first.answer(request, "subscribed");
+        subscribed.get(5, TimeUnit.SECONDS);
+
+        first.socket.get(5, TimeUnit.SECONDS).close(1001, "restart");
+        JSONObject again = second.next();
+        assertEquals("subscribe", again.getString("Action"));
+        assertEquals(request.get("ConstractsFilter"), again.get("ConstractsFilter"));
+    }
+
+    @Test
+    public void closeStopsReconnecting() throws Exception {
+        client.setReconnect(50, 100, 3);
+        Node node = accept();
+        CompletableFuture<Object> subscribed = client.subscribe(Collections.singletonMap("SubscribeEvent", true));
+        node.answer(node.next(), "subscribed");
+        subscribed.get(5, TimeUnit.SECONDS);
+
+        client.close();
+        Thread.sleep(500);
+        assertEquals(1, server.getRequestCount());
+    }
+}
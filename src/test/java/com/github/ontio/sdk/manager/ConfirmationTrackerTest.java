@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.sdk.manager;
+
+import com.github.ontio.network.connect.IConnector;
+import com.github.ontio.network.exception.ConnectorException;
+import com.github.ontio.sdk.exception.SDKException;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConfirmationTrackerTest {
+
+    private static Map event(String hash) {
+        Map event = new HashMap();
+        event.put("TxHash", hash);
+        event.put("State", 1);
+        event.put("Notify", new ArrayList());
+        return event;
+    }
+
+    /**
+     * chain stub: the height grows by one on every height query, blocks holds the tx hashes per height
+     */
+    private static IConnector chain(Map<Integer, List<String>> blocks, AtomicInteger height, AtomicInteger queries) {
+        return (IConnector) Proxy.newProxyInstance(IConnector.class.getClassLoader(), new Class[]{IConnector.class},
+                (proxy, method, args) -> {
+                    queries.incrementAndGet();
+                    switch (method.getName()) {
+                        case "getBlockHeight":
+                            return height.incrementAndGet();
+                        case "getSmartCodeEvent":
+                            if (args[0] instanceof Integer) {
+                                List<Map> events = new ArrayList<>();
+                                for (String hash : blocks.getOrDefault(args[0], Collections.emptyList())) {
+                                    events.add(event(hash));
+                                }
+                                return events.isEmpty() ? "" : events;
+                            }
+                            for (Map.Entry<Integer, List<String>> e : blocks.entrySet()) {
+                                if (e.getKey() <= height.get() && e.getValue().contains(args[0])) {
+                                    return event((String) args[0]);
+                                }
+                            }
+                            throw new ConnectorException("UNKNOWN TRANSACTION");
+                        case "getMemPoolTxState":
+                            for (List<String> hashes : blocks.values()) {
+                                if (hashes.contains(args[0])) {
+                                    return new HashMap();
+                                }
+                            }
+                            throw new ConnectorException("UNKNOWN TRANSACTION");
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void confirmsManyHashesFromBlockEvents() throws Exception {
+        Map<Integer, List<String>> blocks = new ConcurrentHashMap<>();
+        AtomicInteger height = new AtomicInteger(100);
+        AtomicInteger queries = new AtomicInteger();
+        List<String> hashes = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String hash = String.format("%064x", i);
+            hashes.add(hash);
+            blocks.computeIfAbsent(103 + i % 5, h -> new ArrayList<>()).add(hash);
+        }
+        ConfirmationTracker tracker = new ConfirmationTracker(chain(blocks, height, queries), 10);
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (String hash : hashes) {
+            futures.add(tracker.track(hash, 10000));
+        }
+        for (int i = 0; i < hashes.size(); i++) {
+            assertEquals(hashes.get(i), ((Map) futures.get(i).get(10, TimeUnit.SECONDS)).get("TxHash"));
+        }
+        assertEquals(200, tracker.getConfirmed());
+        assertEquals(0, tracker.getPendingCount());
+        // one direct check per hash, then one query per block rather than per hash and block
+        assertTrue(tracker.getQueries() < 200 + 30);
+        tracker.close();
+    }
+
+    @Test
+    public void alreadyConfirmedAndTimeout() throws Exception {
+        Map<Integer, List<String>> blocks = new ConcurrentHashMap<>();
+        blocks.put(50, Collections.singletonList("aa"));
+        AtomicInteger height = new AtomicInteger(100);
+        ConfirmationTracker tracker = new ConfirmationTracker(chain(blocks, height, new AtomicInteger()), 10);
+
+        assertEquals("aa", ((Map) tracker.track("0xaa", 5000).get(5, TimeUnit.SECONDS)).get("TxHash"));
+        try {
+            tracker.track("bb", 100).get(5, TimeUnit.SECONDS);
+            fail("bb is never confirmed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SDKException);
+        }
+        assertEquals(1, tracker.getTimedOut());
+        assertEquals(0, tracker.getPendingCount());
+        tracker.close();
+    }
+
+    @Test
+    public void droppedTransactionFailsBeforeTimeout() throws Exception {
+        Map<Integer, List<String>> blocks = new ConcurrentHashMap<>();
+        blocks.put(110, Collections.singletonList("aa"));
+        AtomicInteger height = new AtomicInteger(100);
+        ConfirmationTracker tracker = new ConfirmationTracker(chain(blocks, height, new AtomicInteger()), 10);
+        tracker.setMempoolCheckInterval(20);
+
+        CompletableFuture<Object> kept = tracker.track("aa", 10000);
+        try {
+            tracker.track("dd", 10000).get(5, TimeUnit.SECONDS);
+            fail("dd is not in the memory pool");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause().getMessage().contains("UNKNOWN TRANSACTION"));
+        }
+        assertEquals("aa", ((Map) kept.get(5, TimeUnit.SECONDS)).get("TxHash"));
+        assertEquals(1, tracker.getDropped());
+        assertEquals(0, tracker.getTimedOut());
+        tracker.close();
+    }
+
+    @Test
+    public void mempoolLookupsPerPollAreBounded() throws Exception {
+        AtomicInteger heights = new AtomicInteger();
+        AtomicInteger lookups = new AtomicInteger();
+        IConnector connector = (IConnector) Proxy.newProxyInstance(IConnector.class.getClassLoader(), new Class[]{IConnector.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBlockHeight":
+                            return heights.incrementAndGet();
+                        case "getSmartCodeEvent":
+                            return "";
+                        case "getMemPoolTxState":
+                            lookups.incrementAndGet();
+                            throw new ConnectorException("UNKNOWN TRANSACTION");
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        ConfirmationTracker tracker = new ConfirmationTracker(connector, 5);
+        tracker.setMempoolCheckInterval(10);
+        List<CompletableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            futures.add(tracker.track(String.format("%064x", i), 20000));
+        }
+        for (CompletableFuture<Object> future : futures) {
+            try {
+                future.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause().getMessage().contains("UNKNOWN TRANSACTION"));
+            }
+        }
+        assertEquals(40, tracker.getDropped());
+        assertTrue(lookups.get() <= heights.get() * ConfirmationTracker.MEMPOOL_CHECKS_PER_POLL);
+        tracker.close();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.sdk.manager;
+
+import com.github.ontio.network.connect.IConnector;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ReadCacheTest {
+
+    /**
+     * node stub answering getStorage with key@height
+     */
+    private static IConnector node(AtomicInteger height, AtomicInteger reads) {
+        return (IConnector) Proxy.newProxyInstance(IConnector.class.getClassLoader(), new Class[]{IConnector.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getBlockHeight":
+                            return height.get();
+                        case "getStorage":
+                            reads.incrementAndGet();
+                            return args[1] + "@" + height.get();
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void entriesLiveForOneHeight() throws Exception {
+        AtomicInteger height = new AtomicInteger(10), reads = new AtomicInteger();
+        IConnector node = node(height, reads);
+        ReadCache cache = new ReadCache(node, 100, 0);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("01@10", cache.get("c", "01", () -> node.getStorage("c", "01")));
+        }
+        assertEquals(1, reads.get());
+        assertEquals(4, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        height.set(11);
+        assertEquals("01@11", cache.get("c", "01", () -> node.getStorage("c", "01")));
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void immutableEntriesSurviveNewBlocks() throws Exception {
+        AtomicInteger height = new AtomicInteger(10), reads = new AtomicInteger();
+        IConnector node = node(height, reads);
+        ReadCache cache = new ReadCache(node, 100, 0);
+        assertEquals("decimals@10", cache.getImmutable("c", "decimals", () -> node.getStorage("c", "decimals")));
+        height.set(20);
+        cache.get("c", "other", () -> node.getStorage("c", "other"));
+        assertEquals("decimals@10", cache.getImmutable("c", "decimals", () -> node.getStorage("c", "decimals")));
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() throws Exception {
+        AtomicInteger height = new AtomicInteger(10), reads = new AtomicInteger();
+        IConnector node = node(height, reads);
+        ReadCache cache = new ReadCache(node, 2, 60000);
+        cache.get("c", "a", () -> node.getStorage("c", "a"));
+        cache.get("c", "b", () -> node.getStorage("c", "b"));
+        cache.get("c", "a", () -> node.getStorage("c", "a"));
+        cache.get("c", "d", () -> node.getStorage("c", "d"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        cache.get("c", "a", () -> node.getStorage("c", "a"));
+        assertEquals(3, reads.get());
+        cache.get("c", "b", () -> node.getStorage("c", "b"));
+        assertEquals(4, reads.get());
+    }
+
+    @Test
+    public void connectMgrReadsThroughCache() throws Exception {
+        AtomicInteger height = new AtomicInteger(10), reads = new AtomicInteger();
+        IConnector node = node(height, reads);
+        ConnectMgr mgr = new ConnectMgr(node);
+        mgr.setReadCache(new ReadCache(node));
+        for (int i = 0; i < 10; i++) {
+            assertEquals("02@10", mgr.getStorage("0x01", "02"));
+        }
+        assertEquals(1, reads.get());
+        assertEquals(0.9, mgr.getReadCache().getHitRate(), 1e-9);
+    }
+}
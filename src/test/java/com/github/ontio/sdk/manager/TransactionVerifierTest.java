@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2018 The ontology Authors
+ * This file is part of The ontology library.
+ *
+ *  The ontology is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU Lesser General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  The ontology is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public License
+ *  along with The ontology.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+
+package com.github.ontio.sdk.manager;
+
+import com.github.ontio.OntSdk;
+import com.github.ontio.account.Account;
+import com.github.ontio.common.Address;
+import com.github.ontio.core.transaction.Transaction;
+import com.github.ontio.crypto.SignatureScheme;
+import com.github.ontio.smartcontract.Vm;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class TransactionVerifierTest {
+    private OntSdk ontSdk;
+    private Vm vm;
+    private Account[] accounts;
+    private int nonce;
+
+    @Before
+    public void setUp() throws Exception {
+        ontSdk = OntSdk.getInstance();
+        vm = new Vm(ontSdk);
+        accounts = new Account[]{
+                new Account(SignatureScheme.SHA256WITHECDSA),
+                new Account(SignatureScheme.SHA256WITHECDSA),
+                new Account(SignatureScheme.SM3WITHSM2)};
+    }
+
+    private Transaction newTx() throws Exception {
+        return vm.buildNativeParams(Address.parse("0100000000000000000000000000000000000000"), "init",
+                Integer.toString(nonce++).getBytes(), null, 0, 0);
+    }
+
+    private byte[][] pubKeys() {
+        byte[][] pubKeys = new byte[accounts.length][];
+        for (int i = 0; i < accounts.length; i++) {
+            pubKeys[i] = accounts[i].serializePublicKey();
+        }
+        return pubKeys;
+    }
+
+    @Test
+    public void verifiesSingleAndMultiSignatures() throws Exception {
+        Transaction single = newTx();
+        ontSdk.addSign(single, accounts[0]);
+        ontSdk.addSign(single, accounts[2]);
+        Transaction multi = newTx();
+        ontSdk.addMultiSign(multi, 2, pubKeys(), accounts[1]);
+        ontSdk.addMultiSign(multi, 2, pubKeys(), accounts[2]);
+
+        TransactionVerifier verifier = new TransactionVerifier(new ForkJoinPool(4), 16);
+        List<TransactionVerifier.Result> results = verifier.verify(Arrays.asList(single, multi));
+        assertTrue(results.get(0).isValid());
+        assertEquals(single.hash(), results.get(0).getHash());
+        assertEquals(2, results.get(0).getSigs().size());
+        TransactionVerifier.Result m = results.get(1);
+        assertTrue(m.isValid());
+        assertEquals(2, m.getSigs().get(0).getVerified());
+        for (int signer : m.getSigs().get(0).getSigners()) {
+            assertTrue(signer >= 0);
+        }
+        assertTrue(ontSdk.verifyTransaction(single));
+        assertTrue(ontSdk.verifyTransaction(multi));
+    }
+
+    @Test
+    public void reportsEachFailure() throws Exception {
+        Transaction tampered = newTx();
+        ontSdk.addSign(tampered, accounts[0]);
+        ontSdk.addSign(tampered, accounts[1]);
+        tampered.sigs[1].sigData[0][10] ^= 1;
+
+        Transaction short_ = newTx();
+        ontSdk.addMultiSign(short_, 2, pubKeys(), accounts[0]);
+
+        Transaction malformed = newTx();
+        ontSdk.addSign(malformed, accounts[0]);
+        malformed.sigs[0].pubKeys = pubKeys();
+
+        List<TransactionVerifier.Result> results = new TransactionVerifier().verify(
+                Arrays.asList(tampered, short_, malformed));
+        TransactionVerifier.Result r = results.get(0);
+        assertFalse(r.isValid());
+        assertNull(r.getError());
+        assertTrue(r.getSigs().get(0).isValid());
+        assertFalse(r.getSigs().get(1).isValid());
+        assertEquals(-1, r.getSigs().get(1).getSigners()[0]);
+
+        r = results.get(1);
+        assertFalse(r.isValid());
+        assertEquals(1, r.getSigs().get(0).getVerified());
+
+        r = results.get(2);
+        assertFalse(r.isValid());
+        assertNotNull(r.getError());
+        assertFalse(ontSdk.verifyTransaction(malformed));
+    }
+
+    @Test
+    public void decodesEachKeyOnce() throws Exception {
+        List<Transaction> txs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Transaction tx = newTx();
+            ontSdk.addSign(tx, accounts[i % accounts.length]);
+            txs.add(tx);
+        }
+        TransactionVerifier verifier = new TransactionVerifier(ForkJoinPool.commonPool(), 2);
+        for (TransactionVerifier.Result r : verifier.verify(txs)) {
+            assertTrue(r.isValid());
+        }
+        assertEquals(20, verifier.getHits() + verifier.getMisses());
+        assertEquals(2, verifier.size());
+        assertTrue(verifier.getEvictions() > 0);
+
+        verifier = new TransactionVerifier(ForkJoinPool.commonPool(), 16);
+        verifier.verify(txs);
+        assertEquals(accounts.length, verifier.getMisses());
+        assertEquals(20 - accounts.length, verifier.getHits());
+    }
+}